@@ -0,0 +1,196 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.graphics.Matrix;
+
+/**
+ * 2x3 affine transforms stored in float arrays, computed in plain Java.
+ * <p>
+ * A transform is {@link #SIZE} floats in the order of the first two rows of a {@link Matrix}:
+ * scaleX, skewX, translateX, skewY, scaleY, translateY. Unlike {@link Matrix}, composing,
+ * inverting and mapping does not cross into native code, so it is cheap enough to do for every
+ * pointer of every touch event.
+ */
+final class AffineTransform {
+
+  /**
+   * The number of floats in a transform.
+   */
+  static final int SIZE = 6;
+
+  static final int SCALE_X = 0;
+  static final int SKEW_X = 1;
+  static final int TRANS_X = 2;
+  static final int SKEW_Y = 3;
+  static final int SCALE_Y = 4;
+  static final int TRANS_Y = 5;
+
+  /**
+   * Sines and cosines smaller than this are snapped to zero, as {@link Matrix#postRotate(float,
+   * float, float)} does, so that right angle rotations are exact.
+   */
+  private static final float NEARLY_ZERO = 1f / (1 << 12);
+
+  private AffineTransform() {
+  }
+
+  /**
+   * Returns a new identity transform.
+   */
+  static float[] newIdentity() {
+    float[] transform = new float[SIZE];
+    setIdentity(transform);
+    return transform;
+  }
+
+  /**
+   * Returns whether the transform maps every point to itself.
+   */
+  static boolean isIdentity(float[] transform) {
+    return transform[SCALE_X] == 1f && transform[SKEW_X] == 0f && transform[TRANS_X] == 0f
+      && transform[SKEW_Y] == 0f && transform[SCALE_Y] == 1f && transform[TRANS_Y] == 0f;
+  }
+
+  /**
+   * Sets {@code out} to the identity transform.
+   */
+  static void setIdentity(float[] out) {
+    out[SCALE_X] = 1f;
+    out[SKEW_X] = 0f;
+    out[TRANS_X] = 0f;
+    out[SKEW_Y] = 0f;
+    out[SCALE_Y] = 1f;
+    out[TRANS_Y] = 0f;
+  }
+
+  /**
+   * Sets {@code out} to the transform of a view with the given properties: a scale around the
+   * pivot, followed by a rotation in degrees around the pivot, followed by a translation. This is
+   * the closed form of {@code reset(); postScale(); postRotate(); postTranslate()}.
+   */
+  static void setViewTransform(
+    float[] out, float scaleX, float scaleY, float pivotX, float pivotY, float rotation,
+    float translationX, float translationY) {
+    double radians = Math.toRadians(rotation);
+    float sin = snapToZero((float) Math.sin(radians));
+    float cos = snapToZero((float) Math.cos(radians));
+
+    float a = cos * scaleX;
+    float b = -sin * scaleY;
+    float d = sin * scaleX;
+    float e = cos * scaleY;
+
+    out[SCALE_X] = a;
+    out[SKEW_X] = b;
+    out[TRANS_X] = pivotX - a * pivotX - b * pivotY + translationX;
+    out[SKEW_Y] = d;
+    out[SCALE_Y] = e;
+    out[TRANS_Y] = pivotY - d * pivotX - e * pivotY + translationY;
+  }
+
+  /**
+   * Writes the inverse of {@code transform} into {@code out}, which may be the same array.
+   *
+   * @return false if the transform is not invertible, in which case {@code out} is unchanged.
+   */
+  static boolean invert(float[] transform, float[] out) {
+    float a = transform[SCALE_X];
+    float b = transform[SKEW_X];
+    float c = transform[TRANS_X];
+    float d = transform[SKEW_Y];
+    float e = transform[SCALE_Y];
+    float f = transform[TRANS_Y];
+
+    float det = a * e - b * d;
+    if (det == 0f || Float.isNaN(det) || Float.isInfinite(det)) {
+      return false;
+    }
+    float invDet = 1f / det;
+
+    out[SCALE_X] = e * invDet;
+    out[SKEW_X] = -b * invDet;
+    out[TRANS_X] = (b * f - c * e) * invDet;
+    out[SKEW_Y] = -d * invDet;
+    out[SCALE_Y] = a * invDet;
+    out[TRANS_Y] = (c * d - a * f) * invDet;
+    return true;
+  }
+
+  /**
+   * Writes {@code first} followed by {@code second} into {@code out}, which may be either input.
+   * Mapping a point through the result equals mapping it through {@code first}, then {@code
+   * second}.
+   */
+  static void concat(float[] first, float[] second, float[] out) {
+    float a = second[SCALE_X] * first[SCALE_X] + second[SKEW_X] * first[SKEW_Y];
+    float b = second[SCALE_X] * first[SKEW_X] + second[SKEW_X] * first[SCALE_Y];
+    float c = second[SCALE_X] * first[TRANS_X] + second[SKEW_X] * first[TRANS_Y]
+      + second[TRANS_X];
+    float d = second[SKEW_Y] * first[SCALE_X] + second[SCALE_Y] * first[SKEW_Y];
+    float e = second[SKEW_Y] * first[SKEW_X] + second[SCALE_Y] * first[SCALE_Y];
+    float f = second[SKEW_Y] * first[TRANS_X] + second[SCALE_Y] * first[TRANS_Y]
+      + second[TRANS_Y];
+
+    out[SCALE_X] = a;
+    out[SKEW_X] = b;
+    out[TRANS_X] = c;
+    out[SKEW_Y] = d;
+    out[SCALE_Y] = e;
+    out[TRANS_Y] = f;
+  }
+
+  /**
+   * Returns the x of the point mapped through the transform.
+   */
+  static float mapX(float[] transform, float x, float y) {
+    return transform[SCALE_X] * x + transform[SKEW_X] * y + transform[TRANS_X];
+  }
+
+  /**
+   * Returns the y of the point mapped through the transform.
+   */
+  static float mapY(float[] transform, float x, float y) {
+    return transform[SKEW_Y] * x + transform[SCALE_Y] * y + transform[TRANS_Y];
+  }
+
+  /**
+   * The number of floats in the values of a {@link Matrix}.
+   */
+  static final int MATRIX_SIZE = 9;
+
+  /**
+   * Sets the values of a {@link Matrix} to the transform.
+   *
+   * @param values {@link #MATRIX_SIZE} floats of scratch space for the values.
+   */
+  static void toMatrix(float[] transform, float[] values, Matrix out) {
+    values[Matrix.MSCALE_X] = transform[SCALE_X];
+    values[Matrix.MSKEW_X] = transform[SKEW_X];
+    values[Matrix.MTRANS_X] = transform[TRANS_X];
+    values[Matrix.MSKEW_Y] = transform[SKEW_Y];
+    values[Matrix.MSCALE_Y] = transform[SCALE_Y];
+    values[Matrix.MTRANS_Y] = transform[TRANS_Y];
+    values[Matrix.MPERSP_0] = 0f;
+    values[Matrix.MPERSP_1] = 0f;
+    values[Matrix.MPERSP_2] = 1f;
+    out.setValues(values);
+  }
+
+  private static float snapToZero(float value) {
+    return Math.abs(value) < NEARLY_ZERO ? 0f : value;
+  }
+}
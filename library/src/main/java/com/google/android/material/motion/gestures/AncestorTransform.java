@@ -0,0 +1,141 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.view.View;
+import android.view.ViewParent;
+
+import java.util.Arrays;
+
+/**
+ * The composite {@link AffineTransform} from an element's local coordinate space to the local
+ * coordinate space of one of its ancestors.
+ * <p>
+ * Each view between the element and the ancestor contributes its scale, rotation and translation
+ * around its pivot, followed by its layout position in its parent minus the parent's scroll. The
+ * properties of every view in the chain are cached, and the composite is only recomposed when the
+ * chain or one of the properties changed.
+ * <p>
+ * This class is not thread safe and must only be used on the views' thread.
+ */
+final class AncestorTransform {
+
+  /**
+   * The cached floats of each view: its {@link GestureRecognizer#TRANSFORM_SIZE transform
+   * properties} followed by its offset in its parent.
+   */
+  private static final int FLOATS_PER_VIEW = GestureRecognizer.TRANSFORM_SIZE + 2;
+
+  private static final int INITIAL_DEPTH = 8;
+
+  private View[] chain = new View[INITIAL_DEPTH];
+  private float[] properties = new float[INITIAL_DEPTH * FLOATS_PER_VIEW];
+  private int depth;
+  private boolean valid;
+
+  private final float[] level = new float[AffineTransform.SIZE];
+
+  /**
+   * Writes the transform from the element's local coordinate space to the ancestor's into {@code
+   * out}, unless it is unchanged since the last call. Callers must pass the same {@code out} every
+   * time.
+   *
+   * @return whether {@code out} was written.
+   * @throws IllegalArgumentException if {@code ancestor} is not an ancestor of {@code element}.
+   */
+  boolean update(View element, View ancestor, float[] out) {
+    boolean changed = !valid;
+    int i = 0;
+    for (View view = element; view != ancestor; i++) {
+      ViewParent parent = view.getParent();
+      if (!(parent instanceof View)) {
+        invalidate();
+        throw new IllegalArgumentException(ancestor + " is not an ancestor of " + element);
+      }
+      View parentView = (View) parent;
+
+      if (i == chain.length) {
+        chain = Arrays.copyOf(chain, i * 2);
+        properties = Arrays.copyOf(properties, i * 2 * FLOATS_PER_VIEW);
+      }
+      if (chain[i] != view) {
+        chain[i] = view;
+        changed = true;
+      }
+      changed |= store(i * FLOATS_PER_VIEW, view, parentView);
+
+      view = parentView;
+    }
+    if (i != depth) {
+      // Drop references to views that left the chain.
+      Arrays.fill(chain, i, Math.max(i, depth), null);
+      depth = i;
+      changed = true;
+    }
+
+    if (!changed) {
+      return false;
+    }
+    valid = true;
+
+    AffineTransform.setIdentity(out);
+    for (int j = 0; j < depth; j++) {
+      float[] p = properties;
+      int offset = j * FLOATS_PER_VIEW;
+      AffineTransform.setViewTransform(
+        level, p[offset], p[offset + 1], p[offset + 2], p[offset + 3], p[offset + 4],
+        p[offset + 5], p[offset + 6]);
+      level[AffineTransform.TRANS_X] += p[offset + 7];
+      level[AffineTransform.TRANS_Y] += p[offset + 8];
+      AffineTransform.concat(out, level, out);
+    }
+    return true;
+  }
+
+  /**
+   * Forgets the cached chain, so the next {@link #update(View, View, float[])} recomposes.
+   */
+  void invalidate() {
+    Arrays.fill(chain, null);
+    depth = 0;
+    valid = false;
+  }
+
+  /**
+   * Stores the properties of a view at {@code offset}. Returns whether any of them changed.
+   */
+  private boolean store(int offset, View view, View parent) {
+    boolean changed = false;
+    changed |= store(offset, view.getScaleX());
+    changed |= store(offset + 1, view.getScaleY());
+    changed |= store(offset + 2, view.getPivotX());
+    changed |= store(offset + 3, view.getPivotY());
+    changed |= store(offset + 4, view.getRotation());
+    changed |= store(offset + 5, view.getTranslationX());
+    changed |= store(offset + 6, view.getTranslationY());
+    changed |= store(offset + 7, view.getLeft() - parent.getScrollX());
+    changed |= store(offset + 8, view.getTop() - parent.getScrollY());
+    return changed;
+  }
+
+  private boolean store(int index, float value) {
+    if (properties[index] == value) {
+      return false;
+    }
+    properties[index] = value;
+    return true;
+  }
+}
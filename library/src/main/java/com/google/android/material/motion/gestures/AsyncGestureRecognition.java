@@ -0,0 +1,415 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Message;
+import android.os.SystemClock;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import android.support.v4.view.MotionEventCompat;
+import android.view.MotionEvent;
+import android.view.MotionEvent.PointerCoords;
+import android.view.MotionEvent.PointerProperties;
+import android.view.View;
+import android.view.View.OnTouchListener;
+
+import com.google.android.material.motion.gestures.GestureRecognizer.GestureRecognizerState;
+import com.google.android.material.motion.gestures.GestureRecognizer.GestureStateChangeListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs gesture recognizers on a dedicated recognition thread instead of the UI thread.
+ * <p>
+ * Set an instance of this class as the {@link OnTouchListener} of the element. On the UI thread,
+ * {@link #onTouch(View, MotionEvent)} only copies the primitive event data and the element's
+ * transform into a lock-free ring. The recognition thread rebuilds each event and feeds it to the
+ * gesture recognizers, then publishes every state change back to the UI thread in order.
+ * <p>
+ * While recognition runs off the UI thread:
+ * <ul>
+ * <li>{@link GestureStateChangeListener}s added to the gesture recognizers are called on the
+ * recognition thread. Use {@link #addStateChangeListener(AsyncStateChangeListener)} to be called
+ * on the UI thread.</li>
+ * <li>The gesture recognizers' getters may already reflect a newer event than the state
+ * published to the UI thread.</li>
+ * <li>The gesture recognizers must not be touched from other threads, e.g. {@link
+ * GestureRecognizer#reset()} them only after {@link #quit()}.</li>
+ * <li>Timeouts, e.g. of {@link LongPressGestureRecognizer}, run on the recognition thread. {@link
+ * GestureRecognizer#setMomentumEnabled(boolean) Momentum} and {@link
+ * GestureRecognizer#setFrameResamplingEnabled(boolean) frame resampling} need the UI thread's
+ * frames and are not supported.</li>
+ * </ul>
+ */
+public class AsyncGestureRecognition implements OnTouchListener {
+
+  /**
+   * The default number of events the ring can hold.
+   */
+  public static final int DEFAULT_CAPACITY = 64;
+
+  /**
+   * A listener that receives state changes on the UI thread.
+   */
+  public interface AsyncStateChangeListener {
+
+    /**
+     * Notifies every state change of a gesture recognizer, in the order they happened on the
+     * recognition thread.
+     *
+     * @param state The state the gesture recognizer changed to. Its current state may be newer.
+     */
+    void onStateChanged(GestureRecognizer gestureRecognizer, @GestureRecognizerState int state);
+  }
+
+  private static final int MSG_STATE_CHANGED = 1;
+
+  private final View element;
+  private final GestureRecognizer[] gestureRecognizers;
+  private final MotionEventRing ring;
+  private final Handler mainHandler;
+  private final List<AsyncStateChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+  /* Recognition thread only. */
+  private final PointerProperties[] properties =
+    new PointerProperties[MotionEventRing.MAX_POINTERS];
+  private final PointerCoords[] coords = new PointerCoords[MotionEventRing.MAX_POINTERS];
+  private final float[] transform = new float[GestureRecognizer.TRANSFORM_SIZE];
+  private final List<Runnable> deferred = new ArrayList<>();
+  /* Runnables posted for a later time, and the times they are posted for. */
+  private final List<Runnable> timed = new ArrayList<>();
+  private long[] timedTimes = new long[4];
+  /**
+   * Runs the deferred resets to {@link GestureRecognizer#POSSIBLE} after each event, and timeouts
+   * once the recognition thread wakes up for them. The recognition thread has no Looper, so frames
+   * are not supported.
+   */
+  @VisibleForTesting
+  final GestureScheduler scheduler = new GestureScheduler() {
+    @Override
+    public long uptimeMillis() {
+      return SystemClock.uptimeMillis();
+    }
+
+    @Override
+    public void postAtTime(Runnable runnable, long uptimeMillis) {
+      if (uptimeMillis <= uptimeMillis()) {
+        deferred.add(runnable);
+        return;
+      }
+      int count = timed.size();
+      if (count == timedTimes.length) {
+        timedTimes = Arrays.copyOf(timedTimes, count * 2);
+      }
+      timed.add(runnable);
+      timedTimes[count] = uptimeMillis;
+    }
+
+    @Override
+    public void removeCallbacks(Runnable runnable) {
+      while (deferred.remove(runnable)) {
+        // Remove every occurrence, like Handler#removeCallbacks.
+      }
+      for (int i = timed.size() - 1; i >= 0; i--) {
+        if (timed.get(i) == runnable) {
+          removeTimed(i);
+        }
+      }
+    }
+
+    @Override
+    public void postFrameCallback(FrameCallback callback) {
+      throw new IllegalStateException(
+        "Frames are not supported by asynchronous gesture recognition.");
+    }
+
+    @Override
+    public void removeFrameCallback(FrameCallback callback) {
+    }
+  };
+  /* The schedulers of the gesture recognizers before recognition started. */
+  private final GestureScheduler[] previousSchedulers;
+
+  /* UI thread only. */
+  @Nullable
+  private MotionEvent pendingCancel;
+  private boolean droppingStream;
+
+  private final AtomicBoolean sleeping = new AtomicBoolean();
+  @Nullable
+  private volatile Thread thread;
+
+  public AsyncGestureRecognition(View element, GestureRecognizer... gestureRecognizers) {
+    this(element, DEFAULT_CAPACITY, gestureRecognizers);
+  }
+
+  /**
+   * Creates an instance for the given element. Must be called on the UI thread.
+   *
+   * @param capacity The number of events that can be queued for the recognition thread. Must be
+   * a power of two.
+   */
+  public AsyncGestureRecognition(
+    View element, int capacity, GestureRecognizer... gestureRecognizers) {
+    this.element = element;
+    this.gestureRecognizers = gestureRecognizers;
+    this.ring = new MotionEventRing(capacity);
+    this.previousSchedulers = new GestureScheduler[gestureRecognizers.length];
+    this.mainHandler = new Handler(Looper.getMainLooper(), new Handler.Callback() {
+      @Override
+      public boolean handleMessage(Message msg) {
+        GestureRecognizer gestureRecognizer = gestureRecognizers[msg.arg1];
+        for (AsyncStateChangeListener listener : listeners) {
+          listener.onStateChanged(gestureRecognizer, msg.arg2);
+        }
+        return true;
+      }
+    });
+
+    for (int i = 0; i < MotionEventRing.MAX_POINTERS; i++) {
+      properties[i] = new PointerProperties();
+      coords[i] = new PointerCoords();
+    }
+
+    for (int i = 0; i < gestureRecognizers.length; i++) {
+      final int index = i;
+      GestureRecognizer gestureRecognizer = gestureRecognizers[i];
+      // Reads the element's context and view configuration, so it must happen on the UI thread.
+      gestureRecognizer.setElement(element);
+      gestureRecognizer.addStateChangeListener(new GestureStateChangeListener() {
+        @Override
+        public void onStateChanged(GestureRecognizer gestureRecognizer) {
+          mainHandler.sendMessage(
+            mainHandler.obtainMessage(MSG_STATE_CHANGED, index, gestureRecognizer.getState()));
+        }
+      });
+    }
+  }
+
+  /**
+   * Adds a listener that is called on the UI thread.
+   */
+  public void addStateChangeListener(AsyncStateChangeListener listener) {
+    if (!listeners.contains(listener)) {
+      listeners.add(listener);
+    }
+  }
+
+  /**
+   * Removes a listener.
+   */
+  public void removeStateChangeListener(AsyncStateChangeListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Starts the recognition thread.
+   *
+   * @throws IllegalStateException if one of the gesture recognizers has momentum or frame
+   * resampling enabled.
+   */
+  public void start() {
+    if (thread != null) {
+      return;
+    }
+
+    for (GestureRecognizer gestureRecognizer : gestureRecognizers) {
+      if (gestureRecognizer.isMomentumEnabled() || gestureRecognizer.isFrameResamplingEnabled()) {
+        throw new IllegalStateException(
+          "Momentum and frame resampling are not supported by asynchronous gesture recognition: "
+            + gestureRecognizer);
+      }
+    }
+
+    for (int i = 0; i < gestureRecognizers.length; i++) {
+      previousSchedulers[i] = gestureRecognizers[i].scheduler;
+      gestureRecognizers[i].setScheduler(scheduler);
+    }
+
+    Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        loop();
+      }
+    }, "GestureRecognition");
+    this.thread = thread;
+    thread.start();
+  }
+
+  /**
+   * Stops the recognition thread after it processes the events that are already queued. The
+   * gesture recognizers may be used on the UI thread again once the thread has ended.
+   */
+  public void quit() {
+    Thread thread = this.thread;
+    if (thread != null) {
+      this.thread = null;
+      LockSupport.unpark(thread);
+    }
+  }
+
+  /**
+   * Returns whether the recognition thread is running.
+   */
+  public boolean isRunning() {
+    return thread != null;
+  }
+
+  /**
+   * Queues the event for the recognition thread. Must be called on the UI thread, which never
+   * waits for the recognition thread.
+   * <p>
+   * If the ring is full, {@link MotionEvent#ACTION_MOVE} events are dropped. If any other event
+   * does not fit, the rest of its touch stream is dropped and the gesture recognizers receive an
+   * {@link MotionEvent#ACTION_CANCEL} instead, as soon as there is room for it.
+   */
+  @Override
+  public boolean onTouch(View view, MotionEvent event) {
+    int action = MotionEventCompat.getActionMasked(event);
+    if (pendingCancel != null) {
+      if (!ring.offer(pendingCancel, element)) {
+        wakeUp();
+        return true;
+      }
+      pendingCancel.recycle();
+      pendingCancel = null;
+    }
+    if (droppingStream) {
+      if (action != MotionEvent.ACTION_DOWN) {
+        return true;
+      }
+      droppingStream = false;
+    }
+
+    if (!ring.offer(event, element) && action != MotionEvent.ACTION_MOVE) {
+      droppingStream = true;
+      if (action != MotionEvent.ACTION_DOWN) {
+        // The gesture recognizers have seen the start of this stream, so it must end.
+        pendingCancel = MotionEvent.obtain(event);
+        pendingCancel.setAction(MotionEvent.ACTION_CANCEL);
+      }
+    }
+    wakeUp();
+    return true;
+  }
+
+  private void wakeUp() {
+    Thread thread = this.thread;
+    if (thread != null && sleeping.compareAndSet(true, false)) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  private void loop() {
+    Thread self = Thread.currentThread();
+    try {
+      while (true) {
+        processPendingEvents();
+
+        if (thread != self) {
+          break;
+        }
+
+        sleeping.set(true);
+        // Recheck after announcing that we sleep, so a concurrent offer is never missed.
+        if (ring.isEmpty() && thread == self) {
+          long deadline = getNextTimedTime();
+          if (deadline == Long.MAX_VALUE) {
+            LockSupport.park(this);
+          } else {
+            long delayMillis = deadline - SystemClock.uptimeMillis();
+            if (delayMillis > 0) {
+              LockSupport.parkNanos(this, delayMillis * 1000000L);
+            }
+          }
+        }
+        sleeping.set(false);
+      }
+    } finally {
+      for (int i = 0; i < gestureRecognizers.length; i++) {
+        gestureRecognizers[i].setScheduler(previousSchedulers[i]);
+        previousSchedulers[i] = null;
+        gestureRecognizers[i].setCapturedTransform(null, 0);
+      }
+    }
+  }
+
+  /**
+   * Feeds all queued events to the gesture recognizers on the calling thread, then runs the
+   * timeouts that are due.
+   */
+  void processPendingEvents() {
+    MotionEvent event;
+    while ((event = ring.poll(properties, coords, transform)) != null) {
+      for (GestureRecognizer gestureRecognizer : gestureRecognizers) {
+        gestureRecognizer.setCapturedTransform(transform, 0);
+        gestureRecognizer.onTouch(element, event);
+      }
+      event.recycle();
+
+      // Like the element's message queue, deferred runnables run after the event.
+      runDeferred();
+    }
+
+    long now = SystemClock.uptimeMillis();
+    int index;
+    while ((index = findDueTimed(now)) != -1) {
+      Runnable runnable = timed.get(index);
+      removeTimed(index);
+      runnable.run();
+      runDeferred();
+    }
+  }
+
+  private void runDeferred() {
+    while (!deferred.isEmpty()) {
+      deferred.remove(0).run();
+    }
+  }
+
+  /**
+   * Returns the index of the earliest timed runnable that is due at {@code now}, or -1.
+   */
+  private int findDueTimed(long now) {
+    int index = -1;
+    for (int i = 0, count = timed.size(); i < count; i++) {
+      if (timedTimes[i] <= now && (index == -1 || timedTimes[i] < timedTimes[index])) {
+        index = i;
+      }
+    }
+    return index;
+  }
+
+  private long getNextTimedTime() {
+    long time = Long.MAX_VALUE;
+    for (int i = 0, count = timed.size(); i < count; i++) {
+      time = Math.min(time, timedTimes[i]);
+    }
+    return time;
+  }
+
+  private void removeTimed(int index) {
+    timed.remove(index);
+    System.arraycopy(timedTimes, index + 1, timedTimes, index, timed.size() - index);
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.view.MotionEvent;
+
+/**
+ * A velocity estimator that keeps the most recent samples in a ring of primitive arrays and
+ * estimates from the samples of the recent past.
+ * <p>
+ * Like the platform's estimators, only samples within {@link #HORIZON_MILLIS} of the most recent
+ * one are used, and a gap of more than {@link #ASSUME_STOPPED_MILLIS} between two samples is
+ * treated as the value having stopped, which drops all older samples.
+ */
+abstract class BufferedVelocityEstimator extends VelocityEstimator {
+
+  static final int HISTORY_SIZE = 20;
+  static final long HORIZON_MILLIS = 100;
+  static final long ASSUME_STOPPED_MILLIS = 40;
+
+  private final long[] times = new long[HISTORY_SIZE];
+  private final float[] values = new float[HISTORY_SIZE];
+  /* Index of the most recent sample. */
+  private int newest = -1;
+  private int count;
+
+  /* The usable window, oldest first. Filled by #collect(). */
+  final double[] windowTimes = new double[HISTORY_SIZE];
+  final double[] windowValues = new double[HISTORY_SIZE];
+
+  @Override
+  void clear() {
+    newest = -1;
+    count = 0;
+  }
+
+  @Override
+  void addSample(long downTime, long eventTime, int action, float value) {
+    if (action == MotionEvent.ACTION_DOWN) {
+      clear();
+    }
+    newest = (newest + 1) % HISTORY_SIZE;
+    times[newest] = eventTime;
+    values[newest] = value;
+    count = Math.min(count + 1, HISTORY_SIZE);
+  }
+
+  @Override
+  final float computeVelocity(float maximumVelocity) {
+    int n = collect();
+    return n < 2 ? 0f : clamp((float) estimate(n), maximumVelocity);
+  }
+
+  /**
+   * Estimates the velocity at the newest sample from the window of {@code n >= 2} samples in
+   * {@link #windowTimes} and {@link #windowValues}. Times are in seconds relative to the newest
+   * sample, so they are zero or negative.
+   */
+  abstract double estimate(int n);
+
+  /**
+   * Fills the window with the usable samples and returns their number.
+   */
+  private int collect() {
+    if (count == 0) {
+      return 0;
+    }
+    long newestTime = times[newest];
+    int n = 0;
+    long previousTime = newestTime;
+    for (int i = 0; i < count; i++) {
+      int index = (newest - i + HISTORY_SIZE) % HISTORY_SIZE;
+      long time = times[index];
+      if (newestTime - time > HORIZON_MILLIS || previousTime - time > ASSUME_STOPPED_MILLIS) {
+        break;
+      }
+      previousTime = time;
+      n++;
+    }
+
+    // Oldest first.
+    for (int i = 0; i < n; i++) {
+      int index = (newest - (n - 1 - i) + HISTORY_SIZE) % HISTORY_SIZE;
+      windowTimes[i] = (times[index] - newestTime) / 1000.0;
+      windowValues[i] = values[index];
+    }
+    return n;
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import com.google.android.material.motion.gestures.GestureRecognizer.GestureSubscriber;
+import com.google.android.material.motion.gestures.GestureRecognizer.GestureSubscription;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.android.material.motion.gestures.GestureRecognizer.CHANGED;
+import static com.google.android.material.motion.gestures.GestureRecognizer.POSSIBLE;
+
+/**
+ * A subscription that buffers snapshots for a subscriber and delivers them on an executor.
+ * <p>
+ * The buffer is bounded. A {@link GestureRecognizer#CHANGED} snapshot that follows another pending
+ * one overwrites it, and is not buffered at all while the subscriber has no demand. When a new
+ * gesture starts, the completed gestures that are still pending collapse into the latest one, so
+ * the buffer holds at most the rest of the gesture being delivered, the latest completed gesture
+ * and the current one. Buffer entries are recycled, so a steady stream of state changes does not
+ * allocate.
+ */
+class ConflatingSubscription implements GestureSubscription, Runnable {
+
+  private final GestureRecognizer gestureRecognizer;
+  private final GestureSubscriber subscriber;
+  private final Executor executor;
+
+  private final AtomicLong requested = new AtomicLong();
+  /* Work in progress. The drain runs on the executor only while this is non-zero. */
+  private final AtomicInteger wip = new AtomicInteger();
+  private volatile boolean cancelled;
+
+  /* Guarded by this. */
+  private final ArrayList<GestureSnapshot> pending = new ArrayList<>();
+  private final ArrayDeque<GestureSnapshot> recycled = new ArrayDeque<>();
+  /* The state of the last offered snapshot. */
+  private int lastOfferedState = POSSIBLE;
+  /* Whether the last delivered snapshot is part of a gesture that has not ended yet. */
+  private boolean deliveringGesture;
+
+  /* Drain only. */
+  private final GestureSnapshot delivering = new GestureSnapshot();
+
+  ConflatingSubscription(
+    GestureRecognizer gestureRecognizer, GestureSubscriber subscriber, Executor executor) {
+    this.gestureRecognizer = gestureRecognizer;
+    this.subscriber = subscriber;
+    this.executor = executor;
+  }
+
+  /**
+   * Buffers a copy of the snapshot. Called by the gesture recognizer on each state change.
+   */
+  void offer(GestureSnapshot snapshot) {
+    if (cancelled || snapshot.state == CHANGED && requested.get() == 0) {
+      return;
+    }
+
+    synchronized (this) {
+      int state = snapshot.state;
+      GestureSnapshot last = pending.isEmpty() ? null : pending.get(pending.size() - 1);
+      if (last != null && last.state == state && (state == CHANGED || state == POSSIBLE)) {
+        last.set(snapshot);
+      } else {
+        if (state != POSSIBLE && lastOfferedState == POSSIBLE) {
+          collapseCompletedGestures();
+        }
+        GestureSnapshot copy = recycled.isEmpty() ? new GestureSnapshot() : recycled.pop();
+        copy.set(snapshot);
+        pending.add(copy);
+      }
+      lastOfferedState = state;
+    }
+
+    // Without demand the snapshot just waits in the buffer; no need to wake the executor.
+    if (requested.get() > 0) {
+      schedule();
+    }
+  }
+
+  /**
+   * Drops the pending gestures between the one being delivered and the latest completed one. Every
+   * pending gesture is complete when this is called, i.e. ends with a {@link
+   * GestureRecognizer#POSSIBLE} snapshot.
+   */
+  private void collapseCompletedGestures() {
+    int size = pending.size();
+    if (size == 0) {
+      return;
+    }
+
+    // The rest of a gesture whose start was delivered must still reach the subscriber.
+    int keepFrom = 0;
+    if (deliveringGesture) {
+      while (pending.get(keepFrom).state != POSSIBLE) {
+        keepFrom++;
+      }
+      keepFrom++;
+    }
+    // The latest completed gesture starts after the POSSIBLE that ends the one before it.
+    int latestStart = size - 1;
+    while (latestStart > keepFrom && pending.get(latestStart - 1).state != POSSIBLE) {
+      latestStart--;
+    }
+
+    for (int i = latestStart - 1; i >= keepFrom; i--) {
+      recycled.push(pending.remove(i));
+    }
+  }
+
+  boolean hasDemand() {
+    return !cancelled && requested.get() > 0;
+  }
+
+  @Override
+  public void request(long n) {
+    if (n <= 0) {
+      throw new IllegalArgumentException("Demand must be positive: " + n);
+    }
+
+    while (true) {
+      long current = requested.get();
+      long next = current + n < 0 ? Long.MAX_VALUE : current + n;
+      if (requested.compareAndSet(current, next)) {
+        break;
+      }
+    }
+    schedule();
+  }
+
+  @Override
+  public void cancel() {
+    cancelled = true;
+    gestureRecognizer.removeSubscription(this);
+  }
+
+  private void schedule() {
+    if (wip.getAndIncrement() == 0) {
+      executor.execute(this);
+    }
+  }
+
+  @Override
+  public void run() {
+    int missed = 1;
+    while (true) {
+      while (!cancelled && requested.get() > 0) {
+        synchronized (this) {
+          if (pending.isEmpty()) {
+            break;
+          }
+          GestureSnapshot next = pending.remove(0);
+          delivering.set(next);
+          recycled.push(next);
+          deliveringGesture = next.state != POSSIBLE;
+        }
+
+        subscriber.onNext(delivering);
+        if (requested.get() != Long.MAX_VALUE) {
+          requested.decrementAndGet();
+        }
+      }
+
+      missed = wip.addAndGet(-missed);
+      if (missed == 0) {
+        return;
+      }
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import java.util.Arrays;
+
+/**
+ * Helpers for listener lists stored as immutable arrays that are replaced on every change.
+ * <p>
+ * Unlike a {@link java.util.concurrent.CopyOnWriteArrayList}, an empty list is a shared empty
+ * array, so an object without listeners pays for a single reference, and iterating over the
+ * array does not allocate an iterator. Callers write the returned array back to a volatile
+ * field while holding a lock.
+ */
+final class CopyOnWriteArrays {
+
+  private CopyOnWriteArrays() {
+  }
+
+  static int indexOf(Object[] array, Object element) {
+    for (int i = 0; i < array.length; i++) {
+      if (array[i] == element || array[i].equals(element)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns a copy of the array with the element added at the end, unless it is already present,
+   * in which case the array itself is returned.
+   */
+  static <T> T[] add(T[] array, T element) {
+    if (indexOf(array, element) >= 0) {
+      return array;
+    }
+    T[] result = Arrays.copyOf(array, array.length + 1);
+    result[array.length] = element;
+    return result;
+  }
+
+  /**
+   * Returns a copy of the array without the element, or the array itself if it is not present.
+   */
+  static <T> T[] remove(T[] array, Object element) {
+    int index = indexOf(array, element);
+    if (index < 0) {
+      return array;
+    }
+    T[] result = Arrays.copyOf(array, array.length - 1);
+    System.arraycopy(array, index + 1, result, index, array.length - index - 1);
+    return result;
+  }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+/**
+ * A discrete gesture recognizer that recognizes two taps in quick succession.
+ * <p>
+ * To have a single tap wait for a double tap to fail, use {@link
+ * GestureCoordinator#requireToFail(GestureRecognizer, GestureRecognizer)}.
+ */
+public class DoubleTapGestureRecognizer extends TapGestureRecognizer {
+
+  public DoubleTapGestureRecognizer() {
+    numberOfTapsRequired = 2;
+  }
+
+  @Override
+  protected void restoreDefaults() {
+    super.restoreDefaults();
+
+    numberOfTapsRequired = 2;
+  }
+}
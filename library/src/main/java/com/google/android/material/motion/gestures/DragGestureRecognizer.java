@@ -15,13 +15,13 @@
  */
 package com.google.android.material.motion.gestures;
 
-import android.content.Context;
-import android.graphics.PointF;
+import android.support.annotation.IntDef;
 import android.support.annotation.Nullable;
-import android.support.v4.view.MotionEventCompat;
 import android.view.MotionEvent;
 import android.view.View;
-import android.view.ViewConfiguration;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
 
 import static com.google.android.material.motion.gestures.ValueVelocityTracker.ADDITIVE;
 
@@ -30,15 +30,67 @@ import static com.google.android.material.motion.gestures.ValueVelocityTracker.A
  */
 public class DragGestureRecognizer extends GestureRecognizer {
 
+  public static final int AXIS_ANY = 0;
+  public static final int AXIS_HORIZONTAL = 1;
+  public static final int AXIS_VERTICAL = 2;
+
+  /**
+   * The axes that a drag gesture may move along.
+   */
+  @IntDef({AXIS_ANY, AXIS_HORIZONTAL, AXIS_VERTICAL})
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface DragAxis {
+
+  }
+
+  public static final int EDGE_NONE = 0;
+  public static final int EDGE_LEFT = 1;
+  public static final int EDGE_TOP = 1 << 1;
+  public static final int EDGE_RIGHT = 1 << 2;
+  public static final int EDGE_BOTTOM = 1 << 3;
+
+  /**
+   * The edges of the element that a drag gesture may start from.
+   */
+  @IntDef(flag = true, value = {EDGE_NONE, EDGE_LEFT, EDGE_TOP, EDGE_RIGHT, EDGE_BOTTOM})
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface DragEdges {
+
+  }
+
   /**
    * Touch slop for drag. Amount of pixels that the centroid needs to move in either axes.
    */
   public int dragSlop = UNSET_SLOP;
 
+  /**
+   * The axis the drag gesture is locked to. A locked drag gesture is rejected if the centroid
+   * crosses {@link #dragSlop} along the other axis first, and reports no translation or velocity
+   * along the other axis.
+   */
+  @DragAxis
+  public int axis = AXIS_ANY;
+
+  /**
+   * The edges of the element that the drag gesture must start from, or {@link #EDGE_NONE} to
+   * start anywhere. A drag gesture that goes down outside all {@link #edgeSize edge regions} is
+   * rejected.
+   */
+  @DragEdges
+  public int edges = EDGE_NONE;
+
+  /**
+   * The size of each edge region in pixels, measured inwards from the element's bounds.
+   */
+  public int edgeSize = UNSET_SLOP;
+
   private float initialCentroidX;
   private float initialCentroidY;
   private float currentCentroidX;
   private float currentCentroidY;
+  /* The translation when the fingers were lifted, where momentum starts. */
+  private float releaseTranslationX;
+  private float releaseTranslationY;
 
   @Nullable
   private ValueVelocityTracker centroidXVelocityTracker;
@@ -53,33 +105,142 @@ public class DragGestureRecognizer extends GestureRecognizer {
       return;
     }
 
+    GestureConfiguration configuration = getConfiguration();
     if (dragSlop == UNSET_SLOP) {
-      Context context = element.getContext();
-      dragSlop = ViewConfiguration.get(context).getScaledTouchSlop();
+      dragSlop = configuration.getTouchSlop();
     }
+    if (edgeSize == UNSET_SLOP) {
+      edgeSize = configuration.getEdgeSize();
+    }
+  }
+
+  /**
+   * Creates the velocity trackers when the first touch arrives, so that a drag gesture recognizer
+   * that is never touched, e.g. one of many list items, does not hold them.
+   */
+  private void ensureVelocityTrackers() {
     if (centroidXVelocityTracker == null) {
-      centroidXVelocityTracker = new ValueVelocityTracker(element.getContext(), ADDITIVE);
-      centroidYVelocityTracker = new ValueVelocityTracker(element.getContext(), ADDITIVE);
+      GestureConfiguration configuration = getConfiguration();
+      centroidXVelocityTracker = new ValueVelocityTracker(configuration, ADDITIVE);
+      centroidYVelocityTracker = new ValueVelocityTracker(configuration, ADDITIVE);
     }
   }
 
+  @Override
+  public void reset() {
+    super.reset();
+
+    initialCentroidX = 0;
+    initialCentroidY = 0;
+    currentCentroidX = 0;
+    currentCentroidY = 0;
+
+    if (centroidXVelocityTracker != null) {
+      centroidXVelocityTracker.reset();
+      centroidYVelocityTracker.reset();
+    }
+  }
+
+  @Override
+  protected void restoreDefaults() {
+    super.restoreDefaults();
+
+    dragSlop = UNSET_SLOP;
+    axis = AXIS_ANY;
+    edges = EDGE_NONE;
+    edgeSize = UNSET_SLOP;
+  }
+
+  @Override
+  protected boolean isMultiElementSupported() {
+    return true;
+  }
+
+  @Override
+  protected int getSlotStateSize() {
+    return 4 + ValueVelocityTracker.STATE_SIZE * 2;
+  }
+
+  @Override
+  protected void onSaveSlotState(float[] out, int offset) {
+    out[offset] = initialCentroidX;
+    out[offset + 1] = initialCentroidY;
+    out[offset + 2] = currentCentroidX;
+    out[offset + 3] = currentCentroidY;
+    centroidXVelocityTracker.saveState(out, offset + 4);
+    centroidYVelocityTracker.saveState(out, offset + 4 + ValueVelocityTracker.STATE_SIZE);
+  }
+
+  @Override
+  protected void onRestoreSlotState(float[] in, int offset, MotionEvent event) {
+    initialCentroidX = in[offset];
+    initialCentroidY = in[offset + 1];
+    currentCentroidX = in[offset + 2];
+    currentCentroidY = in[offset + 3];
+    ensureVelocityTrackers();
+    centroidXVelocityTracker.restoreState(in, offset + 4, event);
+    centroidYVelocityTracker.restoreState(
+      in, offset + 4 + ValueVelocityTracker.STATE_SIZE, event);
+  }
+
+  @Override
+  protected int getResampledValueCount() {
+    return 2;
+  }
+
+  @Override
+  protected void onSaveResampledValues(float[] out) {
+    out[0] = currentCentroidX - initialCentroidX;
+    out[1] = currentCentroidY - initialCentroidY;
+  }
+
+  @Override
+  protected void onApplyResampledValues(float[] in) {
+    currentCentroidX = initialCentroidX + in[0];
+    currentCentroidY = initialCentroidY + in[1];
+  }
+
+  @Override
+  protected int getMomentumValueCount() {
+    return 2;
+  }
+
+  @Override
+  protected void onSaveMomentumStart(float[] values, float[] velocities) {
+    values[0] = releaseTranslationX;
+    values[1] = releaseTranslationY;
+    velocities[0] = getVelocityX();
+    velocities[1] = getVelocityY();
+  }
+
+  @Override
+  protected void onUnchangedMove(MotionEvent event) {
+    centroidXVelocityTracker.onGestureHold(event);
+    centroidYVelocityTracker.onGestureHold(event);
+  }
+
   @Override
   protected boolean onTouch(MotionEvent event) {
-    PointF centroid = calculateUntransformedCentroid(event);
-    float centroidX = centroid.x;
-    float centroidY = centroid.y;
+    ensureVelocityTrackers();
+    float centroidX = pointers.getCentroidX();
+    float centroidY = pointers.getCentroidY();
 
-    int action = MotionEventCompat.getActionMasked(event);
+    int action = getActionMasked(event);
     if (action == MotionEvent.ACTION_DOWN) {
       initialCentroidX = centroidX;
       initialCentroidY = centroidY;
       currentCentroidX = centroidX;
       currentCentroidY = centroidY;
 
+      if (edges != EDGE_NONE && !isInEdgeRegion(getCentroidX(), getCentroidY())) {
+        reject();
+        return true;
+      }
+
       centroidXVelocityTracker.onGestureStart(event, centroidX);
       centroidYVelocityTracker.onGestureStart(event, centroidY);
 
-      if (dragSlop == 0) {
+      if (dragSlop == 0 && canBegin()) {
         setState(BEGAN);
       }
     }
@@ -100,7 +261,23 @@ public class DragGestureRecognizer extends GestureRecognizer {
       if (!isInProgress()) {
         float deltaX = centroidX - initialCentroidX;
         float deltaY = centroidY - initialCentroidY;
-        if (Math.abs(deltaX) > dragSlop || Math.abs(deltaY) > dragSlop) {
+        if (isPastSlopOnLockedAxis(deltaY, deltaX, AXIS_HORIZONTAL)
+          || isPastSlopOnLockedAxis(deltaX, deltaY, AXIS_VERTICAL)) {
+          // Crossed slop on the wrong axis first. Leave the rest of the stream to others.
+          reject();
+          return true;
+        }
+
+        boolean pastSlop;
+        if (axis == AXIS_HORIZONTAL) {
+          pastSlop = Math.abs(deltaX) > dragSlop;
+        } else if (axis == AXIS_VERTICAL) {
+          pastSlop = Math.abs(deltaY) > dragSlop;
+        } else {
+          pastSlop = Math.abs(deltaX) > dragSlop || Math.abs(deltaY) > dragSlop;
+        }
+
+        if (pastSlop && canBegin()) {
           float adjustX = Math.signum(deltaX) * Math.min(Math.abs(deltaX), dragSlop);
           float adjustY = Math.signum(deltaY) * Math.min(Math.abs(deltaY), dragSlop);
 
@@ -125,6 +302,9 @@ public class DragGestureRecognizer extends GestureRecognizer {
     }
     if (action == MotionEvent.ACTION_UP
       || action == MotionEvent.ACTION_CANCEL) {
+      releaseTranslationX = getTranslationX();
+      releaseTranslationY = getTranslationY();
+
       initialCentroidX = centroidX;
       initialCentroidY = centroidY;
       currentCentroidX = centroidX;
@@ -134,7 +314,7 @@ public class DragGestureRecognizer extends GestureRecognizer {
       centroidYVelocityTracker.onGestureEnd(event, centroidY);
 
       if (isInProgress()) {
-        if (action == MotionEvent.ACTION_UP) {
+        if (action == MotionEvent.ACTION_UP && isRecognizedOnRelease()) {
           setState(RECOGNIZED);
         } else {
           setState(CANCELLED);
@@ -145,6 +325,38 @@ public class DragGestureRecognizer extends GestureRecognizer {
     return true;
   }
 
+  /**
+   * Returns whether a drag gesture locked to {@code lockedAxis} has crossed slop along the other
+   * axis before its own.
+   */
+  private boolean isPastSlopOnLockedAxis(float otherDelta, float ownDelta, int lockedAxis) {
+    return axis == lockedAxis
+      && Math.abs(otherDelta) > dragSlop
+      && Math.abs(otherDelta) > Math.abs(ownDelta);
+  }
+
+  /**
+   * Returns whether the given point in the element's local coordinate space is within {@link
+   * #edgeSize} of one of the enabled {@link #edges}.
+   */
+  private boolean isInEdgeRegion(float x, float y) {
+    View element = getElement();
+    int width = element.getWidth();
+    int height = element.getHeight();
+    return ((edges & EDGE_LEFT) != 0 && x < edgeSize)
+      || ((edges & EDGE_TOP) != 0 && y < edgeSize)
+      || ((edges & EDGE_RIGHT) != 0 && x > width - edgeSize)
+      || ((edges & EDGE_BOTTOM) != 0 && y > height - edgeSize);
+  }
+
+  /**
+   * Returns whether lifting the last finger {@link #RECOGNIZED recognizes} the drag gesture in
+   * progress, or {@link #CANCELLED cancels} it. Called after the velocity has been computed.
+   */
+  protected boolean isRecognizedOnRelease() {
+    return true;
+  }
+
   /**
    * Returns the translationX of the drag gesture.
    * <p>
@@ -152,7 +364,7 @@ public class DragGestureRecognizer extends GestureRecognizer {
    * gesture. This is not a delta value from the last {@link #CHANGED update}.
    */
   public float getTranslationX() {
-    return currentCentroidX - initialCentroidX;
+    return axis != AXIS_VERTICAL ? currentCentroidX - initialCentroidX : 0f;
   }
 
   /**
@@ -162,7 +374,7 @@ public class DragGestureRecognizer extends GestureRecognizer {
    * gesture. This is not a delta value from the last {@link #CHANGED update}.
    */
   public float getTranslationY() {
-    return currentCentroidY - initialCentroidY;
+    return axis != AXIS_HORIZONTAL ? currentCentroidY - initialCentroidY : 0f;
   }
 
   /**
@@ -173,7 +385,10 @@ public class DragGestureRecognizer extends GestureRecognizer {
    * @return The velocity in pixels per second.
    */
   public float getVelocityX() {
-    return centroidXVelocityTracker != null ? centroidXVelocityTracker.getCurrentVelocity() : 0f;
+    if (axis == AXIS_VERTICAL || centroidXVelocityTracker == null) {
+      return 0f;
+    }
+    return centroidXVelocityTracker.getCurrentVelocity();
   }
 
   /**
@@ -184,7 +399,71 @@ public class DragGestureRecognizer extends GestureRecognizer {
    * @return The velocity in pixels per second.
    */
   public float getVelocityY() {
-    return centroidYVelocityTracker != null ? centroidYVelocityTracker.getCurrentVelocity() : 0f;
+    if (axis == AXIS_HORIZONTAL || centroidYVelocityTracker == null) {
+      return 0f;
+    }
+    return centroidYVelocityTracker.getCurrentVelocity();
+  }
+
+  /**
+   * Returns the translationX that momentum has moved the released drag gesture to.
+   * <p>
+   * Only read this while {@link #isMomentumInProgress() momentum is in progress}.
+   *
+   * @see #setMomentumEnabled(boolean)
+   */
+  public float getMomentumTranslationX() {
+    return getMomentumValue(0);
+  }
+
+  /**
+   * Returns the translationY that momentum has moved the released drag gesture to.
+   * <p>
+   * Only read this while {@link #isMomentumInProgress() momentum is in progress}.
+   *
+   * @see #setMomentumEnabled(boolean)
+   */
+  public float getMomentumTranslationY() {
+    return getMomentumValue(1);
+  }
+
+  /**
+   * Returns the translationX that momentum comes to rest at.
+   * <p>
+   * Only read this when the state is {@link #RECOGNIZED} or momentum is in progress.
+   */
+  public float getProjectedTranslationX() {
+    return getProjectedMomentumValue(0);
+  }
+
+  /**
+   * Returns the translationY that momentum comes to rest at.
+   * <p>
+   * Only read this when the state is {@link #RECOGNIZED} or momentum is in progress.
+   */
+  public float getProjectedTranslationY() {
+    return getProjectedMomentumValue(1);
+  }
+
+  /**
+   * Sets the range of translations that momentum springs back to. Infinite bounds are unbounded,
+   * which is the default.
+   *
+   * @throws IllegalArgumentException if a minimum is greater than its maximum.
+   */
+  public void setMomentumBounds(
+    float minTranslationX, float maxTranslationX, float minTranslationY, float maxTranslationY) {
+    setMomentumBounds(0, minTranslationX, maxTranslationX);
+    setMomentumBounds(1, minTranslationY, maxTranslationY);
+  }
+
+  @Override
+  protected void onPublishSnapshot(GestureSnapshot snapshot) {
+    super.onPublishSnapshot(snapshot);
+    snapshot.translationX = getTranslationX();
+    snapshot.translationY = getTranslationY();
+    snapshot.velocityX = getVelocityX();
+    snapshot.velocityY = getVelocityY();
   }
 
   @Override
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.view.View;
+
+import java.util.Arrays;
+
+/**
+ * The per-element state of a gesture recognizer in multi-element mode, stored in primitive arrays
+ * indexed by a slot id.
+ * <p>
+ * Each element is assigned a slot on its first touch. A slot holds the gesture recognizer state,
+ * the rejected flag and {@link #getStride() a fixed number} of floats written by the gesture
+ * recognizer. Elements are found through an open addressed identity table, so looking up the slot
+ * of an element does not allocate. Slots of removed elements are reused.
+ * <p>
+ * This class is not thread safe.
+ */
+final class ElementSlots {
+
+  static final int NO_SLOT = -1;
+
+  private static final int INITIAL_CAPACITY = 8;
+
+  private final int stride;
+
+  /* Identity hash table from element to slot, with linear probing. Length is a power of two. */
+  private View[] keys;
+  private int[] keySlots;
+  private int size;
+
+  /* Slot arrays. */
+  private int[] states;
+  private boolean[] rejected;
+  private float[] data;
+
+  /* Released slots, reused before new ones. */
+  private int[] freeSlots;
+  private int freeCount;
+  private int slotCount;
+
+  ElementSlots(int stride) {
+    this.stride = stride;
+    keys = new View[INITIAL_CAPACITY * 2];
+    keySlots = new int[INITIAL_CAPACITY * 2];
+    states = new int[INITIAL_CAPACITY];
+    rejected = new boolean[INITIAL_CAPACITY];
+    data = new float[INITIAL_CAPACITY * stride];
+    freeSlots = new int[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Returns the number of floats of gesture recognizer state in each slot.
+   */
+  int getStride() {
+    return stride;
+  }
+
+  /**
+   * Returns the number of elements that have a slot.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Returns the slot of the element, or {@link #NO_SLOT}.
+   */
+  int get(View element) {
+    int mask = keys.length - 1;
+    for (int i = hash(element) & mask; keys[i] != null; i = (i + 1) & mask) {
+      if (keys[i] == element) {
+        return keySlots[i];
+      }
+    }
+    return NO_SLOT;
+  }
+
+  /**
+   * Assigns a cleared slot to an element that does not have one yet.
+   */
+  int add(View element) {
+    if ((size + 1) * 2 > keys.length) {
+      rehash(keys.length * 2);
+    }
+
+    int slot;
+    if (freeCount > 0) {
+      slot = freeSlots[--freeCount];
+    } else {
+      if (slotCount == states.length) {
+        growSlots(slotCount * 2);
+      }
+      slot = slotCount++;
+    }
+    states[slot] = GestureRecognizer.POSSIBLE;
+    rejected[slot] = false;
+    Arrays.fill(data, slot * stride, (slot + 1) * stride, 0f);
+
+    insert(element, slot);
+    size++;
+    return slot;
+  }
+
+  /**
+   * Releases the slot of the element. Returns the released slot, or {@link #NO_SLOT} if the
+   * element had none.
+   */
+  int remove(View element) {
+    int mask = keys.length - 1;
+    int i = hash(element) & mask;
+    while (keys[i] != element) {
+      if (keys[i] == null) {
+        return NO_SLOT;
+      }
+      i = (i + 1) & mask;
+    }
+
+    int slot = keySlots[i];
+    keys[i] = null;
+    size--;
+    freeSlots[freeCount++] = slot;
+
+    // Shift back the entries that probed past the removed one.
+    for (int j = (i + 1) & mask; keys[j] != null; j = (j + 1) & mask) {
+      View key = keys[j];
+      int home = hash(key) & mask;
+      boolean movable = i <= j ? (home <= i || home > j) : (home <= i && home > j);
+      if (movable) {
+        keys[i] = key;
+        keySlots[i] = keySlots[j];
+        keys[j] = null;
+        i = j;
+      }
+    }
+    return slot;
+  }
+
+  /**
+   * Releases all slots.
+   */
+  void clear() {
+    Arrays.fill(keys, null);
+    size = 0;
+    freeCount = 0;
+    slotCount = 0;
+  }
+
+  int getState(int slot) {
+    return states[slot];
+  }
+
+  boolean isRejected(int slot) {
+    return rejected[slot];
+  }
+
+  void set(int slot, int state, boolean rejected) {
+    states[slot] = state;
+    this.rejected[slot] = rejected;
+  }
+
+  /**
+   * Returns the array that holds the floats of all slots. The floats of a slot start at {@link
+   * #getOffset(int)}. The array may be replaced when slots are added.
+   */
+  float[] getData() {
+    return data;
+  }
+
+  int getOffset(int slot) {
+    return slot * stride;
+  }
+
+  private void insert(View element, int slot) {
+    int mask = keys.length - 1;
+    int i = hash(element) & mask;
+    while (keys[i] != null) {
+      i = (i + 1) & mask;
+    }
+    keys[i] = element;
+    keySlots[i] = slot;
+  }
+
+  private void rehash(int capacity) {
+    View[] oldKeys = keys;
+    int[] oldKeySlots = keySlots;
+    keys = new View[capacity];
+    keySlots = new int[capacity];
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != null) {
+        insert(oldKeys[i], oldKeySlots[i]);
+      }
+    }
+  }
+
+  private void growSlots(int capacity) {
+    states = Arrays.copyOf(states, capacity);
+    rejected = Arrays.copyOf(rejected, capacity);
+    data = Arrays.copyOf(data, capacity * stride);
+    freeSlots = Arrays.copyOf(freeSlots, capacity);
+  }
+
+  private static int hash(View element) {
+    int h = System.identityHashCode(element);
+    // Spread the high bits, identity hash codes are often aligned.
+    return h ^ (h >>> 16);
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.support.annotation.IntDef;
+import android.support.annotation.Nullable;
+import android.view.View;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * A drag gesture recognizer that is only {@link #RECOGNIZED} when released fast enough to be a
+ * fling.
+ * <p>
+ * While the fingers are down this behaves exactly like a {@link DragGestureRecognizer}, using the
+ * same centroid and velocity tracking. On release, the gesture is {@link #RECOGNIZED} if the
+ * velocity exceeds {@link #minimumFlingVelocity}, and {@link #CANCELLED} otherwise. Read {@link
+ * #getDirection()} and the projected distance when the state is {@link #RECOGNIZED}.
+ */
+public class FlingGestureRecognizer extends DragGestureRecognizer {
+
+  public static final int DIRECTION_NONE = 0;
+  public static final int DIRECTION_LEFT = 1;
+  public static final int DIRECTION_RIGHT = 2;
+  public static final int DIRECTION_UP = 3;
+  public static final int DIRECTION_DOWN = 4;
+
+  /**
+   * The dominant direction of a fling.
+   */
+  @IntDef({DIRECTION_NONE, DIRECTION_LEFT, DIRECTION_RIGHT, DIRECTION_UP, DIRECTION_DOWN})
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface FlingDirection {
+
+  }
+
+  /**
+   * The deceleration rate of a standard scrolling list. See {@link #decelerationRate}.
+   */
+  public static final float DECELERATION_RATE_NORMAL = 0.998f;
+
+  /**
+   * The deceleration rate of a paging list. See {@link #decelerationRate}.
+   */
+  public static final float DECELERATION_RATE_FAST = 0.99f;
+
+  protected static final int UNSET_VELOCITY = -1;
+
+  /**
+   * The minimum speed of a fling, in pixels per second.
+   */
+  public int minimumFlingVelocity = UNSET_VELOCITY;
+
+  /**
+   * The fraction of velocity that the flung content keeps every millisecond. Used to project the
+   * distance that the content travels after release.
+   */
+  public float decelerationRate = DECELERATION_RATE_NORMAL;
+
+  @Override
+  public void setElement(@Nullable View element) {
+    super.setElement(element);
+
+    if (element == null) {
+      return;
+    }
+
+    if (minimumFlingVelocity == UNSET_VELOCITY) {
+      minimumFlingVelocity = getConfiguration().getMinimumFlingVelocity();
+    }
+  }
+
+  @Override
+  protected void restoreDefaults() {
+    super.restoreDefaults();
+
+    minimumFlingVelocity = UNSET_VELOCITY;
+    decelerationRate = DECELERATION_RATE_NORMAL;
+  }
+
+  @Override
+  protected boolean isRecognizedOnRelease() {
+    return getVelocity() > minimumFlingVelocity;
+  }
+
+  /**
+   * Returns the speed of the fling.
+   * <p>
+   * Only read this when the state is {@link #RECOGNIZED} or {@link #CANCELLED}.
+   *
+   * @return The speed in pixels per second.
+   */
+  public float getVelocity() {
+    float velocityX = getVelocityX();
+    float velocityY = getVelocityY();
+    return (float) Math.sqrt(velocityX * velocityX + velocityY * velocityY);
+  }
+
+  /**
+   * Returns the dominant direction of the fling, or {@link #DIRECTION_NONE} if there is no
+   * velocity.
+   * <p>
+   * Only read this when the state is {@link #RECOGNIZED} or {@link #CANCELLED}.
+   */
+  @FlingDirection
+  public int getDirection() {
+    float velocityX = getVelocityX();
+    float velocityY = getVelocityY();
+    if (velocityX == 0 && velocityY == 0) {
+      return DIRECTION_NONE;
+    }
+    if (Math.abs(velocityX) >= Math.abs(velocityY)) {
+      return velocityX < 0 ? DIRECTION_LEFT : DIRECTION_RIGHT;
+    } else {
+      return velocityY < 0 ? DIRECTION_UP : DIRECTION_DOWN;
+    }
+  }
+
+  /**
+   * Returns the distanceX that flung content travels from the release point until it comes to
+   * rest, decelerating at {@link #decelerationRate}.
+   * <p>
+   * Only read this when the state is {@link #RECOGNIZED} or {@link #CANCELLED}.
+   */
+  public float getProjectedDistanceX() {
+    return project(getVelocityX(), decelerationRate);
+  }
+
+  /**
+   * Returns the distanceY that flung content travels from the release point until it comes to
+   * rest, decelerating at {@link #decelerationRate}.
+   * <p>
+   * Only read this when the state is {@link #RECOGNIZED} or {@link #CANCELLED}.
+   */
+  public float getProjectedDistanceY() {
+    return project(getVelocityY(), decelerationRate);
+  }
+
+  /**
+   * Returns the total distance of a velocity that decays by {@code decelerationRate} every
+   * millisecond: the sum of the geometric series of per-millisecond distances.
+   *
+   * @param velocity The initial velocity in pixels per second.
+   */
+  static float project(float velocity, float decelerationRate) {
+    return velocity / 1000f * decelerationRate / (1f - decelerationRate);
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+/**
+ * Resamples timestamped gesture values to frame times.
+ * <p>
+ * Keeps the most recent {@link #HISTORY_SIZE} samples of a fixed number of values in primitive
+ * arrays. A frame is resampled at {@link #LATENCY_MILLIS} before its frame time, like the
+ * platform resamples touch events: between two samples the values are interpolated, and past the
+ * newest sample they are extrapolated from the last two samples by at most half their interval
+ * and at most {@link #MAX_PREDICTION_MILLIS}.
+ * <p>
+ * This class is not thread safe.
+ */
+final class FrameResampler {
+
+  static final int HISTORY_SIZE = 4;
+  /**
+   * How long before the frame time values are resampled at.
+   */
+  static final long LATENCY_MILLIS = 5;
+  /**
+   * Samples closer than this are too close to extrapolate from without amplifying noise.
+   */
+  static final long MIN_DELTA_MILLIS = 2;
+  /**
+   * Samples further apart than this are too far apart to extrapolate from.
+   */
+  static final long MAX_DELTA_MILLIS = 20;
+  static final long MAX_PREDICTION_MILLIS = 8;
+
+  private final int valueCount;
+  private final long[] times = new long[HISTORY_SIZE];
+  private final float[] values;
+  /* Index of the most recent sample. */
+  private int newest = -1;
+  private int count;
+
+  FrameResampler(int valueCount) {
+    this.valueCount = valueCount;
+    values = new float[HISTORY_SIZE * valueCount];
+  }
+
+  void clear() {
+    newest = -1;
+    count = 0;
+  }
+
+  /**
+   * Adds a sample of all values. A sample at the time of the newest sample replaces it.
+   */
+  void add(long time, float[] in) {
+    if (count == 0 || time > times[newest]) {
+      newest = (newest + 1) % HISTORY_SIZE;
+      count = Math.min(count + 1, HISTORY_SIZE);
+    }
+    times[newest] = time;
+    System.arraycopy(in, 0, values, newest * valueCount, valueCount);
+  }
+
+  /**
+   * Writes the values at the frame with the given time into {@code out}.
+   *
+   * @return false if there are no samples, in which case {@code out} is unchanged.
+   */
+  boolean resample(long frameTime, float[] out) {
+    if (count == 0) {
+      return false;
+    }
+    long sampleTime = frameTime - LATENCY_MILLIS;
+    long newestTime = times[newest];
+
+    if (sampleTime >= newestTime) {
+      if (count < 2) {
+        copy(newest, out);
+        return true;
+      }
+      int previous = index(1);
+      long delta = newestTime - times[previous];
+      if (delta < MIN_DELTA_MILLIS || delta > MAX_DELTA_MILLIS) {
+        copy(newest, out);
+        return true;
+      }
+      long prediction =
+        Math.min(sampleTime - newestTime, Math.min(delta / 2, MAX_PREDICTION_MILLIS));
+      lerp(previous, newest, 1f + (float) prediction / delta, out);
+      return true;
+    }
+
+    // Interpolate between the two samples around the sample time, or hold the oldest.
+    for (int i = 1; i < count; i++) {
+      int older = index(i);
+      if (times[older] <= sampleTime) {
+        int newer = index(i - 1);
+        float alpha = (float) (sampleTime - times[older]) / (times[newer] - times[older]);
+        lerp(older, newer, alpha, out);
+        return true;
+      }
+    }
+    copy(index(count - 1), out);
+    return true;
+  }
+
+  /**
+   * Returns the index of the sample {@code age} samples older than the newest.
+   */
+  private int index(int age) {
+    return (newest - age + HISTORY_SIZE) % HISTORY_SIZE;
+  }
+
+  private void copy(int index, float[] out) {
+    System.arraycopy(values, index * valueCount, out, 0, valueCount);
+  }
+
+  private void lerp(int from, int to, float alpha, float[] out) {
+    int a = from * valueCount;
+    int b = to * valueCount;
+    for (int i = 0; i < valueCount; i++) {
+      out[i] = values[a + i] + (values[b + i] - values[a + i]) * alpha;
+    }
+  }
+}
@@ -0,0 +1,345 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.content.ComponentCallbacks;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.support.annotation.IntDef;
+import android.support.annotation.Nullable;
+import android.util.SparseArray;
+import android.view.VelocityTracker;
+import android.view.ViewConfiguration;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Immutable slop, velocity and timeout values shared by gesture recognizers and velocity
+ * trackers.
+ * <p>
+ * {@link #get(Context)} reads {@link ViewConfiguration} once per display density and caches the
+ * result until the next configuration change, so attaching many gesture recognizers does not
+ * query it once per instance. To tune values for the whole app, {@link
+ * #setCustomizer(Customizer) set a customizer}. To tune a single gesture recognizer, {@link
+ * GestureRecognizer#setConfiguration(GestureConfiguration) inject} a configuration built with a
+ * {@link Builder}.
+ */
+public final class GestureConfiguration {
+
+  /**
+   * Adjusts the configurations created by {@link #get(Context)}.
+   */
+  public interface Customizer {
+
+    /**
+     * Called once per display density and configuration, with a builder initialized from {@link
+     * ViewConfiguration}.
+     */
+    void customize(Context context, Builder builder);
+  }
+
+  /**
+   * Estimates velocities with the platform's {@link VelocityTracker}. This is the default.
+   */
+  public static final int VELOCITY_STRATEGY_PLATFORM = 0;
+  /**
+   * Estimates velocities with a least squares line through the samples of the last 100ms.
+   */
+  public static final int VELOCITY_STRATEGY_LSQ1 = 1;
+  /**
+   * Estimates velocities with a least squares parabola through the samples of the last 100ms.
+   */
+  public static final int VELOCITY_STRATEGY_LSQ2 = 2;
+  /**
+   * Estimates velocities from the kinetic energy imparted by the samples of the last 100ms.
+   */
+  public static final int VELOCITY_STRATEGY_IMPULSE = 3;
+  /**
+   * Estimates velocities with a constant velocity Kalman filter.
+   */
+  public static final int VELOCITY_STRATEGY_KALMAN = 4;
+
+  /**
+   * A strategy for estimating velocities.
+   */
+  @IntDef({
+    VELOCITY_STRATEGY_PLATFORM,
+    VELOCITY_STRATEGY_LSQ1,
+    VELOCITY_STRATEGY_LSQ2,
+    VELOCITY_STRATEGY_IMPULSE,
+    VELOCITY_STRATEGY_KALMAN})
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface VelocityStrategy {
+
+  }
+
+  /**
+   * The default size of an edge region, in dips.
+   */
+  private static final int DEFAULT_EDGE_SIZE_DIPS = 20;
+
+  private static final SparseArray<GestureConfiguration> cache = new SparseArray<>();
+  @Nullable
+  private static Customizer customizer;
+  private static boolean registeredCallbacks;
+
+  private static final ComponentCallbacks callbacks = new ComponentCallbacks() {
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+      clearCache();
+    }
+
+    @Override
+    public void onLowMemory() {
+    }
+  };
+
+  private final int touchSlop;
+  private final int doubleTapSlop;
+  private final int edgeSize;
+  private final int minimumFlingVelocity;
+  private final int maximumFlingVelocity;
+  private final int longPressTimeout;
+  private final int doubleTapTimeout;
+  @VelocityStrategy
+  private final int velocityStrategy;
+
+  private GestureConfiguration(Builder builder) {
+    this.touchSlop = builder.touchSlop;
+    this.doubleTapSlop = builder.doubleTapSlop;
+    this.edgeSize = builder.edgeSize;
+    this.minimumFlingVelocity = builder.minimumFlingVelocity;
+    this.maximumFlingVelocity = builder.maximumFlingVelocity;
+    this.longPressTimeout = builder.longPressTimeout;
+    this.doubleTapTimeout = builder.doubleTapTimeout;
+    this.velocityStrategy = builder.velocityStrategy;
+  }
+
+  /**
+   * Returns the shared configuration for the context's display density.
+   */
+  public static GestureConfiguration get(Context context) {
+    int densityDpi = context.getResources().getDisplayMetrics().densityDpi;
+
+    synchronized (cache) {
+      GestureConfiguration configuration = cache.get(densityDpi);
+      if (configuration == null) {
+        if (!registeredCallbacks) {
+          Context applicationContext = context.getApplicationContext();
+          if (applicationContext != null) {
+            applicationContext.registerComponentCallbacks(callbacks);
+            registeredCallbacks = true;
+          }
+        }
+
+        Builder builder = new Builder(context);
+        if (customizer != null) {
+          customizer.customize(context, builder);
+        }
+        configuration = builder.build();
+        cache.put(densityDpi, configuration);
+      }
+      return configuration;
+    }
+  }
+
+  /**
+   * Sets the customizer applied to every configuration created by {@link #get(Context)} from now
+   * on, or null to use the {@link ViewConfiguration} values. Gesture recognizers that already
+   * have a configuration keep it.
+   */
+  public static void setCustomizer(@Nullable Customizer customizer) {
+    synchronized (cache) {
+      GestureConfiguration.customizer = customizer;
+      cache.clear();
+    }
+  }
+
+  /**
+   * Drops all cached configurations.
+   */
+  static void clearCache() {
+    synchronized (cache) {
+      cache.clear();
+    }
+  }
+
+  /**
+   * Returns the distance in pixels a touch can wander before we think the user is dragging.
+   */
+  public int getTouchSlop() {
+    return touchSlop;
+  }
+
+  /**
+   * Returns the distance in pixels between the first and second touch of a double tap.
+   */
+  public int getDoubleTapSlop() {
+    return doubleTapSlop;
+  }
+
+  /**
+   * Returns the size in pixels of the edge regions that edge drags start from.
+   */
+  public int getEdgeSize() {
+    return edgeSize;
+  }
+
+  /**
+   * Returns the minimum velocity to initiate a fling, in pixels per second.
+   */
+  public int getMinimumFlingVelocity() {
+    return minimumFlingVelocity;
+  }
+
+  /**
+   * Returns the maximum velocity to initiate a fling, in pixels per second.
+   */
+  public int getMaximumFlingVelocity() {
+    return maximumFlingVelocity;
+  }
+
+  /**
+   * Returns the duration in milliseconds before a press turns into a long press.
+   */
+  public int getLongPressTimeout() {
+    return longPressTimeout;
+  }
+
+  /**
+   * Returns the duration in milliseconds between the first tap's up event and the second tap's
+   * down event for a double tap.
+   */
+  public int getDoubleTapTimeout() {
+    return doubleTapTimeout;
+  }
+
+  /**
+   * Returns the strategy velocity trackers estimate velocities with.
+   * <p>
+   * Values that accumulate multiplicatively, like the scale of a pinch, are estimated in log space
+   * by every strategy except {@link #VELOCITY_STRATEGY_PLATFORM}.
+   */
+  @VelocityStrategy
+  public int getVelocityStrategy() {
+    return velocityStrategy;
+  }
+
+  /**
+   * Returns a builder initialized with the values of this configuration.
+   */
+  public Builder buildUpon() {
+    return new Builder(this);
+  }
+
+  /**
+   * Builds a {@link GestureConfiguration}.
+   */
+  public static final class Builder {
+
+    private int touchSlop;
+    private int doubleTapSlop;
+    private int edgeSize;
+    private int minimumFlingVelocity;
+    private int maximumFlingVelocity;
+    private int longPressTimeout;
+    private int doubleTapTimeout;
+    @VelocityStrategy
+    private int velocityStrategy = VELOCITY_STRATEGY_PLATFORM;
+
+    /**
+     * Creates a builder initialized from the context's {@link ViewConfiguration}.
+     */
+    public Builder(Context context) {
+      ViewConfiguration viewConfiguration = ViewConfiguration.get(context);
+      float density = context.getResources().getDisplayMetrics().density;
+
+      touchSlop = viewConfiguration.getScaledTouchSlop();
+      doubleTapSlop = viewConfiguration.getScaledDoubleTapSlop();
+      edgeSize = (int) (DEFAULT_EDGE_SIZE_DIPS * density + 0.5f);
+      minimumFlingVelocity = viewConfiguration.getScaledMinimumFlingVelocity();
+      maximumFlingVelocity = viewConfiguration.getScaledMaximumFlingVelocity();
+      longPressTimeout = ViewConfiguration.getLongPressTimeout();
+      doubleTapTimeout = ViewConfiguration.getDoubleTapTimeout();
+    }
+
+    private Builder(GestureConfiguration configuration) {
+      touchSlop = configuration.touchSlop;
+      doubleTapSlop = configuration.doubleTapSlop;
+      edgeSize = configuration.edgeSize;
+      minimumFlingVelocity = configuration.minimumFlingVelocity;
+      maximumFlingVelocity = configuration.maximumFlingVelocity;
+      longPressTimeout = configuration.longPressTimeout;
+      doubleTapTimeout = configuration.doubleTapTimeout;
+      velocityStrategy = configuration.velocityStrategy;
+    }
+
+    public Builder setTouchSlop(int touchSlop) {
+      this.touchSlop = touchSlop;
+      return this;
+    }
+
+    public Builder setDoubleTapSlop(int doubleTapSlop) {
+      this.doubleTapSlop = doubleTapSlop;
+      return this;
+    }
+
+    public Builder setEdgeSize(int edgeSize) {
+      this.edgeSize = edgeSize;
+      return this;
+    }
+
+    public Builder setMinimumFlingVelocity(int minimumFlingVelocity) {
+      this.minimumFlingVelocity = minimumFlingVelocity;
+      return this;
+    }
+
+    public Builder setMaximumFlingVelocity(int maximumFlingVelocity) {
+      this.maximumFlingVelocity = maximumFlingVelocity;
+      return this;
+    }
+
+    public Builder setLongPressTimeout(int longPressTimeout) {
+      this.longPressTimeout = longPressTimeout;
+      return this;
+    }
+
+    public Builder setDoubleTapTimeout(int doubleTapTimeout) {
+      this.doubleTapTimeout = doubleTapTimeout;
+      return this;
+    }
+
+    public Builder setVelocityStrategy(@VelocityStrategy int velocityStrategy) {
+      switch (velocityStrategy) {
+        case VELOCITY_STRATEGY_PLATFORM:
+        case VELOCITY_STRATEGY_LSQ1:
+        case VELOCITY_STRATEGY_LSQ2:
+        case VELOCITY_STRATEGY_IMPULSE:
+        case VELOCITY_STRATEGY_KALMAN:
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown velocity strategy: " + velocityStrategy);
+      }
+      this.velocityStrategy = velocityStrategy;
+      return this;
+    }
+
+    public GestureConfiguration build() {
+      return new GestureConfiguration(this);
+    }
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.support.annotation.Nullable;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.View.OnTouchListener;
+
+import com.google.android.material.motion.gestures.GestureRecognizer.GestureStateChangeListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Coordinates multiple gesture recognizers that compete for the same touch stream.
+ * <p>
+ * Two policies are supported:
+ * <ul>
+ * <li>{@link #requireToFail(GestureRecognizer, GestureRecognizer) Require to fail}: a gesture
+ * recognizer may not begin until another gesture recognizer has been rejected. If the other
+ * gesture recognizer begins first, the waiting gesture recognizer is rejected.</li>
+ * <li>{@link #exclusive(GestureRecognizer, GestureRecognizer) Exclusivity}: the first of two
+ * gesture recognizers to begin wins, and the other is rejected.</li>
+ * </ul>
+ * A rejected gesture recognizer does no work until the next {@link MotionEvent#ACTION_DOWN}.
+ * <p>
+ * To use an instance of this class, set it as the {@link OnTouchListener} of the element instead
+ * of the individual gesture recognizers.
+ */
+public class GestureCoordinator implements SplitTouchListener {
+
+  private final List<GestureRecognizer> gestureRecognizers = new ArrayList<>();
+  /* Pairs of {waiting, required} gesture recognizers. */
+  private final List<GestureRecognizer[]> requireToFail = new ArrayList<>();
+  /* Pairs of mutually exclusive gesture recognizers. */
+  private final List<GestureRecognizer[]> exclusive = new ArrayList<>();
+
+  /**
+   * Adds a gesture recognizer to this coordinator. A gesture recognizer can only be added to one
+   * coordinator at a time.
+   */
+  public void addGestureRecognizer(GestureRecognizer gestureRecognizer) {
+    if (gestureRecognizer.coordinator == this) {
+      return;
+    }
+    if (gestureRecognizer.coordinator != null) {
+      throw new IllegalArgumentException(
+        "Gesture recognizer already belongs to a coordinator: " + gestureRecognizer);
+    }
+
+    gestureRecognizer.coordinator = this;
+    gestureRecognizer.addStateChangeListener(stateChangeListener);
+    gestureRecognizers.add(gestureRecognizer);
+  }
+
+  /**
+   * Removes a gesture recognizer and all of its policies from this coordinator.
+   */
+  public void removeGestureRecognizer(GestureRecognizer gestureRecognizer) {
+    if (gestureRecognizer.coordinator != this) {
+      return;
+    }
+
+    gestureRecognizer.coordinator = null;
+    gestureRecognizer.removeStateChangeListener(stateChangeListener);
+    gestureRecognizers.remove(gestureRecognizer);
+    removePairs(requireToFail, gestureRecognizer);
+    removePairs(exclusive, gestureRecognizer);
+  }
+
+  /**
+   * Prevents {@code gestureRecognizer} from beginning until {@code other} has been rejected. If
+   * {@code other} begins first, {@code gestureRecognizer} is rejected.
+   * <p>
+   * Both gesture recognizers are {@link #addGestureRecognizer(GestureRecognizer) added} if
+   * necessary.
+   */
+  public void requireToFail(GestureRecognizer gestureRecognizer, GestureRecognizer other) {
+    addGestureRecognizer(gestureRecognizer);
+    addGestureRecognizer(other);
+    requireToFail.add(new GestureRecognizer[]{gestureRecognizer, other});
+  }
+
+  /**
+   * Makes two gesture recognizers mutually exclusive. Whichever begins first wins, and the other
+   * is rejected.
+   * <p>
+   * Both gesture recognizers are {@link #addGestureRecognizer(GestureRecognizer) added} if
+   * necessary.
+   */
+  public void exclusive(GestureRecognizer gestureRecognizer, GestureRecognizer other) {
+    addGestureRecognizer(gestureRecognizer);
+    addGestureRecognizer(other);
+    exclusive.add(new GestureRecognizer[]{gestureRecognizer, other});
+  }
+
+  /**
+   * Forwards touch events to all gesture recognizers. Rejected gesture recognizers ignore them.
+   */
+  @Override
+  public boolean onTouch(View view, MotionEvent event) {
+    return onTouch(view, event, ALL_POINTER_IDS);
+  }
+
+  /**
+   * Forwards the given pointers of touch events to all gesture recognizers.
+   */
+  @Override
+  public boolean onTouch(View view, MotionEvent event, int pointerIdBits) {
+    boolean handled = false;
+    for (int i = 0, count = gestureRecognizers.size(); i < count; i++) {
+      handled |= gestureRecognizers.get(i).onTouch(view, event, pointerIdBits);
+    }
+    return handled;
+  }
+
+  boolean canBegin(GestureRecognizer gestureRecognizer) {
+    for (int i = 0, count = requireToFail.size(); i < count; i++) {
+      GestureRecognizer[] pair = requireToFail.get(i);
+      if (pair[0] == gestureRecognizer && !pair[1].isRejected()) {
+        return false;
+      }
+    }
+    for (int i = 0, count = exclusive.size(); i < count; i++) {
+      GestureRecognizer other = getOther(exclusive.get(i), gestureRecognizer);
+      if (other != null && other.isInProgress()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Lets gesture recognizers that wait for {@code gestureRecognizer} to fail try again.
+   */
+  void onRejected(GestureRecognizer gestureRecognizer) {
+    for (int i = 0, count = requireToFail.size(); i < count; i++) {
+      GestureRecognizer[] pair = requireToFail.get(i);
+      if (pair[1] == gestureRecognizer) {
+        pair[0].onRequiredGestureRecognizerFailed();
+      }
+    }
+  }
+
+  private final GestureStateChangeListener stateChangeListener = new GestureStateChangeListener() {
+    @Override
+    public void onStateChanged(GestureRecognizer gestureRecognizer) {
+      // Discrete gesture recognizers win by going straight to RECOGNIZED.
+      int state = gestureRecognizer.getState();
+      if (state != GestureRecognizer.BEGAN && state != GestureRecognizer.RECOGNIZED) {
+        return;
+      }
+
+      for (int i = 0, count = requireToFail.size(); i < count; i++) {
+        GestureRecognizer[] pair = requireToFail.get(i);
+        if (pair[1] == gestureRecognizer) {
+          pair[0].reject();
+        }
+      }
+      for (int i = 0, count = exclusive.size(); i < count; i++) {
+        GestureRecognizer other = getOther(exclusive.get(i), gestureRecognizer);
+        if (other != null) {
+          other.reject();
+        }
+      }
+    }
+  };
+
+  @Nullable
+  private static GestureRecognizer getOther(GestureRecognizer[] pair, GestureRecognizer self) {
+    if (pair[0] == self) {
+      return pair[1];
+    } else if (pair[1] == self) {
+      return pair[0];
+    }
+    return null;
+  }
+
+  private static void removePairs(List<GestureRecognizer[]> pairs, GestureRecognizer self) {
+    for (int i = pairs.size() - 1; i >= 0; i--) {
+      if (getOther(pairs.get(i), self) != null) {
+        pairs.remove(i);
+      }
+    }
+  }
+}
@@ -17,6 +17,8 @@ package com.google.android.material.motion.gestures;
 
 import android.graphics.Matrix;
 import android.graphics.PointF;
+import android.os.Build;
+import android.support.annotation.CallSuper;
 import android.support.annotation.IntDef;
 import android.support.annotation.Nullable;
 import android.support.v4.view.MotionEventCompat;
@@ -26,8 +28,8 @@ import android.view.View.OnTouchListener;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
 
 /**
  * A gesture recognizer generates continuous or discrete events from a stream of device input
@@ -37,8 +39,12 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * <p>
  * To use an instance of this class, forward all touch events from the element's parent to {@link
  * #onTouch(View, MotionEvent)}.
+ * <p>
+ * By default a gesture recognizer tracks a single element. To share one instance between many
+ * elements, e.g. the items of a list, {@link #setMultiElementEnabled(boolean) enable multi-element
+ * mode}.
  */
-public abstract class GestureRecognizer implements OnTouchListener {
+public abstract class GestureRecognizer implements SplitTouchListener {
 
   /**
    * A listener that receives {@link GestureRecognizer} events.
@@ -56,6 +62,67 @@ public abstract class GestureRecognizer implements OnTouchListener {
     void onStateChanged(GestureRecognizer gestureRecognizer);
   }
 
+  /**
+   * A listener that receives the frames of the momentum that continues a gesture after release.
+   *
+   * @see #setMomentumEnabled(boolean)
+   */
+  public interface MomentumListener {
+
+    /**
+     * Notifies once per frame while momentum is in progress, after its values advanced.
+     *
+     * @param gestureRecognizer the gesture recognizer where the event originated from.
+     */
+    void onMomentumUpdate(GestureRecognizer gestureRecognizer);
+
+    /**
+     * Notifies when momentum came to rest or was {@link #stopMomentum() stopped}.
+     *
+     * @param gestureRecognizer the gesture recognizer where the event originated from.
+     */
+    void onMomentumEnd(GestureRecognizer gestureRecognizer);
+  }
+
+  /**
+   * A subscriber that receives {@link GestureSnapshot}s of a gesture recognizer on an executor.
+   *
+   * @see #subscribe(GestureSubscriber, Executor)
+   */
+  public interface GestureSubscriber {
+
+    /**
+     * Called once on the subscribing thread, before any snapshot. Nothing is delivered until the
+     * subscriber {@link GestureSubscription#request(long) requests} it.
+     */
+    void onSubscribe(GestureSubscription subscription);
+
+    /**
+     * Called on the executor with the next snapshot, in state change order. Consecutive {@link
+     * #CHANGED} snapshots may be conflated into the latest one. Other states are always
+     * delivered.
+     * <p>
+     * The snapshot is only valid during this call.
+     */
+    void onNext(GestureSnapshot snapshot);
+  }
+
+  /**
+   * The link between a gesture recognizer and a {@link GestureSubscriber}.
+   */
+  public interface GestureSubscription {
+
+    /**
+     * Adds demand for {@code n} more snapshots. Use {@link Long#MAX_VALUE} for unbounded demand.
+     */
+    void request(long n);
+
+    /**
+     * Stops delivery of snapshots. Snapshots that are already being delivered may still arrive.
+     */
+    void cancel();
+  }
+
   /**
    * The gesture recognizer has not yet recognized its gesture, but may be evaluating touch
    * events. This is the default state.
@@ -92,23 +159,138 @@ public abstract class GestureRecognizer implements OnTouchListener {
   }
 
   protected static final int UNSET_SLOP = -1;
+  protected static final int UNSET_TIMEOUT = -1;
+
+  /**
+   * The number of floats in a captured element transform: scaleX, scaleY, pivotX, pivotY,
+   * rotation, translationX and translationY.
+   */
+  static final int TRANSFORM_SIZE = 7;
+
+  /**
+   * A filtered action for events that contain none of the pointers seen by this gesture
+   * recognizer.
+   */
+  private static final int ACTION_NONE = -1;
+
+  /* Results of samplePointers(), from a droppable move to one that must be processed. */
+  private static final int MOVED_NONE = 0;
+  private static final int MOVED_IRRELEVANT = 1;
+  private static final int MOVED_RELEVANT = 2;
+
+  /**
+   * The longest time that one frame of momentum advances by, in milliseconds.
+   */
+  private static final long MAX_MOMENTUM_FRAME_MILLIS = 100;
+
+  private static final GestureStateChangeListener[] NO_LISTENERS =
+    new GestureStateChangeListener[0];
+  private static final MomentumListener[] NO_MOMENTUM_LISTENERS = new MomentumListener[0];
+  private static final ConflatingSubscription[] NO_SUBSCRIPTIONS = new ConflatingSubscription[0];
+
+  /**
+   * The transform from the element's local to untransformed coordinate space, and the transform
+   * properties it was built from. Rebuilt only when a property changes. Allocated on the first
+   * touch, together with {@link #inverse}.
+   */
+  @Nullable
+  private float[] transform;
+  @Nullable
+  private float[] transformProperties;
+  private boolean hasTransform;
+  private boolean identityTransform = true;
+
+  /* The ancestor whose coordinate space untransformed values are reported in, if any. */
+  @Nullable
+  private View coordinateSpace;
+  @Nullable
+  private AncestorTransform ancestorTransform;
+
+  /* Smooths untransformed pointer positions before they enter the pointer table, if enabled. */
+  @Nullable
+  private OneEuroFilter noiseFilter;
+  private boolean noiseFilterEnabled;
+
+  /*
+   * The local positions of the seen pointers of the last processed event, indexed by pointer id,
+   * used to drop moves that did not move any relevant pointer. Allocated on the first touch.
+   */
+  @Nullable
+  private float[] sampledPositions;
+  private int sampledIdBits;
+
+  /* Resamples CHANGED updates to frame times, if enabled. */
+  @Nullable
+  private FrameResampler resampler;
+  @Nullable
+  private GestureScheduler.FrameCallback resampleFrameCallback;
+  private float[] rawValues;
+  private float[] resampledValues;
+  private float[] deliveredValues;
+  private boolean resampleFramePosted;
+  private boolean sampledSinceFrame;
+  private boolean dispatchingFrame;
+
+  /* Continues the gesture's values after it is recognized, if enabled. */
+  @Nullable
+  private MomentumEngine momentum;
+  private boolean momentumEnabled;
+  @Nullable
+  private GestureScheduler.FrameCallback momentumFrameCallback;
+  private float[] momentumValues;
+  private float[] momentumVelocities;
+  private long lastMomentumFrameTime;
+  private boolean momentumFramePosted;
+  private volatile MomentumListener[] momentumListeners = NO_MOMENTUM_LISTENERS;
 
-  /* Temporary variables. */
-  private final Matrix matrix = new Matrix();
-  private final float[] array = new float[2];
-  private final PointF pointF = new PointF();
+  /**
+   * Inverse transform that is updated on a untransformed point calculation. Use this to convert
+   * untransformed points back to the element's local coordinate system.
+   */
+  @Nullable
+  private float[] inverse;
 
   /**
-   * Inverse transformation matrix that is updated on a untransformed point calculation. Use this
-   * to convert untransformed points back to the element's local coordinate system.
+   * The active pointers of the current gesture, keyed by pointer id. Updated before every call to
+   * {@link #onTouch(MotionEvent)}.
    */
-  private final Matrix inverse = new Matrix();
+  final PointerTable pointers = new PointerTable();
 
-  private final List<GestureStateChangeListener> listeners = new CopyOnWriteArrayList<>();
+  /* Replaced on every change, see CopyOnWriteArrays. Guarded by this for writes. */
+  private volatile GestureStateChangeListener[] listeners = NO_LISTENERS;
+  private volatile ConflatingSubscription[] subscriptions = NO_SUBSCRIPTIONS;
+  /* Created at the first state change, before which snapshots read the initial values. */
+  @Nullable
+  private volatile SnapshotSeqlock snapshots;
   @Nullable
   private View element;
   @GestureRecognizerState
   private int state = POSSIBLE;
+  private boolean rejected;
+  @Nullable
+  GestureCoordinator coordinator;
+  @Nullable
+  private GestureConfiguration configuration;
+
+  /* Set by setScheduler, otherwise the LooperGestureScheduler of the current thread is used. */
+  @Nullable
+  GestureScheduler scheduler;
+  /* The element's transform, captured on the element's thread. See #setCapturedTransform. */
+  private boolean hasCapturedTransform;
+  @Nullable
+  private float[] capturedTransform;
+
+  /* The event being processed, as seen through the pointer id bits it was dispatched with. */
+  private int pointerIdBits = ALL_POINTER_IDS;
+  @Nullable
+  private MotionEvent currentEvent;
+  private int currentAction;
+  private int currentPointerCount;
+
+  /* The per-element state in multi-element mode, and the slot of the current element. */
+  @Nullable
+  private ElementSlots elementSlots;
+  private int currentSlot = ElementSlots.NO_SLOT;
 
   /**
    * Sets the view that this gesture recognizer is attached to. This must be called before this
@@ -120,207 +302,1468 @@ public abstract class GestureRecognizer implements OnTouchListener {
   @Deprecated
   public void setElement(@Nullable View element) {
     this.element = element;
+    // Positions sampled in the previous element's coordinate space are meaningless.
+    sampledIdBits = 0;
+
+    if (element != null && configuration == null) {
+      configuration = GestureConfiguration.get(element.getContext());
+    }
   }
 
   /**
-   * Returns the view associated with this gesture recognizer.
+   * Sets the configuration that unset slops, velocities and timeouts are read from. Must be called
+   * before {@link #setElement(View)}. Defaults to the shared {@link
+   * GestureConfiguration#get(android.content.Context) configuration} of the element's context.
    */
-  public View getElement() {
-    return element;
+  public void setConfiguration(@Nullable GestureConfiguration configuration) {
+    this.configuration = configuration;
   }
 
   /**
-   * Returns the current state of the gesture recognizer.
+   * Returns the configuration of this gesture recognizer, or null if it has not been set and
+   * there is no element yet.
    */
-  @GestureRecognizerState
-  public int getState() {
-    return state;
+  @Nullable
+  public GestureConfiguration getConfiguration() {
+    return configuration;
   }
 
   /**
-   * Forwards touch events from a {@link OnTouchListener} to this gesture recognizer.
+   * Sets the clock and scheduler of the deferred reset to {@link #POSSIBLE}, timeouts and frames.
+   * Defaults to the {@link LooperGestureScheduler#forCurrentLooper() scheduler of the thread}
+   * that processes touch events.
+   * <p>
+   * Changing the scheduler {@link #reset() resets} this gesture recognizer, so that nothing stays
+   * pending on the previous one.
    */
-  @Override
-  public final boolean onTouch(View view, MotionEvent event) {
-    if (view != element) {
-      setElement(view);
+  public void setScheduler(@Nullable GestureScheduler scheduler) {
+    if (scheduler == this.scheduler) {
+      return;
     }
-    return onTouchEvent(event);
+    reset();
+    this.scheduler = scheduler;
   }
 
   /**
-   * Gesture recognizers should implement this to handle touch events.
+   * Returns the scheduler of this gesture recognizer.
+   *
+   * @throws IllegalStateException if none was set and the current thread has no Looper.
    */
-  protected boolean onTouch(MotionEvent event) {
-    return false;
+  public GestureScheduler getScheduler() {
+    return scheduler != null ? scheduler : LooperGestureScheduler.forCurrentLooper();
   }
 
   /**
-   * Forwards touch events from a {@link OnTouchListener} to this gesture recognizer.
+   * Sets the ancestor of the element whose local coordinate space untransformed centroids,
+   * translations, spans and angles are reported in, or null to report them relative to the
+   * element's position in its parent. Defaults to null.
+   * <p>
+   * The scale, rotation and translation of every view between the element and the ancestor, and
+   * their layout positions and scroll offsets, are composed into one transform. The composite is
+   * cached and only recomposed when one of those properties changes.
+   * <p>
+   * The views are read on the thread that processes touch events, so this cannot be combined with
+   * {@link AsyncGestureRecognition}, which only captures the element's own transform.
    *
-   * @deprecated in #develop#. Call {@link #onTouch(View, MotionEvent)} to forward touch events
-   * instead. GestureRecognizers should implement {@link #onTouch(MotionEvent)} instead.
+   * @throws IllegalArgumentException on the next touch event if {@code ancestor} is not an
+   * ancestor of the element.
    */
-  @Deprecated
-  public boolean onTouchEvent(MotionEvent event) {
-    return onTouch(event);
+  public void setCoordinateSpace(@Nullable View ancestor) {
+    coordinateSpace = ancestor;
+    if (ancestor != null) {
+      if (ancestorTransform == null) {
+        ancestorTransform = new AncestorTransform();
+      }
+      // A captured transform took precedence.
+      ancestorTransform.invalidate();
+    } else if (ancestorTransform != null) {
+      // Drops the views of the previous ancestor's chain.
+      ancestorTransform.invalidate();
+    }
+    hasTransform = false;
   }
 
   /**
-   * Adds a listener to this gesture recognizer.
+   * Returns the ancestor set with {@link #setCoordinateSpace(View)}, or null.
    */
-  public void addStateChangeListener(GestureStateChangeListener listener) {
-    if (!listeners.contains(listener)) {
-      listeners.add(listener);
+  @Nullable
+  public View getCoordinateSpace() {
+    return coordinateSpace;
+  }
+
+  /**
+   * Sets whether untransformed pointer positions are smoothed by an adaptive low-pass filter
+   * before centroids, spans and angles are calculated from them. Defaults to false.
+   * <p>
+   * The filter is a One Euro filter: its cutoff frequency rises with the speed of each pointer,
+   * so jitter of a slow or resting finger is removed without lagging fast movement. Enable this
+   * on devices whose digitizer reports many tiny movements of a still finger. Takes effect on the
+   * next pointer that goes down.
+   *
+   * @see #setNoiseFilterParameters(float, float)
+   */
+  public void setNoiseFilterEnabled(boolean enabled) {
+    if (enabled && noiseFilter == null) {
+      noiseFilter = new OneEuroFilter();
     }
+    noiseFilterEnabled = enabled;
   }
 
   /**
-   * Removes a listener from this gesture recognizer.
+   * Returns whether the noise filter is enabled.
    */
-  public void removeStateChangeListener(GestureStateChangeListener listener) {
-    listeners.remove(listener);
+  public boolean isNoiseFilterEnabled() {
+    return noiseFilterEnabled;
   }
 
   /**
-   * Returns the centroidX position of the current gesture in the local coordinate space of the
-   * {@link #element}.
+   * Tunes the noise filter. The cutoff frequency of each pointer is {@code minCutoff + beta *
+   * speed}, in Hz with the speed in pixels per second. Lower {@code minCutoff} to remove more
+   * jitter at rest, raise {@code beta} to reduce the lag of fast movement. Defaults to a {@code
+   * minCutoff} of 1 Hz and a {@code beta} of 0.007.
+   *
+   * @throws IllegalArgumentException if {@code minCutoff} is not positive or {@code beta} is
+   * negative.
    */
-  public final float getCentroidX() {
-    array[0] = getUntransformedCentroidX();
-    array[1] = getUntransformedCentroidY();
+  public void setNoiseFilterParameters(float minCutoff, float beta) {
+    if (noiseFilter == null) {
+      noiseFilter = new OneEuroFilter();
+    }
+    noiseFilter.setParameters(minCutoff, beta);
+  }
+
+  /**
+   * Sets whether {@link #CHANGED} updates are delivered once per display frame, resampled to the
+   * frame time, instead of once per touch event. Defaults to false.
+   * <p>
+   * Touch events arrive at a different rate and phase than frames, so values reported per touch
+   * event advance unevenly from frame to frame, and on displays refreshing faster than the
+   * digitizer some frames get no update at all. With resampling, every frame of a gesture in
+   * progress gets exactly one update. Its values are interpolated between the recent touch
+   * samples at shortly before the frame time, or extrapolated a few milliseconds past the newest
+   * sample, like the platform resamples touch events. Updates stop while the values rest.
+   * <p>
+   * {@link #BEGAN} and the terminal states are still delivered immediately, with the values of
+   * the touch event. Frames come from the {@link #getScheduler() scheduler}. Has no effect before
+   * Jelly Bean, which has no {@link android.view.Choreographer}.
+   */
+  public void setFrameResamplingEnabled(boolean enabled) {
+    if (!enabled) {
+      cancelResampleFrame();
+      resampler = null;
+      return;
+    }
+    if (resampler != null || Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+      return;
+    }
 
-    inverse.mapPoints(array);
+    int count = getResampledValueCount();
+    resampler = new FrameResampler(count);
+    rawValues = new float[count];
+    resampledValues = new float[count];
+    deliveredValues = new float[count];
+    if (resampleFrameCallback == null) {
+      resampleFrameCallback = new GestureScheduler.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeMillis) {
+          onResampleFrame(frameTimeMillis);
+        }
+      };
+    }
+    if (isInProgress()) {
+      addResampleSample(false);
+    }
+  }
 
-    return array[0];
+  /**
+   * Returns whether {@link #CHANGED} updates are resampled to frame times.
+   */
+  public boolean isFrameResamplingEnabled() {
+    return resampler != null;
   }
 
   /**
-   * Returns the centroidY position of the current gesture in the local coordinate space of the
-   * {@link #element}.
+   * Returns the number of values written by {@link #onSaveResampledValues(float[])}. Called once
+   * when frame resampling is enabled.
    */
-  public final float getCentroidY() {
-    array[0] = getUntransformedCentroidX();
-    array[1] = getUntransformedCentroidY();
+  protected int getResampledValueCount() {
+    return 0;
+  }
 
-    inverse.mapPoints(array);
+  /**
+   * Writes the continuous output values of the gesture in progress into {@link
+   * #getResampledValueCount()} floats of {@code out}, e.g. its translation. The values must not
+   * jump when fingers are added or removed.
+   */
+  protected void onSaveResampledValues(float[] out) {
+  }
 
-    return array[1];
+  /**
+   * Sets the output values of the gesture in progress, as written by {@link
+   * #onSaveResampledValues(float[])}. Called with resampled values before a resampled {@link
+   * #CHANGED} update is delivered, and with the values of the latest touch event after.
+   */
+  protected void onApplyResampledValues(float[] in) {
   }
 
   /**
-   * Returns the untransformed centroidX position of the current gesture in the local coordinate
-   * space of {@link #element}'s parent.
+   * Sets whether the values of a gesture continue to move after it is {@link #RECOGNIZED},
+   * starting with the velocity it was released with. Defaults to false.
+   * <p>
+   * The values decelerate with friction at the {@link #setMomentumDecelerationRate(float)
+   * deceleration rate}, and values outside their optional bounds spring back to them. Every frame
+   * notifies the {@link #addMomentumListener(MomentumListener) momentum listeners}, which read
+   * the values from the gesture recognizer's momentum getters. Where the values come to rest is
+   * known when the gesture is {@link #RECOGNIZED}. The next {@link MotionEvent#ACTION_DOWN} stops
+   * the momentum in progress. In {@link #setMultiElementEnabled(boolean) multi-element mode}, so
+   * does the first touch event of another element.
+   * <p>
+   * Frames come from the {@link #getScheduler() scheduler}. Has no effect before Jelly Bean, which
+   * has no {@link android.view.Choreographer}.
+   *
+   * @throws IllegalStateException if this gesture recognizer has no continuous values.
    */
-  public abstract float getUntransformedCentroidX();
+  public void setMomentumEnabled(boolean enabled) {
+    if (enabled && getMomentumValueCount() == 0) {
+      throw new IllegalStateException(
+        getClass().getSimpleName() + " does not support momentum.");
+    }
+    if (!enabled) {
+      stopMomentum();
+    } else if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+      return;
+    } else {
+      getMomentum();
+    }
+    momentumEnabled = enabled;
+  }
 
   /**
-   * Returns the untransformed centroidY position of the current gesture in the local coordinate
-   * space of {@link #element}'s parent.
+   * Returns whether the values of a gesture continue to move after it is recognized.
    */
-  public abstract float getUntransformedCentroidY();
+  public boolean isMomentumEnabled() {
+    return momentumEnabled;
+  }
 
   /**
-   * Sets the state of the gesture recognizer and notifies all listeners.
+   * Sets the fraction of velocity that momentum keeps every millisecond. Defaults to {@link
+   * FlingGestureRecognizer#DECELERATION_RATE_NORMAL}.
+   *
+   * @throws IllegalArgumentException if the rate is not between 0 and 1, exclusive.
    */
-  protected void setState(@GestureRecognizerState int state) {
-    this.state = state;
+  public void setMomentumDecelerationRate(float decelerationRate) {
+    getMomentum().setDecelerationRate(decelerationRate);
+  }
+
+  /**
+   * Returns whether momentum is moving the values of the last recognized gesture.
+   */
+  public boolean isMomentumInProgress() {
+    return momentum != null && momentum.isRunning();
+  }
 
-    for (GestureStateChangeListener listener : listeners) {
-      listener.onStateChanged(this);
+  /**
+   * Stops the momentum in progress, if any, leaving its values where they are.
+   */
+  public void stopMomentum() {
+    if (!isMomentumInProgress()) {
+      return;
     }
+    if (momentumFramePosted) {
+      getScheduler().removeFrameCallback(momentumFrameCallback);
+      momentumFramePosted = false;
+    }
+    momentum.stop();
+    MomentumListener[] momentumListeners = this.momentumListeners;
+    for (int i = 0; i < momentumListeners.length; i++) {
+      momentumListeners[i].onMomentumEnd(this);
+    }
+  }
 
-    element.removeCallbacks(setStateToPossible);
-    if (state == RECOGNIZED || state == CANCELLED) {
-      element.post(setStateToPossible);
+  /**
+   * Adds a listener for the frames of momentum.
+   */
+  public void addMomentumListener(MomentumListener listener) {
+    synchronized (this) {
+      momentumListeners = CopyOnWriteArrays.add(momentumListeners, listener);
     }
   }
 
-  private final Runnable setStateToPossible = new Runnable() {
-    @Override
-    public void run() {
-      setState(POSSIBLE);
+  /**
+   * Removes a listener for the frames of momentum.
+   */
+  public void removeMomentumListener(MomentumListener listener) {
+    synchronized (this) {
+      momentumListeners = CopyOnWriteArrays.remove(momentumListeners, listener);
     }
-  };
+  }
 
-  protected boolean isInProgress() {
-    return state == BEGAN || state == CHANGED;
+  /**
+   * Returns the number of continuous values that momentum moves, or 0 if this gesture recognizer
+   * does not support momentum.
+   */
+  protected int getMomentumValueCount() {
+    return 0;
   }
 
   /**
-   * Calculates the untransformed centroid of all the active pointers in the given motion event.
-   *
-   * @return A point representing the centroid. The caller should read the values immediately as
-   * the object may be reused in other calculations.
+   * Returns the speed in units per second below which momentum comes to rest.
    */
-  protected PointF calculateUntransformedCentroid(MotionEvent event) {
-    return calculateUntransformedCentroid(event, Integer.MAX_VALUE);
+  protected float getMomentumRestVelocity() {
+    return 1f;
   }
 
   /**
-   * Calculates the centroid of the first {@code n} active pointers in the given motion event.
+   * Writes the values of the gesture at release and their velocities in units per second into
+   * {@link #getMomentumValueCount()} floats of each array. Called when the gesture is {@link
+   * #RECOGNIZED}.
+   */
+  protected void onSaveMomentumStart(float[] values, float[] velocities) {
+  }
+
+  /**
+   * Sets the bounds that a momentum value springs back to.
    *
-   * @return A point representing the centroid. The caller should read the values immediately as
-   * the object may be reused in other calculations.
+   * @throws IllegalArgumentException if {@code min} is greater than {@code max}.
    */
-  protected PointF calculateUntransformedCentroid(MotionEvent event, int n) {
-    int action = MotionEventCompat.getActionMasked(event);
-    int index = MotionEventCompat.getActionIndex(event);
+  protected final void setMomentumBounds(int index, float min, float max) {
+    getMomentum().setBounds(index, min, max);
+  }
 
-    float sumX = 0;
-    float sumY = 0;
-    int num = 0;
-    for (int i = 0, count = event.getPointerCount(); i < count && i < n; i++) {
-      if (action == MotionEvent.ACTION_POINTER_UP && index == i) {
-        continue;
-      }
+  /**
+   * Returns a momentum value, or 0 if there was no momentum yet.
+   */
+  protected final float getMomentumValue(int index) {
+    return momentum != null ? momentum.getValue(index) : 0f;
+  }
 
-      sumX += calculateUntransformedPoint(event, i).x;
-      sumY += calculateUntransformedPoint(event, i).y;
-      num++;
+  /**
+   * Returns where a momentum value comes to rest, or 0 if there was no momentum yet.
+   */
+  protected final float getProjectedMomentumValue(int index) {
+    return momentum != null ? momentum.getProjectedValue(index) : 0f;
+  }
+
+  private MomentumEngine getMomentum() {
+    if (momentum == null) {
+      int count = getMomentumValueCount();
+      momentum = new MomentumEngine(count);
+      momentum.setRestVelocity(getMomentumRestVelocity());
+      momentumValues = new float[count];
+      momentumVelocities = new float[count];
+    }
+    return momentum;
+  }
+
+  private void startMomentum() {
+    stopMomentum();
+    onSaveMomentumStart(momentumValues, momentumVelocities);
+    momentum.start(momentumValues, momentumVelocities);
+    if (!momentum.isRunning()) {
+      return;
+    }
+
+    if (momentumFrameCallback == null) {
+      momentumFrameCallback = new GestureScheduler.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeMillis) {
+          onMomentumFrame(frameTimeMillis);
+        }
+      };
     }
+    GestureScheduler scheduler = getScheduler();
+    lastMomentumFrameTime =
+      currentEvent != null ? currentEvent.getEventTime() : scheduler.uptimeMillis();
+    momentumFramePosted = true;
+    scheduler.postFrameCallback(momentumFrameCallback);
+  }
 
-    pointF.set(sumX / num, sumY / num);
-    return pointF;
+  private void onMomentumFrame(long frameTime) {
+    momentumFramePosted = false;
+    // A stalled frame does not make the values jump, and every frame advances so that momentum
+    // always comes to rest.
+    long elapsed =
+      Math.max(1, Math.min(MAX_MOMENTUM_FRAME_MILLIS, frameTime - lastMomentumFrameTime));
+    lastMomentumFrameTime = frameTime;
+
+    boolean running = momentum.step(elapsed);
+    MomentumListener[] momentumListeners = this.momentumListeners;
+    for (int i = 0; i < momentumListeners.length; i++) {
+      momentumListeners[i].onMomentumUpdate(this);
+    }
+    if (running) {
+      momentumFramePosted = true;
+      getScheduler().postFrameCallback(momentumFrameCallback);
+    } else {
+      for (int i = 0; i < momentumListeners.length; i++) {
+        momentumListeners[i].onMomentumEnd(this);
+      }
+    }
   }
 
   /**
-   * Calculates the untransformed x and y of the pointer given by the pointer index in the given
-   * motion event.
-   * <p>
-   * An untransformed coordinate represents the location of a pointer that is not transformed by
-   * the element's transformation matrix. {@code calculateUntransformedPoint(event, 0).x} is not
-   * necessarily equal to {@code event.getRawX()}.
-   *
-   * @return A point representing the untransformed x and y. The caller should read the values
-   * immediately as the object may be reused in other calculations.
+   * Returns the view associated with this gesture recognizer.
    */
-  protected PointF calculateUntransformedPoint(MotionEvent event, int pointerIndex) {
-    array[0] = event.getX(pointerIndex);
-    array[1] = event.getY(pointerIndex);
-
-    getTransformationMatrix(element, matrix, inverse);
-    matrix.mapPoints(array);
-    pointF.set(array[0], array[1]);
-
-    return pointF;
+  public View getElement() {
+    return element;
   }
 
   /**
-   * Calculates the transformation matrices that can convert from local to untransformed
-   * coordinate spaces.
-   *
-   * @param matrix This output matrix can convert from local to untransformed coordinate space.
-   * @param inverse This output matrix can convert from untransformed to local coordinate space.
+   * Returns the current state of the gesture recognizer.
    */
-  public static void getTransformationMatrix(View element, Matrix matrix, Matrix inverse) {
-    matrix.reset();
-    matrix.postScale(
-      element.getScaleX(), element.getScaleY(), element.getPivotX(), element.getPivotY());
-    matrix.postRotate(element.getRotation(), element.getPivotX(), element.getPivotY());
-    matrix.postTranslate(element.getTranslationX(), element.getTranslationY());
+  @GestureRecognizerState
+  public int getState() {
+    return state;
+  }
 
-    // Save the inverse matrix.
-    matrix.invert(inverse);
+  /**
+   * Forwards touch events from a {@link OnTouchListener} to this gesture recognizer.
+   */
+  @Override
+  public final boolean onTouch(View view, MotionEvent event) {
+    return onTouch(view, event, ALL_POINTER_IDS);
+  }
+
+  /**
+   * Forwards touch events to this gesture recognizer, but only the pointers whose ids are set in
+   * {@code pointerIdBits}. Use this to let different gesture recognizers track different fingers
+   * of the same motion event.
+   */
+  @Override
+  public final boolean onTouch(View view, MotionEvent event, int pointerIdBits) {
+    if (elementSlots != null) {
+      switchElement(view, event, pointerIdBits);
+    } else if (view != element) {
+      setElement(view);
+    }
+    this.pointerIdBits = pointerIdBits;
+    return onTouchEvent(event);
+  }
+
+  /**
+   * Enables or disables multi-element mode. Must be called while no gesture is in progress.
+   * <p>
+   * In multi-element mode, one gesture recognizer serves any number of elements. Each element
+   * gets a slot of compact state on its first touch, and concurrent gestures on different
+   * elements do not disturb each other. The state, the getters and {@link #getElement()} reflect
+   * the element that received the last touch event, which is also the element listeners are
+   * notified for.
+   * <p>
+   * The gesture recognizer holds on to the elements it has seen. {@link #removeElement(View)
+   * Remove} elements when they are detached for good.
+   *
+   * @throws IllegalStateException if this type of gesture recognizer does not support
+   * multi-element mode.
+   */
+  public void setMultiElementEnabled(boolean enabled) {
+    if (!enabled) {
+      elementSlots = null;
+      currentSlot = ElementSlots.NO_SLOT;
+      return;
+    }
+    if (!isMultiElementSupported()) {
+      throw new IllegalStateException(
+        getClass().getSimpleName() + " does not support multi-element mode.");
+    }
+    if (elementSlots == null) {
+      elementSlots = new ElementSlots(getSlotStateSize());
+      currentSlot = ElementSlots.NO_SLOT;
+    }
+  }
+
+  /**
+   * Returns whether this gesture recognizer is in multi-element mode.
+   */
+  public boolean isMultiElementEnabled() {
+    return elementSlots != null;
+  }
+
+  /**
+   * Returns the number of elements that have a state slot in multi-element mode.
+   */
+  public int getElementCount() {
+    return elementSlots != null ? elementSlots.size() : 0;
+  }
+
+  /**
+   * Drops the state slot of an element in multi-element mode. A gesture in progress on the
+   * current element is {@link #CANCELLED} first. Does nothing for unknown elements.
+   */
+  public void removeElement(View element) {
+    if (elementSlots == null) {
+      return;
+    }
+    int slot = elementSlots.remove(element);
+    if (slot != ElementSlots.NO_SLOT && slot == currentSlot) {
+      reset();
+      currentSlot = ElementSlots.NO_SLOT;
+    }
+  }
+
+  /**
+   * Returns whether this gesture recognizer keeps all of its per-element state in {@link
+   * #onSaveSlotState(float[], int) slots}. Gesture recognizers with timers or other state that
+   * cannot be saved return false.
+   */
+  protected boolean isMultiElementSupported() {
+    return false;
+  }
+
+  /**
+   * Returns the number of floats written by {@link #onSaveSlotState(float[], int)}.
+   */
+  protected int getSlotStateSize() {
+    return 0;
+  }
+
+  /**
+   * Saves the per-element state of the current element into {@link #getSlotStateSize()} floats of
+   * {@code out} at {@code offset}, before switching to another element in multi-element mode.
+   */
+  protected void onSaveSlotState(float[] out, int offset) {
+  }
+
+  /**
+   * Restores the per-element state of the next element, as written by {@link
+   * #onSaveSlotState(float[], int)}. The floats of an element that has not been saved yet are all
+   * zero.
+   *
+   * @param event The touch event that is about to be processed for the element.
+   */
+  protected void onRestoreSlotState(float[] in, int offset, MotionEvent event) {
+  }
+
+  /**
+   * Makes {@code view} the current element, saving the state of the previous element into its
+   * slot and restoring the state of the new one.
+   */
+  private void switchElement(View view, MotionEvent event, int pointerIdBits) {
+    int slot = elementSlots.get(view);
+    if (slot != ElementSlots.NO_SLOT && slot == currentSlot) {
+      return;
+    }
+
+    if (resampler != null) {
+      cancelResampleFrame();
+      if (sampledSinceFrame && isInProgress()) {
+        // The pending frame would deliver the values of the next element, so the previous
+        // element gets its latest values now.
+        sampledSinceFrame = false;
+        dispatchingFrame = true;
+        setState(CHANGED);
+        dispatchingFrame = false;
+      }
+      resampler.clear();
+    }
+    // Momentum moves the values of the previous element, listeners would apply them to the next.
+    stopMomentum();
+    if (currentSlot != ElementSlots.NO_SLOT) {
+      if (state == RECOGNIZED || state == CANCELLED) {
+        // Run the deferred reset now, it would otherwise apply to the next element.
+        cancelDeferred(setStateToPossible);
+        setState(POSSIBLE);
+      }
+      elementSlots.set(currentSlot, state, rejected);
+      onSaveSlotState(elementSlots.getData(), elementSlots.getOffset(currentSlot));
+    }
+
+    if (slot == ElementSlots.NO_SLOT) {
+      slot = elementSlots.add(view);
+    }
+    currentSlot = slot;
+    setElement(view);
+
+    state = elementSlots.getState(slot);
+    rejected = elementSlots.isRejected(slot);
+    onRestoreSlotState(elementSlots.getData(), elementSlots.getOffset(slot), event);
+
+    // The pointers of the element's touch stream are all in the event.
+    pointers.clear();
+    if (MotionEventCompat.getActionMasked(event) != MotionEvent.ACTION_DOWN) {
+      for (int i = 0, count = event.getPointerCount(); i < count; i++) {
+        int id = event.getPointerId(i);
+        if (isSeen(id, pointerIdBits)) {
+          addPointer(event, i);
+        }
+      }
+    }
+  }
+
+  /**
+   * Gesture recognizers should implement this to handle touch events.
+   */
+  protected boolean onTouch(MotionEvent event) {
+    return false;
+  }
+
+  /**
+   * Forwards touch events from a {@link OnTouchListener} to this gesture recognizer.
+   *
+   * @deprecated in #develop#. Call {@link #onTouch(View, MotionEvent)} to forward touch events
+   * instead. GestureRecognizers should implement {@link #onTouch(MotionEvent)} instead.
+   */
+  @Deprecated
+  public boolean onTouchEvent(MotionEvent event) {
+    int pointerIdBits = this.pointerIdBits;
+    this.pointerIdBits = ALL_POINTER_IDS;
+
+    int action = filterAction(event, pointerIdBits);
+    if (action == ACTION_NONE) {
+      return false;
+    }
+    if (action == MotionEvent.ACTION_DOWN) {
+      rejected = false;
+      // A new touch catches the content in motion.
+      stopMomentum();
+    }
+    if (rejected) {
+      return false;
+    }
+
+    currentEvent = event;
+    currentAction = action;
+    // The element's transform is read once per event and reused for all of its pointers.
+    boolean transformChanged = updateTransform();
+    int moved = samplePointers(event, action, pointerIdBits, transformChanged);
+    if (moved == MOVED_NONE) {
+      onUnchangedMove(event);
+      currentEvent = null;
+      return true;
+    }
+    trackPointers(event, action, pointerIdBits);
+    boolean handled;
+    if (moved == MOVED_IRRELEVANT) {
+      onUnchangedMove(event);
+      handled = true;
+    } else {
+      handled = onTouch(event);
+    }
+    currentEvent = null;
+
+    if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+      pointers.clear();
+      sampledIdBits = 0;
+    }
+    return handled;
+  }
+
+  /**
+   * Called instead of {@link #onTouch(MotionEvent)} for an {@link MotionEvent#ACTION_MOVE} in
+   * which no {@link #isRelevantPointer(int) relevant pointer} moved, e.g. one that only changed
+   * the pressure. Gesture recognizers that track velocity should let it see the values hold still
+   * at the time of the event.
+   */
+  protected void onUnchangedMove(MotionEvent event) {
+  }
+
+  /**
+   * Returns whether the position of the pointer with the given id affects the values of this
+   * gesture recognizer. Moves of other pointers are not passed to {@link #onTouch(MotionEvent)}.
+   */
+  protected boolean isRelevantPointer(int id) {
+    return true;
+  }
+
+  /**
+   * Records the local positions of the seen pointers of the event and compares them against the
+   * previous event.
+   *
+   * @return {@link #MOVED_RELEVANT} unless the event is a move that can be dropped, otherwise
+   * whether only pointers that are not relevant moved.
+   */
+  private int samplePointers(
+    MotionEvent event, int action, int pointerIdBits, boolean transformChanged) {
+    if (sampledPositions == null) {
+      sampledPositions = new float[(PointerTable.MAX_POINTER_ID + 1) * 2];
+    }
+    if (action == MotionEvent.ACTION_DOWN) {
+      sampledIdBits = 0;
+    }
+    // A noise filter keeps converging while the pointers hold still, a coordinator may allow a
+    // waiting gesture recognizer to begin at any time, and a changed transform moves the element
+    // under the pointers.
+    int moved = action != MotionEvent.ACTION_MOVE || noiseFilterEnabled || transformChanged
+      || coordinator != null && !isInProgress() ? MOVED_RELEVANT : MOVED_NONE;
+
+    float[] positions = sampledPositions;
+    int idBits = 0;
+    for (int i = 0, count = event.getPointerCount(); i < count; i++) {
+      int id = event.getPointerId(i);
+      if (!isSeen(id, pointerIdBits)) {
+        continue;
+      }
+      float x = event.getX(i);
+      float y = event.getY(i);
+      if (moved != MOVED_RELEVANT
+        && (!isSeen(id, sampledIdBits) || positions[id * 2] != x || positions[id * 2 + 1] != y)) {
+        moved = isSeen(id, sampledIdBits) && !isRelevantPointer(id)
+          ? MOVED_IRRELEVANT : MOVED_RELEVANT;
+      }
+      positions[id * 2] = x;
+      positions[id * 2 + 1] = y;
+      idBits |= 1 << id;
+    }
+    sampledIdBits |= idBits;
+    return moved;
+  }
+
+  /**
+   * Returns the masked action of the given motion event, as seen by this gesture recognizer.
+   * <p>
+   * When the event was dispatched with {@link #onTouch(View, MotionEvent, int) pointer id bits},
+   * this is the action of the event filtered to those pointers. Gesture recognizers should use
+   * this instead of {@link MotionEventCompat#getActionMasked(MotionEvent)}.
+   */
+  protected final int getActionMasked(MotionEvent event) {
+    return event == currentEvent ? currentAction : MotionEventCompat.getActionMasked(event);
+  }
+
+  /**
+   * Returns the number of pointers in the given motion event, as seen by this gesture recognizer.
+   * <p>
+   * Gesture recognizers should use this instead of {@link MotionEvent#getPointerCount()}.
+   */
+  protected final int getPointerCount(MotionEvent event) {
+    return event == currentEvent ? currentPointerCount : event.getPointerCount();
+  }
+
+  /**
+   * Returns the action of the given motion event filtered to the pointers in {@code
+   * pointerIdBits}, and updates {@link #currentPointerCount}.
+   */
+  private int filterAction(MotionEvent event, int pointerIdBits) {
+    int action = MotionEventCompat.getActionMasked(event);
+    int count = event.getPointerCount();
+    if (pointerIdBits == ALL_POINTER_IDS) {
+      currentPointerCount = count;
+      return action;
+    }
+
+    int filteredCount = 0;
+    for (int i = 0; i < count; i++) {
+      if (isSeen(event.getPointerId(i), pointerIdBits)) {
+        filteredCount++;
+      }
+    }
+    currentPointerCount = filteredCount;
+    if (filteredCount == 0) {
+      return ACTION_NONE;
+    }
+
+    int actionId = event.getPointerId(MotionEventCompat.getActionIndex(event));
+    switch (action) {
+      case MotionEvent.ACTION_DOWN:
+      case MotionEvent.ACTION_MOVE:
+      case MotionEvent.ACTION_UP:
+      case MotionEvent.ACTION_CANCEL:
+        return action;
+      case MotionEvent.ACTION_POINTER_DOWN:
+        if (!isSeen(actionId, pointerIdBits)) {
+          return MotionEvent.ACTION_MOVE;
+        }
+        return filteredCount == 1 ? MotionEvent.ACTION_DOWN : MotionEvent.ACTION_POINTER_DOWN;
+      case MotionEvent.ACTION_POINTER_UP:
+        if (!isSeen(actionId, pointerIdBits)) {
+          return MotionEvent.ACTION_MOVE;
+        }
+        return filteredCount == 1 ? MotionEvent.ACTION_UP : MotionEvent.ACTION_POINTER_UP;
+      default:
+        return ACTION_NONE;
+    }
+  }
+
+  private static boolean isSeen(int pointerId, int pointerIdBits) {
+    return (pointerIdBits & (1 << pointerId)) != 0;
+  }
+
+  /**
+   * Updates {@link #pointers} with the given motion event. Only the pointer that went down or up
+   * is touched on {@link MotionEvent#ACTION_POINTER_DOWN} and {@link
+   * MotionEvent#ACTION_POINTER_UP}, so the running sums stay valid without a full rescan.
+   */
+  private void trackPointers(MotionEvent event, int action, int pointerIdBits) {
+    int index = MotionEventCompat.getActionIndex(event);
+    switch (action) {
+      case MotionEvent.ACTION_DOWN:
+        pointers.clear();
+        // Fall through.
+      case MotionEvent.ACTION_POINTER_DOWN:
+        addPointer(event, index);
+        break;
+      case MotionEvent.ACTION_POINTER_UP:
+        pointers.remove(event.getPointerId(index));
+        break;
+      case MotionEvent.ACTION_MOVE:
+      case MotionEvent.ACTION_UP:
+      case MotionEvent.ACTION_CANCEL:
+        for (int i = 0, count = event.getPointerCount(); i < count; i++) {
+          int id = event.getPointerId(i);
+          if (isSeen(id, pointerIdBits)) {
+            movePointer(event, i, id);
+          }
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  private void addPointer(MotionEvent event, int index) {
+    int id = event.getPointerId(index);
+    PointF point = calculateUntransformedPoint(event, index);
+    if (noiseFilterEnabled) {
+      noiseFilter.reset(id, event.getEventTime(), point.x, point.y);
+    }
+    pointers.add(id, point.x, point.y);
+  }
+
+  private void movePointer(MotionEvent event, int index, int id) {
+    if (noiseFilterEnabled && !pointers.contains(id)) {
+      addPointer(event, index);
+      return;
+    }
+
+    PointF point = calculateUntransformedPoint(event, index);
+    if (noiseFilterEnabled) {
+      noiseFilter.filter(id, event.getEventTime(), point.x, point.y);
+      pointers.move(id, noiseFilter.getFilteredX(), noiseFilter.getFilteredY());
+    } else {
+      pointers.move(id, point.x, point.y);
+    }
+  }
+
+  /**
+   * Adds a listener to this gesture recognizer.
+   */
+  public void addStateChangeListener(GestureStateChangeListener listener) {
+    synchronized (this) {
+      listeners = CopyOnWriteArrays.add(listeners, listener);
+    }
+  }
+
+  /**
+   * Removes a listener from this gesture recognizer.
+   */
+  public void removeStateChangeListener(GestureStateChangeListener listener) {
+    synchronized (this) {
+      listeners = CopyOnWriteArrays.remove(listeners, listener);
+    }
+  }
+
+  /**
+   * Returns the centroidX position of the current gesture in the local coordinate space of the
+   * {@link #element}.
+   */
+  public final float getCentroidX() {
+    if (identityTransform) {
+      return getUntransformedCentroidX();
+    }
+    return AffineTransform.mapX(
+      inverse, getUntransformedCentroidX(), getUntransformedCentroidY());
+  }
+
+  /**
+   * Returns the centroidY position of the current gesture in the local coordinate space of the
+   * {@link #element}.
+   */
+  public final float getCentroidY() {
+    if (identityTransform) {
+      return getUntransformedCentroidY();
+    }
+    return AffineTransform.mapY(
+      inverse, getUntransformedCentroidX(), getUntransformedCentroidY());
+  }
+
+  /**
+   * Returns the untransformed centroidX position of the current gesture in the local coordinate
+   * space of {@link #element}'s parent.
+   */
+  public abstract float getUntransformedCentroidX();
+
+  /**
+   * Returns the untransformed centroidY position of the current gesture in the local coordinate
+   * space of {@link #element}'s parent.
+   */
+  public abstract float getUntransformedCentroidY();
+
+  /**
+   * Reads the values published at the last state change into {@code out}.
+   * <p>
+   * Unlike the getters, this may be called from any thread, e.g. a render thread. It never locks
+   * or allocates, and always sees the values of a single state change even while the gesture
+   * recognizer is processing the next event.
+   */
+  public void getSnapshot(GestureSnapshot out) {
+    SnapshotSeqlock snapshots = this.snapshots;
+    if (snapshots == null) {
+      out.clear();
+    } else {
+      snapshots.read(out);
+    }
+  }
+
+  /**
+   * Subscribes to the snapshots published at every state change. {@link
+   * GestureSubscriber#onSubscribe(GestureSubscription)} is called before this returns.
+   * <p>
+   * Unlike a {@link GestureStateChangeListener}, a slow subscriber never holds up this gesture
+   * recognizer. While it has not yet processed the previous snapshot, newer {@link #CHANGED}
+   * snapshots replace the pending one instead of being queued, and while it has no demand they
+   * are not buffered at all. The start and terminal states of the latest gestures are never
+   * conflated away, but older gestures that are still pending are dropped when a new one starts.
+   *
+   * @param executor Runs {@link GestureSubscriber#onNext(GestureSnapshot)}.
+   */
+  public GestureSubscription subscribe(GestureSubscriber subscriber, Executor executor) {
+    ConflatingSubscription subscription = new ConflatingSubscription(this, subscriber, executor);
+    synchronized (this) {
+      subscriptions = CopyOnWriteArrays.add(subscriptions, subscription);
+    }
+    subscriber.onSubscribe(subscription);
+    return subscription;
+  }
+
+  /**
+   * Returns whether any subscriber is waiting for snapshots. Gesture recognizers and the code
+   * driving them may skip optional work, e.g. extra velocity sampling, when nobody is waiting.
+   */
+  public boolean hasSubscriberDemand() {
+    ConflatingSubscription[] subscriptions = this.subscriptions;
+    for (int i = 0; i < subscriptions.length; i++) {
+      if (subscriptions[i].hasDemand()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  void removeSubscription(ConflatingSubscription subscription) {
+    synchronized (this) {
+      subscriptions = CopyOnWriteArrays.remove(subscriptions, subscription);
+    }
+  }
+
+  /**
+   * Fills the snapshot published at a state change. Subclasses that override this must call
+   * through to super.
+   */
+  @CallSuper
+  protected void onPublishSnapshot(GestureSnapshot snapshot) {
+    snapshot.state = state;
+    snapshot.centroidX = getUntransformedCentroidX();
+    snapshot.centroidY = getUntransformedCentroidY();
+  }
+
+  /**
+   * Sets the state of the gesture recognizer and notifies all listeners.
+   */
+  protected void setState(@GestureRecognizerState int state) {
+    if (resampler != null && !dispatchingFrame) {
+      if (state == CHANGED && isInProgress()) {
+        // Delivered on the next frame.
+        this.state = state;
+        addResampleSample(true);
+        return;
+      }
+      cancelResampleFrame();
+      resampler.clear();
+      if (state == BEGAN) {
+        addResampleSample(false);
+      }
+    }
+    this.state = state;
+    if (state == RECOGNIZED && momentumEnabled) {
+      // Before notifying, so that listeners can read where the values come to rest.
+      startMomentum();
+    }
+
+    publishSnapshot();
+
+    GestureStateChangeListener[] listeners = this.listeners;
+    for (int i = 0; i < listeners.length; i++) {
+      listeners[i].onStateChanged(this);
+    }
+
+    if (setStateToPossible != null) {
+      cancelDeferred(setStateToPossible);
+    }
+    if (state == RECOGNIZED || state == CANCELLED) {
+      if (setStateToPossible == null) {
+        setStateToPossible = new Runnable() {
+          @Override
+          public void run() {
+            setState(POSSIBLE);
+          }
+        };
+      }
+      postDeferred(setStateToPossible);
+    }
+  }
+
+  /**
+   * Fills the shared snapshot of this thread, publishes it to readers of {@link
+   * #getSnapshot(GestureSnapshot)} and offers it to the subscriptions, which copy it.
+   * <p>
+   * {@link #CHANGED} snapshots are only offered when a subscriber is waiting for them.
+   */
+  private void publishSnapshot() {
+    if (snapshots == null) {
+      snapshots = new SnapshotSeqlock();
+    }
+    GestureSnapshot snapshot = GestureWorkspace.get().snapshot;
+    snapshot.clear();
+    onPublishSnapshot(snapshot);
+    snapshots.write(snapshot);
+
+    ConflatingSubscription[] subscriptions = this.subscriptions;
+    if (subscriptions.length == 0 || state == CHANGED && !hasSubscriberDemand()) {
+      return;
+    }
+    for (int i = 0; i < subscriptions.length; i++) {
+      subscriptions[i].offer(snapshot);
+    }
+  }
+
+  /**
+   * Adds the current output values as a sample for resampling.
+   *
+   * @param schedule Whether the values have not been delivered yet and need a frame.
+   */
+  private void addResampleSample(boolean schedule) {
+    long time =
+      currentEvent != null ? currentEvent.getEventTime() : getScheduler().uptimeMillis();
+    onSaveResampledValues(rawValues);
+    resampler.add(time, rawValues);
+
+    if (!schedule) {
+      System.arraycopy(rawValues, 0, deliveredValues, 0, rawValues.length);
+      return;
+    }
+    sampledSinceFrame = true;
+    postResampleFrame();
+  }
+
+  private void onResampleFrame(long frameTime) {
+    resampleFramePosted = false;
+    if (resampler == null || !isInProgress() || !resampler.resample(frameTime, resampledValues)) {
+      return;
+    }
+    if (!sampledSinceFrame && Arrays.equals(resampledValues, deliveredValues)) {
+      // At rest. The next sample schedules the next frame.
+      return;
+    }
+    sampledSinceFrame = false;
+
+    onSaveResampledValues(rawValues);
+    onApplyResampledValues(resampledValues);
+    dispatchingFrame = true;
+    setState(CHANGED);
+    dispatchingFrame = false;
+    onApplyResampledValues(rawValues);
+
+    System.arraycopy(resampledValues, 0, deliveredValues, 0, resampledValues.length);
+    postResampleFrame();
+  }
+
+  private void postResampleFrame() {
+    if (!resampleFramePosted) {
+      resampleFramePosted = true;
+      getScheduler().postFrameCallback(resampleFrameCallback);
+    }
+  }
+
+  private void cancelResampleFrame() {
+    if (resampleFramePosted) {
+      getScheduler().removeFrameCallback(resampleFrameCallback);
+      resampleFramePosted = false;
+    }
+  }
+
+  private void postDeferred(Runnable runnable) {
+    getScheduler().post(runnable);
+  }
+
+  private void cancelDeferred(Runnable runnable) {
+    getScheduler().removeCallbacks(runnable);
+  }
+
+  /* Created at the first terminal state. */
+  @Nullable
+  private Runnable setStateToPossible;
+
+  protected boolean isInProgress() {
+    return state == BEGAN || state == CHANGED;
+  }
+
+  /**
+   * Returns this gesture recognizer to a clean {@link #POSSIBLE} state, e.g. when its element is
+   * recycled. A gesture in progress is {@link #CANCELLED} first, and momentum in progress is
+   * stopped.
+   * <p>
+   * Keeps the element, the listeners and any allocated resources so that the gesture recognizer
+   * can be reused without reallocating.
+   */
+  public void reset() {
+    if (isInProgress()) {
+      setState(CANCELLED);
+    }
+    stopMomentum();
+    if (setStateToPossible != null) {
+      cancelDeferred(setStateToPossible);
+    }
+    rejected = false;
+    pointers.clear();
+    sampledIdBits = 0;
+
+    if (state != POSSIBLE) {
+      setState(POSSIBLE);
+    }
+  }
+
+  /**
+   * Restores the properties that callers configure to the defaults of a new gesture recognizer,
+   * e.g. when it is {@link GestureRecognizerPool#release(GestureRecognizer) pooled}. Turns off
+   * noise filtering, frame resampling and momentum, restores the momentum bounds and deceleration
+   * rate, and clears the coordinate space. Unset slops and timeouts are read from the
+   * configuration again with the next element.
+   * <p>
+   * The {@link #setConfiguration(GestureConfiguration) configuration} and the {@link
+   * #setScheduler(GestureScheduler) scheduler} are kept, as they are usually shared by all gesture
+   * recognizers of a screen. Subclasses with their own properties should override this to restore
+   * them, and call through to super.
+   */
+  @CallSuper
+  protected void restoreDefaults() {
+    setNoiseFilterEnabled(false);
+    if (noiseFilter != null) {
+      noiseFilter.setParameters(OneEuroFilter.DEFAULT_MIN_CUTOFF, OneEuroFilter.DEFAULT_BETA);
+    }
+    setFrameResamplingEnabled(false);
+    setMomentumEnabled(false);
+    if (momentum != null) {
+      momentum.setDecelerationRate(FlingGestureRecognizer.DECELERATION_RATE_NORMAL);
+      for (int i = 0, count = getMomentumValueCount(); i < count; i++) {
+        momentum.setBounds(i, Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY);
+      }
+    }
+    setCoordinateSpace(null);
+    setCapturedTransform(null, 0);
+  }
+
+  /**
+   * Removes all listeners from this gesture recognizer, including its momentum listeners, and
+   * cancels all subscriptions. Momentum in progress is stopped first.
+   */
+  void removeAllStateChangeListeners() {
+    stopMomentum();
+    ConflatingSubscription[] subscriptions;
+    synchronized (this) {
+      listeners = NO_LISTENERS;
+      momentumListeners = NO_MOMENTUM_LISTENERS;
+      subscriptions = this.subscriptions;
+    }
+    for (int i = 0; i < subscriptions.length; i++) {
+      subscriptions[i].cancel();
+    }
+  }
+
+  /**
+   * Returns whether this gesture recognizer is allowed to transition to {@link #BEGAN}.
+   * Gesture recognizers should check this before beginning, and try again on a later touch event
+   * if it returns false.
+   *
+   * @see GestureCoordinator
+   */
+  protected boolean canBegin() {
+    return coordinator == null || coordinator.canBegin(this);
+  }
+
+  /**
+   * Stops this gesture recognizer from processing the rest of the current touch stream. A gesture
+   * in progress is {@link #CANCELLED}. Touch events are ignored until the next {@link
+   * MotionEvent#ACTION_DOWN}.
+   */
+  protected void reject() {
+    if (rejected) {
+      return;
+    }
+    rejected = true;
+    pointers.clear();
+
+    if (isInProgress()) {
+      setState(CANCELLED);
+    }
+    if (coordinator != null) {
+      coordinator.onRejected(this);
+    }
+  }
+
+  /**
+   * Called when a gesture recognizer that this one is required to wait for has been rejected.
+   * Gesture recognizers that deferred beginning because {@link #canBegin()} returned false may
+   * try again here instead of waiting for the next touch event.
+   */
+  protected void onRequiredGestureRecognizerFailed() {
+  }
+
+  /**
+   * Returns whether this gesture recognizer has been {@link #reject() rejected} for the current
+   * touch stream.
+   */
+  public boolean isRejected() {
+    return rejected;
+  }
+
+  /**
+   * Calculates the untransformed centroid of all the active pointers in the given motion event.
+   * <p>
+   * For the event being processed, this is the centroid of the pointers that this gesture
+   * recognizer tracks, i.e. only the pointers it was {@link #onTouch(View, MotionEvent, int)
+   * dispatched}, at their {@link #setNoiseFilterEnabled(boolean) filtered} positions.
+   *
+   * @return A point representing the centroid. The caller should read the values immediately as
+   * the object may be reused in other calculations.
+   */
+  protected PointF calculateUntransformedCentroid(MotionEvent event) {
+    return calculateUntransformedCentroid(event, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Calculates the centroid of the first {@code n} active pointers in the given motion event.
+   *
+   * @return A point representing the centroid. The caller should read the values immediately as
+   * the object may be reused in other calculations.
+   */
+  protected PointF calculateUntransformedCentroid(MotionEvent event, int n) {
+    PointF point = GestureWorkspace.get().point;
+    if (event == currentEvent) {
+      // The pointer table already reflects the event.
+      return calculateTrackedCentroid(n, point);
+    }
+
+    int action = MotionEventCompat.getActionMasked(event);
+    int index = MotionEventCompat.getActionIndex(event);
+
+    float sumX = 0;
+    float sumY = 0;
+    int num = 0;
+    for (int i = 0, count = event.getPointerCount(); i < count && i < n; i++) {
+      if (action == MotionEvent.ACTION_POINTER_UP && index == i) {
+        continue;
+      }
+
+      sumX += calculateUntransformedPoint(event, i).x;
+      sumY += calculateUntransformedPoint(event, i).y;
+      num++;
+    }
+
+    if (num == 0) {
+      // E.g. the only pointer is going up.
+      point.set(0f, 0f);
+    } else {
+      point.set(sumX / num, sumY / num);
+    }
+    return point;
+  }
+
+  /**
+   * Writes the centroid of the first {@code n} pointers of {@link #pointers}, by id, into {@code
+   * point}.
+   */
+  private PointF calculateTrackedCentroid(int n, PointF point) {
+    if (n >= pointers.getPointerCount()) {
+      point.set(pointers.getCentroidX(), pointers.getCentroidY());
+      return point;
+    }
+
+    float sumX = 0;
+    float sumY = 0;
+    int num = 0;
+    for (int id = pointers.nextPointerId(0);
+         id != PointerTable.NO_POINTER && num < n;
+         id = pointers.nextPointerId(id + 1)) {
+      sumX += pointers.getX(id);
+      sumY += pointers.getY(id);
+      num++;
+    }
+
+    if (num == 0) {
+      point.set(0f, 0f);
+    } else {
+      point.set(sumX / num, sumY / num);
+    }
+    return point;
+  }
+
+  /**
+   * Calculates the untransformed x and y of the pointer given by the pointer index in the given
+   * motion event.
+   * <p>
+   * An untransformed coordinate represents the location of a pointer that is not transformed by
+   * the element's transformation matrix. {@code calculateUntransformedPoint(event, 0).x} is not
+   * necessarily equal to {@code event.getRawX()}.
+   *
+   * @return A point representing the untransformed x and y. The caller should read the values
+   * immediately as the object is shared by all gesture recognizers on this thread.
+   */
+  protected PointF calculateUntransformedPoint(MotionEvent event, int pointerIndex) {
+    float x = event.getX(pointerIndex);
+    float y = event.getY(pointerIndex);
+
+    if (event != currentEvent) {
+      updateTransform();
+    }
+    PointF point = GestureWorkspace.get().point;
+    if (identityTransform) {
+      point.set(x, y);
+    } else {
+      point.set(AffineTransform.mapX(transform, x, y), AffineTransform.mapY(transform, x, y));
+    }
+
+    return point;
+  }
+
+  /**
+   * Reads the element's transform properties, or the captured ones, and rebuilds {@link
+   * #transform} and {@link #inverse} if any of them changed since the last call.
+   *
+   * @return whether the transform changed.
+   */
+  private boolean updateTransform() {
+    if (transform == null) {
+      transform = AffineTransform.newIdentity();
+      inverse = AffineTransform.newIdentity();
+      transformProperties = new float[TRANSFORM_SIZE];
+    }
+    if (coordinateSpace != null && !hasCapturedTransform) {
+      if (!ancestorTransform.update(element, coordinateSpace, transform)) {
+        return false;
+      }
+      identityTransform = AffineTransform.isIdentity(transform);
+      if (!AffineTransform.invert(transform, inverse)) {
+        AffineTransform.setIdentity(inverse);
+      }
+      // The element's own transform must be rebuilt when it is used again.
+      hasTransform = false;
+      return true;
+    }
+    if (coordinateSpace != null) {
+      // A captured transform took precedence.
+      ancestorTransform.invalidate();
+    }
+
+    float scaleX;
+    float scaleY;
+    float pivotX;
+    float pivotY;
+    float rotation;
+    float translationX;
+    float translationY;
+    if (hasCapturedTransform) {
+      float[] t = capturedTransform;
+      scaleX = t[0];
+      scaleY = t[1];
+      pivotX = t[2];
+      pivotY = t[3];
+      rotation = t[4];
+      translationX = t[5];
+      translationY = t[6];
+    } else {
+      scaleX = element.getScaleX();
+      scaleY = element.getScaleY();
+      pivotX = element.getPivotX();
+      pivotY = element.getPivotY();
+      rotation = element.getRotation();
+      translationX = element.getTranslationX();
+      translationY = element.getTranslationY();
+    }
+
+    float[] p = transformProperties;
+    if (hasTransform
+      && p[0] == scaleX && p[1] == scaleY && p[2] == pivotX && p[3] == pivotY
+      && p[4] == rotation && p[5] == translationX && p[6] == translationY) {
+      return false;
+    }
+    hasTransform = true;
+    p[0] = scaleX;
+    p[1] = scaleY;
+    p[2] = pivotX;
+    p[3] = pivotY;
+    p[4] = rotation;
+    p[5] = translationX;
+    p[6] = translationY;
+
+    // The pivot only matters when scaling or rotating.
+    identityTransform = scaleX == 1f && scaleY == 1f && rotation == 0f
+      && translationX == 0f && translationY == 0f;
+    if (identityTransform) {
+      AffineTransform.setIdentity(transform);
+      AffineTransform.setIdentity(inverse);
+    } else {
+      AffineTransform.setViewTransform(
+        transform, scaleX, scaleY, pivotX, pivotY, rotation, translationX, translationY);
+      AffineTransform.invert(transform, inverse);
+    }
+    return true;
+  }
+
+  /**
+   * Calculates the transformation matrices that can convert from local to untransformed
+   * coordinate spaces.
+   *
+   * @param matrix This output matrix can convert from local to untransformed coordinate space.
+   * @param inverse This output matrix can convert from untransformed to local coordinate space.
+   */
+  public static void getTransformationMatrix(View element, Matrix matrix, Matrix inverse) {
+    GestureWorkspace workspace = GestureWorkspace.get();
+    float[] transform = workspace.transform;
+    getTransform(element, transform);
+    AffineTransform.toMatrix(transform, workspace.matrixValues, matrix);
+
+    // Save the inverse matrix.
+    if (AffineTransform.invert(transform, transform)) {
+      AffineTransform.toMatrix(transform, workspace.matrixValues, inverse);
+    }
+  }
+
+  /**
+   * Writes the {@link AffineTransform} that converts from the element's local to untransformed
+   * coordinate space into {@code out}. Equivalent to {@link #getTransformationMatrix(View, Matrix,
+   * Matrix)}, without crossing into native code.
+   */
+  static void getTransform(View element, float[] out) {
+    AffineTransform.setViewTransform(
+      out, element.getScaleX(), element.getScaleY(), element.getPivotX(), element.getPivotY(),
+      element.getRotation(), element.getTranslationX(), element.getTranslationY());
+  }
+
+  /**
+   * Captures the element's transform so that pointers can be untransformed without reading the
+   * element from another thread.
+   *
+   * @param transform {@link #TRANSFORM_SIZE} floats as written by {@link #captureTransform(View,
+   * float[], int)}, or null to read the element again.
+   */
+  void setCapturedTransform(@Nullable float[] transform, int offset) {
+    hasCapturedTransform = transform != null;
+    if (transform != null) {
+      if (capturedTransform == null) {
+        capturedTransform = new float[TRANSFORM_SIZE];
+      }
+      System.arraycopy(transform, offset, capturedTransform, 0, TRANSFORM_SIZE);
+    }
+  }
+
+  /**
+   * Writes the element's transform into {@code out} at {@code offset}.
+   */
+  static void captureTransform(View element, float[] out, int offset) {
+    out[offset] = element.getScaleX();
+    out[offset + 1] = element.getScaleY();
+    out[offset + 2] = element.getPivotX();
+    out[offset + 3] = element.getPivotY();
+    out[offset + 4] = element.getRotation();
+    out[offset + 5] = element.getTranslationX();
+    out[offset + 6] = element.getTranslationY();
   }
 }
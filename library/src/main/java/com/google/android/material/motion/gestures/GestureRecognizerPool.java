@@ -0,0 +1,207 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.content.Context;
+import android.view.MotionEvent;
+import android.view.MotionEvent.PointerCoords;
+import android.view.MotionEvent.PointerProperties;
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A small pool of gesture recognizers, keyed by type. Use this to reuse gesture recognizers when
+ * views are recycled, e.g. in a list.
+ * <p>
+ * {@link #acquire(Class)} a gesture recognizer when binding a view, and {@link
+ * #release(GestureRecognizer)} it when the view is recycled. Released gesture recognizers keep
+ * their velocity trackers, so reattaching them does not allocate.
+ * <p>
+ * This class is not thread safe and should only be used from the UI thread.
+ */
+public class GestureRecognizerPool {
+
+  /**
+   * The gesture recognizer types that {@link #prewarm(Context)} runs a synthetic gesture through.
+   */
+  private static final Class<?>[] PREWARM_TYPES = {
+    DragGestureRecognizer.class, ScaleGestureRecognizer.class, RotateGestureRecognizer.class,
+    FlingGestureRecognizer.class, TapGestureRecognizer.class, DoubleTapGestureRecognizer.class,
+    LongPressGestureRecognizer.class};
+
+  /* The synthetic gesture: two fingers that spread and turn, one frame per move. */
+  private static final int PREWARM_MOVES = 10;
+  private static final long PREWARM_FRAME_MILLIS = 16;
+
+  private final int maxPoolSizePerType;
+  private final Map<Class<? extends GestureRecognizer>, List<GestureRecognizer>> pools =
+    new HashMap<>();
+
+  /**
+   * Creates a pool.
+   *
+   * @param maxPoolSizePerType The maximum number of released gesture recognizers to keep for each
+   * type. Should be about the number of views that can be on screen at once.
+   */
+  public GestureRecognizerPool(int maxPoolSizePerType) {
+    this.maxPoolSizePerType = maxPoolSizePerType;
+  }
+
+  /**
+   * Returns a gesture recognizer of the given type in the {@link GestureRecognizer#POSSIBLE}
+   * state with default properties, either from the pool or newly created. A pooled gesture
+   * recognizer keeps the configuration and scheduler it was last given. The type must have a
+   * public no-argument constructor.
+   */
+  public <T extends GestureRecognizer> T acquire(Class<T> type) {
+    List<GestureRecognizer> pool = pools.get(type);
+    if (pool != null && !pool.isEmpty()) {
+      return type.cast(pool.remove(pool.size() - 1));
+    }
+
+    try {
+      return type.newInstance();
+    } catch (InstantiationException | IllegalAccessException e) {
+      throw new IllegalArgumentException("Cannot instantiate gesture recognizer: " + type, e);
+    }
+  }
+
+  /**
+   * Resets the given gesture recognizer and returns it to the pool. It is detached from its
+   * element, its state change and momentum listeners, its subscriptions, its {@link
+   * GestureCoordinator} and its {@link GestureRecognizer#setCoordinateSpace(View) coordinate
+   * space}, and leaves {@link GestureRecognizer#setMultiElementEnabled(boolean) multi-element
+   * mode}, which drops the elements it tracked. Its configurable properties are {@link
+   * GestureRecognizer#restoreDefaults() restored to their defaults}.
+   * <p>
+   * The gesture recognizer must not be used after this call unless it is acquired again.
+   */
+  public void release(GestureRecognizer gestureRecognizer) {
+    gestureRecognizer.reset();
+    if (gestureRecognizer.coordinator != null) {
+      gestureRecognizer.coordinator.removeGestureRecognizer(gestureRecognizer);
+    }
+    gestureRecognizer.removeAllStateChangeListeners();
+    gestureRecognizer.setMultiElementEnabled(false);
+    gestureRecognizer.restoreDefaults();
+    gestureRecognizer.setElement(null);
+
+    Class<? extends GestureRecognizer> type = gestureRecognizer.getClass();
+    List<GestureRecognizer> pool = pools.get(type);
+    if (pool == null) {
+      pool = new ArrayList<>(maxPoolSizePerType);
+      pools.put(type, pool);
+    }
+    if (pool.size() < maxPoolSizePerType && !pool.contains(gestureRecognizer)) {
+      pool.add(gestureRecognizer);
+    }
+  }
+
+  /**
+   * Prepares for the first gesture, e.g. during idle time after launch, so that it does not pay
+   * for class loading, the {@link android.view.ViewConfiguration} lookup and the first velocity
+   * tracker allocations.
+   * <p>
+   * Populates the {@link GestureConfiguration#get(Context) configuration} cache of the context's
+   * density, then runs a synthetic two finger gesture through a gesture recognizer of each built-in
+   * type and releases it to this pool. The pooled gesture recognizers keep their velocity
+   * trackers, and the platform keeps the recycled {@link android.view.VelocityTracker}s for the
+   * next {@code obtain}. Must be called on the UI thread, as tap and long press timeouts need its
+   * Looper.
+   */
+  public void prewarm(Context context) {
+    GestureConfiguration.get(context);
+    View element = new View(context);
+
+    for (Class<?> type : PREWARM_TYPES) {
+      GestureRecognizer gestureRecognizer = acquire(type.asSubclass(GestureRecognizer.class));
+      runSyntheticGesture(gestureRecognizer, element);
+      release(gestureRecognizer);
+    }
+  }
+
+  private static void runSyntheticGesture(GestureRecognizer gestureRecognizer, View element) {
+    PointerProperties[] properties = {new PointerProperties(), new PointerProperties()};
+    PointerCoords[] coords = {new PointerCoords(), new PointerCoords()};
+    for (int i = 0; i < properties.length; i++) {
+      properties[i].id = i;
+      properties[i].toolType = MotionEvent.TOOL_TYPE_FINGER;
+      coords[i].pressure = 1f;
+      coords[i].size = 1f;
+    }
+
+    long time = 0;
+    dispatch(gestureRecognizer, element, MotionEvent.ACTION_DOWN, time, 1, properties, coords, 0);
+    dispatch(
+      gestureRecognizer, element, pointerAction(MotionEvent.ACTION_POINTER_DOWN, 1), time, 2,
+      properties, coords, 0);
+    for (int i = 1; i <= PREWARM_MOVES; i++) {
+      time += PREWARM_FRAME_MILLIS;
+      dispatch(gestureRecognizer, element, MotionEvent.ACTION_MOVE, time, 2, properties, coords, i);
+    }
+    time += PREWARM_FRAME_MILLIS;
+    dispatch(
+      gestureRecognizer, element, pointerAction(MotionEvent.ACTION_POINTER_UP, 1), time, 2,
+      properties, coords, PREWARM_MOVES);
+    dispatch(
+      gestureRecognizer, element, MotionEvent.ACTION_UP, time, 1, properties, coords,
+      PREWARM_MOVES);
+  }
+
+  /**
+   * Dispatches one event of the synthetic gesture, with the fingers placed for the given step.
+   */
+  private static void dispatch(
+    GestureRecognizer gestureRecognizer, View element, int action, long time, int pointerCount,
+    PointerProperties[] properties, PointerCoords[] coords, int step) {
+    float spread = 50f + 10f * step;
+    double angle = 0.05 * step;
+    float dx = (float) (spread * Math.cos(angle));
+    float dy = (float) (spread * Math.sin(angle));
+    coords[0].x = 200f - dx;
+    coords[0].y = 200f - dy;
+    coords[1].x = 200f + dx;
+    coords[1].y = 200f + dy;
+
+    MotionEvent event = MotionEvent.obtain(
+      0, time, action, pointerCount, properties, coords, 0, 0, 1f, 1f, 0, 0, 0, 0);
+    gestureRecognizer.onTouch(element, event);
+    event.recycle();
+  }
+
+  private static int pointerAction(int action, int pointerIndex) {
+    return action | (pointerIndex << MotionEvent.ACTION_POINTER_INDEX_SHIFT);
+  }
+
+  /**
+   * Returns the number of released gesture recognizers of the given type in the pool.
+   */
+  public int getPoolSize(Class<? extends GestureRecognizer> type) {
+    List<GestureRecognizer> pool = pools.get(type);
+    return pool != null ? pool.size() : 0;
+  }
+
+  /**
+   * Drops all pooled gesture recognizers.
+   */
+  public void clear() {
+    pools.clear();
+  }
+}
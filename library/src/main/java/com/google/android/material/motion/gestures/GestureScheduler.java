@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.support.annotation.Nullable;
+
+/**
+ * The clock and the scheduler that gesture recognizers use for everything that is not driven by
+ * touch events: the deferred reset to {@link GestureRecognizer#POSSIBLE}, tap and long press
+ * timeouts, and the frames of resampling and momentum.
+ * <p>
+ * By default a gesture recognizer uses the {@link LooperGestureScheduler} of its thread. Use a
+ * {@link ManualGestureScheduler} to drive gesture recognizers in virtual time, e.g. in tests,
+ * benchmarks or when replaying recorded touch events, without a Looper.
+ * <p>
+ * Implementations are not required to be thread safe. A scheduler must only be used on the thread
+ * of the gesture recognizers it drives, and its callbacks must run on that thread.
+ */
+public abstract class GestureScheduler {
+
+  /**
+   * Called at the start of a frame.
+   */
+  public interface FrameCallback {
+
+    /**
+     * @param frameTimeMillis The time the frame started rendering, in the {@link
+     * #uptimeMillis()} time base.
+     */
+    void doFrame(long frameTimeMillis);
+  }
+
+  /* The wheel of the timeouts scheduled on this scheduler, created by the first timeout. */
+  @Nullable
+  private GestureTimerWheel timerWheel;
+
+  /**
+   * Returns the current time in milliseconds, in the time base of {@link
+   * android.view.MotionEvent#getEventTime()}.
+   */
+  public abstract long uptimeMillis();
+
+  /**
+   * Runs the runnable at the given {@link #uptimeMillis() time}. Runnables posted for the same
+   * time run in the order they were posted.
+   */
+  public abstract void postAtTime(Runnable runnable, long uptimeMillis);
+
+  /**
+   * Removes all pending posts of the runnable.
+   */
+  public abstract void removeCallbacks(Runnable runnable);
+
+  /**
+   * Calls the callback once, at the start of the next frame.
+   */
+  public abstract void postFrameCallback(FrameCallback callback);
+
+  /**
+   * Removes all pending posts of the frame callback.
+   */
+  public abstract void removeFrameCallback(FrameCallback callback);
+
+  /**
+   * Runs the runnable as soon as possible, after the current touch event has been processed.
+   */
+  public void post(Runnable runnable) {
+    postAtTime(runnable, uptimeMillis());
+  }
+
+  /**
+   * Returns the timer wheel that drives the timeouts of all gesture recognizers on this
+   * scheduler.
+   */
+  final GestureTimerWheel getTimerWheel() {
+    if (timerWheel == null) {
+      timerWheel = new GestureTimerWheel(this);
+    }
+    return timerWheel;
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import com.google.android.material.motion.gestures.GestureRecognizer.GestureRecognizerState;
+
+/**
+ * A coherent copy of a gesture recognizer's values at one state change.
+ * <p>
+ * Values that a gesture recognizer does not produce keep their identity value, e.g. a {@link
+ * DragGestureRecognizer} reports a {@link #scale} of 1. Instances are mutable so that readers can
+ * reuse one instance per frame. See {@link GestureRecognizer#getSnapshot(GestureSnapshot)}.
+ */
+public final class GestureSnapshot {
+
+  /* Indices into the published primitive block. */
+  static final int STATE = 0;
+  static final int CENTROID_X = 1;
+  static final int CENTROID_Y = 2;
+  static final int TRANSLATION_X = 3;
+  static final int TRANSLATION_Y = 4;
+  static final int VELOCITY_X = 5;
+  static final int VELOCITY_Y = 6;
+  static final int SCALE = 7;
+  static final int SCALE_VELOCITY = 8;
+  static final int ROTATION = 9;
+  static final int ROTATION_VELOCITY = 10;
+  static final int SIZE = 11;
+
+  /**
+   * The number of snapshots published so far. 0 before the first state change.
+   */
+  public int sequence;
+
+  @GestureRecognizerState
+  public int state;
+
+  /**
+   * The untransformed centroid, in the local coordinate space of the element's parent.
+   */
+  public float centroidX;
+  public float centroidY;
+
+  /**
+   * The total translation since the gesture began, in pixels.
+   */
+  public float translationX;
+  public float translationY;
+
+  /**
+   * The positional velocity, in pixels per second.
+   */
+  public float velocityX;
+  public float velocityY;
+
+  /**
+   * The total scale since the gesture began.
+   */
+  public float scale = 1f;
+
+  /**
+   * The scalar velocity of the scale gesture. See {@link ScaleGestureRecognizer#getVelocity()}.
+   */
+  public float scaleVelocity;
+
+  /**
+   * The total rotation since the gesture began, in radians.
+   */
+  public float rotation;
+
+  /**
+   * The angular velocity of the rotation, in radians per second.
+   */
+  public float rotationVelocity;
+
+  /**
+   * Copies the values of another snapshot into this one.
+   */
+  public void set(GestureSnapshot other) {
+    sequence = other.sequence;
+    state = other.state;
+    centroidX = other.centroidX;
+    centroidY = other.centroidY;
+    translationX = other.translationX;
+    translationY = other.translationY;
+    velocityX = other.velocityX;
+    velocityY = other.velocityY;
+    scale = other.scale;
+    scaleVelocity = other.scaleVelocity;
+    rotation = other.rotation;
+    rotationVelocity = other.rotationVelocity;
+  }
+
+  /**
+   * Returns the values to the state of a newly created snapshot.
+   */
+  void clear() {
+    sequence = 0;
+    state = GestureRecognizer.POSSIBLE;
+    centroidX = 0f;
+    centroidY = 0f;
+    translationX = 0f;
+    translationY = 0f;
+    velocityX = 0f;
+    velocityY = 0f;
+    scale = 1f;
+    scaleVelocity = 0f;
+    rotation = 0f;
+    rotationVelocity = 0f;
+  }
+
+  @Override
+  public String toString() {
+    return "GestureSnapshot{"
+      + "sequence=" + sequence
+      + ", state=" + state
+      + ", centroidX=" + centroidX
+      + ", centroidY=" + centroidY
+      + ", translationX=" + translationX
+      + ", translationY=" + translationY
+      + ", velocityX=" + velocityX
+      + ", velocityY=" + velocityY
+      + ", scale=" + scale
+      + ", scaleVelocity=" + scaleVelocity
+      + ", rotation=" + rotation
+      + ", rotationVelocity=" + rotationVelocity
+      + '}';
+  }
+}
@@ -0,0 +1,590 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.support.annotation.Nullable;
+import android.support.v4.view.MotionEventCompat;
+import android.view.MotionEvent;
+import android.view.MotionEvent.PointerCoords;
+import android.view.MotionEvent.PointerProperties;
+import android.view.View;
+import android.view.View.OnTouchListener;
+
+import java.util.Arrays;
+
+/**
+ * Routes the touch events of a single parent view to many lightweight gesture targets.
+ * <p>
+ * A target is a rectangle in the parent's local coordinate space plus the {@link
+ * OnTouchListener} that handles its gestures, usually a {@link GestureRecognizer} or a {@link
+ * GestureCoordinator}. Targets are kept in a uniform grid, hashed into buckets, so hit-testing an
+ * {@link MotionEvent#ACTION_DOWN} only looks at the targets near the touch. The rest of the touch
+ * stream is routed to the hit target only. The cost per event does not depend on the number of
+ * targets.
+ * <p>
+ * The gesture recognizers of a target see the parent as their element, so {@link
+ * GestureRecognizer#getCentroidX()} and {@link GestureRecognizer#getCentroidY()} are reported in
+ * the parent's local coordinate space.
+ * <p>
+ * To use an instance of this class, set it as the {@link OnTouchListener} of the parent. Call
+ * {@link #updateTarget(int, float, float, float, float)} whenever a target moves.
+ * <p>
+ * With {@link #setSplitPointersEnabled(boolean) pointer splitting}, every pointer is routed to
+ * the target hit by its own {@link MotionEvent#ACTION_DOWN} or {@link
+ * MotionEvent#ACTION_POINTER_DOWN}, so different fingers can drag different targets at the same
+ * time. Each target only sees its own pointers.
+ */
+public class GestureTargetDispatcher implements OnTouchListener {
+
+  /**
+   * Returned when there is no target.
+   */
+  public static final int NO_TARGET = -1;
+
+  private static final int INITIAL_CAPACITY = 16;
+  private static final int INITIAL_BUCKET_COUNT = 64;
+  private static final int INITIAL_BUCKET_CAPACITY = 4;
+
+  private final float cellSize;
+
+  /* Per-target state, indexed by target id. */
+  private float[] left = new float[INITIAL_CAPACITY];
+  private float[] top = new float[INITIAL_CAPACITY];
+  private float[] right = new float[INITIAL_CAPACITY];
+  private float[] bottom = new float[INITIAL_CAPACITY];
+  private int[] order = new int[INITIAL_CAPACITY];
+  private OnTouchListener[] listeners = new OnTouchListener[INITIAL_CAPACITY];
+
+  private int idCount;
+  private int[] freeIds = new int[INITIAL_CAPACITY];
+  private int freeCount;
+  private int nextOrder;
+
+  /* Spatial hash of grid cells to target ids. A power of two number of buckets. */
+  private int[][] buckets = new int[INITIAL_BUCKET_COUNT][];
+  private int[] bucketSizes = new int[INITIAL_BUCKET_COUNT];
+  private int entryCount;
+
+  private int activeTarget = NO_TARGET;
+
+  private boolean splitPointers;
+  /* The target of each pointer id while splitting pointers. */
+  private final int[] pointerTargets = new int[PointerTable.MAX_POINTER_ID + 1];
+  /* The targets handling the current touch stream and their pointer id bits. */
+  private final int[] splitTargets = new int[PointerTable.MAX_POINTER_ID + 1];
+  private final int[] splitTargetPointerIdBits = new int[PointerTable.MAX_POINTER_ID + 1];
+  private int splitTargetCount;
+  private final int[] dispatchTargets = new int[PointerTable.MAX_POINTER_ID + 1];
+  private final int[] dispatchPointerIdBits = new int[PointerTable.MAX_POINTER_ID + 1];
+
+  /* The current touch stream, from which a removed target's cancel event is built. */
+  @Nullable
+  private View streamView;
+  private long streamDownTime;
+  private long streamEventTime;
+  private int streamPointerIdBits;
+  private final float[] pointerX = new float[PointerTable.MAX_POINTER_ID + 1];
+  private final float[] pointerY = new float[PointerTable.MAX_POINTER_ID + 1];
+
+  /* The target whose listener is handling the current event, and its cancel if it was removed. */
+  private int dispatchingTarget = NO_TARGET;
+  @Nullable
+  private OnTouchListener deferredCancelListener;
+  private int deferredCancelPointerIdBits;
+
+  /**
+   * Creates a dispatcher.
+   *
+   * @param cellSize The size of a grid cell in pixels. A good value is about the size of a typical
+   * target.
+   */
+  public GestureTargetDispatcher(float cellSize) {
+    if (cellSize <= 0) {
+      throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+    }
+    this.cellSize = cellSize;
+    Arrays.fill(pointerTargets, NO_TARGET);
+  }
+
+  /**
+   * Sets whether each pointer is routed to the target under it, instead of routing the whole
+   * touch stream to the target under the first pointer. Every target listener must be a {@link
+   * SplitTouchListener} when enabled.
+   * <p>
+   * While enabled, this dispatcher handles every {@link MotionEvent#ACTION_DOWN} so that later
+   * pointers can still land on targets.
+   */
+  public void setSplitPointersEnabled(boolean enabled) {
+    if (enabled) {
+      for (int id = 0; id < idCount; id++) {
+        if (listeners[id] != null) {
+          checkSplitTouchListener(listeners[id]);
+        }
+      }
+    }
+    splitPointers = enabled;
+    activeTarget = NO_TARGET;
+    clearSplitTargets();
+  }
+
+  /**
+   * Returns whether each pointer is routed to the target under it.
+   */
+  public boolean isSplitPointersEnabled() {
+    return splitPointers;
+  }
+
+  /**
+   * Adds a target. Targets added later are on top of targets added earlier.
+   *
+   * @return The id of the new target.
+   */
+  public int addTarget(
+    float left, float top, float right, float bottom, OnTouchListener listener) {
+    if (splitPointers) {
+      checkSplitTouchListener(listener);
+    }
+
+    int id;
+    if (freeCount > 0) {
+      id = freeIds[--freeCount];
+    } else {
+      if (idCount == listeners.length) {
+        growTargets();
+      }
+      id = idCount++;
+    }
+
+    this.left[id] = left;
+    this.top[id] = top;
+    this.right[id] = right;
+    this.bottom[id] = bottom;
+    order[id] = nextOrder++;
+    listeners[id] = listener;
+
+    insert(id);
+    maybeGrowBuckets();
+    return id;
+  }
+
+  /**
+   * Moves a target to the given bounds. This is cheap if the target stays within the same grid
+   * cells.
+   */
+  public void updateTarget(int id, float left, float top, float right, float bottom) {
+    checkTarget(id);
+
+    if (cell(left) == cell(this.left[id])
+      && cell(top) == cell(this.top[id])
+      && cell(right) == cell(this.right[id])
+      && cell(bottom) == cell(this.bottom[id])) {
+      this.left[id] = left;
+      this.top[id] = top;
+      this.right[id] = right;
+      this.bottom[id] = bottom;
+      return;
+    }
+
+    remove(id);
+    this.left[id] = left;
+    this.top[id] = top;
+    this.right[id] = right;
+    this.bottom[id] = bottom;
+    insert(id);
+    maybeGrowBuckets();
+  }
+
+  /**
+   * Removes a target. If the target is handling the current touch stream, it receives an {@link
+   * MotionEvent#ACTION_CANCEL} for its pointers, like a view that is removed from its parent
+   * during a gesture, and no further touch events. If the target is being removed while it handles
+   * an event, the cancel follows once it returns.
+   */
+  public void removeTarget(int id) {
+    checkTarget(id);
+
+    int pointerIdBits = getTargetPointerIdBits(id);
+    if (pointerIdBits != 0) {
+      if (id == dispatchingTarget) {
+        deferredCancelListener = listeners[id];
+        deferredCancelPointerIdBits = pointerIdBits;
+      } else {
+        dispatchCancel(listeners[id], pointerIdBits);
+      }
+    }
+
+    remove(id);
+    listeners[id] = null;
+    if (freeCount == freeIds.length) {
+      freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+    }
+    freeIds[freeCount++] = id;
+
+    if (activeTarget == id) {
+      activeTarget = NO_TARGET;
+    }
+    for (int pointerId = 0; pointerId <= PointerTable.MAX_POINTER_ID; pointerId++) {
+      if (pointerTargets[pointerId] == id) {
+        unassignPointer(pointerId);
+      }
+    }
+  }
+
+  /**
+   * Returns the id of the topmost target that contains the given point in the parent's local
+   * coordinate space, or {@link #NO_TARGET}.
+   */
+  public int findTargetAt(float x, float y) {
+    int bucket = bucket(cell(x), cell(y));
+    int[] ids = buckets[bucket];
+    int hit = NO_TARGET;
+    for (int i = 0, size = bucketSizes[bucket]; i < size; i++) {
+      int id = ids[i];
+      if (left[id] <= x && x < right[id] && top[id] <= y && y < bottom[id]
+        && (hit == NO_TARGET || order[id] > order[hit])) {
+        hit = id;
+      }
+    }
+    return hit;
+  }
+
+  /**
+   * Returns the id of the target handling the current touch stream, or {@link #NO_TARGET}.
+   */
+  public int getActiveTarget() {
+    return activeTarget;
+  }
+
+  /**
+   * Forwards touch events from the parent to the target hit by {@link MotionEvent#ACTION_DOWN}.
+   */
+  @Override
+  public boolean onTouch(View view, MotionEvent event) {
+    if (splitPointers) {
+      return onTouchSplit(view, event);
+    }
+
+    int action = MotionEventCompat.getActionMasked(event);
+    trackStream(view, event, action);
+    if (action == MotionEvent.ACTION_DOWN) {
+      activeTarget = findTargetAt(event.getX(), event.getY());
+    }
+
+    int target = activeTarget;
+    if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+      activeTarget = NO_TARGET;
+    }
+    if (target == NO_TARGET) {
+      endStream(event);
+      return false;
+    }
+    boolean handled = dispatch(target, view, event, SplitTouchListener.ALL_POINTER_IDS);
+    endStream(event);
+    return handled;
+  }
+
+  private boolean onTouchSplit(View view, MotionEvent event) {
+    int action = MotionEventCompat.getActionMasked(event);
+    int index = MotionEventCompat.getActionIndex(event);
+    trackStream(view, event, action);
+    if (action == MotionEvent.ACTION_DOWN) {
+      clearSplitTargets();
+    }
+    if (action == MotionEvent.ACTION_DOWN || action == MotionEvent.ACTION_POINTER_DOWN) {
+      int target = findTargetAt(event.getX(index), event.getY(index));
+      if (target != NO_TARGET) {
+        assignPointer(event.getPointerId(index), target);
+      }
+    }
+
+    boolean handled = action == MotionEvent.ACTION_DOWN;
+    // Listeners may remove targets, so iterate over a copy.
+    int count = splitTargetCount;
+    System.arraycopy(splitTargets, 0, dispatchTargets, 0, count);
+    System.arraycopy(splitTargetPointerIdBits, 0, dispatchPointerIdBits, 0, count);
+    for (int i = 0; i < count; i++) {
+      if (listeners[dispatchTargets[i]] != null) {
+        handled |= dispatch(dispatchTargets[i], view, event, dispatchPointerIdBits[i]);
+      }
+    }
+
+    if (action == MotionEvent.ACTION_POINTER_UP) {
+      unassignPointer(event.getPointerId(index));
+    } else if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+      clearSplitTargets();
+    }
+    endStream(event);
+    return handled;
+  }
+
+  /**
+   * Forwards an event to the listener of a target, and follows up with the cancel of a target
+   * that was removed meanwhile.
+   */
+  private boolean dispatch(int target, View view, MotionEvent event, int pointerIdBits) {
+    OnTouchListener listener = listeners[target];
+    dispatchingTarget = target;
+    boolean handled;
+    try {
+      if (pointerIdBits == SplitTouchListener.ALL_POINTER_IDS) {
+        handled = listener.onTouch(view, event);
+      } else {
+        handled = ((SplitTouchListener) listener).onTouch(view, event, pointerIdBits);
+      }
+    } finally {
+      dispatchingTarget = NO_TARGET;
+    }
+
+    if (deferredCancelListener != null) {
+      OnTouchListener removed = deferredCancelListener;
+      deferredCancelListener = null;
+      // Pointers that this event ended are already gone.
+      int remaining = deferredCancelPointerIdBits & ~getEndingPointerIdBits(event);
+      if (remaining != 0) {
+        dispatchCancel(removed, remaining);
+      }
+    }
+    return handled;
+  }
+
+  /**
+   * Records the parent, the times and the pointer positions of the current touch stream.
+   */
+  private void trackStream(View view, MotionEvent event, int action) {
+    if (action == MotionEvent.ACTION_DOWN) {
+      streamPointerIdBits = 0;
+      streamDownTime = event.getDownTime();
+    }
+    streamView = view;
+    streamEventTime = event.getEventTime();
+    for (int i = 0, count = event.getPointerCount(); i < count; i++) {
+      int id = event.getPointerId(i);
+      pointerX[id] = event.getX(i);
+      pointerY[id] = event.getY(i);
+      streamPointerIdBits |= 1 << id;
+    }
+  }
+
+  /**
+   * Forgets the pointers that went up with the given event.
+   */
+  private void endStream(MotionEvent event) {
+    streamPointerIdBits &= ~getEndingPointerIdBits(event);
+    if (streamPointerIdBits == 0) {
+      streamView = null;
+    }
+  }
+
+  private static int getEndingPointerIdBits(MotionEvent event) {
+    switch (MotionEventCompat.getActionMasked(event)) {
+      case MotionEvent.ACTION_UP:
+      case MotionEvent.ACTION_CANCEL:
+        return SplitTouchListener.ALL_POINTER_IDS;
+      case MotionEvent.ACTION_POINTER_UP:
+        return 1 << event.getPointerId(MotionEventCompat.getActionIndex(event));
+      default:
+        return 0;
+    }
+  }
+
+  /**
+   * Returns the ids of the pointers of the current touch stream that are routed to a target.
+   */
+  private int getTargetPointerIdBits(int target) {
+    if (!splitPointers) {
+      return target == activeTarget || target == dispatchingTarget ? streamPointerIdBits : 0;
+    }
+    for (int i = 0; i < splitTargetCount; i++) {
+      if (splitTargets[i] == target) {
+        return splitTargetPointerIdBits[i];
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Sends an {@link MotionEvent#ACTION_CANCEL} with the last positions of the given pointers to
+   * the listener of a removed target.
+   */
+  private void dispatchCancel(OnTouchListener listener, int pointerIdBits) {
+    View view = streamView;
+    pointerIdBits &= streamPointerIdBits;
+    if (view == null || pointerIdBits == 0) {
+      return;
+    }
+
+    int count = Integer.bitCount(pointerIdBits);
+    PointerProperties[] properties = new PointerProperties[count];
+    PointerCoords[] coords = new PointerCoords[count];
+    int i = 0;
+    for (int id = 0; id <= PointerTable.MAX_POINTER_ID; id++) {
+      if ((pointerIdBits & (1 << id)) == 0) {
+        continue;
+      }
+      properties[i] = new PointerProperties();
+      properties[i].id = id;
+      properties[i].toolType = MotionEvent.TOOL_TYPE_FINGER;
+      coords[i] = new PointerCoords();
+      coords[i].x = pointerX[id];
+      coords[i].y = pointerY[id];
+      i++;
+    }
+
+    MotionEvent cancel = MotionEvent.obtain(
+      streamDownTime, streamEventTime, MotionEvent.ACTION_CANCEL, count, properties, coords, 0, 0,
+      1f, 1f, 0, 0, 0, 0);
+    if (splitPointers) {
+      ((SplitTouchListener) listener).onTouch(view, cancel, pointerIdBits);
+    } else {
+      listener.onTouch(view, cancel);
+    }
+    cancel.recycle();
+  }
+
+  private void assignPointer(int pointerId, int target) {
+    pointerTargets[pointerId] = target;
+    for (int i = 0; i < splitTargetCount; i++) {
+      if (splitTargets[i] == target) {
+        splitTargetPointerIdBits[i] |= 1 << pointerId;
+        return;
+      }
+    }
+    splitTargets[splitTargetCount] = target;
+    splitTargetPointerIdBits[splitTargetCount] = 1 << pointerId;
+    splitTargetCount++;
+  }
+
+  private void unassignPointer(int pointerId) {
+    int target = pointerTargets[pointerId];
+    if (target == NO_TARGET) {
+      return;
+    }
+    pointerTargets[pointerId] = NO_TARGET;
+
+    for (int i = 0; i < splitTargetCount; i++) {
+      if (splitTargets[i] == target) {
+        splitTargetPointerIdBits[i] &= ~(1 << pointerId);
+        if (splitTargetPointerIdBits[i] == 0) {
+          splitTargetCount--;
+          splitTargets[i] = splitTargets[splitTargetCount];
+          splitTargetPointerIdBits[i] = splitTargetPointerIdBits[splitTargetCount];
+        }
+        return;
+      }
+    }
+  }
+
+  private void clearSplitTargets() {
+    Arrays.fill(pointerTargets, NO_TARGET);
+    splitTargetCount = 0;
+  }
+
+  private static void checkSplitTouchListener(OnTouchListener listener) {
+    if (!(listener instanceof SplitTouchListener)) {
+      throw new IllegalArgumentException(
+        "Splitting pointers requires a SplitTouchListener: " + listener);
+    }
+  }
+
+  private void checkTarget(int id) {
+    if (id < 0 || id >= idCount || listeners[id] == null) {
+      throw new IllegalArgumentException("Unknown target: " + id);
+    }
+  }
+
+  private int cell(float value) {
+    return (int) Math.floor(value / cellSize);
+  }
+
+  private int bucket(int cellX, int cellY) {
+    return ((cellX * 73856093) ^ (cellY * 19349663)) & (buckets.length - 1);
+  }
+
+  private void insert(int id) {
+    for (int cellY = cell(top[id]), maxY = cell(bottom[id]); cellY <= maxY; cellY++) {
+      for (int cellX = cell(left[id]), maxX = cell(right[id]); cellX <= maxX; cellX++) {
+        int bucket = bucket(cellX, cellY);
+        int[] ids = buckets[bucket];
+        int size = bucketSizes[bucket];
+        if (ids == null) {
+          ids = buckets[bucket] = new int[INITIAL_BUCKET_CAPACITY];
+        } else if (size == ids.length) {
+          ids = buckets[bucket] = Arrays.copyOf(ids, size * 2);
+        }
+        ids[size] = id;
+        bucketSizes[bucket] = size + 1;
+        entryCount++;
+      }
+    }
+  }
+
+  /**
+   * Doubles the number of buckets until there are at most two entries per bucket on average.
+   */
+  private void maybeGrowBuckets() {
+    int bucketCount = buckets.length;
+    while (entryCount > bucketCount * 2) {
+      bucketCount *= 2;
+    }
+    if (bucketCount != buckets.length) {
+      rehash(bucketCount);
+    }
+  }
+
+  /**
+   * Removes one entry of the target from every bucket it was inserted into. A target that spans
+   * multiple cells hashing to the same bucket has one entry per cell.
+   */
+  private void remove(int id) {
+    for (int cellY = cell(top[id]), maxY = cell(bottom[id]); cellY <= maxY; cellY++) {
+      for (int cellX = cell(left[id]), maxX = cell(right[id]); cellX <= maxX; cellX++) {
+        int bucket = bucket(cellX, cellY);
+        int[] ids = buckets[bucket];
+        int size = bucketSizes[bucket];
+        for (int i = 0; i < size; i++) {
+          if (ids[i] == id) {
+            ids[i] = ids[size - 1];
+            bucketSizes[bucket] = size - 1;
+            entryCount--;
+            break;
+          }
+        }
+      }
+    }
+  }
+
+  private void rehash(int bucketCount) {
+    buckets = new int[bucketCount][];
+    bucketSizes = new int[bucketCount];
+    entryCount = 0;
+
+    for (int id = 0; id < idCount; id++) {
+      if (listeners[id] != null) {
+        insert(id);
+      }
+    }
+  }
+
+  private void growTargets() {
+    int capacity = listeners.length * 2;
+    left = Arrays.copyOf(left, capacity);
+    top = Arrays.copyOf(top, capacity);
+    right = Arrays.copyOf(right, capacity);
+    bottom = Arrays.copyOf(bottom, capacity);
+    order = Arrays.copyOf(order, capacity);
+    listeners = Arrays.copyOf(listeners, capacity);
+  }
+}
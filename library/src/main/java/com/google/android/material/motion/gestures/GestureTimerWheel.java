@@ -0,0 +1,224 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.support.annotation.Nullable;
+
+/**
+ * A hashed timer wheel that drives the timeouts of all gesture recognizers on one {@link
+ * GestureScheduler}.
+ * <p>
+ * Timeouts are hashed by their deadline tick into a fixed number of buckets. However many
+ * timeouts are armed, at most one runnable is posted to the scheduler: it is posted for the next
+ * non-empty bucket. Arming and cancelling a timeout is O(1) and does not allocate.
+ * <p>
+ * This class is not thread safe and must only be used on its scheduler's thread.
+ */
+final class GestureTimerWheel {
+
+  /**
+   * The resolution of the wheel. Timeouts fire up to one tick late.
+   */
+  static final int TICK_MILLIS = 10;
+  /**
+   * The number of buckets. Must be a power of two. Timeouts further than one revolution away
+   * stay in their bucket until a later revolution.
+   */
+  static final int WHEEL_SIZE = 64;
+
+  private static final long NOT_SCHEDULED = -1;
+
+  /**
+   * A timeout that can be armed on a wheel. Gesture recognizers allocate one per timer and reuse
+   * it for every touch stream.
+   */
+  static final class Timeout {
+
+    private final Runnable callback;
+    private long deadline;
+    private int bucket = -1;
+    @Nullable
+    private Timeout prev;
+    @Nullable
+    private Timeout next;
+
+    Timeout(Runnable callback) {
+      this.callback = callback;
+    }
+
+    boolean isArmed() {
+      return bucket >= 0;
+    }
+  }
+
+  /**
+   * Returns the wheel of the current thread's Looper.
+   *
+   * @throws IllegalStateException if the current thread has no Looper.
+   */
+  static GestureTimerWheel forCurrentLooper() {
+    return LooperGestureScheduler.forCurrentLooper().getTimerWheel();
+  }
+
+  private final GestureScheduler scheduler;
+  private final Timeout[] buckets = new Timeout[WHEEL_SIZE];
+  private int count;
+  /* The last tick whose bucket has been processed. */
+  private long currentTick;
+  /* The tick the runnable is posted for. */
+  private long scheduledTick = NOT_SCHEDULED;
+
+  /**
+   * Use {@link GestureScheduler#getTimerWheel()} instead, there must only be one wheel per
+   * scheduler.
+   */
+  GestureTimerWheel(GestureScheduler scheduler) {
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * Arms the timeout to fire after {@code delayMillis}. An armed timeout is rescheduled.
+   */
+  void schedule(Timeout timeout, long delayMillis) {
+    cancel(timeout);
+
+    long now = scheduler.uptimeMillis();
+    if (count == 0) {
+      currentTick = now / TICK_MILLIS;
+    }
+
+    timeout.deadline = now + delayMillis;
+    long tick = Math.max((timeout.deadline + TICK_MILLIS - 1) / TICK_MILLIS, currentTick + 1);
+    link(timeout, (int) (tick & (WHEEL_SIZE - 1)));
+
+    if (scheduledTick == NOT_SCHEDULED || tick < scheduledTick) {
+      post(tick);
+    }
+  }
+
+  /**
+   * Disarms the timeout. Does nothing if it is not armed.
+   */
+  void cancel(Timeout timeout) {
+    if (!timeout.isArmed()) {
+      return;
+    }
+
+    unlink(timeout);
+    if (count == 0 && scheduledTick != NOT_SCHEDULED) {
+      scheduler.removeCallbacks(tick);
+      scheduledTick = NOT_SCHEDULED;
+    }
+  }
+
+  /**
+   * Returns the number of armed timeouts.
+   */
+  int getArmedCount() {
+    return count;
+  }
+
+  private void link(Timeout timeout, int bucket) {
+    Timeout head = buckets[bucket];
+    timeout.bucket = bucket;
+    timeout.prev = null;
+    timeout.next = head;
+    if (head != null) {
+      head.prev = timeout;
+    }
+    buckets[bucket] = timeout;
+    count++;
+  }
+
+  private void unlink(Timeout timeout) {
+    if (timeout.prev != null) {
+      timeout.prev.next = timeout.next;
+    } else {
+      buckets[timeout.bucket] = timeout.next;
+    }
+    if (timeout.next != null) {
+      timeout.next.prev = timeout.prev;
+    }
+    timeout.bucket = -1;
+    timeout.prev = null;
+    timeout.next = null;
+    count--;
+  }
+
+  private void post(long tick) {
+    if (scheduledTick != NOT_SCHEDULED) {
+      scheduler.removeCallbacks(this.tick);
+    }
+    scheduledTick = tick;
+    scheduler.postAtTime(this.tick, tick * TICK_MILLIS);
+  }
+
+  private final Runnable tick = new Runnable() {
+    @Override
+    public void run() {
+      scheduledTick = NOT_SCHEDULED;
+
+      long now = scheduler.uptimeMillis();
+      long nowTick = now / TICK_MILLIS;
+      // Visit each bucket at most once, even if the scheduler was blocked for a revolution.
+      long lastTick = Math.min(nowTick, currentTick + WHEEL_SIZE);
+      while (currentTick < lastTick) {
+        // Advance first, so timeouts armed by callbacks land in a bucket still to be visited.
+        currentTick++;
+        expire((int) (currentTick & (WHEEL_SIZE - 1)), now);
+      }
+      currentTick = Math.max(currentTick, nowTick);
+
+      scheduleNext();
+    }
+  };
+
+  private void expire(int bucket, long now) {
+    Timeout timeout = buckets[bucket];
+    while (timeout != null) {
+      Timeout next = timeout.next;
+      if (timeout.deadline <= now) {
+        unlink(timeout);
+        // The callback may arm or cancel other timeouts, including the next one in this bucket.
+        timeout.callback.run();
+        if (next != null && next.bucket != bucket) {
+          // The next timeout moved. Restart from the head, which only holds unexpired timeouts
+          // and timeouts still to be checked.
+          next = buckets[bucket];
+        }
+      }
+      timeout = next;
+    }
+  }
+
+  private void scheduleNext() {
+    // Callbacks may have posted for a later bucket than an already armed timeout.
+    if (scheduledTick != NOT_SCHEDULED) {
+      scheduler.removeCallbacks(tick);
+      scheduledTick = NOT_SCHEDULED;
+    }
+    if (count == 0) {
+      return;
+    }
+    for (int i = 1; i <= WHEEL_SIZE; i++) {
+      long t = currentTick + i;
+      if (buckets[(int) (t & (WHEEL_SIZE - 1))] != null) {
+        post(t);
+        return;
+      }
+    }
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.graphics.PointF;
+
+/**
+ * Scratch objects shared by all gesture recognizers on one thread.
+ * <p>
+ * Gesture recognizers only need these while processing a single event or state change, so there
+ * is no reason for every instance to carry its own. Each thread, normally the UI thread, gets one
+ * workspace, and a gesture recognizer must not hold on to its objects past the call that
+ * obtained them.
+ */
+final class GestureWorkspace {
+
+  private static final ThreadLocal<GestureWorkspace> WORKSPACES =
+    new ThreadLocal<GestureWorkspace>() {
+      @Override
+      protected GestureWorkspace initialValue() {
+        return new GestureWorkspace();
+      }
+    };
+
+  /**
+   * The point returned by {@link GestureRecognizer#calculateUntransformedPoint}.
+   */
+  final PointF point = new PointF();
+
+  /**
+   * The snapshot filled and published at every state change.
+   */
+  final GestureSnapshot snapshot = new GestureSnapshot();
+
+  /**
+   * The transform and matrix values used by {@link GestureRecognizer#getTransformationMatrix}.
+   */
+  final float[] transform = new float[AffineTransform.SIZE];
+  final float[] matrixValues = new float[AffineTransform.MATRIX_SIZE];
+
+  private GestureWorkspace() {
+  }
+
+  /**
+   * Returns the workspace of the current thread.
+   */
+  static GestureWorkspace get() {
+    return WORKSPACES.get();
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+/**
+ * Estimates velocity from the work done on a unit mass that follows the samples.
+ * <p>
+ * Each segment between two samples changes the kinetic energy of the mass by the work needed to
+ * bring it to the segment's velocity. The velocity is the one matching the final kinetic energy.
+ * This reacts quickly to the last segments without the overshoot of a polynomial fit.
+ */
+class ImpulseVelocityEstimator extends BufferedVelocityEstimator {
+
+  @Override
+  double estimate(int n) {
+    double[] t = windowTimes;
+    double[] x = windowValues;
+
+    double work = 0;
+    boolean first = true;
+    for (int i = 1; i < n; i++) {
+      double dt = t[i] - t[i - 1];
+      if (dt == 0) {
+        continue;
+      }
+      double previousVelocity = kineticEnergyToVelocity(work);
+      double velocity = (x[i] - x[i - 1]) / dt;
+      work += (velocity - previousVelocity) * Math.abs(velocity);
+      if (first) {
+        // The mass starts at rest, but the first segment was already moving.
+        work *= 0.5;
+        first = false;
+      }
+    }
+    return kineticEnergyToVelocity(work);
+  }
+
+  private static double kineticEnergyToVelocity(double work) {
+    return Math.signum(work) * Math.sqrt(2 * Math.abs(work));
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.view.MotionEvent;
+
+/**
+ * Tracks the value and its velocity with a constant velocity Kalman filter.
+ * <p>
+ * The filter is updated once per sample in constant time and keeps no history. Acceleration is
+ * modelled as white noise, so the estimate follows changes in velocity at a rate set by the
+ * acceleration noise relative to the measurement noise.
+ */
+class KalmanVelocityEstimator extends VelocityEstimator {
+
+  /**
+   * Standard deviation of the acceleration of a finger, in pixels per second squared.
+   */
+  static final double ACCELERATION_NOISE = 20000;
+  /**
+   * Standard deviation of a touch position measurement, in pixels.
+   */
+  static final double MEASUREMENT_NOISE = 1;
+  /**
+   * Standard deviations for the logarithm of a multiplicative value such as a span.
+   */
+  static final double LOG_ACCELERATION_NOISE = 60;
+  static final double LOG_MEASUREMENT_NOISE = 0.003;
+
+  /* The initial velocity uncertainty is large, so the first measurements set the velocity. */
+  private static final double INITIAL_VELOCITY_VARIANCE = 1e8;
+
+  private final double accelerationVariance;
+  private final double measurementVariance;
+
+  private boolean initialized;
+  private long lastTime;
+  /* State: position and velocity. */
+  private double x;
+  private double v;
+  /* Symmetric covariance. */
+  private double p00;
+  private double p01;
+  private double p11;
+
+  KalmanVelocityEstimator(double accelerationNoise, double measurementNoise) {
+    this.accelerationVariance = accelerationNoise * accelerationNoise;
+    this.measurementVariance = measurementNoise * measurementNoise;
+  }
+
+  @Override
+  void clear() {
+    initialized = false;
+  }
+
+  @Override
+  void addSample(long downTime, long eventTime, int action, float value) {
+    long elapsed = eventTime - lastTime;
+    if (action == MotionEvent.ACTION_DOWN
+      || !initialized
+      || elapsed > BufferedVelocityEstimator.ASSUME_STOPPED_MILLIS) {
+      // Start from rest at the measurement.
+      initialized = true;
+      lastTime = eventTime;
+      x = value;
+      v = 0;
+      p00 = measurementVariance;
+      p01 = 0;
+      p11 = INITIAL_VELOCITY_VARIANCE;
+      return;
+    }
+
+    if (elapsed > 0) {
+      double dt = elapsed / 1000.0;
+      double dt2 = dt * dt;
+
+      // Predict.
+      x += v * dt;
+      p00 += dt * (2 * p01 + dt * p11) + accelerationVariance * dt2 * dt2 / 4;
+      p01 += dt * p11 + accelerationVariance * dt2 * dt / 2;
+      p11 += accelerationVariance * dt2;
+      lastTime = eventTime;
+    }
+
+    // Update.
+    double s = p00 + measurementVariance;
+    double k0 = p00 / s;
+    double k1 = p01 / s;
+    double residual = value - x;
+    x += k0 * residual;
+    v += k1 * residual;
+    p11 -= k1 * p01;
+    p01 -= k0 * p01;
+    p00 -= k0 * p00;
+  }
+
+  @Override
+  float computeVelocity(float maximumVelocity) {
+    return initialized ? clamp((float) v, maximumVelocity) : 0f;
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+/**
+ * Fits a polynomial of degree 1 or 2 to the recent samples by least squares, and returns its
+ * slope at the newest sample.
+ * <p>
+ * Degree 1 assumes a constant velocity over the window. Degree 2 also follows acceleration, at
+ * the cost of more sensitivity to noise. Windows with too few samples for the degree fall back to
+ * a lower degree.
+ */
+class LeastSquaresVelocityEstimator extends BufferedVelocityEstimator {
+
+  private final int degree;
+
+  LeastSquaresVelocityEstimator(int degree) {
+    if (degree != 1 && degree != 2) {
+      throw new IllegalArgumentException("Unsupported degree: " + degree);
+    }
+    this.degree = degree;
+  }
+
+  @Override
+  double estimate(int n) {
+    double[] t = windowTimes;
+    double[] x = windowValues;
+
+    // Power sums of the normal equations.
+    double s1 = 0;
+    double s2 = 0;
+    double s3 = 0;
+    double s4 = 0;
+    double x0 = 0;
+    double x1 = 0;
+    double x2 = 0;
+    for (int i = 0; i < n; i++) {
+      double ti = t[i];
+      double ti2 = ti * ti;
+      s1 += ti;
+      s2 += ti2;
+      s3 += ti2 * ti;
+      s4 += ti2 * ti2;
+      x0 += x[i];
+      x1 += x[i] * ti;
+      x2 += x[i] * ti2;
+    }
+
+    if (degree == 2 && n >= 3) {
+      // Solve for b in x = a + b t + c t^2 by Cramer's rule.
+      double det = det3(n, s1, s2, s1, s2, s3, s2, s3, s4);
+      if (det != 0) {
+        return det3(n, x0, s2, s1, x1, s3, s2, x2, s4) / det;
+      }
+    }
+
+    double det = n * s2 - s1 * s1;
+    if (det == 0) {
+      return 0;
+    }
+    return (n * x1 - s1 * x0) / det;
+  }
+
+  /**
+   * Returns the determinant of the row-major 3x3 matrix.
+   */
+  private static double det3(
+    double a, double b, double c, double d, double e, double f, double g, double h, double i) {
+    return a * (e * i - f * h) - b * (d * i - f * g) + c * (d * h - e * g);
+  }
+}
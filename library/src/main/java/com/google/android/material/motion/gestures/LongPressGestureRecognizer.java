@@ -0,0 +1,195 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.support.annotation.Nullable;
+import android.view.MotionEvent;
+import android.view.View;
+
+/**
+ * A gesture recognizer that recognizes a press held in place.
+ * <p>
+ * The gesture {@link #BEGAN begins} once the press has been held for {@link #minimumPressDuration}
+ * without moving more than {@link #pressSlop}. After that the centroid may move freely, which
+ * {@link #CHANGED changes} the gesture, and lifting all fingers {@link #RECOGNIZED recognizes} it.
+ * Moving or lifting before the gesture began rejects it.
+ * <p>
+ * Timeouts are driven by the shared timer wheel of the {@link #getScheduler() scheduler}.
+ */
+public class LongPressGestureRecognizer extends GestureRecognizer {
+
+  /**
+   * Touch slop for a long press. Amount of pixels that the centroid may move before the gesture
+   * began.
+   */
+  public int pressSlop = UNSET_SLOP;
+
+  /**
+   * How long the press must be held before the gesture begins, in milliseconds.
+   */
+  public int minimumPressDuration = UNSET_TIMEOUT;
+
+  private float initialCentroidX;
+  private float initialCentroidY;
+  private float currentCentroidX;
+  private float currentCentroidY;
+
+  /* Created when the first timeout is scheduled. The wheel is the one it was last armed on. */
+  @Nullable
+  private GestureTimerWheel.Timeout timeout;
+  @Nullable
+  private GestureTimerWheel wheel;
+
+  @Override
+  public void setElement(@Nullable View element) {
+    super.setElement(element);
+
+    if (element == null) {
+      return;
+    }
+
+    GestureConfiguration configuration = getConfiguration();
+    if (pressSlop == UNSET_SLOP) {
+      pressSlop = configuration.getTouchSlop();
+    }
+    if (minimumPressDuration == UNSET_TIMEOUT) {
+      minimumPressDuration = configuration.getLongPressTimeout();
+    }
+  }
+
+  @Override
+  public void reset() {
+    cancelTimeout();
+    super.reset();
+
+    initialCentroidX = 0;
+    initialCentroidY = 0;
+    currentCentroidX = 0;
+    currentCentroidY = 0;
+  }
+
+  @Override
+  protected void restoreDefaults() {
+    super.restoreDefaults();
+
+    pressSlop = UNSET_SLOP;
+    minimumPressDuration = UNSET_TIMEOUT;
+  }
+
+  @Override
+  protected void reject() {
+    cancelTimeout();
+    super.reject();
+  }
+
+  @Override
+  protected boolean onTouch(MotionEvent event) {
+    float centroidX = pointers.getCentroidX();
+    float centroidY = pointers.getCentroidY();
+
+    int action = getActionMasked(event);
+    if (action == MotionEvent.ACTION_DOWN) {
+      initialCentroidX = centroidX;
+      initialCentroidY = centroidY;
+      currentCentroidX = centroidX;
+      currentCentroidY = centroidY;
+
+      getWheel().schedule(timeout, minimumPressDuration);
+    }
+    if (action == MotionEvent.ACTION_POINTER_DOWN
+      || action == MotionEvent.ACTION_POINTER_UP) {
+      // Fingers going down or up move the centroid, but do not move the press.
+      float adjustX = centroidX - currentCentroidX;
+      float adjustY = centroidY - currentCentroidY;
+
+      initialCentroidX += adjustX;
+      initialCentroidY += adjustY;
+      currentCentroidX += adjustX;
+      currentCentroidY += adjustY;
+    }
+    if (action == MotionEvent.ACTION_MOVE) {
+      if (isInProgress()) {
+        currentCentroidX = centroidX;
+        currentCentroidY = centroidY;
+
+        setState(CHANGED);
+      } else if (dist(centroidX, centroidY, initialCentroidX, initialCentroidY) > pressSlop) {
+        reject();
+      }
+    }
+    if (action == MotionEvent.ACTION_UP
+      || action == MotionEvent.ACTION_CANCEL) {
+      currentCentroidX = centroidX;
+      currentCentroidY = centroidY;
+
+      if (isInProgress()) {
+        if (action == MotionEvent.ACTION_UP) {
+          setState(RECOGNIZED);
+        } else {
+          setState(CANCELLED);
+        }
+      } else {
+        reject();
+      }
+    }
+
+    return true;
+  }
+
+  @Override
+  public float getUntransformedCentroidX() {
+    return currentCentroidX;
+  }
+
+  @Override
+  public float getUntransformedCentroidY() {
+    return currentCentroidY;
+  }
+
+  private void cancelTimeout() {
+    if (wheel != null) {
+      wheel.cancel(timeout);
+    }
+  }
+
+  /**
+   * Returns the timer wheel of the current scheduler. Timeouts armed on the wheel of a previous
+   * scheduler were cancelled when it was replaced.
+   */
+  private GestureTimerWheel getWheel() {
+    if (timeout == null) {
+      timeout = new GestureTimerWheel.Timeout(
+        new Runnable() {
+          @Override
+          public void run() {
+            if (canBegin()) {
+              setState(BEGAN);
+            } else {
+              reject();
+            }
+          }
+        });
+    }
+    wheel = getScheduler().getTimerWheel();
+    return wheel;
+  }
+
+  private static float dist(float x1, float y1, float x2, float y2) {
+    final float x = (x2 - x1);
+    final float y = (y2 - y1);
+    return (float) Math.sqrt(x * x + y * y);
+  }
+}
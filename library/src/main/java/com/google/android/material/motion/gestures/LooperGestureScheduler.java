@@ -0,0 +1,185 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.annotation.Nullable;
+import android.view.Choreographer;
+
+import java.util.Arrays;
+
+/**
+ * The default {@link GestureScheduler}: posts to the Looper of the current thread, normally the
+ * main Looper, and takes frames from its {@link Choreographer}.
+ * <p>
+ * All frame callbacks share a single Choreographer callback. Before Jelly Bean, which has no
+ * Choreographer, frames are approximated by posts every {@link #FALLBACK_FRAME_MILLIS}.
+ * <p>
+ * This class is not thread safe and must only be used on its Looper's thread.
+ */
+public final class LooperGestureScheduler extends GestureScheduler {
+
+  /**
+   * The interval of the frames posted before Jelly Bean.
+   */
+  static final long FALLBACK_FRAME_MILLIS = 16;
+
+  private static final ThreadLocal<LooperGestureScheduler> schedulers = new ThreadLocal<>();
+
+  /**
+   * Returns the scheduler of the current thread's Looper.
+   *
+   * @throws IllegalStateException if the current thread has no Looper.
+   */
+  public static LooperGestureScheduler forCurrentLooper() {
+    Looper looper = Looper.myLooper();
+    if (looper == null) {
+      throw new IllegalStateException(
+        "Gesture recognizers with timeouts or frames must be used on a Looper thread, or be "
+          + "given a GestureScheduler.");
+    }
+
+    LooperGestureScheduler scheduler = schedulers.get();
+    // The thread may have prepared a new Looper since.
+    if (scheduler == null || scheduler.looper != looper) {
+      scheduler = new LooperGestureScheduler(looper);
+      schedulers.set(scheduler);
+    }
+    return scheduler;
+  }
+
+  private final Looper looper;
+  private final Handler handler;
+
+  /* The pending frame callbacks, and the ones of the frame being dispatched. */
+  private FrameCallback[] frameCallbacks = new FrameCallback[4];
+  private int frameCallbackCount;
+  private FrameCallback[] dispatching = new FrameCallback[4];
+  private int dispatchingCount;
+  private boolean framePosted;
+  @Nullable
+  private Choreographer.FrameCallback choreographerCallback;
+
+  private final Runnable fallbackFrame = new Runnable() {
+    @Override
+    public void run() {
+      doFrame(SystemClock.uptimeMillis());
+    }
+  };
+
+  private LooperGestureScheduler(Looper looper) {
+    this.looper = looper;
+    this.handler = new Handler(looper);
+  }
+
+  @Override
+  public long uptimeMillis() {
+    return SystemClock.uptimeMillis();
+  }
+
+  @Override
+  public void postAtTime(Runnable runnable, long uptimeMillis) {
+    handler.postAtTime(runnable, uptimeMillis);
+  }
+
+  @Override
+  public void removeCallbacks(Runnable runnable) {
+    handler.removeCallbacks(runnable);
+  }
+
+  @Override
+  public void postFrameCallback(FrameCallback callback) {
+    if (frameCallbackCount == frameCallbacks.length) {
+      frameCallbacks = Arrays.copyOf(frameCallbacks, frameCallbackCount * 2);
+    }
+    frameCallbacks[frameCallbackCount++] = callback;
+
+    if (!framePosted) {
+      framePosted = true;
+      if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+        if (choreographerCallback == null) {
+          choreographerCallback = new Choreographer.FrameCallback() {
+            @Override
+            public void doFrame(long frameTimeNanos) {
+              LooperGestureScheduler.this.doFrame(frameTimeNanos / 1000000);
+            }
+          };
+        }
+        Choreographer.getInstance().postFrameCallback(choreographerCallback);
+      } else {
+        handler.postAtTime(fallbackFrame, SystemClock.uptimeMillis() + FALLBACK_FRAME_MILLIS);
+      }
+    }
+  }
+
+  @Override
+  public void removeFrameCallback(FrameCallback callback) {
+    frameCallbackCount = remove(frameCallbacks, frameCallbackCount, callback);
+    // A callback removed by an earlier callback of the same frame does not run either.
+    for (int i = 0; i < dispatchingCount; i++) {
+      if (dispatching[i] == callback) {
+        dispatching[i] = null;
+      }
+    }
+
+    if (frameCallbackCount == 0 && framePosted) {
+      framePosted = false;
+      if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+        Choreographer.getInstance().removeFrameCallback(choreographerCallback);
+      } else {
+        handler.removeCallbacks(fallbackFrame);
+      }
+    }
+  }
+
+  private void doFrame(long frameTimeMillis) {
+    framePosted = false;
+
+    // Callbacks posted while dispatching run on the next frame.
+    FrameCallback[] callbacks = frameCallbacks;
+    frameCallbacks = dispatching;
+    dispatching = callbacks;
+    dispatchingCount = frameCallbackCount;
+    frameCallbackCount = 0;
+
+    for (int i = 0; i < dispatchingCount; i++) {
+      FrameCallback callback = dispatching[i];
+      if (callback != null) {
+        dispatching[i] = null;
+        callback.doFrame(frameTimeMillis);
+      }
+    }
+    dispatchingCount = 0;
+  }
+
+  /**
+   * Removes every occurrence of the callback from the first {@code count} elements of the array.
+   * Returns the new count.
+   */
+  private static int remove(FrameCallback[] callbacks, int count, FrameCallback callback) {
+    int kept = 0;
+    for (int i = 0; i < count; i++) {
+      if (callbacks[i] != callback) {
+        callbacks[kept++] = callbacks[i];
+      }
+    }
+    Arrays.fill(callbacks, kept, count, null);
+    return kept;
+  }
+}
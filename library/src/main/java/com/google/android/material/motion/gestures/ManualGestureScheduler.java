@@ -0,0 +1,187 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import java.util.Arrays;
+
+/**
+ * A {@link GestureScheduler} in virtual time that only advances when told to, for tests,
+ * benchmarks and replaying recorded touch events at full speed and without a Looper.
+ * <p>
+ * Posted runnables run in time order during {@link #advanceBy(long)} and {@link #runFrame()},
+ * with the clock set to the time they were posted for. Frame callbacks run during {@link
+ * #runFrame()}. Feed gesture recognizers touch events whose event times are in the same time
+ * base as {@link #uptimeMillis()}.
+ * <p>
+ * This class is not thread safe.
+ */
+public final class ManualGestureScheduler extends GestureScheduler {
+
+  /**
+   * The time that {@link #runFrame()} advances by.
+   */
+  public static final long FRAME_MILLIS = 16;
+
+  private long now;
+
+  /* Pending runnables sorted by time, and by post order within the same time. */
+  private Runnable[] runnables = new Runnable[8];
+  private long[] times = new long[8];
+  private int runnableCount;
+
+  private FrameCallback[] frameCallbacks = new FrameCallback[4];
+  private int frameCallbackCount;
+  private FrameCallback[] dispatching = new FrameCallback[4];
+  private int dispatchingCount;
+
+  /**
+   * Creates a scheduler whose clock starts at 0.
+   */
+  public ManualGestureScheduler() {
+    this(0);
+  }
+
+  /**
+   * Creates a scheduler whose clock starts at the given time.
+   */
+  public ManualGestureScheduler(long startMillis) {
+    now = startMillis;
+  }
+
+  @Override
+  public long uptimeMillis() {
+    return now;
+  }
+
+  @Override
+  public void postAtTime(Runnable runnable, long uptimeMillis) {
+    if (runnableCount == runnables.length) {
+      runnables = Arrays.copyOf(runnables, runnableCount * 2);
+      times = Arrays.copyOf(times, runnableCount * 2);
+    }
+
+    int i = runnableCount;
+    while (i > 0 && times[i - 1] > uptimeMillis) {
+      runnables[i] = runnables[i - 1];
+      times[i] = times[i - 1];
+      i--;
+    }
+    runnables[i] = runnable;
+    times[i] = uptimeMillis;
+    runnableCount++;
+  }
+
+  @Override
+  public void removeCallbacks(Runnable runnable) {
+    int kept = 0;
+    for (int i = 0; i < runnableCount; i++) {
+      if (runnables[i] != runnable) {
+        runnables[kept] = runnables[i];
+        times[kept] = times[i];
+        kept++;
+      }
+    }
+    Arrays.fill(runnables, kept, runnableCount, null);
+    runnableCount = kept;
+  }
+
+  @Override
+  public void postFrameCallback(FrameCallback callback) {
+    if (frameCallbackCount == frameCallbacks.length) {
+      frameCallbacks = Arrays.copyOf(frameCallbacks, frameCallbackCount * 2);
+    }
+    frameCallbacks[frameCallbackCount++] = callback;
+  }
+
+  @Override
+  public void removeFrameCallback(FrameCallback callback) {
+    int kept = 0;
+    for (int i = 0; i < frameCallbackCount; i++) {
+      if (frameCallbacks[i] != callback) {
+        frameCallbacks[kept++] = frameCallbacks[i];
+      }
+    }
+    Arrays.fill(frameCallbacks, kept, frameCallbackCount, null);
+    frameCallbackCount = kept;
+
+    for (int i = 0; i < dispatchingCount; i++) {
+      if (dispatching[i] == callback) {
+        dispatching[i] = null;
+      }
+    }
+  }
+
+  /**
+   * Runs the runnables that are due now, including the ones they post for now.
+   */
+  public void runPending() {
+    advanceBy(0);
+  }
+
+  /**
+   * Advances the clock, running every runnable that becomes due on the way.
+   *
+   * @throws IllegalArgumentException if {@code millis} is negative.
+   */
+  public void advanceBy(long millis) {
+    if (millis < 0) {
+      throw new IllegalArgumentException("Time cannot go backwards: " + millis);
+    }
+
+    long end = now + millis;
+    while (runnableCount > 0 && times[0] <= end) {
+      Runnable runnable = runnables[0];
+      now = Math.max(now, times[0]);
+      runnableCount--;
+      System.arraycopy(runnables, 1, runnables, 0, runnableCount);
+      System.arraycopy(times, 1, times, 0, runnableCount);
+      runnables[runnableCount] = null;
+
+      runnable.run();
+    }
+    now = end;
+  }
+
+  /**
+   * Advances the clock by {@link #FRAME_MILLIS}, then calls the frame callbacks that were posted
+   * before this frame started.
+   */
+  public void runFrame() {
+    advanceBy(FRAME_MILLIS);
+
+    FrameCallback[] callbacks = frameCallbacks;
+    frameCallbacks = dispatching;
+    dispatching = callbacks;
+    dispatchingCount = frameCallbackCount;
+    frameCallbackCount = 0;
+
+    for (int i = 0; i < dispatchingCount; i++) {
+      FrameCallback callback = dispatching[i];
+      if (callback != null) {
+        dispatching[i] = null;
+        callback.doFrame(now);
+      }
+    }
+    dispatchingCount = 0;
+  }
+
+  /**
+   * Returns whether no runnables or frame callbacks are pending.
+   */
+  public boolean isIdle() {
+    return runnableCount == 0 && frameCallbackCount == 0;
+  }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import java.util.Arrays;
+
+/**
+ * Continues a fixed number of values after release with the velocity they were released with.
+ * <p>
+ * Inside their bounds, values decelerate with friction: the velocity keeps {@link
+ * #setDecelerationRate(float) a fraction} of itself every millisecond, so a value comes to rest
+ * at the {@link FlingGestureRecognizer#project(float, float) projected} distance from where it was
+ * released. A value outside its bounds is pulled back to the nearest bound by a critically damped
+ * spring. Each step is computed in closed form, so the result does not depend on the frame rate.
+ * <p>
+ * Stepping does not allocate. This class is not thread safe.
+ */
+final class MomentumEngine {
+
+  /**
+   * The angular frequency of the spring that pulls values back into their bounds, in radians per
+   * second. The spring settles in about {@code 4 / SPRING_FREQUENCY} seconds.
+   */
+  static final double SPRING_FREQUENCY = 20;
+
+  private static final int REST = 0;
+  private static final int FRICTION = 1;
+  private static final int SPRING = 2;
+
+  private final int count;
+  private final double[] values;
+  private final double[] velocities;
+  private final float[] minimums;
+  private final float[] maximums;
+  private final float[] projected;
+  private final int[] modes;
+  private final float[] springTargets;
+
+  private float decelerationRate = FlingGestureRecognizer.DECELERATION_RATE_NORMAL;
+  private float restVelocity = 1f;
+  private boolean running;
+
+  MomentumEngine(int count) {
+    this.count = count;
+    values = new double[count];
+    velocities = new double[count];
+    minimums = new float[count];
+    maximums = new float[count];
+    projected = new float[count];
+    modes = new int[count];
+    springTargets = new float[count];
+    Arrays.fill(minimums, Float.NEGATIVE_INFINITY);
+    Arrays.fill(maximums, Float.POSITIVE_INFINITY);
+  }
+
+  /**
+   * Sets the fraction of velocity that values keep every millisecond.
+   *
+   * @throws IllegalArgumentException if the rate is not between 0 and 1, exclusive.
+   */
+  void setDecelerationRate(float decelerationRate) {
+    if (!(decelerationRate > 0f && decelerationRate < 1f)) {
+      throw new IllegalArgumentException("Invalid deceleration rate: " + decelerationRate);
+    }
+    this.decelerationRate = decelerationRate;
+  }
+
+  float getDecelerationRate() {
+    return decelerationRate;
+  }
+
+  /**
+   * Sets the speed in units per second below which a value is at rest.
+   */
+  void setRestVelocity(float restVelocity) {
+    this.restVelocity = restVelocity;
+  }
+
+  /**
+   * Sets the bounds of a value. Infinite bounds are unbounded.
+   *
+   * @throws IllegalArgumentException if {@code min} is greater than {@code max}.
+   */
+  void setBounds(int index, float min, float max) {
+    if (min > max) {
+      throw new IllegalArgumentException("Invalid bounds: [" + min + ", " + max + "]");
+    }
+    minimums[index] = min;
+    maximums[index] = max;
+  }
+
+  /**
+   * Starts moving the values from the given release values and velocities in units per second.
+   */
+  void start(float[] releaseValues, float[] releaseVelocities) {
+    running = false;
+    for (int i = 0; i < count; i++) {
+      float value = releaseValues[i];
+      float velocity = releaseVelocities[i];
+      values[i] = value;
+      velocities[i] = velocity;
+
+      if (value < minimums[i] || value > maximums[i]) {
+        springTargets[i] = value < minimums[i] ? minimums[i] : maximums[i];
+        projected[i] = springTargets[i];
+        modes[i] = SPRING;
+      } else {
+        float target = value + FlingGestureRecognizer.project(velocity, decelerationRate);
+        projected[i] = Math.max(minimums[i], Math.min(maximums[i], target));
+        modes[i] = Math.abs(velocity) < restVelocity ? REST : FRICTION;
+      }
+      running |= modes[i] != REST;
+    }
+  }
+
+  /**
+   * Stops all values where they are.
+   */
+  void stop() {
+    running = false;
+    Arrays.fill(modes, REST);
+    Arrays.fill(velocities, 0);
+  }
+
+  boolean isRunning() {
+    return running;
+  }
+
+  float getValue(int index) {
+    return (float) values[index];
+  }
+
+  float getVelocity(int index) {
+    return (float) velocities[index];
+  }
+
+  /**
+   * Returns the value that a value comes to rest at, as projected when the values were {@link
+   * #start(float[], float[]) started}.
+   */
+  float getProjectedValue(int index) {
+    return projected[index];
+  }
+
+  /**
+   * Advances the values by the given number of milliseconds.
+   *
+   * @return whether any value is still moving.
+   */
+  boolean step(long elapsedMillis) {
+    if (!running) {
+      return false;
+    }
+    running = false;
+    for (int i = 0; i < count; i++) {
+      if (modes[i] == FRICTION) {
+        stepFriction(i, elapsedMillis);
+      } else if (modes[i] == SPRING) {
+        stepSpring(i, elapsedMillis / 1000.0);
+      }
+      running |= modes[i] != REST;
+    }
+    return running;
+  }
+
+  private void stepFriction(int i, long elapsedMillis) {
+    // Sum of the geometric series of per-millisecond distances, as in FlingGestureRecognizer.
+    double retained = Math.pow(decelerationRate, elapsedMillis);
+    values[i] += velocities[i] / 1000 * decelerationRate * (1 - retained) / (1 - decelerationRate);
+    velocities[i] *= retained;
+
+    if (values[i] < minimums[i] || values[i] > maximums[i]) {
+      springTargets[i] = values[i] < minimums[i] ? minimums[i] : maximums[i];
+      modes[i] = SPRING;
+    } else if (Math.abs(velocities[i]) < restVelocity) {
+      values[i] = projected[i];
+      velocities[i] = 0;
+      modes[i] = REST;
+    }
+  }
+
+  private void stepSpring(int i, double dt) {
+    // Critically damped spring: x(t) = (x0 + (v0 + w x0) t) e^(-w t), relative to the target.
+    double w = SPRING_FREQUENCY;
+    double displacement = values[i] - springTargets[i];
+    double c = velocities[i] + w * displacement;
+    double decay = Math.exp(-w * dt);
+    displacement = (displacement + c * dt) * decay;
+    velocities[i] = (velocities[i] - c * w * dt) * decay;
+    values[i] = springTargets[i] + displacement;
+
+    if (Math.abs(velocities[i]) < restVelocity
+      && Math.abs(displacement) < restVelocity / SPRING_FREQUENCY) {
+      values[i] = springTargets[i];
+      velocities[i] = 0;
+      modes[i] = REST;
+    }
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.support.v4.view.MotionEventCompat;
+import android.view.MotionEvent;
+import android.view.MotionEvent.PointerCoords;
+import android.view.MotionEvent.PointerProperties;
+import android.view.View;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free single-producer single-consumer ring of motion events.
+ * <p>
+ * The producer copies the primitive data of a motion event and the element's transform into
+ * preallocated arrays. The consumer rebuilds an equivalent motion event from them. Neither side
+ * allocates or blocks. Historical samples are not copied.
+ */
+class MotionEventRing {
+
+  /**
+   * The maximum number of pointers copied per event. Further pointers are dropped.
+   */
+  static final int MAX_POINTERS = 16;
+
+  private static final int INTS_PER_EVENT = 3 + MAX_POINTERS;
+  private static final int FLOATS_PER_EVENT =
+    GestureRecognizer.TRANSFORM_SIZE + 2 * MAX_POINTERS;
+
+  private final int mask;
+  private final long[] downTimes;
+  private final long[] eventTimes;
+  private final int[] ints;
+  private final float[] floats;
+
+  /* The next slot to read. Written by the consumer only. */
+  private final AtomicLong head = new AtomicLong();
+  /* The next slot to write. Written by the producer only. */
+  private final AtomicLong tail = new AtomicLong();
+  /* Each side's last seen value of the other side's index, to avoid volatile reads. */
+  private long cachedHead;
+  private long cachedTail;
+
+  /**
+   * @param capacity The number of events the ring can hold. Must be a power of two.
+   */
+  MotionEventRing(int capacity) {
+    if (capacity <= 0 || (capacity & (capacity - 1)) != 0) {
+      throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+    }
+    mask = capacity - 1;
+    downTimes = new long[capacity];
+    eventTimes = new long[capacity];
+    ints = new int[capacity * INTS_PER_EVENT];
+    floats = new float[capacity * FLOATS_PER_EVENT];
+  }
+
+  /**
+   * Copies the event and the element's transform into the ring. Producer thread only.
+   *
+   * @return False if the ring is full.
+   */
+  boolean offer(MotionEvent event, View element) {
+    long t = tail.get();
+    if (t - cachedHead > mask) {
+      cachedHead = head.get();
+      if (t - cachedHead > mask) {
+        return false;
+      }
+    }
+
+    int slot = (int) (t & mask);
+    int pointerCount = Math.min(event.getPointerCount(), MAX_POINTERS);
+
+    downTimes[slot] = event.getDownTime();
+    eventTimes[slot] = event.getEventTime();
+
+    int i = slot * INTS_PER_EVENT;
+    ints[i] = MotionEventCompat.getActionMasked(event)
+      | (MotionEventCompat.getActionIndex(event) << MotionEvent.ACTION_POINTER_INDEX_SHIFT);
+    ints[i + 1] = event.getMetaState();
+    ints[i + 2] = pointerCount;
+    for (int p = 0; p < pointerCount; p++) {
+      ints[i + 3 + p] = MotionEventCompat.getPointerId(event, p);
+    }
+
+    int f = slot * FLOATS_PER_EVENT;
+    GestureRecognizer.captureTransform(element, floats, f);
+    f += GestureRecognizer.TRANSFORM_SIZE;
+    for (int p = 0; p < pointerCount; p++) {
+      floats[f + 2 * p] = MotionEventCompat.getX(event, p);
+      floats[f + 2 * p + 1] = MotionEventCompat.getY(event, p);
+    }
+
+    tail.lazySet(t + 1);
+    return true;
+  }
+
+  /**
+   * Returns whether the ring has no events to poll. Consumer thread only.
+   */
+  boolean isEmpty() {
+    long h = head.get();
+    if (h < cachedTail) {
+      return false;
+    }
+    cachedTail = tail.get();
+    return h >= cachedTail;
+  }
+
+  /**
+   * Rebuilds the oldest event in the ring and removes it. Consumer thread only.
+   *
+   * @param properties Scratch pointer properties of length {@link #MAX_POINTERS}.
+   * @param coords Scratch pointer coords of length {@link #MAX_POINTERS}.
+   * @param transform Receives the element's transform at {@code transform[0]}.
+   * @return The rebuilt event, which the caller must recycle, or null if the ring is empty.
+   */
+  MotionEvent poll(PointerProperties[] properties, PointerCoords[] coords, float[] transform) {
+    if (isEmpty()) {
+      return null;
+    }
+
+    long h = head.get();
+    int slot = (int) (h & mask);
+
+    int i = slot * INTS_PER_EVENT;
+    int action = ints[i];
+    int metaState = ints[i + 1];
+    int pointerCount = ints[i + 2];
+
+    int f = slot * FLOATS_PER_EVENT;
+    System.arraycopy(floats, f, transform, 0, GestureRecognizer.TRANSFORM_SIZE);
+    f += GestureRecognizer.TRANSFORM_SIZE;
+    for (int p = 0; p < pointerCount; p++) {
+      properties[p].clear();
+      properties[p].id = ints[i + 3 + p];
+      properties[p].toolType = MotionEvent.TOOL_TYPE_FINGER;
+      coords[p].clear();
+      coords[p].x = floats[f + 2 * p];
+      coords[p].y = floats[f + 2 * p + 1];
+      coords[p].pressure = 1f;
+      coords[p].size = 1f;
+    }
+
+    MotionEvent event = MotionEvent.obtain(
+      downTimes[slot], eventTimes[slot], action, pointerCount, properties, coords, metaState,
+      0, 1f, 1f, 0, 0, 0, 0);
+
+    head.lazySet(h + 1);
+    return event;
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+/**
+ * A One Euro filter for the positions of every pointer id, stored in primitive arrays.
+ * <p>
+ * Each position is smoothed by a first order low-pass filter whose cutoff frequency rises with
+ * the pointer's speed: {@code minCutoff + beta * speed}. A slow or resting pointer is heavily
+ * smoothed, which removes digitizer jitter, while a fast pointer is barely smoothed, which keeps
+ * the lag low. The speed is itself low-pass filtered at {@link #DERIVATIVE_CUTOFF}.
+ * <p>
+ * Filtering does not allocate. This class is not thread safe.
+ */
+final class OneEuroFilter {
+
+  /**
+   * The default minimum cutoff frequency, in Hz.
+   */
+  static final float DEFAULT_MIN_CUTOFF = 1f;
+  /**
+   * The default increase of the cutoff frequency with speed, in Hz per pixel per second.
+   */
+  static final float DEFAULT_BETA = 0.007f;
+
+  /**
+   * The cutoff frequency of the speed estimate, in Hz.
+   */
+  private static final float DERIVATIVE_CUTOFF = 1f;
+
+  private static final int SIZE = PointerTable.MAX_POINTER_ID + 1;
+
+  private float minCutoff = DEFAULT_MIN_CUTOFF;
+  private float beta = DEFAULT_BETA;
+
+  private final float[] x = new float[SIZE];
+  private final float[] y = new float[SIZE];
+  private final float[] velocityX = new float[SIZE];
+  private final float[] velocityY = new float[SIZE];
+  private final long[] times = new long[SIZE];
+
+  /* Temporary variables. */
+  private float filteredX;
+  private float filteredY;
+
+  /**
+   * Sets the minimum cutoff frequency in Hz and the increase of the cutoff frequency with speed in
+   * Hz per pixel per second.
+   */
+  void setParameters(float minCutoff, float beta) {
+    if (!(minCutoff > 0f) || !(beta >= 0f)) {
+      throw new IllegalArgumentException(
+        "Invalid noise filter parameters: minCutoff=" + minCutoff + ", beta=" + beta);
+    }
+    this.minCutoff = minCutoff;
+    this.beta = beta;
+  }
+
+  float getMinCutoff() {
+    return minCutoff;
+  }
+
+  float getBeta() {
+    return beta;
+  }
+
+  /**
+   * Starts filtering a pointer at rest at the given position.
+   */
+  void reset(int id, long time, float x, float y) {
+    this.x[id] = x;
+    this.y[id] = y;
+    velocityX[id] = 0f;
+    velocityY[id] = 0f;
+    times[id] = time;
+    filteredX = x;
+    filteredY = y;
+  }
+
+  /**
+   * Filters a new position of a pointer. The result is read with {@link #getFilteredX()} and
+   * {@link #getFilteredY()}.
+   */
+  void filter(int id, long time, float x, float y) {
+    long elapsed = time - times[id];
+    if (elapsed <= 0) {
+      // No time passed, so there is no speed to adapt to. Keep the previous output.
+      filteredX = this.x[id];
+      filteredY = this.y[id];
+      return;
+    }
+    float dt = elapsed / 1000f;
+
+    float derivativeAlpha = alpha(DERIVATIVE_CUTOFF, dt);
+    float vx = velocityX[id] + derivativeAlpha * ((x - this.x[id]) / dt - velocityX[id]);
+    float vy = velocityY[id] + derivativeAlpha * ((y - this.y[id]) / dt - velocityY[id]);
+    float speed = (float) Math.sqrt(vx * vx + vy * vy);
+
+    float alpha = alpha(minCutoff + beta * speed, dt);
+    filteredX = this.x[id] + alpha * (x - this.x[id]);
+    filteredY = this.y[id] + alpha * (y - this.y[id]);
+
+    this.x[id] = filteredX;
+    this.y[id] = filteredY;
+    velocityX[id] = vx;
+    velocityY[id] = vy;
+    times[id] = time;
+  }
+
+  float getFilteredX() {
+    return filteredX;
+  }
+
+  float getFilteredY() {
+    return filteredY;
+  }
+
+  /**
+   * Returns the smoothing factor of a first order low-pass filter with the given cutoff frequency
+   * for a sample after {@code dt} seconds.
+   */
+  private static float alpha(float cutoff, float dt) {
+    float tau = (float) (1 / (2 * Math.PI * cutoff));
+    return 1f / (1f + tau / dt);
+  }
+}
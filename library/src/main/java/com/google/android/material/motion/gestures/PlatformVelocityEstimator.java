@@ -0,0 +1,60 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.support.annotation.Nullable;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+
+/**
+ * Estimates velocity with the platform's default {@link VelocityTracker} strategy, by feeding it
+ * {@link MotionEvent}s whose x is the value.
+ */
+class PlatformVelocityEstimator extends VelocityEstimator {
+
+  private static final int PIXELS_PER_SECOND = 1000;
+  private static final float DONT_CARE = 0f;
+
+  @Nullable
+  private VelocityTracker velocityTracker;
+
+  @Override
+  void clear() {
+    if (velocityTracker != null) {
+      velocityTracker.recycle();
+      velocityTracker = null;
+    }
+  }
+
+  @Override
+  void addSample(long downTime, long eventTime, int action, float value) {
+    if (velocityTracker == null) {
+      velocityTracker = VelocityTracker.obtain();
+    }
+    MotionEvent event = MotionEvent.obtain(downTime, eventTime, action, value, DONT_CARE, 0);
+    velocityTracker.addMovement(event);
+    event.recycle();
+  }
+
+  @Override
+  float computeVelocity(float maximumVelocity) {
+    if (velocityTracker == null) {
+      return 0f;
+    }
+    velocityTracker.computeCurrentVelocity(PIXELS_PER_SECOND, maximumVelocity);
+    return clamp(velocityTracker.getXVelocity(), maximumVelocity);
+  }
+}
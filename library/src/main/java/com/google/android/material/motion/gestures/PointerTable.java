@@ -0,0 +1,187 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.view.MotionEvent;
+
+/**
+ * A table of the active pointers of a gesture, keyed by pointer id.
+ * <p>
+ * Stores the last untransformed position and the start position of each pointer in primitive
+ * arrays, and keeps a running sum of the positions so that the centroid is available without
+ * iterating over the pointers. Adding or removing a pointer is a constant time update.
+ */
+class PointerTable {
+
+  /**
+   * The largest pointer id that a {@link MotionEvent} can report.
+   */
+  static final int MAX_POINTER_ID = 31;
+
+  /**
+   * Returned by {@link #nextPointerId(int)} when there are no more pointers.
+   */
+  static final int NO_POINTER = MotionEvent.INVALID_POINTER_ID;
+
+  /* Allocated when the first pointer is added, so that an idle table is only primitives. */
+  private float[] x;
+  private float[] y;
+  private float[] startX;
+  private float[] startY;
+
+  /**
+   * Bit {@code id} is set when the pointer with that id is active.
+   */
+  private int idBits;
+  private int count;
+  private float sumX;
+  private float sumY;
+
+  /**
+   * Adds a pointer at the given untransformed position. If the pointer is already active, this
+   * is treated as a {@link #move(int, float, float)}.
+   */
+  void add(int id, float x, float y) {
+    if (contains(id)) {
+      move(id, x, y);
+      return;
+    }
+    if (this.x == null) {
+      this.x = new float[MAX_POINTER_ID + 1];
+      this.y = new float[MAX_POINTER_ID + 1];
+      startX = new float[MAX_POINTER_ID + 1];
+      startY = new float[MAX_POINTER_ID + 1];
+    }
+
+    this.x[id] = x;
+    this.y[id] = y;
+    startX[id] = x;
+    startY[id] = y;
+
+    idBits |= 1 << id;
+    count++;
+    sumX += x;
+    sumY += y;
+  }
+
+  /**
+   * Updates the untransformed position of a pointer. Unknown pointers are added.
+   */
+  void move(int id, float x, float y) {
+    if (!contains(id)) {
+      add(id, x, y);
+      return;
+    }
+
+    sumX += x - this.x[id];
+    sumY += y - this.y[id];
+    this.x[id] = x;
+    this.y[id] = y;
+  }
+
+  /**
+   * Removes a pointer. Does nothing if the pointer is not active.
+   */
+  void remove(int id) {
+    if (!contains(id)) {
+      return;
+    }
+
+    idBits &= ~(1 << id);
+    count--;
+    if (count == 0) {
+      // Avoid accumulating floating point error across gestures.
+      sumX = 0;
+      sumY = 0;
+    } else {
+      sumX -= x[id];
+      sumY -= y[id];
+    }
+  }
+
+  /**
+   * Removes all pointers.
+   */
+  void clear() {
+    idBits = 0;
+    count = 0;
+    sumX = 0;
+    sumY = 0;
+  }
+
+  boolean contains(int id) {
+    return (idBits & (1 << id)) != 0;
+  }
+
+  int getPointerCount() {
+    return count;
+  }
+
+  /**
+   * Returns the smallest active pointer id that is greater than or equal to {@code fromId}, or
+   * {@link #NO_POINTER}.
+   * <p>
+   * Iterate over all active pointers with:
+   * <pre>
+   * for (int id = table.nextPointerId(0); id != NO_POINTER; id = table.nextPointerId(id + 1))
+   * </pre>
+   */
+  int nextPointerId(int fromId) {
+    if (fromId > MAX_POINTER_ID) {
+      return NO_POINTER;
+    }
+    int bits = idBits & (-1 << fromId);
+    return bits == 0 ? NO_POINTER : Integer.numberOfTrailingZeros(bits);
+  }
+
+  /* The positions of pointers that are not active are undefined. */
+
+  float getX(int id) {
+    return x[id];
+  }
+
+  float getY(int id) {
+    return y[id];
+  }
+
+  /**
+   * Returns the untransformed x where the pointer was added, i.e. where it went down.
+   */
+  float getStartX(int id) {
+    return startX[id];
+  }
+
+  /**
+   * Returns the untransformed y where the pointer was added, i.e. where it went down.
+   */
+  float getStartY(int id) {
+    return startY[id];
+  }
+
+  /**
+   * Returns the untransformed centroidX of all active pointers, or 0 if there are none.
+   */
+  float getCentroidX() {
+    return count > 0 ? sumX / count : 0f;
+  }
+
+  /**
+   * Returns the untransformed centroidY of all active pointers, or 0 if there are none.
+   */
+  float getCentroidY() {
+    return count > 0 ? sumY / count : 0f;
+  }
+}
@@ -15,10 +15,8 @@
  */
 package com.google.android.material.motion.gestures;
 
-import android.graphics.PointF;
 import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
-import android.support.v4.view.MotionEventCompat;
 import android.view.MotionEvent;
 import android.view.View;
 
@@ -39,6 +37,8 @@ public class RotateGestureRecognizer extends GestureRecognizer {
 
   private float initialAngle;
   private float currentAngle;
+  /* The rotation when the fingers were lifted, where momentum starts. */
+  private float releaseRotation;
 
   @Nullable
   private ValueVelocityTracker angleVelocityTracker;
@@ -54,20 +54,137 @@ public class RotateGestureRecognizer extends GestureRecognizer {
     if (rotateSlop == UNSET_SLOP) {
       rotateSlop = (float) (Math.PI / 180);
     }
+  }
+
+  /**
+   * Creates the velocity tracker on the first touch instead of with the element.
+   */
+  private void ensureVelocityTracker() {
     if (angleVelocityTracker == null) {
-      angleVelocityTracker = new ValueVelocityTracker(element.getContext(), ADDITIVE);
+      angleVelocityTracker = new ValueVelocityTracker(getConfiguration(), ADDITIVE);
     }
   }
 
+  @Override
+  public void reset() {
+    super.reset();
+
+    currentCentroidX = 0;
+    currentCentroidY = 0;
+    initialAngle = 0;
+    currentAngle = 0;
+
+    if (angleVelocityTracker != null) {
+      angleVelocityTracker.reset();
+    }
+  }
+
+  @Override
+  protected void restoreDefaults() {
+    super.restoreDefaults();
+
+    rotateSlop = UNSET_SLOP;
+  }
+
+  @Override
+  protected boolean isMultiElementSupported() {
+    return true;
+  }
+
+  @Override
+  protected int getSlotStateSize() {
+    return 4 + ValueVelocityTracker.STATE_SIZE;
+  }
+
+  @Override
+  protected void onSaveSlotState(float[] out, int offset) {
+    out[offset] = currentCentroidX;
+    out[offset + 1] = currentCentroidY;
+    out[offset + 2] = initialAngle;
+    out[offset + 3] = currentAngle;
+    angleVelocityTracker.saveState(out, offset + 4);
+  }
+
+  @Override
+  protected void onRestoreSlotState(float[] in, int offset, MotionEvent event) {
+    currentCentroidX = in[offset];
+    currentCentroidY = in[offset + 1];
+    initialAngle = in[offset + 2];
+    currentAngle = in[offset + 3];
+    ensureVelocityTracker();
+    angleVelocityTracker.restoreState(in, offset + 4, event);
+  }
+
+  @Override
+  protected int getResampledValueCount() {
+    return 1;
+  }
+
+  @Override
+  protected void onSaveResampledValues(float[] out) {
+    out[0] = getRotation();
+  }
+
+  @Override
+  protected void onApplyResampledValues(float[] in) {
+    currentAngle = initialAngle + in[0];
+  }
+
+  @Override
+  protected int getMomentumValueCount() {
+    return 1;
+  }
+
+  @Override
+  protected float getMomentumRestVelocity() {
+    return 0.001f;
+  }
+
+  @Override
+  protected void onSaveMomentumStart(float[] values, float[] velocities) {
+    values[0] = releaseRotation;
+    velocities[0] = getVelocity();
+  }
+
+  @Override
+  protected boolean isRelevantPointer(int id) {
+    // Other pointers only matter once one of the two with the lowest ids goes up.
+    int id0 = pointers.nextPointerId(0);
+    int id1 = id0 == PointerTable.NO_POINTER
+      ? PointerTable.NO_POINTER : pointers.nextPointerId(id0 + 1);
+    return id1 == PointerTable.NO_POINTER || id == id0 || id == id1;
+  }
+
+  @Override
+  protected void onUnchangedMove(MotionEvent event) {
+    angleVelocityTracker.onGestureHold(event);
+  }
+
   @Override
   protected boolean onTouch(MotionEvent event) {
-    PointF centroid = calculateUntransformedCentroid(event, 2);
-    float centroidX = centroid.x;
-    float centroidY = centroid.y;
-    float angle = calculateAngle(event);
+    ensureVelocityTracker();
+
+    // Only the two active pointers with the lowest pointer ids contribute to the rotation. Angle is
+    // calculated from pointer id0 to pointer id1.
+    int id0 = pointers.nextPointerId(0);
+    int id1 = id0 == PointerTable.NO_POINTER
+      ? PointerTable.NO_POINTER : pointers.nextPointerId(id0 + 1);
+
+    float centroidX;
+    float centroidY;
+    float angle;
+    if (id1 != PointerTable.NO_POINTER) {
+      centroidX = (pointers.getX(id0) + pointers.getX(id1)) / 2;
+      centroidY = (pointers.getY(id0) + pointers.getY(id1)) / 2;
+      angle = angle(pointers.getX(id0), pointers.getY(id0), pointers.getX(id1), pointers.getY(id1));
+    } else {
+      centroidX = pointers.getCentroidX();
+      centroidY = pointers.getCentroidY();
+      angle = 0;
+    }
 
-    int action = MotionEventCompat.getActionMasked(event);
-    int pointerCount = event.getPointerCount();
+    int action = getActionMasked(event);
+    int pointerCount = getPointerCount(event);
     if (action == MotionEvent.ACTION_POINTER_DOWN && pointerCount == 2) {
       currentCentroidX = centroidX;
       currentCentroidY = centroidY;
@@ -77,7 +194,7 @@ public class RotateGestureRecognizer extends GestureRecognizer {
 
       angleVelocityTracker.onGestureStart(event, angle);
 
-      if (rotateSlop == 0) {
+      if (rotateSlop == 0 && canBegin()) {
         setState(BEGAN);
       }
     }
@@ -100,7 +217,7 @@ public class RotateGestureRecognizer extends GestureRecognizer {
       currentCentroidX = centroidX;
       currentCentroidY = centroidY;
 
-      if (!isInProgress()) {
+      if (!isInProgress() && canBegin()) {
         float deltaAngle = angle - initialAngle;
         if (Math.abs(deltaAngle) > rotateSlop) {
           float adjustAngle = Math.signum(deltaAngle) * rotateSlop;
@@ -125,6 +242,7 @@ public class RotateGestureRecognizer extends GestureRecognizer {
       currentCentroidX = centroidX;
       currentCentroidY = centroidY;
 
+      releaseRotation = getRotation();
       initialAngle = 0;
       currentAngle = 0;
 
@@ -163,52 +281,50 @@ public class RotateGestureRecognizer extends GestureRecognizer {
     return angleVelocityTracker != null ? angleVelocityTracker.getCurrentVelocity() : 0f;
   }
 
-  @Override
-  public float getUntransformedCentroidX() {
-    return currentCentroidX;
-  }
-
-  @Override
-  public float getUntransformedCentroidY() {
-    return currentCentroidY;
+  /**
+   * Returns the rotation in radians that momentum has moved the released rotate gesture to.
+   * <p>
+   * Only read this while {@link #isMomentumInProgress() momentum is in progress}.
+   *
+   * @see #setMomentumEnabled(boolean)
+   */
+  public float getMomentumRotation() {
+    return getMomentumValue(0);
   }
 
   /**
-   * Calculates the angle between the first two pointers in the given motion event.
+   * Returns the rotation in radians that momentum comes to rest at.
    * <p>
-   * Angle is calculated from finger 0 to finger 1.
+   * Only read this when the state is {@link #RECOGNIZED} or momentum is in progress.
    */
-  private float calculateAngle(MotionEvent event) {
-    int action = MotionEventCompat.getActionMasked(event);
-    int pointerIndex = MotionEventCompat.getActionIndex(event);
-    int pointerCount = event.getPointerCount();
-    if (pointerCount < 2) {
-      return 0;
-    }
-    if (action == MotionEvent.ACTION_POINTER_UP && pointerCount == 2) {
-      return 0;
-    }
+  public float getProjectedRotation() {
+    return getProjectedMomentumValue(0);
+  }
 
-    int i0 = 0;
-    int i1 = 1;
-    if (action == MotionEvent.ACTION_POINTER_UP) {
-      if (pointerIndex == 0) {
-        i0++;
-        i1++;
-      } else if (pointerIndex == 1) {
-        i1++;
-      }
-    }
+  /**
+   * Sets the range of rotations in radians that momentum springs back to. Defaults to unbounded.
+   *
+   * @throws IllegalArgumentException if {@code minRotation} is greater than {@code maxRotation}.
+   */
+  public void setMomentumBounds(float minRotation, float maxRotation) {
+    setMomentumBounds(0, minRotation, maxRotation);
+  }
 
-    PointF point = calculateUntransformedPoint(event, i0);
-    float x0 = point.x;
-    float y0 = point.y;
+  @Override
+  protected void onPublishSnapshot(GestureSnapshot snapshot) {
+    super.onPublishSnapshot(snapshot);
+    snapshot.rotation = getRotation();
+    snapshot.rotationVelocity = getVelocity();
+  }
 
-    point = calculateUntransformedPoint(event, i1);
-    float x1 = point.x;
-    float y1 = point.y;
+  @Override
+  public float getUntransformedCentroidX() {
+    return currentCentroidX;
+  }
 
-    return angle(x0, y0, x1, y1);
+  @Override
+  public float getUntransformedCentroidY() {
+    return currentCentroidY;
   }
 
   @VisibleForTesting
@@ -15,14 +15,10 @@
  */
 package com.google.android.material.motion.gestures;
 
-import android.content.Context;
-import android.graphics.PointF;
 import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
-import android.support.v4.view.MotionEventCompat;
 import android.view.MotionEvent;
 import android.view.View;
-import android.view.ViewConfiguration;
 
 import static com.google.android.material.motion.gestures.ValueVelocityTracker.MULTIPLICATIVE;
 
@@ -41,6 +37,8 @@ public class ScaleGestureRecognizer extends GestureRecognizer {
 
   private float initialSpan;
   private float currentSpan;
+  /* The scale when the fingers were lifted, where momentum starts. */
+  private float releaseScale = 1f;
 
   @Nullable
   private ValueVelocityTracker spanVelocityTracker;
@@ -53,24 +51,123 @@ public class ScaleGestureRecognizer extends GestureRecognizer {
       return;
     }
 
+    GestureConfiguration configuration = getConfiguration();
     if (scaleSlop == UNSET_SLOP) {
-      Context context = element.getContext();
-      scaleSlop = ViewConfiguration.get(context).getScaledTouchSlop();
+      scaleSlop = configuration.getTouchSlop();
     }
+  }
+
+  /**
+   * Creates the velocity tracker on the first touch instead of with the element.
+   */
+  private void ensureVelocityTracker() {
     if (spanVelocityTracker == null) {
-      spanVelocityTracker = new ValueVelocityTracker(element.getContext(), MULTIPLICATIVE);
+      spanVelocityTracker = new ValueVelocityTracker(getConfiguration(), MULTIPLICATIVE);
     }
   }
 
+  @Override
+  public void reset() {
+    super.reset();
+
+    currentCentroidX = 0;
+    currentCentroidY = 0;
+    initialSpan = 0;
+    currentSpan = 0;
+
+    if (spanVelocityTracker != null) {
+      spanVelocityTracker.reset();
+    }
+  }
+
+  @Override
+  protected void restoreDefaults() {
+    super.restoreDefaults();
+
+    scaleSlop = UNSET_SLOP;
+  }
+
+  @Override
+  protected boolean isMultiElementSupported() {
+    return true;
+  }
+
+  @Override
+  protected int getSlotStateSize() {
+    return 4 + ValueVelocityTracker.STATE_SIZE;
+  }
+
+  @Override
+  protected void onSaveSlotState(float[] out, int offset) {
+    out[offset] = currentCentroidX;
+    out[offset + 1] = currentCentroidY;
+    out[offset + 2] = initialSpan;
+    out[offset + 3] = currentSpan;
+    spanVelocityTracker.saveState(out, offset + 4);
+  }
+
+  @Override
+  protected void onRestoreSlotState(float[] in, int offset, MotionEvent event) {
+    currentCentroidX = in[offset];
+    currentCentroidY = in[offset + 1];
+    initialSpan = in[offset + 2];
+    currentSpan = in[offset + 3];
+    ensureVelocityTracker();
+    spanVelocityTracker.restoreState(in, offset + 4, event);
+  }
+
+  @Override
+  protected int getResampledValueCount() {
+    return 1;
+  }
+
+  @Override
+  protected void onSaveResampledValues(float[] out) {
+    out[0] = getScale();
+  }
+
+  @Override
+  protected void onApplyResampledValues(float[] in) {
+    if (initialSpan > 0) {
+      currentSpan = initialSpan * in[0];
+    }
+  }
+
+  /**
+   * Momentum moves the logarithm of the scale, so that it decays evenly whether growing or
+   * shrinking.
+   */
+  @Override
+  protected int getMomentumValueCount() {
+    return 1;
+  }
+
+  @Override
+  protected float getMomentumRestVelocity() {
+    return 0.001f;
+  }
+
+  @Override
+  protected void onSaveMomentumStart(float[] values, float[] velocities) {
+    float span = spanVelocityTracker.getLastValue();
+    values[0] = (float) Math.log(releaseScale);
+    velocities[0] = span > 0 ? getVelocity() / span : 0f;
+  }
+
+  @Override
+  protected void onUnchangedMove(MotionEvent event) {
+    spanVelocityTracker.onGestureHold(event);
+  }
+
   @Override
   protected boolean onTouch(MotionEvent event) {
-    PointF centroid = calculateUntransformedCentroid(event);
-    float centroidX = centroid.x;
-    float centroidY = centroid.y;
-    float span = calculateAverageSpan(event, centroidX, centroidY);
+    ensureVelocityTracker();
+    float centroidX = pointers.getCentroidX();
+    float centroidY = pointers.getCentroidY();
+    float span = calculateAverageSpan(centroidX, centroidY);
 
-    int action = MotionEventCompat.getActionMasked(event);
-    int pointerCount = event.getPointerCount();
+    int action = getActionMasked(event);
+    int pointerCount = getPointerCount(event);
     if (action == MotionEvent.ACTION_POINTER_DOWN && pointerCount == 2) {
       currentCentroidX = centroidX;
       currentCentroidY = centroidY;
@@ -80,7 +177,7 @@ public class ScaleGestureRecognizer extends GestureRecognizer {
 
       spanVelocityTracker.onGestureStart(event, span);
 
-      if (scaleSlop == 0) {
+      if (scaleSlop == 0 && canBegin()) {
         setState(BEGAN);
       }
     }
@@ -92,18 +189,27 @@ public class ScaleGestureRecognizer extends GestureRecognizer {
       currentCentroidX += adjustX;
       currentCentroidY += adjustY;
 
-      float adjustSpan = span / currentSpan;
+      // A zero span, e.g. of pointers on top of each other, cannot be adjusted by a ratio. The next
+      // move picks up the new span instead.
+      if (span > 0 && currentSpan > 0) {
+        float adjustSpan = span / currentSpan;
 
-      initialSpan *= adjustSpan;
-      currentSpan *= adjustSpan;
+        initialSpan *= adjustSpan;
+        currentSpan *= adjustSpan;
 
-      spanVelocityTracker.onGestureAdjust(1 / adjustSpan);
+        spanVelocityTracker.onGestureAdjust(1 / adjustSpan);
+      }
     }
     if (action == MotionEvent.ACTION_MOVE && pointerCount >= 2) {
       currentCentroidX = centroidX;
       currentCentroidY = centroidY;
 
-      if (!isInProgress()) {
+      if (!isInProgress() && initialSpan == 0) {
+        // The gesture went down with a zero span. Measure the scale from here.
+        initialSpan = span;
+        currentSpan = span;
+      }
+      if (!isInProgress() && canBegin() && initialSpan > 0) {
         float deltaSpan = span - initialSpan;
         if (Math.abs(deltaSpan) > scaleSlop) {
           float adjustSpan = 1 + Math.signum(deltaSpan) * (scaleSlop / initialSpan);
@@ -128,6 +234,7 @@ public class ScaleGestureRecognizer extends GestureRecognizer {
       currentCentroidX = centroidX;
       currentCentroidY = centroidY;
 
+      releaseScale = getScale();
       initialSpan = 0;
       currentSpan = 0;
 
@@ -166,6 +273,46 @@ public class ScaleGestureRecognizer extends GestureRecognizer {
     return spanVelocityTracker != null ? spanVelocityTracker.getCurrentVelocity() : 0f;
   }
 
+  /**
+   * Returns the scale that momentum has moved the released pinch gesture to.
+   * <p>
+   * Only read this while {@link #isMomentumInProgress() momentum is in progress}.
+   *
+   * @see #setMomentumEnabled(boolean)
+   */
+  public float getMomentumScale() {
+    return (float) Math.exp(getMomentumValue(0));
+  }
+
+  /**
+   * Returns the scale that momentum comes to rest at.
+   * <p>
+   * Only read this when the state is {@link #RECOGNIZED} or momentum is in progress.
+   */
+  public float getProjectedScale() {
+    return (float) Math.exp(getProjectedMomentumValue(0));
+  }
+
+  /**
+   * Sets the range of scales that momentum springs back to. Defaults to unbounded.
+   *
+   * @throws IllegalArgumentException if {@code minScale} is not positive or is greater than
+   * {@code maxScale}.
+   */
+  public void setMomentumBounds(float minScale, float maxScale) {
+    if (!(minScale > 0)) {
+      throw new IllegalArgumentException("Invalid minimum scale: " + minScale);
+    }
+    setMomentumBounds(0, (float) Math.log(minScale), (float) Math.log(maxScale));
+  }
+
+  @Override
+  protected void onPublishSnapshot(GestureSnapshot snapshot) {
+    super.onPublishSnapshot(snapshot);
+    snapshot.scale = getScale();
+    snapshot.scaleVelocity = getVelocity();
+  }
+
   @Override
   public float getUntransformedCentroidX() {
     return currentCentroidX;
@@ -177,40 +324,27 @@ public class ScaleGestureRecognizer extends GestureRecognizer {
   }
 
   /**
-   * Calculates the average span of all the active pointers in the given motion event.
+   * Calculates the average span of all the active pointers.
    * <p>
    * The average span is twice the average distance of all pointers to the given centroid.
    */
-  private float calculateAverageSpan(MotionEvent event, float centroidX, float centroidY) {
-    int action = MotionEventCompat.getActionMasked(event);
-    int index = MotionEventCompat.getActionIndex(event);
+  private float calculateAverageSpan(float centroidX, float centroidY) {
+    int num = pointers.getPointerCount();
+    if (num == 0) {
+      return 0;
+    }
 
     float sum = 0;
-    int num = 0;
-    for (int i = 0, count = event.getPointerCount(); i < count; i++) {
-      if (action == MotionEvent.ACTION_POINTER_UP && index == i) {
-        continue;
-      }
-
-      sum += calculateDistance(event, i, centroidX, centroidY);
-      num++;
+    for (int id = pointers.nextPointerId(0);
+         id != PointerTable.NO_POINTER;
+         id = pointers.nextPointerId(id + 1)) {
+      sum += dist(centroidX, centroidY, pointers.getX(id), pointers.getY(id));
     }
 
     float averageDistance = sum / num;
     return averageDistance * 2;
   }
 
-  /**
-   * Calculates the distance between the pointer given by the pointer index and the given
-   * centroid.
-   */
-  private float calculateDistance(
-    MotionEvent event, int pointerIndex, float centroidX, float centroidY) {
-    PointF untransformedPoint = calculateUntransformedPoint(event, pointerIndex);
-
-    return dist(centroidX, centroidY, untransformedPoint.x, untransformedPoint.y);
-  }
-
   @VisibleForTesting
   static float dist(float x0, float y0, float x1, float y1) {
     float dx = x1 - x0;
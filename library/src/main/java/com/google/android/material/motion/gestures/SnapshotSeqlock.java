@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static com.google.android.material.motion.gestures.GestureSnapshot.CENTROID_X;
+import static com.google.android.material.motion.gestures.GestureSnapshot.CENTROID_Y;
+import static com.google.android.material.motion.gestures.GestureSnapshot.ROTATION;
+import static com.google.android.material.motion.gestures.GestureSnapshot.ROTATION_VELOCITY;
+import static com.google.android.material.motion.gestures.GestureSnapshot.SCALE;
+import static com.google.android.material.motion.gestures.GestureSnapshot.SCALE_VELOCITY;
+import static com.google.android.material.motion.gestures.GestureSnapshot.SIZE;
+import static com.google.android.material.motion.gestures.GestureSnapshot.STATE;
+import static com.google.android.material.motion.gestures.GestureSnapshot.TRANSLATION_X;
+import static com.google.android.material.motion.gestures.GestureSnapshot.TRANSLATION_Y;
+import static com.google.android.material.motion.gestures.GestureSnapshot.VELOCITY_X;
+import static com.google.android.material.motion.gestures.GestureSnapshot.VELOCITY_Y;
+
+/**
+ * A sequence lock around a block of primitives, written by one thread and read by any thread.
+ * <p>
+ * The writer makes the sequence odd, writes the block, then makes it even again. A reader retries
+ * until it sees the same even sequence before and after reading the block, so it never sees a
+ * torn snapshot. Every access is volatile, which orders the block between the two sequence
+ * accesses. Neither side locks or allocates.
+ */
+class SnapshotSeqlock {
+
+  private final AtomicInteger sequence = new AtomicInteger();
+  private final AtomicIntegerArray block = new AtomicIntegerArray(SIZE);
+
+  SnapshotSeqlock() {
+    block.set(SCALE, Float.floatToRawIntBits(1f));
+  }
+
+  /**
+   * Publishes the snapshot. Must only be called from one thread at a time.
+   */
+  void write(GestureSnapshot snapshot) {
+    int s = sequence.get();
+    sequence.set(s + 1);
+
+    block.set(STATE, snapshot.state);
+    setFloat(CENTROID_X, snapshot.centroidX);
+    setFloat(CENTROID_Y, snapshot.centroidY);
+    setFloat(TRANSLATION_X, snapshot.translationX);
+    setFloat(TRANSLATION_Y, snapshot.translationY);
+    setFloat(VELOCITY_X, snapshot.velocityX);
+    setFloat(VELOCITY_Y, snapshot.velocityY);
+    setFloat(SCALE, snapshot.scale);
+    setFloat(SCALE_VELOCITY, snapshot.scaleVelocity);
+    setFloat(ROTATION, snapshot.rotation);
+    setFloat(ROTATION_VELOCITY, snapshot.rotationVelocity);
+
+    sequence.set(s + 2);
+  }
+
+  /**
+   * Reads the last published snapshot into {@code out}. May be called from any thread.
+   */
+  void read(GestureSnapshot out) {
+    while (true) {
+      int before = sequence.get();
+      if ((before & 1) != 0) {
+        // A write is in progress.
+        continue;
+      }
+
+      out.state = block.get(STATE);
+      out.centroidX = getFloat(CENTROID_X);
+      out.centroidY = getFloat(CENTROID_Y);
+      out.translationX = getFloat(TRANSLATION_X);
+      out.translationY = getFloat(TRANSLATION_Y);
+      out.velocityX = getFloat(VELOCITY_X);
+      out.velocityY = getFloat(VELOCITY_Y);
+      out.scale = getFloat(SCALE);
+      out.scaleVelocity = getFloat(SCALE_VELOCITY);
+      out.rotation = getFloat(ROTATION);
+      out.rotationVelocity = getFloat(ROTATION_VELOCITY);
+
+      if (sequence.get() == before) {
+        out.sequence = before >>> 1;
+        return;
+      }
+    }
+  }
+
+  private void setFloat(int index, float value) {
+    block.set(index, Float.floatToRawIntBits(value));
+  }
+
+  private float getFloat(int index) {
+    return Float.intBitsToFloat(block.get(index));
+  }
+}
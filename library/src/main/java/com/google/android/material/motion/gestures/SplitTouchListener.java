@@ -0,0 +1,45 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.View.OnTouchListener;
+
+/**
+ * A touch listener that can receive a subset of the pointers of a motion event.
+ * <p>
+ * Unlike {@link MotionEvent#split(int)}, the motion event is not copied. The listener interprets
+ * the event as if it only contained the pointers whose ids are set in the given bits. For example,
+ * an {@link MotionEvent#ACTION_POINTER_DOWN} of the first pointer in the subset is seen as an
+ * {@link MotionEvent#ACTION_DOWN}, and an {@link MotionEvent#ACTION_POINTER_DOWN} of a pointer
+ * outside the subset is seen as an {@link MotionEvent#ACTION_MOVE}.
+ */
+public interface SplitTouchListener extends OnTouchListener {
+
+  /**
+   * Pointer id bits that select every pointer of a motion event.
+   */
+  int ALL_POINTER_IDS = -1;
+
+  /**
+   * Called when a touch event is dispatched to a view, with only the pointers whose ids are set
+   * in {@code pointerIdBits}.
+   *
+   * @param pointerIdBits Bit {@code id} is set if the pointer with that id should be seen.
+   */
+  boolean onTouch(View view, MotionEvent event, int pointerIdBits);
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.support.annotation.Nullable;
+import android.view.MotionEvent;
+import android.view.View;
+
+/**
+ * A discrete gesture recognizer that recognizes one or more taps.
+ * <p>
+ * The state goes straight from {@link #POSSIBLE} to {@link #RECOGNIZED} when the last required
+ * tap is lifted. A press that moves too far, lasts too long, adds a second finger, or is not
+ * followed by the next tap in time rejects the gesture.
+ * <p>
+ * Timeouts are driven by the shared timer wheel of the {@link #getScheduler() scheduler}.
+ */
+public class TapGestureRecognizer extends GestureRecognizer {
+
+  /**
+   * The number of taps needed to recognize the gesture.
+   */
+  public int numberOfTapsRequired = 1;
+
+  /**
+   * Touch slop for a tap. Amount of pixels that the centroid may move from where it went down.
+   */
+  public int tapSlop = UNSET_SLOP;
+
+  /**
+   * Amount of pixels that each following tap may be away from the first tap.
+   */
+  public int multiTapSlop = UNSET_SLOP;
+
+  /**
+   * The longest a single press may last, in milliseconds.
+   */
+  public int pressTimeout = UNSET_TIMEOUT;
+
+  /**
+   * The longest time between lifting a tap and pressing the next one, in milliseconds.
+   */
+  public int multiTapTimeout = UNSET_TIMEOUT;
+
+  private float firstCentroidX;
+  private float firstCentroidY;
+  private float downCentroidX;
+  private float downCentroidY;
+  private float currentCentroidX;
+  private float currentCentroidY;
+
+  private int tapCount;
+  private boolean waitingToRecognize;
+
+  /* Created when the first timeout is scheduled. The wheel is the one it was last armed on. */
+  @Nullable
+  private GestureTimerWheel.Timeout timeout;
+  @Nullable
+  private GestureTimerWheel wheel;
+
+  @Override
+  public void setElement(@Nullable View element) {
+    super.setElement(element);
+
+    if (element == null) {
+      return;
+    }
+
+    GestureConfiguration configuration = getConfiguration();
+    if (tapSlop == UNSET_SLOP) {
+      tapSlop = configuration.getTouchSlop();
+    }
+    if (multiTapSlop == UNSET_SLOP) {
+      multiTapSlop = configuration.getDoubleTapSlop();
+    }
+    if (pressTimeout == UNSET_TIMEOUT) {
+      pressTimeout = configuration.getLongPressTimeout();
+    }
+    if (multiTapTimeout == UNSET_TIMEOUT) {
+      multiTapTimeout = configuration.getDoubleTapTimeout();
+    }
+  }
+
+  @Override
+  public void reset() {
+    clearTaps();
+    super.reset();
+
+    firstCentroidX = 0;
+    firstCentroidY = 0;
+    downCentroidX = 0;
+    downCentroidY = 0;
+    currentCentroidX = 0;
+    currentCentroidY = 0;
+  }
+
+  @Override
+  protected void restoreDefaults() {
+    super.restoreDefaults();
+
+    numberOfTapsRequired = 1;
+    tapSlop = UNSET_SLOP;
+    multiTapSlop = UNSET_SLOP;
+    pressTimeout = UNSET_TIMEOUT;
+    multiTapTimeout = UNSET_TIMEOUT;
+  }
+
+  @Override
+  protected void reject() {
+    clearTaps();
+    super.reject();
+  }
+
+  @Override
+  protected void onRequiredGestureRecognizerFailed() {
+    if (waitingToRecognize && canBegin()) {
+      waitingToRecognize = false;
+      setState(RECOGNIZED);
+    }
+  }
+
+  @Override
+  protected boolean onTouch(MotionEvent event) {
+    float centroidX = pointers.getCentroidX();
+    float centroidY = pointers.getCentroidY();
+
+    int action = getActionMasked(event);
+    if (action == MotionEvent.ACTION_DOWN) {
+      waitingToRecognize = false;
+      if (tapCount >= numberOfTapsRequired
+        || dist(centroidX, centroidY, firstCentroidX, firstCentroidY) > multiTapSlop) {
+        tapCount = 0;
+      }
+      if (tapCount == 0) {
+        firstCentroidX = centroidX;
+        firstCentroidY = centroidY;
+      }
+
+      downCentroidX = centroidX;
+      downCentroidY = centroidY;
+      currentCentroidX = centroidX;
+      currentCentroidY = centroidY;
+
+      getWheel().schedule(timeout, pressTimeout);
+    }
+    if (action == MotionEvent.ACTION_POINTER_DOWN) {
+      reject();
+      return true;
+    }
+    if (action == MotionEvent.ACTION_MOVE) {
+      currentCentroidX = centroidX;
+      currentCentroidY = centroidY;
+
+      if (dist(centroidX, centroidY, downCentroidX, downCentroidY) > tapSlop) {
+        reject();
+        return true;
+      }
+    }
+    if (action == MotionEvent.ACTION_UP) {
+      currentCentroidX = centroidX;
+      currentCentroidY = centroidY;
+      getWheel().cancel(timeout);
+
+      tapCount++;
+      if (tapCount < numberOfTapsRequired) {
+        getWheel().schedule(timeout, multiTapTimeout);
+      } else {
+        if (canBegin()) {
+          setState(RECOGNIZED);
+        } else {
+          // Recognize once the gesture recognizers we wait for have failed.
+          waitingToRecognize = true;
+        }
+      }
+    }
+    if (action == MotionEvent.ACTION_CANCEL) {
+      reject();
+    }
+
+    return true;
+  }
+
+  /**
+   * Returns the number of taps of the current gesture that have been lifted. Equals {@link
+   * #numberOfTapsRequired} when the gesture is {@link #RECOGNIZED}.
+   */
+  public int getTapCount() {
+    return tapCount;
+  }
+
+  @Override
+  public float getUntransformedCentroidX() {
+    return currentCentroidX;
+  }
+
+  @Override
+  public float getUntransformedCentroidY() {
+    return currentCentroidY;
+  }
+
+  private void clearTaps() {
+    tapCount = 0;
+    waitingToRecognize = false;
+    if (wheel != null) {
+      wheel.cancel(timeout);
+    }
+  }
+
+  /**
+   * Returns the timer wheel of the current scheduler. Timeouts armed on the wheel of a previous
+   * scheduler were cancelled when it was replaced.
+   */
+  private GestureTimerWheel getWheel() {
+    if (timeout == null) {
+      timeout = new GestureTimerWheel.Timeout(
+        new Runnable() {
+          @Override
+          public void run() {
+            reject();
+          }
+        });
+    }
+    wheel = getScheduler().getTimerWheel();
+    return wheel;
+  }
+
+  private static float dist(float x1, float y1, float x2, float y2) {
+    final float x = (x2 - x1);
+    final float y = (y2 - y1);
+    return (float) Math.sqrt(x * x + y * y);
+  }
+}
@@ -20,15 +20,18 @@ import android.support.annotation.IntDef;
 import android.support.annotation.Nullable;
 import android.support.v4.view.MotionEventCompat;
 import android.view.MotionEvent;
-import android.view.VelocityTracker;
-import android.view.ViewConfiguration;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 
 /**
- * A velocity tracker for any arbitrary value. Uses a {@link VelocityTracker} under the hood which
- * is fed specially crafted {@link MotionEvent}s.
+ * A velocity tracker for any arbitrary value. Uses the {@link VelocityEstimator} of the
+ * configuration's {@link GestureConfiguration#getVelocityStrategy() velocity strategy} under the
+ * hood.
+ * <p>
+ * Multiplicative values are estimated in log space, where a steady pinch is a straight line,
+ * unless the strategy is {@link GestureConfiguration#VELOCITY_STRATEGY_PLATFORM}. The estimated
+ * rate is converted back to units per second at the most recent value.
  */
 class ValueVelocityTracker {
 
@@ -51,21 +54,45 @@ class ValueVelocityTracker {
 
   }
 
-  private static final int PIXELS_PER_SECOND = 1000;
-  private static final float DONT_CARE = 0f;
+  /**
+   * The number of most recent movements kept for {@link #saveState(float[], int)}.
+   */
+  static final int HISTORY_SIZE = 8;
+  /**
+   * The number of floats written by {@link #saveState(float[], int)}: whether a gesture is in
+   * progress, the adjustment, the current velocity, the number of movements, and the time offset
+   * and value of each movement.
+   */
+  static final int STATE_SIZE = 4 + HISTORY_SIZE * 2;
 
   private final float maximumFlingVelocity;
   @AccumulationType
   private final int type;
+  private final boolean logSpace;
+  private final VelocityEstimator estimator;
 
-  @Nullable
-  private VelocityTracker velocityTracker;
+  private boolean inProgress;
   private float adjust;
+  /* The most recent adjusted value fed to a log space estimator. */
+  private float lastValue;
   private float currentVelocity;
 
+  /* The most recent movements as time offsets from the down time and adjusted values. */
+  private final float[] history = new float[HISTORY_SIZE * 2];
+  private int historyStart;
+  private int historyCount;
+
   public ValueVelocityTracker(Context context, @AccumulationType int type) {
-    this.maximumFlingVelocity = ViewConfiguration.get(context).getScaledMaximumFlingVelocity();
+    this(GestureConfiguration.get(context), type);
+  }
+
+  public ValueVelocityTracker(GestureConfiguration configuration, @AccumulationType int type) {
+    this.maximumFlingVelocity = configuration.getMaximumFlingVelocity();
     this.type = type;
+    int strategy = configuration.getVelocityStrategy();
+    this.logSpace =
+      type == MULTIPLICATIVE && strategy != GestureConfiguration.VELOCITY_STRATEGY_PLATFORM;
+    this.estimator = VelocityEstimator.create(strategy, logSpace);
   }
 
   /**
@@ -76,6 +103,21 @@ class ValueVelocityTracker {
     return currentVelocity;
   }
 
+  /**
+   * Abandons the gesture in progress, if any, and clears the current velocity.
+   */
+  public void reset() {
+    estimator.clear();
+    inProgress = false;
+    if (type == ADDITIVE) {
+      adjust = 0f;
+    } else {
+      adjust = 1f;
+    }
+    currentVelocity = 0f;
+    historyCount = 0;
+  }
+
   /**
    * Processes the start of a gesture.
    * <p>
@@ -83,15 +125,19 @@ class ValueVelocityTracker {
    * gesture.
    */
   public void onGestureStart(MotionEvent event, float value) {
-    velocityTracker = VelocityTracker.obtain();
+    // The previous gesture may have been abandoned without an end, e.g. its gesture recognizer
+    // was rejected.
+    estimator.clear();
+    inProgress = true;
     if (type == ADDITIVE) {
       adjust = 0f;
     } else {
       adjust = 1f;
     }
     currentVelocity = 0f;
+    historyCount = 0;
 
-    addValueMovement(event, value);
+    addValueMovement(event, value, MotionEvent.ACTION_DOWN);
   }
 
   /**
@@ -110,7 +156,21 @@ class ValueVelocityTracker {
    * May be called multiple times during a gesture.
    */
   public void onGestureMove(MotionEvent event, float value) {
-    addValueMovement(event, value);
+    addValueMovement(event, value, MotionEvent.ACTION_MOVE);
+  }
+
+  /**
+   * Processes a movement of a gesture whose value did not change since the previous movement, so
+   * that the estimator sees the value hold still at the time of the event.
+   */
+  void onGestureHold(MotionEvent event) {
+    if (!inProgress || historyCount == 0) {
+      return;
+    }
+
+    float adjustedValue = getLastValue();
+    addSample(event.getDownTime(), event.getEventTime(), MotionEvent.ACTION_MOVE, adjustedValue);
+    record(event.getEventTime() - event.getDownTime(), adjustedValue);
   }
 
   /**
@@ -119,51 +179,140 @@ class ValueVelocityTracker {
    * Must be balanced with a previous call to {@link #onGestureStart(MotionEvent, float)}.
    */
   public void onGestureEnd(MotionEvent event, float value) {
-    if (velocityTracker == null) {
+    if (!inProgress) {
       return;
     }
 
-    addValueMovement(event, value);
+    addValueMovement(event, value, MotionEvent.ACTION_UP);
+    currentVelocity = computeVelocity();
 
-    velocityTracker.computeCurrentVelocity(PIXELS_PER_SECOND, maximumFlingVelocity);
-    currentVelocity = velocityTracker.getXVelocity();
-
-    velocityTracker.recycle();
-    velocityTracker = null;
+    estimator.clear();
+    inProgress = false;
   }
 
-  private void addValueMovement(MotionEvent event, float value) {
-    if (velocityTracker == null) {
+  /**
+   * Adds a value movement with the given action. The action is derived from the gesture phase
+   * rather than from the event, because a gesture recognizer that only sees some of the pointers
+   * of an event may interpret it differently.
+   */
+  private void addValueMovement(MotionEvent event, float value, int valueMovementAction) {
+    if (!inProgress) {
       return;
     }
 
-    int valueMovementAction;
-
     int action = MotionEventCompat.getActionMasked(event);
     switch (action) {
       case MotionEvent.ACTION_DOWN:
       case MotionEvent.ACTION_MOVE:
       case MotionEvent.ACTION_UP:
       case MotionEvent.ACTION_CANCEL:
-        valueMovementAction = action;
-        break;
       case MotionEvent.ACTION_POINTER_DOWN:
-        valueMovementAction = MotionEvent.ACTION_DOWN;
-        break;
       case MotionEvent.ACTION_POINTER_UP:
-        valueMovementAction = MotionEvent.ACTION_UP;
         break;
       default:
         throw new IllegalArgumentException("Unexpected action for event: " + event);
     }
-    velocityTracker.addMovement(
-      MotionEvent.obtain(
-        event.getDownTime(),
-        event.getEventTime(),
-        valueMovementAction,
-        apply(value, adjust),
-        DONT_CARE,
-        event.getMetaState()));
+    if (valueMovementAction == MotionEvent.ACTION_UP && action == MotionEvent.ACTION_CANCEL) {
+      valueMovementAction = MotionEvent.ACTION_CANCEL;
+    }
+    float adjustedValue = apply(value, adjust);
+    addSample(event.getDownTime(), event.getEventTime(), valueMovementAction, adjustedValue);
+    record(event.getEventTime() - event.getDownTime(), adjustedValue);
+  }
+
+  private void addSample(long downTime, long eventTime, int action, float adjustedValue) {
+    if (!logSpace) {
+      estimator.addSample(downTime, eventTime, action, adjustedValue);
+    } else if (adjustedValue > 0f) {
+      // The logarithm is undefined for a degenerate span, so such samples are skipped.
+      estimator.addSample(downTime, eventTime, action, (float) Math.log(adjustedValue));
+      lastValue = adjustedValue;
+    }
+  }
+
+  private float computeVelocity() {
+    if (!logSpace) {
+      return estimator.computeVelocity(maximumFlingVelocity);
+    }
+    float velocity = estimator.computeVelocity(Float.MAX_VALUE) * lastValue;
+    return VelocityEstimator.clamp(velocity, maximumFlingVelocity);
+  }
+
+  /**
+   * Returns the most recent value of the current or last gesture with its adjustment applied, in
+   * the units of {@link #getCurrentVelocity()}, or 0 if there is none.
+   */
+  float getLastValue() {
+    if (historyCount == 0) {
+      return 0f;
+    }
+    int index = (historyStart + historyCount - 1) % HISTORY_SIZE;
+    return history[index * 2 + 1];
+  }
+
+  private void record(long timeOffset, float adjustedValue) {
+    int index;
+    if (historyCount < HISTORY_SIZE) {
+      index = (historyStart + historyCount++) % HISTORY_SIZE;
+    } else {
+      index = historyStart;
+      historyStart = (historyStart + 1) % HISTORY_SIZE;
+    }
+    history[index * 2] = timeOffset;
+    history[index * 2 + 1] = adjustedValue;
+  }
+
+  /**
+   * Writes {@link #STATE_SIZE} floats describing the gesture in progress and the current velocity
+   * into {@code out} at {@code offset}.
+   * <p>
+   * Only the {@link #HISTORY_SIZE} most recent movements are kept, which covers the time window
+   * that the velocity is estimated from at common input rates.
+   */
+  void saveState(float[] out, int offset) {
+    out[offset] = inProgress ? 1f : 0f;
+    out[offset + 1] = adjust;
+    out[offset + 2] = currentVelocity;
+    out[offset + 3] = historyCount;
+    for (int i = 0; i < historyCount; i++) {
+      int index = (historyStart + i) % HISTORY_SIZE;
+      out[offset + 4 + i * 2] = history[index * 2];
+      out[offset + 5 + i * 2] = history[index * 2 + 1];
+    }
+  }
+
+  /**
+   * Restores the state written by {@link #saveState(float[], int)}, abandoning the gesture in
+   * progress. A saved gesture in progress is replayed into the velocity estimator, using the down
+   * time of the given event.
+   *
+   * @param event An event of the touch stream that the saved gesture belongs to, or null if no
+   * gesture is in progress.
+   */
+  void restoreState(float[] in, int offset, @Nullable MotionEvent event) {
+    adjust = in[offset + 1];
+    currentVelocity = in[offset + 2];
+    historyStart = 0;
+    historyCount = 0;
+    estimator.clear();
+    inProgress = in[offset] != 0f && event != null;
+
+    if (!inProgress) {
+      return;
+    }
+
+    long downTime = event.getDownTime();
+    for (int i = 0, count = (int) in[offset + 3]; i < count; i++) {
+      long timeOffset = (long) in[offset + 4 + i * 2];
+      float adjustedValue = in[offset + 5 + i * 2];
+
+      addSample(
+        downTime,
+        downTime + timeOffset,
+        i == 0 ? MotionEvent.ACTION_DOWN : MotionEvent.ACTION_MOVE,
+        adjustedValue);
+      record(timeOffset, adjustedValue);
+    }
   }
 
   private float apply(float value, float adjust) {
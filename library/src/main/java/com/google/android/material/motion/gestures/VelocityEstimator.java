@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import com.google.android.material.motion.gestures.GestureConfiguration.VelocityStrategy;
+
+/**
+ * Estimates the velocity of a value from timestamped samples.
+ * <p>
+ * A {@link ValueVelocityTracker} owns one estimator per value, created for the {@link
+ * GestureConfiguration#getVelocityStrategy() velocity strategy} of its configuration.
+ */
+abstract class VelocityEstimator {
+
+  /**
+   * Returns a new estimator for the given strategy.
+   *
+   * @param logSpace Whether the samples are logarithms of a multiplicative value. Tunes the noise
+   * model of estimators that have one.
+   */
+  static VelocityEstimator create(@VelocityStrategy int strategy, boolean logSpace) {
+    switch (strategy) {
+      case GestureConfiguration.VELOCITY_STRATEGY_PLATFORM:
+        return new PlatformVelocityEstimator();
+      case GestureConfiguration.VELOCITY_STRATEGY_LSQ1:
+        return new LeastSquaresVelocityEstimator(1);
+      case GestureConfiguration.VELOCITY_STRATEGY_LSQ2:
+        return new LeastSquaresVelocityEstimator(2);
+      case GestureConfiguration.VELOCITY_STRATEGY_IMPULSE:
+        return new ImpulseVelocityEstimator();
+      case GestureConfiguration.VELOCITY_STRATEGY_KALMAN:
+        if (logSpace) {
+          return new KalmanVelocityEstimator(
+            KalmanVelocityEstimator.LOG_ACCELERATION_NOISE,
+            KalmanVelocityEstimator.LOG_MEASUREMENT_NOISE);
+        }
+        return new KalmanVelocityEstimator(
+          KalmanVelocityEstimator.ACCELERATION_NOISE, KalmanVelocityEstimator.MEASUREMENT_NOISE);
+      default:
+        throw new IllegalArgumentException("Unknown velocity strategy: " + strategy);
+    }
+  }
+
+  /**
+   * Forgets all samples and releases any resources until the next sample.
+   */
+  abstract void clear();
+
+  /**
+   * Adds a sample.
+   *
+   * @param action The {@link android.view.MotionEvent} action of the gesture phase: {@link
+   * android.view.MotionEvent#ACTION_DOWN} for the first sample, then moves, then up or cancel.
+   */
+  abstract void addSample(long downTime, long eventTime, int action, float value);
+
+  /**
+   * Returns the velocity at the most recent sample in units per second, clamped to {@code
+   * maximumVelocity}, or 0 if there are not enough samples.
+   */
+  abstract float computeVelocity(float maximumVelocity);
+
+  static float clamp(float velocity, float maximumVelocity) {
+    if (Float.isNaN(velocity)) {
+      return 0f;
+    }
+    return Math.max(-maximumVelocity, Math.min(maximumVelocity, velocity));
+  }
+}
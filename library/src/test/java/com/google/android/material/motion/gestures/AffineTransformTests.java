@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class AffineTransformTests {
+
+  private static final float E = 0.0001f;
+
+  private final float[] transform = new float[AffineTransform.SIZE];
+  private final float[] inverse = new float[AffineTransform.SIZE];
+
+  @Test
+  public void identityMapsPointsToThemselves() {
+    AffineTransform.setViewTransform(transform, 1, 1, 50, 50, 0, 0, 0);
+
+    assertThat(AffineTransform.mapX(transform, 12, 34)).isWithin(0).of(12);
+    assertThat(AffineTransform.mapY(transform, 12, 34)).isWithin(0).of(34);
+  }
+
+  @Test
+  public void scalesAroundPivot() {
+    AffineTransform.setViewTransform(transform, 2, 3, 10, 10, 0, 0, 0);
+
+    assertThat(AffineTransform.mapX(transform, 10, 10)).isWithin(E).of(10);
+    assertThat(AffineTransform.mapY(transform, 10, 10)).isWithin(E).of(10);
+    assertThat(AffineTransform.mapX(transform, 20, 20)).isWithin(E).of(30);
+    assertThat(AffineTransform.mapY(transform, 20, 20)).isWithin(E).of(40);
+  }
+
+  @Test
+  public void rightAngleRotationIsExact() {
+    AffineTransform.setViewTransform(transform, 1, 1, 0, 0, 90, 0, 0);
+
+    assertThat(transform[AffineTransform.SCALE_X]).isWithin(0).of(0f);
+    assertThat(transform[AffineTransform.SCALE_Y]).isWithin(0).of(0f);
+    assertThat(AffineTransform.mapX(transform, 10, 0)).isWithin(0).of(0);
+    assertThat(AffineTransform.mapY(transform, 10, 0)).isWithin(0).of(10);
+  }
+
+  @Test
+  public void scalesThenRotatesThenTranslates() {
+    AffineTransform.setViewTransform(transform, 2, 2, 0, 0, 90, 5, 7);
+
+    // (10, 0) scales to (20, 0), rotates to (0, 20) and translates to (5, 27).
+    assertThat(AffineTransform.mapX(transform, 10, 0)).isWithin(E).of(5);
+    assertThat(AffineTransform.mapY(transform, 10, 0)).isWithin(E).of(27);
+  }
+
+  @Test
+  public void inverseUndoesTransform() {
+    AffineTransform.setViewTransform(transform, 1.5f, 0.5f, 20, 30, 33, -12, 8);
+    assertThat(AffineTransform.invert(transform, inverse)).isTrue();
+
+    float x = AffineTransform.mapX(transform, 42, -17);
+    float y = AffineTransform.mapY(transform, 42, -17);
+    assertThat(AffineTransform.mapX(inverse, x, y)).isWithin(E).of(42);
+    assertThat(AffineTransform.mapY(inverse, x, y)).isWithin(E).of(-17);
+  }
+
+  @Test
+  public void singularTransformIsNotInverted() {
+    AffineTransform.setViewTransform(transform, 0, 1, 0, 0, 0, 0, 0);
+    AffineTransform.setIdentity(inverse);
+
+    assertThat(AffineTransform.invert(transform, inverse)).isFalse();
+    assertThat(inverse[AffineTransform.SCALE_X]).isWithin(0).of(1f);
+  }
+
+  @Test
+  public void concatAppliesFirstThenSecond() {
+    float[] first = new float[AffineTransform.SIZE];
+    float[] second = new float[AffineTransform.SIZE];
+    AffineTransform.setViewTransform(first, 2, 2, 0, 0, 0, 0, 0);
+    AffineTransform.setViewTransform(second, 1, 1, 0, 0, 0, 10, 0);
+
+    AffineTransform.concat(first, second, transform);
+
+    assertThat(AffineTransform.mapX(transform, 5, 0)).isWithin(E).of(20);
+  }
+}
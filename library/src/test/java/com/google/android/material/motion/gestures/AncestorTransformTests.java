@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.app.Activity;
+import android.content.Context;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class AncestorTransformTests {
+
+  private static final float E = 0.0001f;
+
+  private FrameLayout ancestor;
+  private FrameLayout parent;
+  private View element;
+  private AncestorTransform ancestorTransform;
+  private final float[] transform = new float[AffineTransform.SIZE];
+
+  @Before
+  public void setUp() {
+    Context context = Robolectric.setupActivity(Activity.class);
+    ancestor = new FrameLayout(context);
+    parent = new FrameLayout(context);
+    element = new View(context);
+    ancestor.addView(parent);
+    parent.addView(element);
+
+    ancestor.layout(0, 0, 400, 400);
+    parent.layout(100, 50, 300, 250);
+    element.layout(10, 20, 60, 70);
+    parent.scrollTo(0, 5);
+
+    ancestorTransform = new AncestorTransform();
+  }
+
+  @Test
+  public void composesLayoutAndScrollOffsets() {
+    assertThat(ancestorTransform.update(element, ancestor, transform)).isTrue();
+
+    assertThat(AffineTransform.mapX(transform, 0, 0)).isWithin(E).of(110);
+    assertThat(AffineTransform.mapY(transform, 0, 0)).isWithin(E).of(65);
+  }
+
+  @Test
+  public void unchangedChainIsNotRecomposed() {
+    ancestorTransform.update(element, ancestor, transform);
+
+    assertThat(ancestorTransform.update(element, ancestor, transform)).isFalse();
+  }
+
+  @Test
+  public void changedAncestorPropertyIsRecomposed() {
+    ancestorTransform.update(element, ancestor, transform);
+    parent.scrollTo(0, 0);
+
+    assertThat(ancestorTransform.update(element, ancestor, transform)).isTrue();
+    assertThat(AffineTransform.mapY(transform, 0, 0)).isWithin(E).of(70);
+  }
+
+  @Test
+  public void parentIsItsOwnCoordinateSpaceWithoutOffset() {
+    ancestorTransform.update(element, parent, transform);
+
+    assertThat(AffineTransform.mapX(transform, 0, 0)).isWithin(E).of(10);
+    assertThat(AffineTransform.mapY(transform, 0, 0)).isWithin(E).of(25);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsViewThatIsNotAnAncestor() {
+    ancestorTransform.update(element, new FrameLayout(element.getContext()), transform);
+  }
+
+  @Test
+  public void gestureRecognizerReportsCentroidInAncestorSpace() {
+    DragGestureRecognizer dragGestureRecognizer = new DragGestureRecognizer();
+    dragGestureRecognizer.setCoordinateSpace(ancestor);
+
+    dragGestureRecognizer.onTouch(
+      element, MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 5, 5, 0));
+
+    assertThat(dragGestureRecognizer.getUntransformedCentroidX()).isWithin(E).of(115);
+    assertThat(dragGestureRecognizer.getUntransformedCentroidY()).isWithin(E).of(70);
+    assertThat(dragGestureRecognizer.getCentroidX()).isWithin(E).of(5);
+    assertThat(dragGestureRecognizer.getCentroidY()).isWithin(E).of(5);
+  }
+}
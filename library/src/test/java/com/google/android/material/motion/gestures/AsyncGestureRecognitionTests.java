@@ -0,0 +1,190 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.app.Activity;
+import android.view.MotionEvent;
+import android.view.MotionEvent.PointerCoords;
+import android.view.MotionEvent.PointerProperties;
+import android.view.View;
+
+import com.google.android.material.motion.gestures.AsyncGestureRecognition.AsyncStateChangeListener;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.android.material.motion.gestures.GestureRecognizer.BEGAN;
+import static com.google.android.material.motion.gestures.GestureRecognizer.CANCELLED;
+import static com.google.android.material.motion.gestures.GestureRecognizer.CHANGED;
+import static com.google.android.material.motion.gestures.GestureRecognizer.POSSIBLE;
+import static com.google.android.material.motion.gestures.GestureRecognizer.RECOGNIZED;
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class AsyncGestureRecognitionTests {
+
+  private View element;
+  private DragGestureRecognizer dragGestureRecognizer;
+  private AsyncGestureRecognition recognition;
+  private final List<Integer> states = new ArrayList<>();
+
+  private long eventDownTime;
+  private long eventTime;
+
+  @Before
+  public void setUp() {
+    element = new View(Robolectric.setupActivity(Activity.class));
+    dragGestureRecognizer = new DragGestureRecognizer();
+    recognition = new AsyncGestureRecognition(element, 4, dragGestureRecognizer);
+    dragGestureRecognizer.dragSlop = 0;
+    recognition.addStateChangeListener(new AsyncStateChangeListener() {
+      @Override
+      public void onStateChanged(GestureRecognizer gestureRecognizer, int state) {
+        states.add(state);
+      }
+    });
+
+    eventDownTime = 0;
+    eventTime = -16;
+  }
+
+  @Test
+  public void onTouchOnlyQueuesEvents() {
+    recognition.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    recognition.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 100, 0));
+
+    assertThat(dragGestureRecognizer.getState()).isEqualTo(POSSIBLE);
+    assertThat(states).isEmpty();
+  }
+
+  @Test
+  public void publishesStatesInOrder() {
+    recognition.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    recognition.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 100, 0));
+    recognition.onTouch(element, createMotionEvent(MotionEvent.ACTION_UP, 100, 0));
+    recognition.processPendingEvents();
+
+    assertThat(states.toArray()).isEqualTo(new Integer[]{BEGAN, CHANGED, RECOGNIZED, POSSIBLE});
+    assertThat(dragGestureRecognizer.getTranslationX()).isWithin(0.0001f).of(100);
+  }
+
+  @Test
+  public void fullRingDropsMoves() {
+    recognition.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    for (int i = 1; i <= 10; i++) {
+      recognition.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, i * 10, 0));
+    }
+    recognition.processPendingEvents();
+
+    // The down and the first three moves fit.
+    assertThat(dragGestureRecognizer.getTranslationX()).isWithin(0.0001f).of(30);
+  }
+
+  @Test
+  public void fullRingCancelsStreamInsteadOfWaiting() {
+    recognition.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    for (int i = 1; i <= 3; i++) {
+      recognition.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, i * 10, 0));
+    }
+    // The ring is full, so the up is dropped.
+    recognition.onTouch(element, createMotionEvent(MotionEvent.ACTION_UP, 30, 0));
+    recognition.processPendingEvents();
+    assertThat(dragGestureRecognizer.getState()).isEqualTo(CHANGED);
+
+    // The next stream queues a cancel for the previous one first.
+    eventDownTime = eventTime + 16;
+    recognition.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    recognition.processPendingEvents();
+
+    assertThat(states.toArray()).isEqualTo(
+      new Integer[]{BEGAN, CHANGED, CHANGED, CHANGED, CANCELLED, POSSIBLE, BEGAN});
+  }
+
+  @Test
+  public void runsTimeoutsOnRecognitionThread() {
+    LongPressGestureRecognizer longPressGestureRecognizer = new LongPressGestureRecognizer();
+    longPressGestureRecognizer.minimumPressDuration = 500;
+    recognition = new AsyncGestureRecognition(element, 4, longPressGestureRecognizer);
+    longPressGestureRecognizer.setScheduler(recognition.scheduler);
+
+    recognition.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    recognition.processPendingEvents();
+    assertThat(longPressGestureRecognizer.getState()).isEqualTo(POSSIBLE);
+
+    ShadowLooper.idleMainLooper(600);
+    recognition.processPendingEvents();
+    assertThat(longPressGestureRecognizer.getState()).isEqualTo(BEGAN);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void momentumIsRejectedOnStart() {
+    dragGestureRecognizer.setMomentumEnabled(true);
+    recognition.start();
+  }
+
+  @Test
+  public void ringPreservesOrder() {
+    MotionEventRing ring = new MotionEventRing(2);
+    PointerProperties[] properties = createPointerProperties();
+    PointerCoords[] coords = createPointerCoords();
+    float[] transform = new float[GestureRecognizer.TRANSFORM_SIZE];
+
+    assertThat(ring.isEmpty()).isTrue();
+    assertThat(ring.offer(createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0), element)).isTrue();
+    assertThat(ring.offer(createMotionEvent(MotionEvent.ACTION_MOVE, 0, 0), element)).isTrue();
+    assertThat(ring.offer(createMotionEvent(MotionEvent.ACTION_MOVE, 0, 0), element)).isFalse();
+
+    assertThat(ring.poll(properties, coords, transform).getEventTime()).isEqualTo(0);
+    assertThat(ring.offer(createMotionEvent(MotionEvent.ACTION_UP, 0, 0), element)).isTrue();
+    assertThat(ring.poll(properties, coords, transform).getEventTime()).isEqualTo(16);
+    assertThat(ring.poll(properties, coords, transform).getEventTime()).isEqualTo(48);
+    assertThat(ring.poll(properties, coords, transform)).isNull();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void ringCapacityMustBePowerOfTwo() {
+    new MotionEventRing(3);
+  }
+
+  private PointerProperties[] createPointerProperties() {
+    PointerProperties[] properties = new PointerProperties[MotionEventRing.MAX_POINTERS];
+    for (int i = 0; i < properties.length; i++) {
+      properties[i] = new PointerProperties();
+    }
+    return properties;
+  }
+
+  private PointerCoords[] createPointerCoords() {
+    PointerCoords[] coords = new PointerCoords[MotionEventRing.MAX_POINTERS];
+    for (int i = 0; i < coords.length; i++) {
+      coords[i] = new PointerCoords();
+    }
+    return coords;
+  }
+
+  private MotionEvent createMotionEvent(int action, float x, float y) {
+    return MotionEvent.obtain(eventDownTime, eventTime += 16, action, x, y, 0);
+  }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.app.Activity;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.google.android.material.motion.gestures.GestureRecognizer.GestureSubscriber;
+import com.google.android.material.motion.gestures.GestureRecognizer.GestureSubscription;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static com.google.android.material.motion.gestures.GestureRecognizer.BEGAN;
+import static com.google.android.material.motion.gestures.GestureRecognizer.CHANGED;
+import static com.google.android.material.motion.gestures.GestureRecognizer.POSSIBLE;
+import static com.google.android.material.motion.gestures.GestureRecognizer.RECOGNIZED;
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class ConflatingSubscriptionTests {
+
+  private View element;
+  private DragGestureRecognizer dragGestureRecognizer;
+  private QueueExecutor executor;
+  private RecordingSubscriber subscriber;
+
+  private long eventDownTime;
+  private long eventTime;
+
+  @Before
+  public void setUp() {
+    element = new View(Robolectric.setupActivity(Activity.class));
+    dragGestureRecognizer = new DragGestureRecognizer();
+    dragGestureRecognizer.dragSlop = 0;
+    executor = new QueueExecutor();
+    subscriber = new RecordingSubscriber();
+
+    eventDownTime = 0;
+    eventTime = -16;
+  }
+
+  @Test
+  public void deliversOnExecutor() {
+    dragGestureRecognizer.subscribe(subscriber, executor).request(Long.MAX_VALUE);
+
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    assertThat(subscriber.states).isEmpty();
+
+    executor.runAll();
+    assertThat(subscriber.states.toArray()).isEqualTo(new Integer[]{BEGAN});
+  }
+
+  @Test
+  public void slowSubscriberGetsConflatedChanges() {
+    dragGestureRecognizer.subscribe(subscriber, executor).request(Long.MAX_VALUE);
+
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    for (int i = 1; i <= 10; i++) {
+      dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, i, 0));
+    }
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_UP, 10, 0));
+    executor.runAll();
+
+    assertThat(subscriber.states.toArray())
+      .isEqualTo(new Integer[]{BEGAN, CHANGED, RECOGNIZED, POSSIBLE});
+    assertThat(subscriber.translationsX.get(1)).isWithin(0.0001f).of(10);
+  }
+
+  @Test
+  public void respectsDemand() {
+    GestureSubscription subscription = dragGestureRecognizer.subscribe(subscriber, executor);
+    assertThat(dragGestureRecognizer.hasSubscriberDemand()).isFalse();
+
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 5, 0));
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_UP, 5, 0));
+    executor.runAll();
+    assertThat(subscriber.states).isEmpty();
+
+    // Changes without demand are not buffered.
+    subscription.request(2);
+    assertThat(dragGestureRecognizer.hasSubscriberDemand()).isTrue();
+    executor.runAll();
+    assertThat(subscriber.states.toArray()).isEqualTo(new Integer[]{BEGAN, RECOGNIZED});
+    assertThat(dragGestureRecognizer.hasSubscriberDemand()).isFalse();
+
+    subscription.request(10);
+    executor.runAll();
+    assertThat(subscriber.states.toArray()).isEqualTo(new Integer[]{BEGAN, RECOGNIZED, POSSIBLE});
+  }
+
+  @Test
+  public void pendingGesturesCollapseIntoTheLatest() {
+    GestureSubscription subscription = dragGestureRecognizer.subscribe(subscriber, executor);
+
+    for (int i = 1; i <= 100; i++) {
+      dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+      dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, i, 0));
+      dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_UP, i, 0));
+    }
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+
+    subscription.request(Long.MAX_VALUE);
+    executor.runAll();
+    assertThat(subscriber.states.toArray())
+      .isEqualTo(new Integer[]{BEGAN, RECOGNIZED, POSSIBLE, BEGAN});
+  }
+
+  @Test
+  public void gestureBeingDeliveredIsNotCollapsed() {
+    GestureSubscription subscription = dragGestureRecognizer.subscribe(subscriber, executor);
+    subscription.request(1);
+
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    executor.runAll();
+    assertThat(subscriber.states.toArray()).isEqualTo(new Integer[]{BEGAN});
+
+    for (int i = 1; i <= 3; i++) {
+      dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_UP, 0, 0));
+      dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    }
+
+    subscription.request(Long.MAX_VALUE);
+    executor.runAll();
+    assertThat(subscriber.states.toArray()).isEqualTo(
+      new Integer[]{BEGAN, RECOGNIZED, POSSIBLE, BEGAN, RECOGNIZED, POSSIBLE, BEGAN});
+  }
+
+  @Test
+  public void cancelledSubscriptionReceivesNothing() {
+    GestureSubscription subscription = dragGestureRecognizer.subscribe(subscriber, executor);
+    subscription.request(Long.MAX_VALUE);
+    subscription.cancel();
+
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    executor.runAll();
+
+    assertThat(subscriber.states).isEmpty();
+    assertThat(dragGestureRecognizer.hasSubscriberDemand()).isFalse();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void nonPositiveDemandCrashes() {
+    dragGestureRecognizer.subscribe(subscriber, executor).request(0);
+  }
+
+  private MotionEvent createMotionEvent(int action, float x, float y) {
+    return MotionEvent.obtain(eventDownTime, eventTime += 16, action, x, y, 0);
+  }
+
+  private static class QueueExecutor implements Executor {
+
+    private final List<Runnable> queue = new ArrayList<>();
+
+    @Override
+    public void execute(Runnable command) {
+      queue.add(command);
+    }
+
+    void runAll() {
+      while (!queue.isEmpty()) {
+        queue.remove(0).run();
+      }
+    }
+  }
+
+  private static class RecordingSubscriber implements GestureSubscriber {
+
+    final List<Integer> states = new ArrayList<>();
+    final List<Float> translationsX = new ArrayList<>();
+
+    @Override
+    public void onSubscribe(GestureSubscription subscription) {
+    }
+
+    @Override
+    public void onNext(GestureSnapshot snapshot) {
+      states.add(snapshot.state);
+      translationsX.add(snapshot.translationX);
+    }
+  }
+}
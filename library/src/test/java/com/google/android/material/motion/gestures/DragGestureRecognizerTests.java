@@ -20,12 +20,18 @@ import android.content.Context;
 import android.view.MotionEvent;
 import android.view.View;
 
+import com.google.android.material.motion.gestures.GestureRecognizer.GestureStateChangeListener;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.Robolectric;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import static com.google.android.material.motion.gestures.GestureRecognizer.BEGAN;
 import static com.google.android.material.motion.gestures.GestureRecognizer.CANCELLED;
@@ -237,6 +243,55 @@ public class DragGestureRecognizerTests {
     assertThat(listener.states.toArray()).isEqualTo(new Integer[]{POSSIBLE, BEGAN, CHANGED, RECOGNIZED, POSSIBLE});
   }
 
+  @Test
+  public void resetCancelsGestureInProgress() {
+    TrackingGestureStateChangeListener listener = new TrackingGestureStateChangeListener();
+    dragGestureRecognizer.addStateChangeListener(listener);
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 100, 0));
+
+    dragGestureRecognizer.reset();
+
+    assertThat(dragGestureRecognizer.getState()).isEqualTo(POSSIBLE);
+    assertThat(dragGestureRecognizer.getTranslationX()).isWithin(0).of(0f);
+    assertThat(dragGestureRecognizer.getVelocityX()).isWithin(0).of(0f);
+    assertThat(listener.states.toArray())
+      .isEqualTo(new Integer[]{POSSIBLE, BEGAN, CHANGED, CANCELLED, POSSIBLE});
+  }
+
+  @Test
+  public void onlySeesGivenPointers() {
+    int secondPointerOnly = 1 << 1;
+    TrackingGestureStateChangeListener listener = new TrackingGestureStateChangeListener();
+    dragGestureRecognizer.addStateChangeListener(listener);
+
+    // First finger is not seen.
+    dragGestureRecognizer.onTouch(element,
+      createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0), secondPointerOnly);
+    assertThat(listener.states.toArray()).isEqualTo(new Integer[]{POSSIBLE});
+
+    // Second finger down is seen as the start of the gesture.
+    dragGestureRecognizer.onTouch(element,
+      createMultiTouchMotionEvent(MotionEvent.ACTION_POINTER_DOWN, 1, 0, 0, 100, 100),
+      secondPointerOnly);
+    assertThat(dragGestureRecognizer.getUntransformedCentroidX()).isWithin(E).of(100);
+    assertThat(dragGestureRecognizer.getUntransformedCentroidY()).isWithin(E).of(100);
+
+    // Only the second finger contributes to the translation.
+    dragGestureRecognizer.onTouch(element,
+      createMultiTouchMotionEvent(MotionEvent.ACTION_MOVE, 0, 500, 500, 110, 100),
+      secondPointerOnly);
+    assertThat(dragGestureRecognizer.getTranslationX()).isWithin(E).of(10);
+    assertThat(dragGestureRecognizer.getTranslationY()).isWithin(E).of(0);
+
+    // Second finger up is seen as the end of the gesture.
+    dragGestureRecognizer.onTouch(element,
+      createMultiTouchMotionEvent(MotionEvent.ACTION_POINTER_UP, 1, 500, 500, 110, 100),
+      secondPointerOnly);
+    assertThat(listener.states.toArray())
+      .isEqualTo(new Integer[]{POSSIBLE, BEGAN, CHANGED, RECOGNIZED, POSSIBLE});
+  }
+
   @Test(expected = NullPointerException.class)
   public void crashesForNullElement() {
     dragGestureRecognizer.onTouch(null, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
@@ -248,6 +303,340 @@ public class DragGestureRecognizerTests {
     dragGestureRecognizer.onTouch(new View(element.getContext()), createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
   }
 
+  @Test
+  public void horizontalAxisRejectsVerticalDrag() {
+    dragGestureRecognizer.dragSlop = 24;
+    dragGestureRecognizer.axis = DragGestureRecognizer.AXIS_HORIZONTAL;
+    TrackingGestureStateChangeListener listener = new TrackingGestureStateChangeListener();
+    dragGestureRecognizer.addStateChangeListener(listener);
+
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 5, 50));
+    assertThat(dragGestureRecognizer.isRejected()).isTrue();
+
+    // Moving horizontally later in the same stream does not begin.
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 200, 50));
+    assertThat(listener.states.toArray()).isEqualTo(new Integer[]{POSSIBLE});
+  }
+
+  @Test
+  public void horizontalAxisReportsHorizontalTranslationOnly() {
+    dragGestureRecognizer.dragSlop = 24;
+    dragGestureRecognizer.axis = DragGestureRecognizer.AXIS_HORIZONTAL;
+
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 50, 10));
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 100, 80));
+
+    assertThat(dragGestureRecognizer.getState()).isEqualTo(CHANGED);
+    assertThat(dragGestureRecognizer.getTranslationX()).isWithin(E).of(76);
+    assertThat(dragGestureRecognizer.getTranslationY()).isWithin(E).of(0);
+  }
+
+  @Test
+  public void edgeRegionRejectsDragStartingOutside() {
+    element.layout(0, 0, 400, 400);
+    dragGestureRecognizer.edges = DragGestureRecognizer.EDGE_LEFT;
+    dragGestureRecognizer.edgeSize = 30;
+
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 200, 200));
+    assertThat(dragGestureRecognizer.isRejected()).isTrue();
+    assertThat(dragGestureRecognizer.getState()).isEqualTo(POSSIBLE);
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_UP, 200, 200));
+
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 10, 200));
+    assertThat(dragGestureRecognizer.isRejected()).isFalse();
+    assertThat(dragGestureRecognizer.getState()).isEqualTo(BEGAN);
+  }
+
+  @Test
+  public void multiElementModeKeepsConcurrentGesturesApart() {
+    View first = new View(element.getContext());
+    View second = new View(element.getContext());
+    dragGestureRecognizer.setMultiElementEnabled(true);
+
+    dragGestureRecognizer.onTouch(first, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    dragGestureRecognizer.onTouch(second, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    dragGestureRecognizer.onTouch(first, createMotionEvent(MotionEvent.ACTION_MOVE, 100, 0));
+    assertThat(dragGestureRecognizer.getElement()).isEqualTo(first);
+    assertThat(dragGestureRecognizer.getTranslationX()).isWithin(E).of(100);
+    assertThat(dragGestureRecognizer.getTranslationY()).isWithin(E).of(0);
+
+    dragGestureRecognizer.onTouch(second, createMotionEvent(MotionEvent.ACTION_MOVE, 0, 50));
+    assertThat(dragGestureRecognizer.getElement()).isEqualTo(second);
+    assertThat(dragGestureRecognizer.getState()).isEqualTo(CHANGED);
+    assertThat(dragGestureRecognizer.getTranslationX()).isWithin(E).of(0);
+    assertThat(dragGestureRecognizer.getTranslationY()).isWithin(E).of(50);
+
+    dragGestureRecognizer.onTouch(first, createMotionEvent(MotionEvent.ACTION_MOVE, 120, 0));
+    assertThat(dragGestureRecognizer.getTranslationX()).isWithin(E).of(120);
+    dragGestureRecognizer.onTouch(first, createMotionEvent(MotionEvent.ACTION_UP, 120, 0));
+    assertThat(dragGestureRecognizer.getVelocityX()).isGreaterThan(0f);
+    assertThat(dragGestureRecognizer.getVelocityY()).isWithin(E).of(0);
+
+    dragGestureRecognizer.onTouch(second, createMotionEvent(MotionEvent.ACTION_MOVE, 0, 60));
+    assertThat(dragGestureRecognizer.getState()).isEqualTo(CHANGED);
+    assertThat(dragGestureRecognizer.getTranslationY()).isWithin(E).of(60);
+    dragGestureRecognizer.onTouch(second, createMotionEvent(MotionEvent.ACTION_UP, 0, 60));
+    assertThat(dragGestureRecognizer.getVelocityX()).isWithin(E).of(0);
+    assertThat(dragGestureRecognizer.getVelocityY()).isGreaterThan(0f);
+  }
+
+  @Test
+  public void multiElementModeNotifiesForEachElement() {
+    View first = new View(element.getContext());
+    View second = new View(element.getContext());
+    dragGestureRecognizer.setMultiElementEnabled(true);
+    final List<View> elements = new ArrayList<>();
+    dragGestureRecognizer.addStateChangeListener(new GestureStateChangeListener() {
+      @Override
+      public void onStateChanged(GestureRecognizer gestureRecognizer) {
+        elements.add(gestureRecognizer.getElement());
+      }
+    });
+
+    dragGestureRecognizer.onTouch(first, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    dragGestureRecognizer.onTouch(second, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+
+    assertThat(elements.toArray()).isEqualTo(new View[]{first, second});
+  }
+
+  @Test
+  public void frameResamplingDeliversOneChangePerFrame() {
+    dragGestureRecognizer.setFrameResamplingEnabled(true);
+    TrackingGestureStateChangeListener listener = new TrackingGestureStateChangeListener();
+    dragGestureRecognizer.addStateChangeListener(listener);
+
+    ShadowLooper.pauseMainLooper();
+    try {
+      dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+      dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 10, 0));
+      dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 20, 0));
+      dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 30, 0));
+
+      // The moves wait for the next frame.
+      assertThat(listener.states.toArray()).isEqualTo(new Integer[]{POSSIBLE, BEGAN});
+      assertThat(dragGestureRecognizer.getState()).isEqualTo(CHANGED);
+      assertThat(dragGestureRecognizer.getTranslationX()).isWithin(E).of(30);
+    } finally {
+      ShadowLooper.unPauseMainLooper();
+    }
+    ShadowLooper.idleMainLooper(16);
+
+    assertThat(listener.states.toArray()).isEqualTo(new Integer[]{POSSIBLE, BEGAN, CHANGED});
+    assertThat(dragGestureRecognizer.getTranslationX()).isWithin(E).of(30);
+
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_UP, 30, 0));
+    assertThat(listener.states.toArray())
+      .isEqualTo(new Integer[]{POSSIBLE, BEGAN, CHANGED, RECOGNIZED, POSSIBLE});
+  }
+
+  @Test
+  public void frameResamplingDeliversChangesOfEachElement() {
+    View first = new View(element.getContext());
+    View second = new View(element.getContext());
+    dragGestureRecognizer.setMultiElementEnabled(true);
+    dragGestureRecognizer.setFrameResamplingEnabled(true);
+    final List<View> elements = new ArrayList<>();
+    final List<Float> translations = new ArrayList<>();
+    dragGestureRecognizer.addStateChangeListener(new GestureStateChangeListener() {
+      @Override
+      public void onStateChanged(GestureRecognizer gestureRecognizer) {
+        if (gestureRecognizer.getState() == CHANGED) {
+          elements.add(gestureRecognizer.getElement());
+          translations.add(
+            dragGestureRecognizer.getTranslationX() + dragGestureRecognizer.getTranslationY());
+        }
+      }
+    });
+
+    ShadowLooper.pauseMainLooper();
+    try {
+      dragGestureRecognizer.onTouch(first, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+      dragGestureRecognizer.onTouch(second, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+      dragGestureRecognizer.onTouch(first, createMotionEvent(MotionEvent.ACTION_MOVE, 10, 0));
+      dragGestureRecognizer.onTouch(second, createMotionEvent(MotionEvent.ACTION_MOVE, 0, 20));
+
+      // The first element's move does not wait for a frame that now belongs to the second.
+      assertThat(elements.toArray()).isEqualTo(new View[]{first});
+      assertThat(translations.get(0)).isWithin(E).of(10);
+    } finally {
+      ShadowLooper.unPauseMainLooper();
+    }
+    ShadowLooper.idleMainLooper(16);
+
+    assertThat(elements.toArray()).isEqualTo(new View[]{first, second});
+    assertThat(translations.get(1)).isWithin(E).of(20);
+  }
+
+  @Test
+  public void momentumContinuesToTheProjectedTranslation() {
+    dragGestureRecognizer.setMomentumEnabled(true);
+    final float[] projectedAtRelease = new float[1];
+    dragGestureRecognizer.addStateChangeListener(new GestureStateChangeListener() {
+      @Override
+      public void onStateChanged(GestureRecognizer gestureRecognizer) {
+        if (gestureRecognizer.getState() == RECOGNIZED) {
+          projectedAtRelease[0] = dragGestureRecognizer.getProjectedTranslationX();
+        }
+      }
+    });
+    final int[] ends = new int[1];
+    dragGestureRecognizer.addMomentumListener(new GestureRecognizer.MomentumListener() {
+      @Override
+      public void onMomentumUpdate(GestureRecognizer gestureRecognizer) {
+      }
+
+      @Override
+      public void onMomentumEnd(GestureRecognizer gestureRecognizer) {
+        ends[0]++;
+      }
+    });
+
+    ShadowLooper.pauseMainLooper();
+    try {
+      dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+      for (int x = 10; x <= 100; x += 10) {
+        dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, x, 0));
+      }
+      dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_UP, 100, 0));
+
+      assertThat(dragGestureRecognizer.isMomentumInProgress()).isTrue();
+      assertThat(projectedAtRelease[0]).isGreaterThan(100f);
+      assertThat(dragGestureRecognizer.getProjectedTranslationY()).isWithin(E).of(0f);
+    } finally {
+      ShadowLooper.unPauseMainLooper();
+    }
+    ShadowLooper.idleMainLooper(10000);
+
+    assertThat(dragGestureRecognizer.isMomentumInProgress()).isFalse();
+    assertThat(ends[0]).isEqualTo(1);
+    assertThat(dragGestureRecognizer.getMomentumTranslationX())
+      .isWithin(E).of(projectedAtRelease[0]);
+  }
+
+  @Test
+  public void newTouchStopsMomentum() {
+    dragGestureRecognizer.setMomentumEnabled(true);
+
+    ShadowLooper.pauseMainLooper();
+    try {
+      dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+      for (int x = 10; x <= 100; x += 10) {
+        dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, x, 0));
+      }
+      dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_UP, 100, 0));
+      assertThat(dragGestureRecognizer.isMomentumInProgress()).isTrue();
+
+      dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 100, 0));
+      assertThat(dragGestureRecognizer.isMomentumInProgress()).isFalse();
+    } finally {
+      ShadowLooper.unPauseMainLooper();
+    }
+  }
+
+  @Test
+  public void multiElementModeStopsMomentumOnAnotherElement() {
+    View first = new View(element.getContext());
+    View second = new View(element.getContext());
+    dragGestureRecognizer.setMultiElementEnabled(true);
+    dragGestureRecognizer.setMomentumEnabled(true);
+    final List<View> elements = new ArrayList<>();
+    dragGestureRecognizer.addMomentumListener(new GestureRecognizer.MomentumListener() {
+      @Override
+      public void onMomentumUpdate(GestureRecognizer gestureRecognizer) {
+        elements.add(gestureRecognizer.getElement());
+      }
+
+      @Override
+      public void onMomentumEnd(GestureRecognizer gestureRecognizer) {
+        elements.add(gestureRecognizer.getElement());
+      }
+    });
+
+    ShadowLooper.pauseMainLooper();
+    try {
+      dragGestureRecognizer.onTouch(second, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+      dragGestureRecognizer.onTouch(first, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+      for (int x = 10; x <= 100; x += 10) {
+        dragGestureRecognizer.onTouch(first, createMotionEvent(MotionEvent.ACTION_MOVE, x, 0));
+      }
+      dragGestureRecognizer.onTouch(first, createMotionEvent(MotionEvent.ACTION_UP, 100, 0));
+      assertThat(dragGestureRecognizer.isMomentumInProgress()).isTrue();
+
+      // The second element's gesture was in progress, so its move is not a new touch.
+      dragGestureRecognizer.onTouch(second, createMotionEvent(MotionEvent.ACTION_MOVE, 0, 10));
+      assertThat(dragGestureRecognizer.isMomentumInProgress()).isFalse();
+      assertThat(dragGestureRecognizer.getElement()).isEqualTo(second);
+    } finally {
+      ShadowLooper.unPauseMainLooper();
+    }
+    ShadowLooper.idleMainLooper(10000);
+
+    assertThat(elements.toArray()).isEqualTo(new View[]{first});
+  }
+
+  @Test
+  public void removeElementDropsItsSlot() {
+    View first = new View(element.getContext());
+    View second = new View(element.getContext());
+    dragGestureRecognizer.setMultiElementEnabled(true);
+
+    dragGestureRecognizer.onTouch(first, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    dragGestureRecognizer.onTouch(second, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    assertThat(dragGestureRecognizer.getElementCount()).isEqualTo(2);
+
+    dragGestureRecognizer.removeElement(second);
+    assertThat(dragGestureRecognizer.getElementCount()).isEqualTo(1);
+    assertThat(dragGestureRecognizer.getState()).isEqualTo(POSSIBLE);
+
+    // The other element's gesture is still in progress.
+    dragGestureRecognizer.onTouch(first, createMotionEvent(MotionEvent.ACTION_MOVE, 10, 0));
+    assertThat(dragGestureRecognizer.getState()).isEqualTo(CHANGED);
+    assertThat(dragGestureRecognizer.getTranslationX()).isWithin(E).of(10);
+  }
+
+  @Test
+  public void unchangedMoveIsDropped() {
+    TrackingGestureStateChangeListener listener = new TrackingGestureStateChangeListener();
+    dragGestureRecognizer.addStateChangeListener(listener);
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 10, 0));
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 10, 0));
+
+    assertThat(listener.states.toArray()).isEqualTo(new Integer[]{POSSIBLE, BEGAN, CHANGED});
+
+    // An element that follows the finger keeps the pointer's local position, but not its
+    // untransformed one.
+    element.setTranslationX(10);
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 10, 0));
+
+    assertThat(listener.states.toArray())
+      .isEqualTo(new Integer[]{POSSIBLE, BEGAN, CHANGED, CHANGED});
+    assertThat(dragGestureRecognizer.getTranslationX()).isWithin(E).of(20);
+  }
+
+  @Test
+  public void unchangedMovesStillSlowDownVelocity() {
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 10, 0));
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 20, 0));
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_UP, 20, 0));
+    float velocity = dragGestureRecognizer.getVelocityX();
+
+    eventDownTime = eventTime + 16;
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 10, 0));
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 20, 0));
+    for (int i = 0; i < 10; i++) {
+      dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 20, 0));
+    }
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_UP, 20, 0));
+
+    assertThat(velocity).isGreaterThan(0f);
+    assertThat(dragGestureRecognizer.getVelocityX()).isLessThan(velocity);
+  }
+
   private MotionEvent createMotionEvent(int action, float x, float y) {
     return MotionEvent.obtain(eventDownTime, eventTime += 16, action, x, y, 0);
   }
@@ -269,9 +658,11 @@ public class DragGestureRecognizerTests {
 
     when(event.getX(0)).thenReturn(x0);
     when(event.getY(0)).thenReturn(y0);
+    when(event.getPointerId(0)).thenReturn(0);
 
     when(event.getX(1)).thenReturn(x1);
     when(event.getY(1)).thenReturn(y1);
+    when(event.getPointerId(1)).thenReturn(1);
 
     return event;
   }
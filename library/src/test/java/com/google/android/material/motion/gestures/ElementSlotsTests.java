@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.app.Activity;
+import android.content.Context;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.google.android.material.motion.gestures.ElementSlots.NO_SLOT;
+import static com.google.android.material.motion.gestures.GestureRecognizer.CHANGED;
+import static com.google.android.material.motion.gestures.GestureRecognizer.POSSIBLE;
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class ElementSlotsTests {
+
+  private Context context;
+  private ElementSlots slots;
+
+  @Before
+  public void setUp() {
+    context = Robolectric.setupActivity(Activity.class);
+    slots = new ElementSlots(2);
+  }
+
+  @Test
+  public void unknownElementHasNoSlot() {
+    assertThat(slots.get(new View(context))).isEqualTo(NO_SLOT);
+    assertThat(slots.remove(new View(context))).isEqualTo(NO_SLOT);
+  }
+
+  @Test
+  public void findsManyElements() {
+    View[] elements = new View[500];
+    for (int i = 0; i < elements.length; i++) {
+      elements[i] = new View(context);
+      assertThat(slots.add(elements[i])).isEqualTo(i);
+    }
+
+    assertThat(slots.size()).isEqualTo(500);
+    for (int i = 0; i < elements.length; i++) {
+      assertThat(slots.get(elements[i])).isEqualTo(i);
+    }
+  }
+
+  @Test
+  public void removedSlotsAreReusedCleared() {
+    View[] elements = new View[20];
+    for (int i = 0; i < elements.length; i++) {
+      elements[i] = new View(context);
+      slots.add(elements[i]);
+    }
+    int slot = slots.get(elements[7]);
+    slots.set(slot, CHANGED, true);
+    slots.getData()[slots.getOffset(slot)] = 42f;
+
+    assertThat(slots.remove(elements[7])).isEqualTo(slot);
+    assertThat(slots.get(elements[7])).isEqualTo(NO_SLOT);
+    for (int i = 0; i < elements.length; i++) {
+      if (i != 7) {
+        assertThat(slots.get(elements[i])).isEqualTo(i);
+      }
+    }
+
+    View element = new View(context);
+    assertThat(slots.add(element)).isEqualTo(slot);
+    assertThat(slots.getState(slot)).isEqualTo(POSSIBLE);
+    assertThat(slots.isRejected(slot)).isFalse();
+    assertThat(slots.getData()[slots.getOffset(slot)]).isWithin(0).of(0f);
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.app.Activity;
+import android.content.Context;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.google.android.material.motion.gestures.FlingGestureRecognizer.DIRECTION_RIGHT;
+import static com.google.android.material.motion.gestures.GestureRecognizer.BEGAN;
+import static com.google.android.material.motion.gestures.GestureRecognizer.CANCELLED;
+import static com.google.android.material.motion.gestures.GestureRecognizer.CHANGED;
+import static com.google.android.material.motion.gestures.GestureRecognizer.POSSIBLE;
+import static com.google.android.material.motion.gestures.GestureRecognizer.RECOGNIZED;
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FlingGestureRecognizerTests {
+
+  private static final float E = 0.0001f;
+
+  private View element;
+  private FlingGestureRecognizer flingGestureRecognizer;
+
+  private long eventDownTime;
+  private long eventTime;
+
+  @Before
+  public void setUp() {
+    Context context = Robolectric.setupActivity(Activity.class);
+    element = new View(context);
+    flingGestureRecognizer = new FlingGestureRecognizer();
+    flingGestureRecognizer.dragSlop = 0;
+    flingGestureRecognizer.minimumFlingVelocity = 50;
+
+    eventDownTime = 0;
+    eventTime = -16;
+  }
+
+  @Test
+  public void fastReleaseIsRecognized() {
+    TrackingGestureStateChangeListener listener = new TrackingGestureStateChangeListener();
+    flingGestureRecognizer.addStateChangeListener(listener);
+
+    flingGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    flingGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 100, 10));
+    flingGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 200, 20));
+    flingGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_UP, 300, 30));
+
+    assertThat(listener.states.toArray())
+      .isEqualTo(new Integer[]{POSSIBLE, BEGAN, CHANGED, CHANGED, RECOGNIZED, POSSIBLE});
+    assertThat(flingGestureRecognizer.getDirection()).isEqualTo(DIRECTION_RIGHT);
+    assertThat(flingGestureRecognizer.getProjectedDistanceX()).isGreaterThan(0f);
+  }
+
+  @Test
+  public void slowReleaseIsCancelled() {
+    flingGestureRecognizer.minimumFlingVelocity = Integer.MAX_VALUE;
+    TrackingGestureStateChangeListener listener = new TrackingGestureStateChangeListener();
+    flingGestureRecognizer.addStateChangeListener(listener);
+
+    flingGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    flingGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 10, 0));
+    flingGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_UP, 10, 0));
+
+    assertThat(listener.states.toArray())
+      .isEqualTo(new Integer[]{POSSIBLE, BEGAN, CHANGED, CANCELLED, POSSIBLE});
+  }
+
+  @Test
+  public void projectsGeometricDeceleration() {
+    // 1000 px/s is 1 px/ms, and keeping half of it every millisecond travels 1 px in total.
+    assertThat(FlingGestureRecognizer.project(1000, 0.5f)).isWithin(E).of(1f);
+    assertThat(FlingGestureRecognizer.project(-1000, 0.5f)).isWithin(E).of(-1f);
+    assertThat(FlingGestureRecognizer.project(0, 0.998f)).isWithin(E).of(0f);
+  }
+
+  private MotionEvent createMotionEvent(int action, float x, float y) {
+    return MotionEvent.obtain(eventDownTime, eventTime += 16, action, x, y, 0);
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.google.android.material.motion.gestures.FrameResampler.LATENCY_MILLIS;
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class FrameResamplerTests {
+
+  private static final float E = 0.0001f;
+
+  private FrameResampler resampler;
+  private final float[] out = new float[2];
+
+  @Before
+  public void setUp() {
+    resampler = new FrameResampler(2);
+  }
+
+  @Test
+  public void noSamplesLeavesOutputUnchanged() {
+    out[0] = 42f;
+    assertThat(resampler.resample(100, out)).isFalse();
+    assertThat(out[0]).isWithin(0f).of(42f);
+  }
+
+  @Test
+  public void interpolatesBetweenSamples() {
+    resampler.add(100, new float[]{0f, 100f});
+    resampler.add(110, new float[]{10f, 0f});
+
+    assertThat(resampler.resample(104 + LATENCY_MILLIS, out)).isTrue();
+    assertThat(out[0]).isWithin(E).of(4f);
+    assertThat(out[1]).isWithin(E).of(60f);
+  }
+
+  @Test
+  public void extrapolatesByHalfTheLastInterval() {
+    resampler.add(100, new float[]{0f, 0f});
+    resampler.add(110, new float[]{10f, 0f});
+
+    resampler.resample(200, out);
+    assertThat(out[0]).isWithin(E).of(15f);
+  }
+
+  @Test
+  public void extrapolationIsLimited() {
+    resampler.add(100, new float[]{0f, 0f});
+    resampler.add(120, new float[]{20f, 0f});
+
+    resampler.resample(200, out);
+    assertThat(out[0]).isWithin(E).of(20f + FrameResampler.MAX_PREDICTION_MILLIS);
+  }
+
+  @Test
+  public void distantSamplesAreNotExtrapolated() {
+    resampler.add(100, new float[]{0f, 0f});
+    resampler.add(150, new float[]{50f, 0f});
+
+    resampler.resample(200, out);
+    assertThat(out[0]).isWithin(E).of(50f);
+  }
+
+  @Test
+  public void frameBeforeAllSamplesHoldsTheOldest() {
+    for (int i = 0; i < FrameResampler.HISTORY_SIZE + 2; i++) {
+      resampler.add(100 + i * 10, new float[]{i, 0f});
+    }
+
+    resampler.resample(0, out);
+    assertThat(out[0]).isWithin(E).of(2f);
+  }
+
+  @Test
+  public void sampleAtTheSameTimeReplacesTheNewest() {
+    resampler.add(100, new float[]{0f, 0f});
+    resampler.add(110, new float[]{10f, 0f});
+    resampler.add(110, new float[]{20f, 0f});
+
+    resampler.resample(110 + LATENCY_MILLIS, out);
+    assertThat(out[0]).isWithin(E).of(20f);
+  }
+}
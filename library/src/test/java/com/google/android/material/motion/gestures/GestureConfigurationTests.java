@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.app.Activity;
+import android.content.Context;
+import android.view.View;
+import android.view.ViewConfiguration;
+
+import com.google.android.material.motion.gestures.GestureConfiguration.Builder;
+import com.google.android.material.motion.gestures.GestureConfiguration.Customizer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class GestureConfigurationTests {
+
+  private Context context;
+
+  @Before
+  public void setUp() {
+    context = Robolectric.setupActivity(Activity.class);
+    GestureConfiguration.clearCache();
+  }
+
+  @After
+  public void tearDown() {
+    GestureConfiguration.setCustomizer(null);
+  }
+
+  @Test
+  public void readsViewConfiguration() {
+    GestureConfiguration configuration = GestureConfiguration.get(context);
+    ViewConfiguration viewConfiguration = ViewConfiguration.get(context);
+
+    assertThat(configuration.getTouchSlop()).isEqualTo(viewConfiguration.getScaledTouchSlop());
+    assertThat(configuration.getMaximumFlingVelocity())
+      .isEqualTo(viewConfiguration.getScaledMaximumFlingVelocity());
+    assertThat(configuration.getLongPressTimeout())
+      .isEqualTo(ViewConfiguration.getLongPressTimeout());
+  }
+
+  @Test
+  public void isSharedPerDensity() {
+    assertThat(GestureConfiguration.get(context)).isSameAs(GestureConfiguration.get(context));
+  }
+
+  @Test
+  public void customizerTunesAllGestureRecognizers() {
+    GestureConfiguration.setCustomizer(new Customizer() {
+      @Override
+      public void customize(Context context, Builder builder) {
+        builder.setTouchSlop(42);
+      }
+    });
+
+    DragGestureRecognizer dragGestureRecognizer = new DragGestureRecognizer();
+    dragGestureRecognizer.setElement(new View(context));
+    ScaleGestureRecognizer scaleGestureRecognizer = new ScaleGestureRecognizer();
+    scaleGestureRecognizer.setElement(new View(context));
+
+    assertThat(dragGestureRecognizer.dragSlop).isEqualTo(42);
+    assertThat(scaleGestureRecognizer.scaleSlop).isEqualTo(42);
+  }
+
+  @Test
+  public void injectedConfigurationWins() {
+    GestureConfiguration configuration =
+      GestureConfiguration.get(context).buildUpon().setTouchSlop(7).build();
+    DragGestureRecognizer dragGestureRecognizer = new DragGestureRecognizer();
+    dragGestureRecognizer.setConfiguration(configuration);
+    dragGestureRecognizer.setElement(new View(context));
+
+    assertThat(dragGestureRecognizer.getConfiguration()).isSameAs(configuration);
+    assertThat(dragGestureRecognizer.dragSlop).isEqualTo(7);
+  }
+
+  @Test
+  public void velocityStrategyDefaultsToPlatform() {
+    GestureConfiguration configuration = GestureConfiguration.get(context);
+    assertThat(configuration.getVelocityStrategy())
+      .isEqualTo(GestureConfiguration.VELOCITY_STRATEGY_PLATFORM);
+
+    GestureConfiguration kalman = configuration.buildUpon()
+      .setVelocityStrategy(GestureConfiguration.VELOCITY_STRATEGY_KALMAN)
+      .build();
+    assertThat(kalman.buildUpon().build().getVelocityStrategy())
+      .isEqualTo(GestureConfiguration.VELOCITY_STRATEGY_KALMAN);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unknownVelocityStrategyCrashes() {
+    new Builder(context).setVelocityStrategy(42);
+  }
+}
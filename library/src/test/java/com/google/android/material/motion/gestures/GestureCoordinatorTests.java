@@ -0,0 +1,124 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.app.Activity;
+import android.content.Context;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.google.android.material.motion.gestures.GestureRecognizer.BEGAN;
+import static com.google.android.material.motion.gestures.GestureRecognizer.CHANGED;
+import static com.google.android.material.motion.gestures.GestureRecognizer.POSSIBLE;
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class GestureCoordinatorTests {
+
+  private View element;
+  private GestureCoordinator coordinator;
+  private DragGestureRecognizer dragGestureRecognizer;
+  private ScaleGestureRecognizer scaleGestureRecognizer;
+
+  private long eventDownTime;
+  private long eventTime;
+
+  @Before
+  public void setUp() {
+    Context context = Robolectric.setupActivity(Activity.class);
+    element = new View(context);
+    coordinator = new GestureCoordinator();
+    dragGestureRecognizer = new DragGestureRecognizer();
+    dragGestureRecognizer.dragSlop = 24;
+    scaleGestureRecognizer = new ScaleGestureRecognizer();
+    scaleGestureRecognizer.scaleSlop = 24;
+
+    eventDownTime = 0;
+    eventTime = -16;
+  }
+
+  @Test
+  public void exclusiveWinnerRejectsOthers() {
+    coordinator.exclusive(dragGestureRecognizer, scaleGestureRecognizer);
+    TrackingGestureStateChangeListener listener = new TrackingGestureStateChangeListener();
+    scaleGestureRecognizer.addStateChangeListener(listener);
+
+    coordinator.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    coordinator.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 100, 0));
+
+    assertThat(dragGestureRecognizer.getState()).isEqualTo(CHANGED);
+    assertThat(scaleGestureRecognizer.isRejected()).isTrue();
+    assertThat(listener.states.toArray()).isEqualTo(new Integer[]{POSSIBLE});
+
+    // The next touch stream starts fresh.
+    coordinator.onTouch(element, createMotionEvent(MotionEvent.ACTION_UP, 100, 0));
+    coordinator.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    assertThat(scaleGestureRecognizer.isRejected()).isFalse();
+  }
+
+  @Test
+  public void waitsForRequiredGestureRecognizerToFail() {
+    coordinator.requireToFail(dragGestureRecognizer, scaleGestureRecognizer);
+
+    coordinator.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    coordinator.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 100, 0));
+    assertThat(dragGestureRecognizer.getState()).isEqualTo(POSSIBLE);
+
+    scaleGestureRecognizer.reject();
+    coordinator.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 200, 0));
+    assertThat(dragGestureRecognizer.getState()).isEqualTo(CHANGED);
+  }
+
+  @Test
+  public void requiredGestureRecognizerBeginningRejectsWaiter() {
+    dragGestureRecognizer.dragSlop = 0;
+    coordinator.requireToFail(scaleGestureRecognizer, dragGestureRecognizer);
+
+    coordinator.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+
+    assertThat(dragGestureRecognizer.getState()).isEqualTo(BEGAN);
+    assertThat(scaleGestureRecognizer.isRejected()).isTrue();
+  }
+
+  @Test
+  public void removedGestureRecognizerIsNotCoordinated() {
+    coordinator.exclusive(dragGestureRecognizer, scaleGestureRecognizer);
+    coordinator.removeGestureRecognizer(scaleGestureRecognizer);
+
+    coordinator.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    coordinator.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 100, 0));
+
+    assertThat(scaleGestureRecognizer.isRejected()).isFalse();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void cannotAddToTwoCoordinators() {
+    coordinator.addGestureRecognizer(dragGestureRecognizer);
+    new GestureCoordinator().addGestureRecognizer(dragGestureRecognizer);
+  }
+
+  private MotionEvent createMotionEvent(int action, float x, float y) {
+    return MotionEvent.obtain(eventDownTime, eventTime += 16, action, x, y, 0);
+  }
+}
@@ -0,0 +1,450 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.app.Activity;
+import android.content.Context;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import com.google.android.material.motion.gestures.GestureRecognizer.GestureStateChangeListener;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.Random;
+
+import static com.google.android.material.motion.gestures.GestureRecognizer.BEGAN;
+import static com.google.android.material.motion.gestures.GestureRecognizer.CANCELLED;
+import static com.google.android.material.motion.gestures.GestureRecognizer.CHANGED;
+import static com.google.android.material.motion.gestures.GestureRecognizer.POSSIBLE;
+import static com.google.android.material.motion.gestures.GestureRecognizer.RECOGNIZED;
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Drives every gesture recognizer with random but valid multi-touch sequences on randomly
+ * transformed elements, and checks invariants that must hold for any input. The transforms come
+ * from each of the paths a gesture recognizer reads them from: a captured transform, the
+ * element's view properties, and the views up to a coordinate space ancestor.
+ * <p>
+ * The number of sequences and the seed can be raised for a longer run, e.g. {@code
+ * -Dgestures.fuzz.sequences=1000000 -Dgestures.fuzz.seed=7}. Throughput is only measured with
+ * {@code -Dgestures.benchmark=true}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class GestureFuzzTests {
+
+  private static final int SEQUENCES = Integer.getInteger("gestures.fuzz.sequences", 200);
+  private static final long SEED = Long.getLong("gestures.fuzz.seed", 42);
+
+  private static final int MAX_POINTERS = 5;
+  private static final int MAX_STEPS = 60;
+  private static final int MAX_HISTORY = 4;
+  /* Longer than every timeout, so timers of one sequence never fire in the next. */
+  private static final int IDLE_MILLIS = 1000;
+
+  /* Where the random transforms of a run are applied. */
+  private static final int TRANSFORM_CAPTURED = 0;
+  private static final int TRANSFORM_VIEW = 1;
+  private static final int TRANSFORM_ANCESTOR = 2;
+
+  private FrameLayout ancestor;
+  private FrameLayout parent;
+  private View element;
+  private GestureRecognizer[] gestureRecognizers;
+  private InvariantListener[] listeners;
+  private float maximumVelocity;
+
+  private int transformSource;
+  private Random random;
+  private final int[] ids = new int[MAX_POINTERS];
+  private final float[] xs = new float[MAX_POINTERS];
+  private final float[] ys = new float[MAX_POINTERS];
+  private int pointerCount;
+  private long downTime;
+  private long eventTime;
+  private int events;
+
+  @Before
+  public void setUp() {
+    Context context = Robolectric.setupActivity(Activity.class);
+    ancestor = new FrameLayout(context);
+    parent = new FrameLayout(context);
+    element = new View(context);
+    ancestor.addView(parent);
+    parent.addView(element);
+    ancestor.layout(0, 0, 1000, 1000);
+    parent.layout(0, 0, 1000, 1000);
+    element.layout(0, 0, 500, 500);
+
+    DragGestureRecognizer drag = new DragGestureRecognizer();
+    DragGestureRecognizer horizontalEdgeDrag = new DragGestureRecognizer();
+    horizontalEdgeDrag.axis = DragGestureRecognizer.AXIS_HORIZONTAL;
+    horizontalEdgeDrag.edges = DragGestureRecognizer.EDGE_LEFT | DragGestureRecognizer.EDGE_TOP;
+    gestureRecognizers = new GestureRecognizer[]{
+      drag,
+      horizontalEdgeDrag,
+      new FlingGestureRecognizer(),
+      new ScaleGestureRecognizer(),
+      new RotateGestureRecognizer(),
+      new TapGestureRecognizer(),
+      new DoubleTapGestureRecognizer(),
+      new LongPressGestureRecognizer(),
+    };
+
+    listeners = new InvariantListener[gestureRecognizers.length];
+    for (int i = 0; i < gestureRecognizers.length; i++) {
+      gestureRecognizers[i].setElement(element);
+      listeners[i] = new InvariantListener(gestureRecognizers[i] instanceof TapGestureRecognizer);
+      gestureRecognizers[i].addStateChangeListener(listeners[i]);
+    }
+    maximumVelocity = gestureRecognizers[0].getConfiguration().getMaximumFlingVelocity();
+  }
+
+  @Test
+  public void randomSequencesKeepInvariants() {
+    runSequences(TRANSFORM_CAPTURED);
+  }
+
+  @Test
+  public void randomSequencesKeepInvariantsOnTransformedViews() {
+    runSequences(TRANSFORM_VIEW);
+  }
+
+  @Test
+  public void randomSequencesKeepInvariantsInAncestorSpace() {
+    for (GestureRecognizer gestureRecognizer : gestureRecognizers) {
+      gestureRecognizer.setCoordinateSpace(ancestor);
+    }
+    runSequences(TRANSFORM_ANCESTOR);
+  }
+
+  /**
+   * Measures the throughput of the fuzzed sequences. Only runs with {@code
+   * -Dgestures.benchmark=true}.
+   */
+  @Test
+  public void benchmark() {
+    Assume.assumeTrue(Boolean.getBoolean("gestures.benchmark"));
+    long start = System.nanoTime();
+    runSequences(TRANSFORM_CAPTURED);
+    long elapsedNanos = System.nanoTime() - start;
+
+    System.out.printf(
+      "Gesture fuzzing: %d sequences, %d events, %d recognizers in %d ms (%.0f events/s)%n",
+      SEQUENCES, events, gestureRecognizers.length, elapsedNanos / 1000000,
+      events * 1e9 / Math.max(1, elapsedNanos));
+  }
+
+  private void runSequences(int transformSource) {
+    this.transformSource = transformSource;
+    for (int sequence = 0; sequence < SEQUENCES; sequence++) {
+      random = new Random(SEED * 31 + sequence);
+      try {
+        runSequence();
+      } catch (AssertionError e) {
+        throw new AssertionError("Sequence " + sequence + " of seed " + SEED + " failed.", e);
+      }
+    }
+  }
+
+  private void runSequence() {
+    setRandomTransform();
+    pointerCount = 0;
+
+    addPointer();
+    dispatch(MotionEvent.ACTION_DOWN, 0, 0);
+
+    boolean cancelled = false;
+    for (int step = random.nextInt(MAX_STEPS); step > 0 && !cancelled; step--) {
+      int choice = random.nextInt(100);
+      if (choice < 2) {
+        cancelled = true;
+        dispatch(MotionEvent.ACTION_CANCEL, 0, 0);
+      } else if (choice < 10 && pointerCount < MAX_POINTERS) {
+        dispatch(MotionEvent.ACTION_POINTER_DOWN, addPointer(), 0);
+      } else if (choice < 17 && pointerCount > 1) {
+        int index = random.nextInt(pointerCount);
+        dispatch(MotionEvent.ACTION_POINTER_UP, index, 0);
+        removePointer(index);
+      } else {
+        if (choice < 19) {
+          // The element moves under the fingers.
+          setRandomTransform();
+        }
+        movePointers();
+        dispatch(MotionEvent.ACTION_MOVE, 0, random.nextInt(MAX_HISTORY + 1));
+      }
+    }
+
+    if (!cancelled) {
+      while (pointerCount > 1) {
+        int index = random.nextInt(pointerCount);
+        dispatch(MotionEvent.ACTION_POINTER_UP, index, 0);
+        removePointer(index);
+      }
+      dispatch(MotionEvent.ACTION_UP, 0, 0);
+    }
+
+    ShadowLooper.idleMainLooper(IDLE_MILLIS);
+    for (int i = 0; i < gestureRecognizers.length; i++) {
+      assertThat(gestureRecognizers[i].getState()).isEqualTo(POSSIBLE);
+      listeners[i].assertBalanced();
+    }
+  }
+
+  private void dispatch(int action, int actionIndex, int historySize) {
+    long dt = 1 + random.nextInt(random.nextInt(10) == 0 ? 600 : 20);
+    eventTime += dt;
+    if (action == MotionEvent.ACTION_DOWN) {
+      downTime = eventTime;
+    }
+    // Fire the timers that are due before the event.
+    ShadowLooper.idleMainLooper(dt);
+
+    MotionEvent event = createMotionEvent(action, actionIndex, historySize);
+    for (GestureRecognizer gestureRecognizer : gestureRecognizers) {
+      gestureRecognizer.onTouch(element, event);
+      assertFinite(gestureRecognizer.getUntransformedCentroidX());
+      assertFinite(gestureRecognizer.getUntransformedCentroidY());
+      assertFinite(gestureRecognizer.getCentroidX());
+      assertFinite(gestureRecognizer.getCentroidY());
+    }
+    events++;
+  }
+
+  /**
+   * Adds a pointer with the lowest free id at a random position. Returns its index, which keeps
+   * the pointers ordered by id like the framework does.
+   */
+  private int addPointer() {
+    int id = 0;
+    int index = 0;
+    while (index < pointerCount && ids[index] == id) {
+      id++;
+      index++;
+    }
+    for (int i = pointerCount; i > index; i--) {
+      ids[i] = ids[i - 1];
+      xs[i] = xs[i - 1];
+      ys[i] = ys[i - 1];
+    }
+    ids[index] = id;
+    if (pointerCount > 0 && random.nextInt(10) == 0) {
+      // Right on top of another pointer, for a zero span and angle.
+      xs[index] = xs[(index + 1) % (pointerCount + 1)];
+      ys[index] = ys[(index + 1) % (pointerCount + 1)];
+    } else {
+      xs[index] = random.nextFloat() * 500;
+      ys[index] = random.nextFloat() * 500;
+    }
+    pointerCount++;
+    return index;
+  }
+
+  private void removePointer(int index) {
+    for (int i = index; i < pointerCount - 1; i++) {
+      ids[i] = ids[i + 1];
+      xs[i] = xs[i + 1];
+      ys[i] = ys[i + 1];
+    }
+    pointerCount--;
+  }
+
+  private void movePointers() {
+    float range = random.nextInt(20) == 0 ? 500 : 10;
+    for (int i = 0; i < pointerCount; i++) {
+      if (random.nextInt(4) != 0) {
+        xs[i] += (random.nextFloat() - 0.5f) * range;
+        ys[i] += (random.nextFloat() - 0.5f) * range;
+      }
+    }
+  }
+
+  private void setRandomTransform() {
+    float[] transform = createRandomTransform();
+    switch (transformSource) {
+      case TRANSFORM_CAPTURED:
+        for (GestureRecognizer gestureRecognizer : gestureRecognizers) {
+          gestureRecognizer.setCapturedTransform(transform, 0);
+        }
+        break;
+      case TRANSFORM_VIEW:
+        applyTransform(element, transform);
+        break;
+      case TRANSFORM_ANCESTOR:
+        applyTransform(element, transform);
+        applyTransform(parent, createRandomTransform());
+        if (random.nextBoolean()) {
+          int left = random.nextInt(200);
+          int top = random.nextInt(200);
+          parent.layout(left, top, left + 1000, top + 1000);
+          parent.scrollTo(random.nextInt(200) - 100, random.nextInt(200) - 100);
+        }
+        break;
+      default:
+        throw new AssertionError("Unknown transform source " + transformSource);
+    }
+  }
+
+  /**
+   * Returns random {@link GestureRecognizer#TRANSFORM_SIZE transform properties}, a third of them
+   * the identity.
+   */
+  private float[] createRandomTransform() {
+    if (random.nextInt(3) == 0) {
+      return new float[]{1, 1, 0, 0, 0, 0, 0};
+    }
+    return new float[]{
+      0.25f + random.nextFloat() * 4,
+      0.25f + random.nextFloat() * 4,
+      random.nextFloat() * 500,
+      random.nextFloat() * 500,
+      random.nextFloat() * 720 - 360,
+      random.nextFloat() * 1000 - 500,
+      random.nextFloat() * 1000 - 500};
+  }
+
+  private static void applyTransform(View view, float[] transform) {
+    view.setScaleX(transform[0]);
+    view.setScaleY(transform[1]);
+    view.setPivotX(transform[2]);
+    view.setPivotY(transform[3]);
+    view.setRotation(transform[4]);
+    view.setTranslationX(transform[5]);
+    view.setTranslationY(transform[6]);
+  }
+
+  private MotionEvent createMotionEvent(int action, int actionIndex, int historySize) {
+    MotionEvent event = mock(MotionEvent.class, withSettings().stubOnly());
+
+    when(event.getDownTime()).thenReturn(downTime);
+    when(event.getEventTime()).thenReturn(eventTime);
+    when(event.getAction())
+      .thenReturn(action | (actionIndex << MotionEvent.ACTION_POINTER_INDEX_SHIFT));
+    when(event.getActionMasked()).thenReturn(action);
+    when(event.getActionIndex()).thenReturn(actionIndex);
+
+    when(event.getPointerCount()).thenReturn(pointerCount);
+    when(event.getX()).thenReturn(xs[0]);
+    when(event.getY()).thenReturn(ys[0]);
+    for (int i = 0; i < pointerCount; i++) {
+      when(event.getPointerId(i)).thenReturn(ids[i]);
+      when(event.getX(i)).thenReturn(xs[i]);
+      when(event.getY(i)).thenReturn(ys[i]);
+    }
+
+    // Batched samples along the way from a bit earlier.
+    when(event.getHistorySize()).thenReturn(historySize);
+    for (int h = 0; h < historySize; h++) {
+      float fraction = (h + 1f) / (historySize + 1);
+      when(event.getHistoricalEventTime(h))
+        .thenReturn(eventTime - (long) ((1 - fraction) * 8));
+      for (int i = 0; i < pointerCount; i++) {
+        when(event.getHistoricalX(i, h)).thenReturn(xs[i] - (1 - fraction));
+        when(event.getHistoricalY(i, h)).thenReturn(ys[i] - (1 - fraction));
+      }
+    }
+    return event;
+  }
+
+  private static void assertFinite(float value) {
+    assertTrue("Not finite: " + value, !Float.isNaN(value) && !Float.isInfinite(value));
+  }
+
+  /**
+   * Checks every state change: transitions, finite values and bounded velocities.
+   */
+  private class InvariantListener implements GestureStateChangeListener {
+
+    private final boolean discrete;
+    private final GestureSnapshot snapshot = new GestureSnapshot();
+    private int lastState = POSSIBLE;
+    private int began;
+    private int ended;
+
+    InvariantListener(boolean discrete) {
+      this.discrete = discrete;
+    }
+
+    @Override
+    public void onStateChanged(GestureRecognizer gestureRecognizer) {
+      int state = gestureRecognizer.getState();
+      switch (state) {
+        case POSSIBLE:
+          assertTransition(state, lastState == RECOGNIZED || lastState == CANCELLED);
+          break;
+        case BEGAN:
+          assertTransition(state, lastState == POSSIBLE);
+          began++;
+          break;
+        case CHANGED:
+          assertTransition(state, lastState == BEGAN || lastState == CHANGED);
+          break;
+        case RECOGNIZED:
+          if (discrete && lastState == POSSIBLE) {
+            break;
+          }
+          // Fall through.
+        case CANCELLED:
+          assertTransition(state, lastState == BEGAN || lastState == CHANGED);
+          ended++;
+          break;
+        default:
+          throw new AssertionError("Unknown state " + state);
+      }
+      lastState = state;
+
+      gestureRecognizer.getSnapshot(snapshot);
+      assertThat(snapshot.state).isEqualTo(state);
+      assertFinite(snapshot.centroidX);
+      assertFinite(snapshot.centroidY);
+      assertFinite(snapshot.translationX);
+      assertFinite(snapshot.translationY);
+      assertFinite(snapshot.scale);
+      assertFinite(snapshot.rotation);
+      assertBounded(snapshot.velocityX);
+      assertBounded(snapshot.velocityY);
+      assertBounded(snapshot.scaleVelocity);
+      assertBounded(snapshot.rotationVelocity);
+    }
+
+    private void assertTransition(int state, boolean valid) {
+      assertTrue("Invalid transition from " + lastState + " to " + state, valid);
+    }
+
+    void assertBalanced() {
+      assertThat(ended).isEqualTo(began);
+    }
+
+    private void assertBounded(float velocity) {
+      assertFinite(velocity);
+      assertThat(Math.abs(velocity)).isAtMost(maximumVelocity + 0.01f);
+    }
+  }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.app.Activity;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static com.google.android.material.motion.gestures.GestureRecognizer.BEGAN;
+import static com.google.android.material.motion.gestures.GestureRecognizer.POSSIBLE;
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class GestureRecognizerPoolTests {
+
+  private View element;
+  private GestureRecognizerPool pool;
+
+  @Before
+  public void setUp() {
+    element = new View(Robolectric.setupActivity(Activity.class));
+    pool = new GestureRecognizerPool(2);
+  }
+
+  @Test
+  public void releasedGestureRecognizerIsReused() {
+    DragGestureRecognizer dragGestureRecognizer = pool.acquire(DragGestureRecognizer.class);
+    pool.release(dragGestureRecognizer);
+
+    assertThat(pool.getPoolSize(DragGestureRecognizer.class)).isEqualTo(1);
+    assertThat(pool.getPoolSize(ScaleGestureRecognizer.class)).isEqualTo(0);
+    assertThat(pool.acquire(DragGestureRecognizer.class)).isSameAs(dragGestureRecognizer);
+    assertThat(pool.getPoolSize(DragGestureRecognizer.class)).isEqualTo(0);
+  }
+
+  @Test
+  public void releasedGestureRecognizerIsClean() {
+    DragGestureRecognizer dragGestureRecognizer = pool.acquire(DragGestureRecognizer.class);
+    dragGestureRecognizer.dragSlop = 0;
+    TrackingGestureStateChangeListener listener = new TrackingGestureStateChangeListener();
+    dragGestureRecognizer.addStateChangeListener(listener);
+    dragGestureRecognizer.onTouch(element, MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 0, 0, 0));
+    dragGestureRecognizer.onTouch(element, MotionEvent.obtain(0, 16, MotionEvent.ACTION_MOVE, 100, 0, 0));
+
+    pool.release(dragGestureRecognizer);
+    int listenerStates = listener.states.size();
+
+    assertThat(dragGestureRecognizer.getState()).isEqualTo(POSSIBLE);
+    assertThat(dragGestureRecognizer.getElement()).isNull();
+    assertThat(dragGestureRecognizer.getTranslationX()).isWithin(0).of(0f);
+
+    dragGestureRecognizer.onTouch(element, MotionEvent.obtain(0, 32, MotionEvent.ACTION_DOWN, 0, 0, 0));
+    assertThat(listener.states.size()).isEqualTo(listenerStates);
+  }
+
+  @Test
+  public void releaseDropsTrackedElements() {
+    DragGestureRecognizer dragGestureRecognizer = pool.acquire(DragGestureRecognizer.class);
+    dragGestureRecognizer.setMultiElementEnabled(true);
+    View other = new View(element.getContext());
+    dragGestureRecognizer.onTouch(element, MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 0, 0, 0));
+    dragGestureRecognizer.onTouch(other, MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 0, 0, 0));
+
+    pool.release(dragGestureRecognizer);
+
+    assertThat(dragGestureRecognizer.isMultiElementEnabled()).isFalse();
+    assertThat(pool.acquire(DragGestureRecognizer.class)).isSameAs(dragGestureRecognizer);
+  }
+
+  @Test
+  public void releaseRestoresDefaults() {
+    DragGestureRecognizer dragGestureRecognizer = pool.acquire(DragGestureRecognizer.class);
+    dragGestureRecognizer.axis = DragGestureRecognizer.AXIS_HORIZONTAL;
+    dragGestureRecognizer.edges = DragGestureRecognizer.EDGE_LEFT;
+    dragGestureRecognizer.edgeSize = 1;
+    dragGestureRecognizer.setNoiseFilterEnabled(true);
+    dragGestureRecognizer.setFrameResamplingEnabled(true);
+    dragGestureRecognizer.setMomentumEnabled(true);
+    dragGestureRecognizer.setMomentumBounds(0f, 0f, 0f, 0f);
+
+    pool.release(dragGestureRecognizer);
+
+    assertThat(pool.acquire(DragGestureRecognizer.class)).isSameAs(dragGestureRecognizer);
+    assertThat(dragGestureRecognizer.axis).isEqualTo(DragGestureRecognizer.AXIS_ANY);
+    assertThat(dragGestureRecognizer.edges).isEqualTo(DragGestureRecognizer.EDGE_NONE);
+    assertThat(dragGestureRecognizer.isNoiseFilterEnabled()).isFalse();
+    assertThat(dragGestureRecognizer.isFrameResamplingEnabled()).isFalse();
+    assertThat(dragGestureRecognizer.isMomentumEnabled()).isFalse();
+
+    // Slops are read from the configuration of the next element.
+    dragGestureRecognizer.onTouch(
+      element, MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 0, 0, 0));
+    assertThat(dragGestureRecognizer.edgeSize)
+      .isEqualTo(dragGestureRecognizer.getConfiguration().getEdgeSize());
+  }
+
+  @Test
+  public void doubleTapKeepsItsTapCountThroughThePool() {
+    DoubleTapGestureRecognizer doubleTapGestureRecognizer =
+      pool.acquire(DoubleTapGestureRecognizer.class);
+    pool.release(doubleTapGestureRecognizer);
+
+    assertThat(doubleTapGestureRecognizer.numberOfTapsRequired).isEqualTo(2);
+  }
+
+  @Test
+  public void releaseDropsCoordinateSpace() {
+    FrameLayout ancestor = new FrameLayout(element.getContext());
+    View child = new View(element.getContext());
+    ancestor.addView(child);
+    DragGestureRecognizer dragGestureRecognizer = pool.acquire(DragGestureRecognizer.class);
+    dragGestureRecognizer.setCoordinateSpace(ancestor);
+    dragGestureRecognizer.onTouch(
+      child, MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 0, 0, 0));
+
+    pool.release(dragGestureRecognizer);
+    assertThat(dragGestureRecognizer.getCoordinateSpace()).isNull();
+
+    // The next element is not under the previous ancestor.
+    assertThat(pool.acquire(DragGestureRecognizer.class)).isSameAs(dragGestureRecognizer);
+    dragGestureRecognizer.onTouch(
+      element, MotionEvent.obtain(16, 16, MotionEvent.ACTION_DOWN, 5, 5, 0));
+    assertThat(dragGestureRecognizer.getUntransformedCentroidX()).isWithin(0).of(5f);
+  }
+
+  @Test
+  public void releaseDropsMomentumListeners() {
+    DragGestureRecognizer dragGestureRecognizer = pool.acquire(DragGestureRecognizer.class);
+    dragGestureRecognizer.dragSlop = 0;
+    dragGestureRecognizer.setMomentumEnabled(true);
+    final int[] calls = new int[1];
+    dragGestureRecognizer.addMomentumListener(new GestureRecognizer.MomentumListener() {
+      @Override
+      public void onMomentumUpdate(GestureRecognizer gestureRecognizer) {
+        calls[0]++;
+      }
+
+      @Override
+      public void onMomentumEnd(GestureRecognizer gestureRecognizer) {
+        calls[0]++;
+      }
+    });
+    int callsAtRelease;
+
+    ShadowLooper.pauseMainLooper();
+    try {
+      fling(dragGestureRecognizer, 0);
+      assertThat(dragGestureRecognizer.isMomentumInProgress()).isTrue();
+
+      pool.release(dragGestureRecognizer);
+      assertThat(dragGestureRecognizer.isMomentumInProgress()).isFalse();
+      callsAtRelease = calls[0];
+
+      // The next owner's momentum must not reach the previous owner's listener.
+      assertThat(pool.acquire(DragGestureRecognizer.class)).isSameAs(dragGestureRecognizer);
+      dragGestureRecognizer.setMomentumEnabled(true);
+      fling(dragGestureRecognizer, 1000);
+      assertThat(dragGestureRecognizer.isMomentumInProgress()).isTrue();
+    } finally {
+      ShadowLooper.unPauseMainLooper();
+    }
+    ShadowLooper.idleMainLooper(10000);
+
+    assertThat(calls[0]).isEqualTo(callsAtRelease);
+  }
+
+  @Test
+  public void poolSizeIsBounded() {
+    pool.release(new RotateGestureRecognizer());
+    pool.release(new RotateGestureRecognizer());
+    pool.release(new RotateGestureRecognizer());
+
+    assertThat(pool.getPoolSize(RotateGestureRecognizer.class)).isEqualTo(2);
+  }
+
+  @Test
+  public void prewarmPoolsCleanGestureRecognizers() {
+    pool.prewarm(element.getContext());
+
+    assertThat(pool.getPoolSize(DragGestureRecognizer.class)).isEqualTo(1);
+    assertThat(pool.getPoolSize(ScaleGestureRecognizer.class)).isEqualTo(1);
+    assertThat(pool.getPoolSize(RotateGestureRecognizer.class)).isEqualTo(1);
+    assertThat(pool.getPoolSize(LongPressGestureRecognizer.class)).isEqualTo(1);
+
+    DragGestureRecognizer dragGestureRecognizer = pool.acquire(DragGestureRecognizer.class);
+    TrackingGestureStateChangeListener listener = new TrackingGestureStateChangeListener();
+    dragGestureRecognizer.addStateChangeListener(listener);
+    assertThat(dragGestureRecognizer.getState()).isEqualTo(POSSIBLE);
+    assertThat(dragGestureRecognizer.getElement()).isNull();
+
+    dragGestureRecognizer.onTouch(element, MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 0, 0, 0));
+    dragGestureRecognizer.onTouch(element, MotionEvent.obtain(0, 16, MotionEvent.ACTION_MOVE, 100, 0, 0));
+    assertThat(dragGestureRecognizer.getState()).isEqualTo(BEGAN);
+    assertThat(dragGestureRecognizer.getTranslationX())
+      .isWithin(0).of(100f - dragGestureRecognizer.dragSlop);
+    assertThat(listener.states.toArray()).isEqualTo(new Integer[]{POSSIBLE, BEGAN});
+  }
+
+  private void fling(GestureRecognizer gestureRecognizer, long downTime) {
+    gestureRecognizer.onTouch(
+      element, MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_DOWN, 0, 0, 0));
+    for (int i = 1; i <= 10; i++) {
+      gestureRecognizer.onTouch(
+        element,
+        MotionEvent.obtain(downTime, downTime + i * 16, MotionEvent.ACTION_MOVE, i * 10, 0, 0));
+    }
+    gestureRecognizer.onTouch(
+      element, MotionEvent.obtain(downTime, downTime + 176, MotionEvent.ACTION_UP, 100, 0, 0));
+  }
+}
@@ -16,6 +16,10 @@
 package com.google.android.material.motion.gestures;
 
 import android.app.Activity;
+import android.graphics.PointF;
+import android.view.MotionEvent;
+import android.view.MotionEvent.PointerCoords;
+import android.view.MotionEvent.PointerProperties;
 import android.view.View;
 
 import com.google.android.material.motion.gestures.testing.SimulatedGestureRecognizer;
@@ -28,6 +32,7 @@ import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
 import static com.google.android.material.motion.gestures.GestureRecognizer.BEGAN;
+import static com.google.android.material.motion.gestures.SplitTouchListener.ALL_POINTER_IDS;
 import static com.google.android.material.motion.gestures.GestureRecognizer.CHANGED;
 import static com.google.android.material.motion.gestures.GestureRecognizer.POSSIBLE;
 import static com.google.common.truth.Truth.assertThat;
@@ -36,11 +41,15 @@ import static com.google.common.truth.Truth.assertThat;
 @Config(constants = BuildConfig.class, sdk = 21)
 public class GestureRecognizerTests {
 
+  private static final float E = 0.0001f;
+
+  private View element;
   private SimulatedGestureRecognizer gestureRecognizer;
+  private long eventTime;
 
   @Before
   public void setUp() {
-    View element = new View(Robolectric.setupActivity(Activity.class));
+    element = new View(Robolectric.setupActivity(Activity.class));
     gestureRecognizer = new SimulatedGestureRecognizer(element);
   }
 
@@ -77,4 +86,115 @@ public class GestureRecognizerTests {
   public void canSetNullElement() {
     gestureRecognizer.setElement(null);
   }
+
+  @Test
+  public void untransformedElementUsesRawCoordinates() {
+    DragGestureRecognizer dragGestureRecognizer = new DragGestureRecognizer();
+
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 10, 20));
+
+    assertThat(dragGestureRecognizer.getUntransformedCentroidX()).isWithin(0).of(10f);
+    assertThat(dragGestureRecognizer.getUntransformedCentroidY()).isWithin(0).of(20f);
+    assertThat(dragGestureRecognizer.getCentroidX()).isWithin(0).of(10f);
+    assertThat(dragGestureRecognizer.getCentroidY()).isWithin(0).of(20f);
+  }
+
+  @Test
+  public void transformIsRebuiltWhenPropertiesChange() {
+    DragGestureRecognizer dragGestureRecognizer = new DragGestureRecognizer();
+    dragGestureRecognizer.dragSlop = 0;
+    float[] transform = new float[]{2, 2, 0, 0, 0, 100, 0};
+
+    dragGestureRecognizer.setCapturedTransform(transform, 0);
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 10, 20));
+    assertThat(dragGestureRecognizer.getUntransformedCentroidX()).isWithin(E).of(120f);
+    assertThat(dragGestureRecognizer.getUntransformedCentroidY()).isWithin(E).of(40f);
+    assertThat(dragGestureRecognizer.getCentroidX()).isWithin(E).of(10f);
+    assertThat(dragGestureRecognizer.getCentroidY()).isWithin(E).of(20f);
+
+    transform[0] = 1;
+    transform[1] = 1;
+    transform[5] = 0;
+    dragGestureRecognizer.setCapturedTransform(transform, 0);
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 10, 20));
+    assertThat(dragGestureRecognizer.getUntransformedCentroidX()).isWithin(E).of(10f);
+    assertThat(dragGestureRecognizer.getCentroidX()).isWithin(E).of(10f);
+    assertThat(dragGestureRecognizer.getCentroidY()).isWithin(E).of(20f);
+  }
+
+  @Test
+  public void noiseFilterSmoothsPointerPositions() {
+    DragGestureRecognizer dragGestureRecognizer = new DragGestureRecognizer();
+    dragGestureRecognizer.setNoiseFilterEnabled(true);
+
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 10, 20));
+    assertThat(dragGestureRecognizer.getUntransformedCentroidX()).isWithin(0).of(10f);
+
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 12, 20));
+    assertThat(dragGestureRecognizer.getUntransformedCentroidX()).isGreaterThan(10f);
+    assertThat(dragGestureRecognizer.getUntransformedCentroidX()).isLessThan(12f);
+    assertThat(dragGestureRecognizer.getUntransformedCentroidY()).isWithin(0).of(20f);
+  }
+
+  @Test
+  public void calculatedCentroidOnlyIncludesGivenPointers() {
+    CentroidGestureRecognizer centroidGestureRecognizer = new CentroidGestureRecognizer();
+    int secondPointerOnly = 1 << 1;
+
+    centroidGestureRecognizer.onTouch(
+      element, createTwoPointerEvent(MotionEvent.ACTION_MOVE, 0, 0, 100, 50), secondPointerOnly);
+    assertThat(centroidGestureRecognizer.centroidX).isWithin(E).of(100f);
+    assertThat(centroidGestureRecognizer.centroidY).isWithin(E).of(50f);
+
+    centroidGestureRecognizer.onTouch(
+      element, createTwoPointerEvent(MotionEvent.ACTION_MOVE, 0, 0, 120, 50), ALL_POINTER_IDS);
+    assertThat(centroidGestureRecognizer.centroidX).isWithin(E).of(60f);
+    assertThat(centroidGestureRecognizer.centroidY).isWithin(E).of(25f);
+  }
+
+  private MotionEvent createMotionEvent(int action, float x, float y) {
+    return MotionEvent.obtain(0, eventTime += 16, action, x, y, 0);
+  }
+
+  private MotionEvent createTwoPointerEvent(int action, float x0, float y0, float x1, float y1) {
+    PointerProperties[] properties = {new PointerProperties(), new PointerProperties()};
+    PointerCoords[] coords = {new PointerCoords(), new PointerCoords()};
+    for (int i = 0; i < properties.length; i++) {
+      properties[i].id = i;
+      properties[i].toolType = MotionEvent.TOOL_TYPE_FINGER;
+    }
+    coords[0].x = x0;
+    coords[0].y = y0;
+    coords[1].x = x1;
+    coords[1].y = y1;
+    return MotionEvent.obtain(
+      0, eventTime += 16, action, 2, properties, coords, 0, 0, 1f, 1f, 0, 0, 0, 0);
+  }
+
+  /**
+   * Records the centroid that a gesture recognizer outside of this library would calculate.
+   */
+  private static class CentroidGestureRecognizer extends GestureRecognizer {
+
+    float centroidX;
+    float centroidY;
+
+    @Override
+    protected boolean onTouch(MotionEvent event) {
+      PointF centroid = calculateUntransformedCentroid(event);
+      centroidX = centroid.x;
+      centroidY = centroid.y;
+      return true;
+    }
+
+    @Override
+    public float getUntransformedCentroidX() {
+      return centroidX;
+    }
+
+    @Override
+    public float getUntransformedCentroidY() {
+      return centroidY;
+    }
+  }
 }
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.app.Activity;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.google.android.material.motion.gestures.GestureRecognizer.CHANGED;
+import static com.google.android.material.motion.gestures.GestureRecognizer.POSSIBLE;
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class GestureSnapshotTests {
+
+  private View element;
+  private DragGestureRecognizer dragGestureRecognizer;
+
+  private long eventDownTime;
+  private long eventTime;
+
+  @Before
+  public void setUp() {
+    element = new View(Robolectric.setupActivity(Activity.class));
+    dragGestureRecognizer = new DragGestureRecognizer();
+    dragGestureRecognizer.dragSlop = 0;
+
+    eventDownTime = 0;
+    eventTime = -16;
+  }
+
+  @Test
+  public void initialSnapshotIsIdentity() {
+    GestureSnapshot snapshot = new GestureSnapshot();
+    snapshot.scale = 5f;
+    dragGestureRecognizer.getSnapshot(snapshot);
+
+    assertThat(snapshot.sequence).isEqualTo(0);
+    assertThat(snapshot.state).isEqualTo(POSSIBLE);
+    assertThat(snapshot.scale).isWithin(0f).of(1f);
+  }
+
+  @Test
+  public void publishesOnStateChange() {
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 100, 50));
+
+    GestureSnapshot snapshot = new GestureSnapshot();
+    dragGestureRecognizer.getSnapshot(snapshot);
+
+    assertThat(snapshot.sequence).isEqualTo(2);
+    assertThat(snapshot.state).isEqualTo(CHANGED);
+    assertThat(snapshot.translationX).isWithin(0.0001f).of(100);
+    assertThat(snapshot.translationY).isWithin(0.0001f).of(50);
+    assertThat(snapshot.centroidX).isWithin(0.0001f).of(100);
+  }
+
+  @Test
+  public void snapshotIsCurrentInsideListener() {
+    final GestureSnapshot snapshot = new GestureSnapshot();
+    dragGestureRecognizer.addStateChangeListener(
+      new GestureRecognizer.GestureStateChangeListener() {
+        @Override
+        public void onStateChanged(GestureRecognizer gestureRecognizer) {
+          gestureRecognizer.getSnapshot(snapshot);
+          assertThat(snapshot.state).isEqualTo(gestureRecognizer.getState());
+        }
+      });
+
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_UP, 0, 0));
+  }
+
+  @Test
+  public void concurrentReadsAreNeverTorn() throws InterruptedException {
+    final SnapshotSeqlock seqlock = new SnapshotSeqlock();
+    final AtomicBoolean done = new AtomicBoolean();
+
+    Thread writer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        GestureSnapshot snapshot = new GestureSnapshot();
+        for (int i = 0; i < 100000; i++) {
+          snapshot.translationX = i;
+          snapshot.translationY = i;
+          snapshot.rotation = -i;
+          seqlock.write(snapshot);
+        }
+        done.set(true);
+      }
+    });
+    writer.start();
+
+    GestureSnapshot snapshot = new GestureSnapshot();
+    int lastSequence = 0;
+    while (!done.get()) {
+      seqlock.read(snapshot);
+      assertThat(snapshot.translationY).isEqualTo(snapshot.translationX);
+      assertThat(snapshot.rotation).isEqualTo(-snapshot.translationX);
+      assertThat(snapshot.sequence).isAtLeast(lastSequence);
+      lastSequence = snapshot.sequence;
+    }
+    writer.join();
+  }
+
+  private MotionEvent createMotionEvent(int action, float x, float y) {
+    return MotionEvent.obtain(eventDownTime, eventTime += 16, action, x, y, 0);
+  }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.app.Activity;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.google.android.material.motion.gestures.GestureRecognizer.GestureStateChangeListener;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.google.android.material.motion.gestures.GestureRecognizer.BEGAN;
+import static com.google.android.material.motion.gestures.GestureRecognizer.CANCELLED;
+import static com.google.android.material.motion.gestures.GestureRecognizer.CHANGED;
+import static com.google.android.material.motion.gestures.GestureRecognizer.POSSIBLE;
+import static com.google.android.material.motion.gestures.GestureRecognizer.RECOGNIZED;
+import static com.google.android.material.motion.gestures.GestureTargetDispatcher.NO_TARGET;
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class GestureTargetDispatcherTests {
+
+  private View parent;
+  private GestureTargetDispatcher dispatcher;
+
+  private long eventDownTime;
+  private long eventTime;
+
+  @Before
+  public void setUp() {
+    parent = new View(Robolectric.setupActivity(Activity.class));
+    dispatcher = new GestureTargetDispatcher(100);
+
+    eventDownTime = 0;
+    eventTime = -16;
+  }
+
+  @Test
+  public void findsTopmostTarget() {
+    int bottom = dispatcher.addTarget(0, 0, 200, 200, new DragGestureRecognizer());
+    int top = dispatcher.addTarget(50, 50, 150, 150, new DragGestureRecognizer());
+
+    assertThat(dispatcher.findTargetAt(10, 10)).isEqualTo(bottom);
+    assertThat(dispatcher.findTargetAt(100, 100)).isEqualTo(top);
+    assertThat(dispatcher.findTargetAt(300, 300)).isEqualTo(NO_TARGET);
+    assertThat(dispatcher.findTargetAt(-10, -10)).isEqualTo(NO_TARGET);
+  }
+
+  @Test
+  public void routesGestureToHitTargetOnly() {
+    DragGestureRecognizer hit = new DragGestureRecognizer();
+    hit.dragSlop = 0;
+    DragGestureRecognizer miss = new DragGestureRecognizer();
+    miss.dragSlop = 0;
+    dispatcher.addTarget(0, 0, 100, 100, hit);
+    dispatcher.addTarget(500, 500, 600, 600, miss);
+
+    dispatcher.onTouch(parent, createMotionEvent(MotionEvent.ACTION_DOWN, 50, 50));
+    // Moving over the other target does not change the route.
+    dispatcher.onTouch(parent, createMotionEvent(MotionEvent.ACTION_MOVE, 550, 550));
+
+    assertThat(hit.getState()).isEqualTo(CHANGED);
+    assertThat(hit.getTranslationX()).isWithin(0.0001f).of(500);
+    assertThat(miss.getState()).isEqualTo(POSSIBLE);
+
+    dispatcher.onTouch(parent, createMotionEvent(MotionEvent.ACTION_UP, 550, 550));
+    assertThat(dispatcher.getActiveTarget()).isEqualTo(NO_TARGET);
+  }
+
+  @Test
+  public void missedDownIsNotHandled() {
+    dispatcher.addTarget(0, 0, 100, 100, new DragGestureRecognizer());
+
+    assertThat(dispatcher.onTouch(parent, createMotionEvent(MotionEvent.ACTION_DOWN, 150, 150)))
+      .isFalse();
+  }
+
+  @Test
+  public void movedTargetIsFoundAtNewLocation() {
+    int id = dispatcher.addTarget(0, 0, 50, 50, new DragGestureRecognizer());
+
+    dispatcher.updateTarget(id, 10, 10, 60, 60);
+    assertThat(dispatcher.findTargetAt(55, 55)).isEqualTo(id);
+
+    dispatcher.updateTarget(id, 1000, 1000, 1050, 1050);
+    assertThat(dispatcher.findTargetAt(25, 25)).isEqualTo(NO_TARGET);
+    assertThat(dispatcher.findTargetAt(1025, 1025)).isEqualTo(id);
+  }
+
+  @Test
+  public void removedTargetIsNotFoundAndIdIsReused() {
+    int id = dispatcher.addTarget(0, 0, 50, 50, new DragGestureRecognizer());
+    dispatcher.removeTarget(id);
+    assertThat(dispatcher.findTargetAt(25, 25)).isEqualTo(NO_TARGET);
+
+    assertThat(dispatcher.addTarget(0, 0, 50, 50, new DragGestureRecognizer())).isEqualTo(id);
+  }
+
+  @Test
+  public void removedTargetCancelsItsGesture() {
+    DragGestureRecognizer dragGestureRecognizer = new DragGestureRecognizer();
+    dragGestureRecognizer.dragSlop = 0;
+    TrackingGestureStateChangeListener listener = new TrackingGestureStateChangeListener();
+    dragGestureRecognizer.addStateChangeListener(listener);
+    int id = dispatcher.addTarget(0, 0, 100, 100, dragGestureRecognizer);
+
+    dispatcher.onTouch(parent, createMotionEvent(MotionEvent.ACTION_DOWN, 50, 50));
+    dispatcher.onTouch(parent, createMotionEvent(MotionEvent.ACTION_MOVE, 150, 50));
+    dispatcher.removeTarget(id);
+
+    assertThat(listener.states.toArray())
+      .isEqualTo(new Integer[]{POSSIBLE, BEGAN, CHANGED, CANCELLED, POSSIBLE});
+    assertThat(dispatcher.getActiveTarget()).isEqualTo(NO_TARGET);
+
+    // The rest of the stream goes nowhere.
+    dispatcher.onTouch(parent, createMotionEvent(MotionEvent.ACTION_MOVE, 200, 50));
+    dispatcher.onTouch(parent, createMotionEvent(MotionEvent.ACTION_UP, 200, 50));
+    assertThat(listener.states.toArray())
+      .isEqualTo(new Integer[]{POSSIBLE, BEGAN, CHANGED, CANCELLED, POSSIBLE});
+  }
+
+  @Test
+  public void targetRemovedWhileHandlingAnEventIsCancelledAfterwards() {
+    final DragGestureRecognizer dragGestureRecognizer = new DragGestureRecognizer();
+    dragGestureRecognizer.dragSlop = 0;
+    TrackingGestureStateChangeListener listener = new TrackingGestureStateChangeListener();
+    dragGestureRecognizer.addStateChangeListener(listener);
+    final int id = dispatcher.addTarget(0, 0, 100, 100, dragGestureRecognizer);
+    dragGestureRecognizer.addStateChangeListener(new GestureStateChangeListener() {
+      @Override
+      public void onStateChanged(GestureRecognizer gestureRecognizer) {
+        if (gestureRecognizer.getState() == CHANGED) {
+          dispatcher.removeTarget(id);
+        }
+      }
+    });
+
+    dispatcher.onTouch(parent, createMotionEvent(MotionEvent.ACTION_DOWN, 50, 50));
+    dispatcher.onTouch(parent, createMotionEvent(MotionEvent.ACTION_MOVE, 150, 50));
+
+    assertThat(listener.states.toArray())
+      .isEqualTo(new Integer[]{POSSIBLE, BEGAN, CHANGED, CANCELLED, POSSIBLE});
+  }
+
+  @Test
+  public void removedSplitTargetOnlyCancelsItsOwnPointers() {
+    DragGestureRecognizer first = new DragGestureRecognizer();
+    first.dragSlop = 0;
+    DragGestureRecognizer second = new DragGestureRecognizer();
+    second.dragSlop = 0;
+    dispatcher.addTarget(0, 0, 100, 100, first);
+    TrackingGestureStateChangeListener secondListener = new TrackingGestureStateChangeListener();
+    second.addStateChangeListener(secondListener);
+    int secondId = dispatcher.addTarget(500, 500, 600, 600, second);
+    dispatcher.setSplitPointersEnabled(true);
+
+    dispatcher.onTouch(parent, createMotionEvent(MotionEvent.ACTION_DOWN, 50, 50));
+    dispatcher.onTouch(parent,
+      createMultiTouchMotionEvent(MotionEvent.ACTION_POINTER_DOWN, 1, 50, 50, 550, 550));
+    dispatcher.onTouch(parent,
+      createMultiTouchMotionEvent(MotionEvent.ACTION_MOVE, 0, 150, 50, 550, 650));
+    dispatcher.removeTarget(secondId);
+
+    assertThat(secondListener.states.toArray())
+      .isEqualTo(new Integer[]{POSSIBLE, BEGAN, CHANGED, CANCELLED, POSSIBLE});
+    assertThat(first.getState()).isEqualTo(CHANGED);
+  }
+
+  @Test
+  public void manyTargets() {
+    int size = 40;
+    int[][] ids = new int[size][size];
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        ids[y][x] = dispatcher.addTarget(x * 30, y * 30, x * 30 + 30, y * 30 + 30, new DragGestureRecognizer());
+      }
+    }
+
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        assertThat(dispatcher.findTargetAt(x * 30 + 15, y * 30 + 15)).isEqualTo(ids[y][x]);
+      }
+    }
+  }
+
+  @Test
+  public void splitPointersDragDifferentTargets() {
+    DragGestureRecognizer first = new DragGestureRecognizer();
+    first.dragSlop = 0;
+    DragGestureRecognizer second = new DragGestureRecognizer();
+    second.dragSlop = 0;
+    TrackingGestureStateChangeListener listener = new TrackingGestureStateChangeListener();
+    second.addStateChangeListener(listener);
+    dispatcher.addTarget(0, 0, 100, 100, first);
+    dispatcher.addTarget(500, 500, 600, 600, second);
+    dispatcher.setSplitPointersEnabled(true);
+
+    dispatcher.onTouch(parent, createMotionEvent(MotionEvent.ACTION_DOWN, 50, 50));
+    dispatcher.onTouch(parent,
+      createMultiTouchMotionEvent(MotionEvent.ACTION_POINTER_DOWN, 1, 50, 50, 550, 550));
+    dispatcher.onTouch(parent,
+      createMultiTouchMotionEvent(MotionEvent.ACTION_MOVE, 0, 150, 50, 550, 650));
+
+    assertThat(first.getTranslationX()).isWithin(0.0001f).of(100);
+    assertThat(first.getTranslationY()).isWithin(0.0001f).of(0);
+    assertThat(second.getTranslationX()).isWithin(0.0001f).of(0);
+    assertThat(second.getTranslationY()).isWithin(0.0001f).of(100);
+
+    // Second finger up ends the second drag only.
+    dispatcher.onTouch(parent,
+      createMultiTouchMotionEvent(MotionEvent.ACTION_POINTER_UP, 1, 150, 50, 550, 650));
+    assertThat(first.getState()).isEqualTo(CHANGED);
+    assertThat(listener.states.toArray())
+      .isEqualTo(new Integer[]{POSSIBLE, BEGAN, CHANGED, RECOGNIZED, POSSIBLE});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void splitPointersRequiresSplitTouchListeners() {
+    dispatcher.addTarget(0, 0, 100, 100, new View.OnTouchListener() {
+      @Override
+      public boolean onTouch(View v, MotionEvent event) {
+        return false;
+      }
+    });
+    dispatcher.setSplitPointersEnabled(true);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unknownTargetCrashes() {
+    dispatcher.removeTarget(3);
+  }
+
+  private MotionEvent createMotionEvent(int action, float x, float y) {
+    return MotionEvent.obtain(eventDownTime, eventTime += 16, action, x, y, 0);
+  }
+
+  private MotionEvent createMultiTouchMotionEvent(
+    int action, int index, float x0, float y0, float x1, float y1) {
+    MotionEvent event = mock(MotionEvent.class);
+
+    when(event.getDownTime()).thenReturn(eventDownTime);
+    when(event.getEventTime()).thenReturn(eventTime += 16);
+
+    when(event.getPointerCount()).thenReturn(2);
+    when(event.getAction()).thenReturn(action | (index << MotionEvent.ACTION_POINTER_INDEX_SHIFT));
+    when(event.getActionMasked()).thenReturn(action);
+    when(event.getActionIndex()).thenReturn(index);
+
+    when(event.getX()).thenReturn(x0);
+    when(event.getY()).thenReturn(y0);
+
+    when(event.getX(0)).thenReturn(x0);
+    when(event.getY(0)).thenReturn(y0);
+    when(event.getPointerId(0)).thenReturn(0);
+
+    when(event.getX(1)).thenReturn(x1);
+    when(event.getY(1)).thenReturn(y1);
+    when(event.getPointerId(1)).thenReturn(1);
+
+    return event;
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import com.google.android.material.motion.gestures.GestureTimerWheel.Timeout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class GestureTimerWheelTests {
+
+  private GestureTimerWheel wheel;
+  private final List<Integer> fired = new ArrayList<>();
+
+  @Before
+  public void setUp() {
+    wheel = GestureTimerWheel.forCurrentLooper();
+  }
+
+  @Test
+  public void firesInDeadlineOrder() {
+    wheel.schedule(createTimeout(2), 200);
+    wheel.schedule(createTimeout(1), 100);
+    wheel.schedule(createTimeout(3), 300);
+
+    ShadowLooper.idleMainLooper(150);
+    assertThat(fired).containsExactly(1);
+
+    ShadowLooper.idleMainLooper(200);
+    assertThat(fired).containsExactly(1, 2, 3).inOrder();
+    assertThat(wheel.getArmedCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void timeoutBeyondOneRevolutionWaits() {
+    long delay = 3 * GestureTimerWheel.WHEEL_SIZE * GestureTimerWheel.TICK_MILLIS + 5;
+    wheel.schedule(createTimeout(1), delay);
+
+    ShadowLooper.idleMainLooper(delay - GestureTimerWheel.TICK_MILLIS);
+    assertThat(fired).isEmpty();
+
+    ShadowLooper.idleMainLooper(2 * GestureTimerWheel.TICK_MILLIS);
+    assertThat(fired).containsExactly(1);
+  }
+
+  @Test
+  public void cancelledTimeoutDoesNotFire() {
+    Timeout timeout = createTimeout(1);
+    wheel.schedule(timeout, 100);
+    wheel.cancel(timeout);
+
+    ShadowLooper.idleMainLooper(200);
+    assertThat(fired).isEmpty();
+    assertThat(timeout.isArmed()).isFalse();
+  }
+
+  @Test
+  public void rescheduleMovesDeadline() {
+    Timeout timeout = createTimeout(1);
+    wheel.schedule(timeout, 100);
+    wheel.schedule(timeout, 300);
+
+    ShadowLooper.idleMainLooper(200);
+    assertThat(fired).isEmpty();
+    ShadowLooper.idleMainLooper(200);
+    assertThat(fired).containsExactly(1);
+  }
+
+  @Test
+  public void manyTimeoutsInOneBucket() {
+    for (int i = 0; i < 1000; i++) {
+      wheel.schedule(createTimeout(i), 100);
+    }
+    assertThat(wheel.getArmedCount()).isEqualTo(1000);
+
+    ShadowLooper.idleMainLooper(200);
+    assertThat(fired).hasSize(1000);
+  }
+
+  private Timeout createTimeout(final int id) {
+    return new Timeout(new Runnable() {
+      @Override
+      public void run() {
+        fired.add(id);
+      }
+    });
+  }
+}
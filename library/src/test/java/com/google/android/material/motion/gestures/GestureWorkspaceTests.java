@@ -0,0 +1,185 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.app.Activity;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class GestureWorkspaceTests {
+
+  private static final Class<?>[] TYPES = {
+    DragGestureRecognizer.class, ScaleGestureRecognizer.class, RotateGestureRecognizer.class,
+    TapGestureRecognizer.class, DoubleTapGestureRecognizer.class,
+    LongPressGestureRecognizer.class, FlingGestureRecognizer.class};
+
+  private View element;
+
+  @Before
+  public void setUp() {
+    element = new View(Robolectric.setupActivity(Activity.class));
+  }
+
+  @Test
+  public void gestureRecognizersShareTheWorkspaceOfTheirThread() {
+    DragGestureRecognizer first = new DragGestureRecognizer();
+    ScaleGestureRecognizer second = new ScaleGestureRecognizer();
+    first.setElement(element);
+    second.setElement(element);
+    MotionEvent event = MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 10, 20, 0);
+
+    assertThat(first.calculateUntransformedPoint(event, 0))
+      .isSameAs(second.calculateUntransformedPoint(event, 0));
+    assertThat(first.calculateUntransformedPoint(event, 0).x).isWithin(0).of(10f);
+  }
+
+  @Test
+  public void eachThreadHasItsOwnWorkspace() throws InterruptedException {
+    final GestureWorkspace[] other = new GestureWorkspace[1];
+    Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        other[0] = GestureWorkspace.get();
+      }
+    });
+    thread.start();
+    thread.join();
+
+    assertThat(other[0]).isNotNull();
+    assertThat(other[0]).isNotSameAs(GestureWorkspace.get());
+    assertThat(GestureWorkspace.get()).isSameAs(GestureWorkspace.get());
+  }
+
+  @Test
+  public void idleGestureRecognizerStillWorksOnFirstTouch() {
+    DragGestureRecognizer dragGestureRecognizer = new DragGestureRecognizer();
+    dragGestureRecognizer.dragSlop = 0;
+    dragGestureRecognizer.setElement(element);
+    assertThat(dragGestureRecognizer.getVelocityX()).isWithin(0).of(0f);
+
+    GestureSnapshot snapshot = new GestureSnapshot();
+    dragGestureRecognizer.getSnapshot(snapshot);
+    assertThat(snapshot.state).isEqualTo(GestureRecognizer.POSSIBLE);
+    assertThat(snapshot.scale).isWithin(0).of(1f);
+
+    dragGestureRecognizer.onTouch(element, MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 0, 0, 0));
+    dragGestureRecognizer.onTouch(element, MotionEvent.obtain(0, 16, MotionEvent.ACTION_MOVE, 100, 0, 0));
+
+    dragGestureRecognizer.getSnapshot(snapshot);
+    assertThat(snapshot.state).isEqualTo(GestureRecognizer.BEGAN);
+    assertThat(snapshot.translationX).isWithin(0).of(100f);
+  }
+
+  @Test
+  public void idleGestureRecognizersOnlyReferenceSharedObjects() throws IllegalAccessException {
+    for (Class<?> type : TYPES) {
+      GestureRecognizer gestureRecognizer = newInstance(type);
+      gestureRecognizer.setElement(element);
+
+      for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+        for (Field field : c.getDeclaredFields()) {
+          Object value = getReference(field, gestureRecognizer);
+          if (value == gestureRecognizer.pointers) {
+            assertNoReferences(value);
+          } else if (value != element && value != gestureRecognizer.getConfiguration()) {
+            assertEmpty(type.getSimpleName() + "." + field.getName(), value);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Measures the retained heap of idle gesture recognizers that have an element but were never
+   * touched, as in a long list of items. Only runs with {@code -Dgestures.benchmark=true}.
+   */
+  @Test
+  public void idleFootprint() {
+    Assume.assumeTrue(Boolean.getBoolean("gestures.benchmark"));
+    int count = 2000;
+
+    for (Class<?> type : TYPES) {
+      GestureRecognizer[] recognizers = new GestureRecognizer[count];
+      long before = usedMemory();
+      for (int i = 0; i < count; i++) {
+        recognizers[i] = newInstance(type);
+        recognizers[i].setElement(element);
+      }
+      long after = usedMemory();
+
+      System.out.printf(
+        "Idle footprint: %-28s %6.0f bytes/instance%n",
+        type.getSimpleName(), (after - before) / (double) count);
+    }
+  }
+
+  private static void assertNoReferences(Object object) throws IllegalAccessException {
+    for (Field field : object.getClass().getDeclaredFields()) {
+      assertEmpty(
+        object.getClass().getSimpleName() + "." + field.getName(), getReference(field, object));
+    }
+  }
+
+  private static void assertEmpty(String name, Object value) {
+    assertTrue(
+      "Allocated while idle: " + name,
+      value == null || value.getClass().isArray() && Array.getLength(value) == 0);
+  }
+
+  /**
+   * Returns the value of an instance field of a reference type, or null.
+   */
+  private static Object getReference(Field field, Object object) throws IllegalAccessException {
+    if (Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive()) {
+      return null;
+    }
+    field.setAccessible(true);
+    return field.get(object);
+  }
+
+  private static GestureRecognizer newInstance(Class<?> type) {
+    try {
+      return (GestureRecognizer) type.newInstance();
+    } catch (InstantiationException | IllegalAccessException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 4; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
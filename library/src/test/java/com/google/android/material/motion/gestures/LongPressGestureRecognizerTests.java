@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.app.Activity;
+import android.content.Context;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static com.google.android.material.motion.gestures.GestureRecognizer.BEGAN;
+import static com.google.android.material.motion.gestures.GestureRecognizer.CHANGED;
+import static com.google.android.material.motion.gestures.GestureRecognizer.POSSIBLE;
+import static com.google.android.material.motion.gestures.GestureRecognizer.RECOGNIZED;
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class LongPressGestureRecognizerTests {
+
+  private View element;
+  private LongPressGestureRecognizer longPressGestureRecognizer;
+
+  private long eventDownTime;
+  private long eventTime;
+
+  @Before
+  public void setUp() {
+    Context context = Robolectric.setupActivity(Activity.class);
+    element = new View(context);
+    longPressGestureRecognizer = new LongPressGestureRecognizer();
+    longPressGestureRecognizer.pressSlop = 24;
+    longPressGestureRecognizer.minimumPressDuration = 500;
+
+    eventDownTime = 0;
+    eventTime = -16;
+  }
+
+  @Test
+  public void longPressIsRecognized() {
+    TrackingGestureStateChangeListener listener = new TrackingGestureStateChangeListener();
+    longPressGestureRecognizer.addStateChangeListener(listener);
+
+    longPressGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    ShadowLooper.idleMainLooper(400);
+    assertThat(longPressGestureRecognizer.getState()).isEqualTo(POSSIBLE);
+
+    ShadowLooper.idleMainLooper(200);
+    assertThat(longPressGestureRecognizer.getState()).isEqualTo(BEGAN);
+
+    longPressGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 100, 0));
+    longPressGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_UP, 100, 0));
+
+    assertThat(listener.states.toArray())
+      .isEqualTo(new Integer[]{POSSIBLE, BEGAN, CHANGED, RECOGNIZED, POSSIBLE});
+    assertThat(longPressGestureRecognizer.getUntransformedCentroidX()).isWithin(0).of(100f);
+  }
+
+  @Test
+  public void earlyReleaseRejects() {
+    longPressGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    longPressGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_UP, 0, 0));
+    ShadowLooper.idleMainLooper(600);
+
+    assertThat(longPressGestureRecognizer.isRejected()).isTrue();
+    assertThat(longPressGestureRecognizer.getState()).isEqualTo(POSSIBLE);
+  }
+
+  @Test
+  public void movingBeforeBeganRejects() {
+    longPressGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    longPressGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 100, 0));
+    ShadowLooper.idleMainLooper(600);
+
+    assertThat(longPressGestureRecognizer.getState()).isEqualTo(POSSIBLE);
+  }
+
+  @Test
+  public void resetDisarmsTimeout() {
+    longPressGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    longPressGestureRecognizer.reset();
+    ShadowLooper.idleMainLooper(600);
+
+    assertThat(longPressGestureRecognizer.getState()).isEqualTo(POSSIBLE);
+    assertThat(GestureTimerWheel.forCurrentLooper().getArmedCount()).isEqualTo(0);
+  }
+
+  private MotionEvent createMotionEvent(int action, float x, float y) {
+    return MotionEvent.obtain(eventDownTime, eventTime += 16, action, x, y, 0);
+  }
+}
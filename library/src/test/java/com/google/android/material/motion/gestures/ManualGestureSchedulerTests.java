@@ -0,0 +1,164 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.app.Activity;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.google.common.collect.Lists;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+
+import static com.google.android.material.motion.gestures.GestureRecognizer.POSSIBLE;
+import static com.google.android.material.motion.gestures.GestureRecognizer.RECOGNIZED;
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class ManualGestureSchedulerTests {
+
+  private ManualGestureScheduler scheduler;
+  private List<String> log;
+
+  @Before
+  public void setUp() {
+    scheduler = new ManualGestureScheduler(1000);
+    log = Lists.newArrayList();
+  }
+
+  @Test
+  public void runsRunnablesInTimeOrderAtTheirTime() {
+    scheduler.postAtTime(logRunnable("b"), 1020);
+    scheduler.postAtTime(logRunnable("a"), 1010);
+    scheduler.postAtTime(logRunnable("c"), 1020);
+    scheduler.post(logRunnable("now"));
+
+    scheduler.advanceBy(15);
+    assertThat(log).containsExactly("now@1000", "a@1010").inOrder();
+    assertThat(scheduler.uptimeMillis()).isEqualTo(1015);
+
+    scheduler.advanceBy(100);
+    assertThat(log).containsExactly("now@1000", "a@1010", "b@1020", "c@1020").inOrder();
+    assertThat(scheduler.uptimeMillis()).isEqualTo(1115);
+    assertThat(scheduler.isIdle()).isTrue();
+  }
+
+  @Test
+  public void removedRunnablesDoNotRun() {
+    Runnable runnable = logRunnable("removed");
+    scheduler.postAtTime(runnable, 1010);
+    scheduler.postAtTime(logRunnable("kept"), 1010);
+    scheduler.postAtTime(runnable, 1020);
+    scheduler.removeCallbacks(runnable);
+
+    scheduler.advanceBy(100);
+    assertThat(log).containsExactly("kept@1010");
+  }
+
+  @Test
+  public void frameCallbacksRunOncePerFrame() {
+    final GestureScheduler.FrameCallback[] reposting = new GestureScheduler.FrameCallback[1];
+    reposting[0] = new GestureScheduler.FrameCallback() {
+      @Override
+      public void doFrame(long frameTimeMillis) {
+        log.add("frame@" + frameTimeMillis);
+        scheduler.postFrameCallback(reposting[0]);
+      }
+    };
+    scheduler.postFrameCallback(reposting[0]);
+
+    scheduler.runFrame();
+    scheduler.runFrame();
+    assertThat(log).containsExactly("frame@1016", "frame@1032").inOrder();
+
+    scheduler.removeFrameCallback(reposting[0]);
+    scheduler.runFrame();
+    assertThat(log).hasSize(2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void timeCannotGoBackwards() {
+    scheduler.advanceBy(-1);
+  }
+
+  @Test
+  public void drivesTimeoutsWithoutALooper() {
+    View element = new View(Robolectric.setupActivity(Activity.class));
+    LongPressGestureRecognizer longPressGestureRecognizer = new LongPressGestureRecognizer();
+    longPressGestureRecognizer.minimumPressDuration = 500;
+    longPressGestureRecognizer.setScheduler(scheduler);
+
+    longPressGestureRecognizer.onTouch(
+      element, MotionEvent.obtain(1000, 1000, MotionEvent.ACTION_DOWN, 0, 0, 0));
+    scheduler.advanceBy(400);
+    assertThat(longPressGestureRecognizer.getState()).isEqualTo(POSSIBLE);
+
+    scheduler.advanceBy(200);
+    assertThat(longPressGestureRecognizer.getState()).isEqualTo(GestureRecognizer.BEGAN);
+    assertThat(scheduler.isIdle()).isTrue();
+  }
+
+  @Test
+  public void drivesDeferredResetAndMomentumFrames() {
+    View element = new View(Robolectric.setupActivity(Activity.class));
+    DragGestureRecognizer dragGestureRecognizer = new DragGestureRecognizer();
+    dragGestureRecognizer.dragSlop = 0;
+    dragGestureRecognizer.setScheduler(scheduler);
+    dragGestureRecognizer.setMomentumEnabled(true);
+
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0));
+    for (int x = 10; x <= 100; x += 10) {
+      scheduler.runFrame();
+      dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, x));
+    }
+    dragGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_UP, 100));
+
+    // The reset to POSSIBLE waits for the scheduler.
+    assertThat(dragGestureRecognizer.getState()).isEqualTo(RECOGNIZED);
+    assertThat(dragGestureRecognizer.isMomentumInProgress()).isTrue();
+    scheduler.runPending();
+    assertThat(dragGestureRecognizer.getState()).isEqualTo(POSSIBLE);
+
+    float projected = dragGestureRecognizer.getProjectedTranslationX();
+    for (int i = 0; i < 1000 && dragGestureRecognizer.isMomentumInProgress(); i++) {
+      scheduler.runFrame();
+    }
+    assertThat(dragGestureRecognizer.isMomentumInProgress()).isFalse();
+    assertThat(dragGestureRecognizer.getMomentumTranslationX()).isWithin(1f).of(projected);
+    assertThat(scheduler.isIdle()).isTrue();
+  }
+
+  private MotionEvent createMotionEvent(int action, float x) {
+    return MotionEvent.obtain(1000, scheduler.uptimeMillis(), action, x, 0, 0);
+  }
+
+  private Runnable logRunnable(final String name) {
+    return new Runnable() {
+      @Override
+      public void run() {
+        log.add(name + "@" + scheduler.uptimeMillis());
+      }
+    };
+  }
+}
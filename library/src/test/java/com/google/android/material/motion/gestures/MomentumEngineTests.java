@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class MomentumEngineTests {
+
+  private static final float E = 0.01f;
+
+  private MomentumEngine momentum;
+
+  @Before
+  public void setUp() {
+    momentum = new MomentumEngine(1);
+  }
+
+  @Test
+  public void frictionComesToRestAtTheProjectedValue() {
+    momentum.start(new float[]{10f}, new float[]{1000f});
+    float projected = 10f + FlingGestureRecognizer.project(
+      1000f, FlingGestureRecognizer.DECELERATION_RATE_NORMAL);
+    assertThat(momentum.getProjectedValue(0)).isWithin(E).of(projected);
+
+    float previous = 10f;
+    while (momentum.step(16)) {
+      assertThat(momentum.getValue(0)).isAtLeast(previous);
+      assertThat(momentum.getValue(0)).isAtMost(projected);
+      previous = momentum.getValue(0);
+    }
+    assertThat(momentum.getValue(0)).isWithin(E).of(projected);
+    assertThat(momentum.isRunning()).isFalse();
+  }
+
+  @Test
+  public void frameRateDoesNotChangeThePath() {
+    MomentumEngine slow = new MomentumEngine(1);
+    momentum.start(new float[]{0f}, new float[]{2000f});
+    slow.start(new float[]{0f}, new float[]{2000f});
+
+    for (int i = 0; i < 30; i++) {
+      momentum.step(8);
+      momentum.step(8);
+      slow.step(16);
+      assertThat(momentum.getValue(0)).isWithin(E).of(slow.getValue(0));
+    }
+  }
+
+  @Test
+  public void boundedValueSpringsBackToTheBound() {
+    momentum.setBounds(0, 0f, 200f);
+    momentum.start(new float[]{10f}, new float[]{1000f});
+    assertThat(momentum.getProjectedValue(0)).isWithin(0f).of(200f);
+
+    float max = 0f;
+    while (momentum.step(16)) {
+      max = Math.max(max, momentum.getValue(0));
+    }
+    assertThat(max).isGreaterThan(200f);
+    assertThat(momentum.getValue(0)).isWithin(0f).of(200f);
+  }
+
+  @Test
+  public void valueReleasedOutOfBoundsSpringsBack() {
+    momentum.setBounds(0, 0f, 200f);
+    momentum.start(new float[]{-50f}, new float[]{0f});
+    assertThat(momentum.isRunning()).isTrue();
+    assertThat(momentum.getProjectedValue(0)).isWithin(0f).of(0f);
+
+    while (momentum.step(16)) {
+      assertThat(momentum.getValue(0)).isAtMost(0f);
+    }
+    assertThat(momentum.getValue(0)).isWithin(0f).of(0f);
+  }
+
+  @Test
+  public void slowReleaseDoesNotMove() {
+    momentum.start(new float[]{10f}, new float[]{0.5f});
+    assertThat(momentum.isRunning()).isFalse();
+    assertThat(momentum.step(16)).isFalse();
+    assertThat(momentum.getValue(0)).isWithin(0f).of(10f);
+  }
+
+  @Test
+  public void stopLeavesTheValue() {
+    momentum.start(new float[]{0f}, new float[]{1000f});
+    momentum.step(16);
+    float value = momentum.getValue(0);
+
+    momentum.stop();
+    assertThat(momentum.isRunning()).isFalse();
+    assertThat(momentum.step(16)).isFalse();
+    assertThat(momentum.getValue(0)).isWithin(0f).of(value);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidDecelerationRateCrashes() {
+    momentum.setDecelerationRate(1f);
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class OneEuroFilterTests {
+
+  private static final long FRAME_MILLIS = 8;
+
+  private OneEuroFilter filter;
+
+  @Before
+  public void setUp() {
+    filter = new OneEuroFilter();
+  }
+
+  @Test
+  public void restingJitterIsSuppressed() {
+    filter.reset(0, 0, 100f, 100f);
+    for (int i = 1; i <= 60; i++) {
+      float jitter = i % 2 == 0 ? 1f : -1f;
+      filter.filter(0, i * FRAME_MILLIS, 100f + jitter, 100f - jitter);
+
+      assertThat(filter.getFilteredX()).isWithin(0.2f).of(100f);
+      assertThat(filter.getFilteredY()).isWithin(0.2f).of(100f);
+    }
+  }
+
+  @Test
+  public void fastMovementIsBarelyLagged() {
+    float speed = 3000f;
+    filter.reset(0, 0, 0f, 0f);
+    float x = 0f;
+    for (int i = 1; i <= 30; i++) {
+      x = speed * i * FRAME_MILLIS / 1000f;
+      filter.filter(0, i * FRAME_MILLIS, x, 0f);
+    }
+
+    // A fixed 1 Hz cutoff would lag by almost 500 pixels.
+    assertThat(x - filter.getFilteredX()).isLessThan(40f);
+    assertThat(filter.getFilteredY()).isWithin(0f).of(0f);
+  }
+
+  @Test
+  public void pointersAreFilteredIndependently() {
+    filter.reset(0, 0, 0f, 0f);
+    filter.reset(1, 0, 50f, 50f);
+    filter.filter(0, FRAME_MILLIS, 10f, 0f);
+    float filteredX = filter.getFilteredX();
+
+    filter.filter(1, FRAME_MILLIS, 50f, 50f);
+    assertThat(filter.getFilteredX()).isWithin(0f).of(50f);
+
+    filter.filter(0, FRAME_MILLIS * 2, 10f, 0f);
+    assertThat(filter.getFilteredX()).isGreaterThan(filteredX);
+  }
+
+  @Test
+  public void repeatedTimestampKeepsOutput() {
+    filter.reset(0, 0, 0f, 0f);
+    filter.filter(0, FRAME_MILLIS, 10f, 0f);
+    float filteredX = filter.getFilteredX();
+
+    filter.filter(0, FRAME_MILLIS, 20f, 0f);
+    assertThat(filter.getFilteredX()).isWithin(0f).of(filteredX);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void nonPositiveCutoffCrashes() {
+    filter.setParameters(0f, OneEuroFilter.DEFAULT_BETA);
+  }
+}
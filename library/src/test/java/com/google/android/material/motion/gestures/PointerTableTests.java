@@ -0,0 +1,95 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.google.android.material.motion.gestures.PointerTable.NO_POINTER;
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class PointerTableTests {
+
+  private static final float E = 0.0001f;
+
+  private PointerTable pointers;
+
+  @Before
+  public void setUp() {
+    pointers = new PointerTable();
+  }
+
+  @Test
+  public void defaultState() {
+    assertThat(pointers.getPointerCount()).isEqualTo(0);
+    assertThat(pointers.nextPointerId(0)).isEqualTo(NO_POINTER);
+    assertThat(pointers.getCentroidX()).isWithin(0).of(0f);
+    assertThat(pointers.getCentroidY()).isWithin(0).of(0f);
+  }
+
+  @Test
+  public void centroidFollowsAddMoveAndRemove() {
+    pointers.add(0, 0, 0);
+    pointers.add(3, 100, 200);
+    assertThat(pointers.getPointerCount()).isEqualTo(2);
+    assertThat(pointers.getCentroidX()).isWithin(E).of(50);
+    assertThat(pointers.getCentroidY()).isWithin(E).of(100);
+
+    pointers.move(3, 200, 0);
+    assertThat(pointers.getCentroidX()).isWithin(E).of(100);
+    assertThat(pointers.getCentroidY()).isWithin(E).of(0);
+    assertThat(pointers.getX(3)).isWithin(E).of(200);
+    assertThat(pointers.getY(3)).isWithin(E).of(0);
+    assertThat(pointers.getStartX(3)).isWithin(E).of(100);
+    assertThat(pointers.getStartY(3)).isWithin(E).of(200);
+
+    pointers.remove(0);
+    assertThat(pointers.getPointerCount()).isEqualTo(1);
+    assertThat(pointers.getCentroidX()).isWithin(E).of(200);
+    assertThat(pointers.getCentroidY()).isWithin(E).of(0);
+  }
+
+  @Test
+  public void iteratesInPointerIdOrder() {
+    pointers.add(PointerTable.MAX_POINTER_ID, 0, 0);
+    pointers.add(5, 0, 0);
+    pointers.add(1, 0, 0);
+
+    assertThat(pointers.nextPointerId(0)).isEqualTo(1);
+    assertThat(pointers.nextPointerId(2)).isEqualTo(5);
+    assertThat(pointers.nextPointerId(6)).isEqualTo(PointerTable.MAX_POINTER_ID);
+    assertThat(pointers.nextPointerId(PointerTable.MAX_POINTER_ID + 1)).isEqualTo(NO_POINTER);
+  }
+
+  @Test
+  public void unknownPointersAreHandledGracefully() {
+    pointers.move(2, 10, 10);
+    assertThat(pointers.contains(2)).isTrue();
+    assertThat(pointers.getCentroidX()).isWithin(E).of(10);
+
+    pointers.remove(7);
+    assertThat(pointers.getPointerCount()).isEqualTo(1);
+
+    pointers.clear();
+    assertThat(pointers.getPointerCount()).isEqualTo(0);
+    assertThat(pointers.contains(2)).isFalse();
+  }
+}
@@ -358,6 +358,28 @@ public class RotateGestureRecognizerTests {
     assertThat(rotateGestureRecognizer.getVelocity()).isGreaterThan(0f);
   }
 
+  @Test
+  public void movingOnlyOtherFingersIsDropped() {
+    TrackingGestureStateChangeListener listener = new TrackingGestureStateChangeListener();
+    rotateGestureRecognizer.addStateChangeListener(listener);
+    rotateGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    rotateGestureRecognizer.onTouch(element, createMultiTouchMotionEvent(MotionEvent.ACTION_POINTER_DOWN, 1, 0, 0, 100, 0));
+    rotateGestureRecognizer.onTouch(element, createMultiTouchMotionEvent(MotionEvent.ACTION_MOVE, 1, 0, 0, 100, 100));
+    rotateGestureRecognizer.onTouch(element, createMultiTouchMotionEvent(MotionEvent.ACTION_MOVE, 1, 0, 0, 100, 100));
+    assertThat(listener.states.toArray()).isEqualTo(new Integer[]{POSSIBLE, BEGAN, CHANGED});
+
+    // Third finger down and moving. Only the first two fingers contribute to the rotation.
+    rotateGestureRecognizer.onTouch(element, createMultiTouchMotionEvent(MotionEvent.ACTION_POINTER_DOWN, 2, 0, 0, 100, 100, 200, 0));
+    rotateGestureRecognizer.onTouch(element, createMultiTouchMotionEvent(MotionEvent.ACTION_MOVE, 2, 0, 0, 100, 100, 200, 200));
+    assertThat(listener.states.toArray()).isEqualTo(new Integer[]{POSSIBLE, BEGAN, CHANGED});
+
+    // First finger up. The third finger takes over from its latest position.
+    rotateGestureRecognizer.onTouch(element, createMultiTouchMotionEvent(MotionEvent.ACTION_POINTER_UP, 0, 0, 0, 100, 100, 200, 200));
+    assertThat(rotateGestureRecognizer.getRotation()).isWithin(E).of((float) (Math.PI / 4));
+    assertThat(rotateGestureRecognizer.getUntransformedCentroidX()).isWithin(E).of(150);
+    assertThat(rotateGestureRecognizer.getUntransformedCentroidY()).isWithin(E).of(150);
+  }
+
   @Test(expected = NullPointerException.class)
   public void crashesForNullElement() {
     rotateGestureRecognizer.onTouch(null, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
@@ -390,9 +412,11 @@ public class RotateGestureRecognizerTests {
 
     when(event.getX(0)).thenReturn(x0);
     when(event.getY(0)).thenReturn(y0);
+    when(event.getPointerId(0)).thenReturn(0);
 
     when(event.getX(1)).thenReturn(x1);
     when(event.getY(1)).thenReturn(y1);
+    when(event.getPointerId(1)).thenReturn(1);
 
     return event;
   }
@@ -414,12 +438,15 @@ public class RotateGestureRecognizerTests {
 
     when(event.getX(0)).thenReturn(x0);
     when(event.getY(0)).thenReturn(y0);
+    when(event.getPointerId(0)).thenReturn(0);
 
     when(event.getX(1)).thenReturn(x1);
     when(event.getY(1)).thenReturn(y1);
+    when(event.getPointerId(1)).thenReturn(1);
 
     when(event.getX(2)).thenReturn(x2);
     when(event.getY(2)).thenReturn(y2);
+    when(event.getPointerId(2)).thenReturn(2);
 
     return event;
   }
@@ -322,9 +322,11 @@ public class ScaleGestureRecognizerTests {
 
     when(event.getX(0)).thenReturn(x0);
     when(event.getY(0)).thenReturn(y0);
+    when(event.getPointerId(0)).thenReturn(0);
 
     when(event.getX(1)).thenReturn(x1);
     when(event.getY(1)).thenReturn(y1);
+    when(event.getPointerId(1)).thenReturn(1);
 
     return event;
   }
@@ -346,12 +348,15 @@ public class ScaleGestureRecognizerTests {
 
     when(event.getX(0)).thenReturn(x0);
     when(event.getY(0)).thenReturn(y0);
+    when(event.getPointerId(0)).thenReturn(0);
 
     when(event.getX(1)).thenReturn(x1);
     when(event.getY(1)).thenReturn(y1);
+    when(event.getPointerId(1)).thenReturn(1);
 
     when(event.getX(2)).thenReturn(x2);
     when(event.getY(2)).thenReturn(y2);
+    when(event.getPointerId(2)).thenReturn(2);
 
     return event;
   }
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.app.Activity;
+import android.content.Context;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static com.google.android.material.motion.gestures.GestureRecognizer.POSSIBLE;
+import static com.google.android.material.motion.gestures.GestureRecognizer.RECOGNIZED;
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class TapGestureRecognizerTests {
+
+  private View element;
+  private TapGestureRecognizer tapGestureRecognizer;
+  private DoubleTapGestureRecognizer doubleTapGestureRecognizer;
+
+  private long eventDownTime;
+  private long eventTime;
+
+  @Before
+  public void setUp() {
+    Context context = Robolectric.setupActivity(Activity.class);
+    element = new View(context);
+    tapGestureRecognizer = new TapGestureRecognizer();
+    tapGestureRecognizer.tapSlop = 24;
+    tapGestureRecognizer.pressTimeout = 500;
+    doubleTapGestureRecognizer = new DoubleTapGestureRecognizer();
+    doubleTapGestureRecognizer.tapSlop = 24;
+    doubleTapGestureRecognizer.multiTapSlop = 100;
+    doubleTapGestureRecognizer.pressTimeout = 500;
+    doubleTapGestureRecognizer.multiTapTimeout = 300;
+
+    eventDownTime = 0;
+    eventTime = -16;
+  }
+
+  @Test
+  public void tapIsRecognized() {
+    TrackingGestureStateChangeListener listener = new TrackingGestureStateChangeListener();
+    tapGestureRecognizer.addStateChangeListener(listener);
+
+    tapGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    tapGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 10, 0));
+    tapGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_UP, 10, 0));
+
+    assertThat(listener.states.toArray()).isEqualTo(new Integer[]{POSSIBLE, RECOGNIZED, POSSIBLE});
+    assertThat(tapGestureRecognizer.getUntransformedCentroidX()).isWithin(0).of(10f);
+  }
+
+  @Test
+  public void movingTooFarRejectsTap() {
+    tapGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    tapGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_MOVE, 100, 0));
+
+    assertThat(tapGestureRecognizer.isRejected()).isTrue();
+    tapGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_UP, 100, 0));
+    assertThat(tapGestureRecognizer.getState()).isEqualTo(POSSIBLE);
+  }
+
+  @Test
+  public void holdingTooLongRejectsTap() {
+    tapGestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    ShadowLooper.idleMainLooper(600);
+
+    assertThat(tapGestureRecognizer.isRejected()).isTrue();
+  }
+
+  @Test
+  public void doubleTapIsRecognized() {
+    TrackingGestureStateChangeListener listener = new TrackingGestureStateChangeListener();
+    doubleTapGestureRecognizer.addStateChangeListener(listener);
+
+    tap(doubleTapGestureRecognizer, 0, 0);
+    assertThat(doubleTapGestureRecognizer.getTapCount()).isEqualTo(1);
+    ShadowLooper.idleMainLooper(100);
+    tap(doubleTapGestureRecognizer, 10, 10);
+
+    assertThat(listener.states.toArray()).isEqualTo(new Integer[]{POSSIBLE, RECOGNIZED, POSSIBLE});
+  }
+
+  @Test
+  public void slowSecondTapRejectsDoubleTap() {
+    tap(doubleTapGestureRecognizer, 0, 0);
+    ShadowLooper.idleMainLooper(400);
+
+    assertThat(doubleTapGestureRecognizer.isRejected()).isTrue();
+    assertThat(doubleTapGestureRecognizer.getTapCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void tapWaitsForDoubleTapToFail() {
+    GestureCoordinator coordinator = new GestureCoordinator();
+    coordinator.requireToFail(tapGestureRecognizer, doubleTapGestureRecognizer);
+    TrackingGestureStateChangeListener listener = new TrackingGestureStateChangeListener();
+    tapGestureRecognizer.addStateChangeListener(listener);
+
+    coordinator.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+    coordinator.onTouch(element, createMotionEvent(MotionEvent.ACTION_UP, 0, 0));
+    assertThat(listener.states.toArray()).isEqualTo(new Integer[]{POSSIBLE});
+
+    ShadowLooper.idleMainLooper(400);
+    assertThat(listener.states.toArray()).isEqualTo(new Integer[]{POSSIBLE, RECOGNIZED, POSSIBLE});
+  }
+
+  @Test
+  public void doubleTapRejectsWaitingTap() {
+    GestureCoordinator coordinator = new GestureCoordinator();
+    coordinator.requireToFail(tapGestureRecognizer, doubleTapGestureRecognizer);
+    TrackingGestureStateChangeListener listener = new TrackingGestureStateChangeListener();
+    tapGestureRecognizer.addStateChangeListener(listener);
+
+    for (int i = 0; i < 2; i++) {
+      coordinator.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, 0, 0));
+      coordinator.onTouch(element, createMotionEvent(MotionEvent.ACTION_UP, 0, 0));
+    }
+    ShadowLooper.idleMainLooper(400);
+
+    assertThat(doubleTapGestureRecognizer.getTapCount()).isEqualTo(2);
+    assertThat(listener.states.toArray()).isEqualTo(new Integer[]{POSSIBLE});
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void doesNotSupportMultiElementMode() {
+    tapGestureRecognizer.setMultiElementEnabled(true);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void doesNotSupportMomentum() {
+    tapGestureRecognizer.setMomentumEnabled(true);
+  }
+
+  private void tap(GestureRecognizer gestureRecognizer, float x, float y) {
+    gestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_DOWN, x, y));
+    gestureRecognizer.onTouch(element, createMotionEvent(MotionEvent.ACTION_UP, x, y));
+  }
+
+  private MotionEvent createMotionEvent(int action, float x, float y) {
+    return MotionEvent.obtain(eventDownTime, eventTime += 16, action, x, y, 0);
+  }
+}
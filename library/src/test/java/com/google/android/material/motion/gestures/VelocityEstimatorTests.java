@@ -0,0 +1,263 @@
+/*
+ * Copyright 2016-present The Material Motion Authors. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.material.motion.gestures;
+
+import android.app.Activity;
+import android.content.Context;
+import android.view.MotionEvent;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Random;
+
+import static com.google.android.material.motion.gestures.GestureConfiguration.VELOCITY_STRATEGY_IMPULSE;
+import static com.google.android.material.motion.gestures.GestureConfiguration.VELOCITY_STRATEGY_KALMAN;
+import static com.google.android.material.motion.gestures.GestureConfiguration.VELOCITY_STRATEGY_LSQ1;
+import static com.google.android.material.motion.gestures.GestureConfiguration.VELOCITY_STRATEGY_LSQ2;
+import static com.google.android.material.motion.gestures.GestureConfiguration.VELOCITY_STRATEGY_PLATFORM;
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class VelocityEstimatorTests {
+
+  private static final int[] STRATEGIES = {
+    VELOCITY_STRATEGY_PLATFORM,
+    VELOCITY_STRATEGY_LSQ1,
+    VELOCITY_STRATEGY_LSQ2,
+    VELOCITY_STRATEGY_IMPULSE,
+    VELOCITY_STRATEGY_KALMAN,
+  };
+  private static final String[] STRATEGY_NAMES = {"platform", "lsq1", "lsq2", "impulse", "kalman"};
+
+  private static final long FRAME_MILLIS = 8;
+  private static final float MAXIMUM_VELOCITY = 100000f;
+
+  /**
+   * The largest RMS velocity error of each strategy, in px/s, on the linear, accelerating and
+   * oscillating curves with touch noise. The platform estimator is not checked, Robolectric does
+   * not run the platform's implementation.
+   */
+  private static final double[][] MAX_RMS_ERRORS = {
+    null,
+    {170, 1100, 1350},
+    {170, 100, 480},
+    {200, 175, 460},
+    {175, 200, 455},
+  };
+
+  /**
+   * A ground truth curve: its value and velocity at a time in seconds.
+   */
+  private interface Curve {
+
+    double value(double t);
+
+    double velocity(double t);
+  }
+
+  private static final Curve LINEAR = new Curve() {
+    @Override
+    public double value(double t) {
+      return 1000 * t;
+    }
+
+    @Override
+    public double velocity(double t) {
+      return 1000;
+    }
+  };
+
+  private static final Curve ACCELERATING = new Curve() {
+    @Override
+    public double value(double t) {
+      return 500 * t + 10000 * t * t;
+    }
+
+    @Override
+    public double velocity(double t) {
+      return 500 + 20000 * t;
+    }
+  };
+
+  private static final Curve OSCILLATING = new Curve() {
+    @Override
+    public double value(double t) {
+      return 200 * Math.sin(2 * Math.PI * 2 * t);
+    }
+
+    @Override
+    public double velocity(double t) {
+      return 200 * 2 * Math.PI * 2 * Math.cos(2 * Math.PI * 2 * t);
+    }
+  };
+
+  private Context context;
+
+  @Before
+  public void setUp() {
+    context = Robolectric.setupActivity(Activity.class);
+  }
+
+  @Test
+  public void constantVelocityIsTracked() {
+    for (int i = 1; i < STRATEGIES.length; i++) {
+      VelocityEstimator estimator = VelocityEstimator.create(STRATEGIES[i], false);
+      feed(estimator, LINEAR, 25, 0, null);
+
+      assertThat(estimator.computeVelocity(MAXIMUM_VELOCITY)).isWithin(10f).of(1000f);
+    }
+  }
+
+  @Test
+  public void quadraticFitFollowsAcceleration() {
+    VelocityEstimator estimator = VelocityEstimator.create(VELOCITY_STRATEGY_LSQ2, false);
+    int samples = feed(estimator, ACCELERATING, 25, 0, null);
+
+    double t = (samples - 1) * FRAME_MILLIS / 1000.0;
+    assertThat((double) estimator.computeVelocity(MAXIMUM_VELOCITY))
+      .isWithin(1.0).of(ACCELERATING.velocity(t));
+  }
+
+  @Test
+  public void pauseStopsTheValue() {
+    for (int i = 1; i < STRATEGIES.length; i++) {
+      VelocityEstimator estimator = VelocityEstimator.create(STRATEGIES[i], false);
+      int samples = feed(estimator, LINEAR, 25, 0, null);
+      long lastTime = (samples - 1) * FRAME_MILLIS;
+      estimator.addSample(
+        0, lastTime + 50, MotionEvent.ACTION_UP, (float) LINEAR.value(lastTime / 1000.0));
+
+      assertThat(estimator.computeVelocity(MAXIMUM_VELOCITY)).isWithin(0f).of(0f);
+    }
+  }
+
+  @Test
+  public void velocityIsClamped() {
+    for (int i = 1; i < STRATEGIES.length; i++) {
+      VelocityEstimator estimator = VelocityEstimator.create(STRATEGIES[i], false);
+      feed(estimator, LINEAR, 25, 0, null);
+
+      assertThat(estimator.computeVelocity(100f)).isWithin(0f).of(100f);
+    }
+  }
+
+  @Test
+  public void multiplicativeValuesAreEstimatedInLogSpace() {
+    GestureConfiguration configuration = GestureConfiguration.get(context).buildUpon()
+      .setVelocityStrategy(VELOCITY_STRATEGY_LSQ1)
+      .build();
+    ValueVelocityTracker velocityTracker =
+      new ValueVelocityTracker(configuration, ValueVelocityTracker.MULTIPLICATIVE);
+
+    // A span that grows exponentially, as in a steady pinch.
+    float span = 0f;
+    for (int i = 0; i <= 12; i++) {
+      long time = i * FRAME_MILLIS;
+      span = (float) (100 * Math.exp(2 * time / 1000.0));
+      if (i == 0) {
+        velocityTracker.onGestureStart(createMotionEvent(MotionEvent.ACTION_DOWN, time), span);
+      } else if (i < 12) {
+        velocityTracker.onGestureMove(createMotionEvent(MotionEvent.ACTION_MOVE, time), span);
+      } else {
+        velocityTracker.onGestureEnd(createMotionEvent(MotionEvent.ACTION_UP, time), span);
+      }
+    }
+
+    assertThat(velocityTracker.getCurrentVelocity()).isWithin(0.1f).of(2 * span);
+  }
+
+  @Test
+  public void strategiesFollowGroundTruthWithNoise() {
+    Curve[] curves = {LINEAR, ACCELERATING, OSCILLATING};
+    int samples = 60;
+
+    for (int i = 1; i < STRATEGIES.length; i++) {
+      for (int c = 0; c < curves.length; c++) {
+        VelocityEstimator estimator = VelocityEstimator.create(STRATEGIES[i], false);
+        double[] squaredError = new double[1];
+        feed(estimator, curves[c], samples, 0.5, squaredError);
+
+        assertThat(Math.sqrt(squaredError[0] / samples)).isLessThan(MAX_RMS_ERRORS[i][c]);
+      }
+    }
+  }
+
+  /**
+   * Measures the time per sample of each strategy and curve. Only runs with {@code
+   * -Dgestures.benchmark=true}.
+   */
+  @Test
+  public void benchmark() {
+    Assume.assumeTrue(Boolean.getBoolean("gestures.benchmark"));
+    Curve[] curves = {LINEAR, ACCELERATING, OSCILLATING};
+    String[] curveNames = {"linear", "accelerating", "oscillating"};
+    int samples = 60;
+    int repetitions = 200;
+
+    for (int i = 0; i < STRATEGIES.length; i++) {
+      VelocityEstimator estimator = VelocityEstimator.create(STRATEGIES[i], false);
+      for (int c = 0; c < curves.length; c++) {
+        long start = System.nanoTime();
+        for (int r = 0; r < repetitions; r++) {
+          feed(estimator, curves[c], samples, 0.5, null);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        System.out.printf(
+          "Velocity estimation: %-8s %-12s %6.0f ns/sample%n",
+          STRATEGY_NAMES[i], curveNames[c], elapsedNanos / (double) (samples * repetitions));
+      }
+      estimator.clear();
+    }
+  }
+
+  /**
+   * Feeds samples of a curve at a steady frame rate, estimating the velocity after each sample.
+   *
+   * @param noise The standard deviation of gaussian noise added to each value, in pixels.
+   * @param squaredError If not null, accumulates the squared error of each estimate.
+   * @return the number of samples fed.
+   */
+  private static int feed(
+    VelocityEstimator estimator, Curve curve, int samples, double noise, double[] squaredError) {
+    Random random = new Random(42);
+    for (int i = 0; i < samples; i++) {
+      long time = i * FRAME_MILLIS;
+      double t = time / 1000.0;
+      float value = (float) (curve.value(t) + random.nextGaussian() * noise);
+      int action = i == 0 ? MotionEvent.ACTION_DOWN : MotionEvent.ACTION_MOVE;
+      estimator.addSample(0, time, action, value);
+
+      float velocity = estimator.computeVelocity(MAXIMUM_VELOCITY);
+      if (squaredError != null) {
+        double error = velocity - curve.velocity(t);
+        squaredError[0] += error * error;
+      }
+    }
+    return samples;
+  }
+
+  private static MotionEvent createMotionEvent(int action, long eventTime) {
+    return MotionEvent.obtain(0, eventTime, action, 0, 0, 0);
+  }
+}